@@ -0,0 +1,108 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import org.biojava.nbio.alignment.SimpleGapPenalty;
+import org.biojava.nbio.alignment.SmithWaterman;
+import org.biojava.nbio.alignment.StripedSmithWaterman;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the throughput, in cell updates per second, of the score-only {@link StripedSmithWaterman} and of the full
+ * {@link SmithWaterman} alignment when screening one query against a database of random protein sequences.
+ * <p>
+ * Usage: DemoStripedSmithWaterman [queryLength] [numberOfTargets] [targetLength]
+ */
+public class DemoStripedSmithWaterman {
+
+	private static final String AMINO_ACIDS = "ACDEFGHIKLMNPQRSTVWY";
+
+	public static void main(String[] args) throws Exception {
+
+		int queryLength = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+		int targets = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+		int targetLength = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+
+		Random random = new Random(1);
+		ProteinSequence query = getRandomSequence(random, queryLength);
+		List<ProteinSequence> database = new ArrayList<ProteinSequence>();
+		for (int i = 0; i < targets; i++) {
+			database.add(getRandomSequence(random, targetLength));
+		}
+
+		SubstitutionMatrix<AminoAcidCompound> matrix = SubstitutionMatrixHelper.getBlosum62();
+		GapPenalty penalty = new SimpleGapPenalty(10, 1);
+
+		// warm up the JIT compiler before measuring
+		for (int round = 0; round < 2; round++) {
+			boolean warmUp = (round == 0);
+
+			long start = System.nanoTime(), cells = 0;
+			StripedSmithWaterman<ProteinSequence, AminoAcidCompound> striped =
+					new StripedSmithWaterman<ProteinSequence, AminoAcidCompound>();
+			striped.setQuery(query);
+			striped.setGapPenalty(penalty);
+			striped.setSubstitutionMatrix(matrix);
+			double sum = 0;
+			for (ProteinSequence target : database) {
+				striped.setTarget(target);
+				sum += striped.getScore();
+				cells += (long) query.getLength() * target.getLength();
+			}
+			report("StripedSmithWaterman", warmUp, cells, System.nanoTime() - start, sum);
+
+			start = System.nanoTime();
+			cells = 0;
+			sum = 0;
+			for (ProteinSequence target : database) {
+				SmithWaterman<ProteinSequence, AminoAcidCompound> aligner =
+						new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, penalty, matrix);
+				sum += aligner.getScore();
+				cells += (long) query.getLength() * target.getLength();
+			}
+			report("SmithWaterman", warmUp, cells, System.nanoTime() - start, sum);
+		}
+	}
+
+	private static void report(String name, boolean warmUp, long cells, long nanos, double scores) {
+		if (!warmUp) {
+			System.out.printf("%-22s %8.1f ms %8.3f GCUPS (sum of scores %.0f)%n", name, nanos / 1e6,
+					cells / (double) nanos, scores);
+		}
+	}
+
+	private static ProteinSequence getRandomSequence(Random random, int length) throws CompoundNotFoundException {
+		StringBuilder sequence = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sequence.append(AMINO_ACIDS.charAt(random.nextInt(AMINO_ACIDS.length())));
+		}
+		return new ProteinSequence(sequence.toString());
+	}
+}
@@ -28,6 +28,10 @@ import org.biojava.nbio.core.alignment.template.SequencePair;
 import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
 import org.biojava.nbio.core.alignment.template.Profile;
 import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.alignment.routines.BandedNeedlemanWunsch;
+import org.biojava.nbio.alignment.routines.GuanUberbacher;
+import org.biojava.nbio.alignment.routines.LinearSpaceSmithWaterman;
+import org.biojava.nbio.alignment.routines.XDropAligner;
 import org.biojava.nbio.alignment.template.*;
 import org.biojava.nbio.core.sequence.compound.AmbiguityDNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
@@ -70,7 +74,10 @@ public class Alignments {
 		GLOBAL,              // Needleman-Wunsch/Gotoh
 		GLOBAL_LINEAR_SPACE, // Guan-Uberbacher
 		LOCAL,               // Smith-Waterman/Gotoh
-		LOCAL_LINEAR_SPACE   // Smith-Waterman/Gotoh with smart traceback at each maximum
+		LOCAL_LINEAR_SPACE,  // Smith-Waterman/Gotoh with Guan-Uberbacher traceback
+		GLOBAL_BANDED,       // Needleman-Wunsch/Gotoh within a fixed band around the diagonal
+		GLOBAL_BANDED_ADAPTIVE, // heuristic: as GLOBAL_BANDED, widened while the alignment touches the band edges
+		EXTENSION_XDROP      // gapped X-drop extension from the start of both sequences
 	}
 
 	/**
@@ -84,7 +91,8 @@ public class Alignments {
 		LOCAL_IDENTITIES,
 		LOCAL_SIMILARITIES,
 		KMERS,               // similar to CLUSTAL and MUSCLE
-		WU_MANBER            // similar to KALIGN
+		WU_MANBER,           // similar to KALIGN
+		LOCAL_STRIPED        // score-only Smith-Waterman/Gotoh in striped query order (Farrar)
 	}
 
 	/**
@@ -111,9 +119,39 @@ public class Alignments {
 		RESCORE_SIMILARITIES
 	}
 
+	// the largest score matrix aligned with a full traceback by getPairwiseAligner, about 256 MB of pointers
+	private static long maxTracebackSize = 1L << 26;
+
 	// prevents instantiation
 	private Alignments() { }
 
+	/**
+	 * Returns the largest number of score matrix positions, (query length + 1) * (target length + 1), for which
+	 * {@link #getPairwiseAligner(Sequence, Sequence, PairwiseSequenceAlignerType, GapPenalty, SubstitutionMatrix)}
+	 * returns the {@link PairwiseSequenceAlignerType#GLOBAL} and {@link PairwiseSequenceAlignerType#LOCAL} aligners.
+	 *
+	 * @return the largest number of positions aligned with a full traceback
+	 * @since 6.0.4
+	 */
+	public static long getMaxTracebackSize() {
+		return maxTracebackSize;
+	}
+
+	/**
+	 * Sets the largest number of score matrix positions, (query length + 1) * (target length + 1), for which
+	 * {@link #getPairwiseAligner(Sequence, Sequence, PairwiseSequenceAlignerType, GapPenalty, SubstitutionMatrix)}
+	 * returns the {@link PairwiseSequenceAlignerType#GLOBAL} and {@link PairwiseSequenceAlignerType#LOCAL} aligners,
+	 * which keep a traceback pointer for each position.  Larger pairs get the
+	 * {@link PairwiseSequenceAlignerType#GLOBAL_LINEAR_SPACE} and {@link PairwiseSequenceAlignerType#LOCAL_LINEAR_SPACE}
+	 * aligners instead, which return the same alignments in linear space.
+	 *
+	 * @param maxTracebackSize the largest number of positions aligned with a full traceback
+	 * @since 6.0.4
+	 */
+	public static void setMaxTracebackSize(long maxTracebackSize) {
+		Alignments.maxTracebackSize = maxTracebackSize;
+	}
+
 	// public factory methods
 
 	/**
@@ -185,12 +223,10 @@ public class Alignments {
 		}
 
 		// stage 1: pairwise similarity calculation
-		List<PairwiseSequenceScorer<S, C>> scorers = getAllPairsScorers(sequences, ps, gapPenalty, subMatrix);
-		runPairwiseScorers(scorers);
+		AllPairsScorer<S, C> scorer = new AllPairsScorer<S, C>(sequences, ps, gapPenalty, subMatrix);
 
 		// stage 2: hierarchical clustering into a guide tree
-		GuideTree<S, C> tree = new GuideTree<S, C>(sequences, scorers);
-		scorers = null;
+		GuideTree<S, C> tree = new GuideTree<S, C>(scorer);
 
 		// stage 3: progressive alignment
 		Profile<S, C> msa = getProgressiveAlignment(tree, pa, gapPenalty, subMatrix);
@@ -267,8 +303,8 @@ public class Alignments {
 
 	/**
 	 * Factory method which computes a sequence pair score for all {@link Sequence} pairs in the given {@link List}.
-	 * This method runs the scorings in parallel by submitting all of the scorings to the shared thread pool of the
-	 * {@link ConcurrencyTools} utility.
+	 * This method runs the scorings in parallel by submitting tiles of pairs to the shared thread pool of the
+	 * {@link ConcurrencyTools} utility, as done by {@link AllPairsScorer}.
 	 *
 	 * @param <S> each {@link Sequence} of a pair is of type S
 	 * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
@@ -280,7 +316,7 @@ public class Alignments {
 	 */
 	public static <S extends Sequence<C>, C extends Compound> double[] getAllPairsScores( List<S> sequences,
 			PairwiseSequenceScorerType type, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
-		return runPairwiseScorers(getAllPairsScorers(sequences, type, gapPenalty, subMatrix));
+		return new AllPairsScorer<S, C>(sequences, type, gapPenalty, subMatrix).getScores();
 	}
 
 	/**
@@ -306,7 +342,9 @@ public class Alignments {
 	}
 
 	/**
-	 * Factory method which constructs a pairwise sequence aligner.
+	 * Factory method which constructs a pairwise sequence aligner.  The {@link PairwiseSequenceAlignerType#GLOBAL} and
+	 * {@link PairwiseSequenceAlignerType#LOCAL} types switch to their linear space aligner when the score matrix is
+	 * larger than {@link #getMaxTracebackSize()}.
 	 *
 	 * @param <S> each {@link Sequence} of an alignment pair is of type S
 	 * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
@@ -323,17 +361,28 @@ public class Alignments {
 		if (!query.getCompoundSet().equals(target.getCompoundSet())) {
 			throw new IllegalArgumentException("Sequence compound sets must be the same");
 		}
+		boolean linearSpace = (query.getLength() + 1L) * (target.getLength() + 1L) > maxTracebackSize;
 		switch (type) {
 		default:
 		case GLOBAL:
-			return new NeedlemanWunsch<S, C>(query, target, gapPenalty, subMatrix);
-		case LOCAL:
-			return new SmithWaterman<S, C>(query, target, gapPenalty, subMatrix);
+			return linearSpace ? new GuanUberbacher<S, C>(query, target, gapPenalty, subMatrix) :
+					new NeedlemanWunsch<S, C>(query, target, gapPenalty, subMatrix);
 		case GLOBAL_LINEAR_SPACE:
+			return new GuanUberbacher<S, C>(query, target, gapPenalty, subMatrix);
+		case LOCAL:
+			return linearSpace ? new LinearSpaceSmithWaterman<S, C>(query, target, gapPenalty, subMatrix) :
+					new SmithWaterman<S, C>(query, target, gapPenalty, subMatrix);
 		case LOCAL_LINEAR_SPACE:
-			// TODO other alignment options (Myers-Miller, Thompson)
-			throw new UnsupportedOperationException(Alignments.class.getSimpleName() + " does not yet support " +
-					type + " alignment");
+			return new LinearSpaceSmithWaterman<S, C>(query, target, gapPenalty, subMatrix);
+		case GLOBAL_BANDED:
+			return new BandedNeedlemanWunsch<S, C>(query, target, gapPenalty, subMatrix);
+		case GLOBAL_BANDED_ADAPTIVE:
+			BandedNeedlemanWunsch<S, C> banded = new BandedNeedlemanWunsch<S, C>(query, target, gapPenalty,
+					subMatrix);
+			banded.setAdaptive(true);
+			return banded;
+		case EXTENSION_XDROP:
+			return new XDropAligner<S, C>(query, target, gapPenalty, subMatrix);
 		}
 	}
 
@@ -387,6 +436,8 @@ public class Alignments {
 		case LOCAL_SIMILARITIES:
 			return new FractionalSimilarityScorer<S, C>(getPairwiseAligner(query, target,
 					PairwiseSequenceAlignerType.LOCAL, gapPenalty, subMatrix));
+		case LOCAL_STRIPED:
+			return new StripedSmithWaterman<S, C>(query, target, gapPenalty, subMatrix);
 		case KMERS:
 		case WU_MANBER:
 			// TODO other scoring options
@@ -0,0 +1,613 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment;
+
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceScorerType;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.biojava.nbio.core.util.ConcurrencyTools;
+import org.forester.evoinference.matrix.distance.BasicSymmetricalDistanceMatrix;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+
+/**
+ * Scores all pairs of a {@link List} of {@link Sequence}s, as {@link Alignments#getAllPairsScorers} followed by
+ * {@link Alignments#runPairwiseScorers} would, without building an aligner, a traceback or an alignment for each pair.
+ * Each {@link Sequence} is encoded once as indices into shared tables of substitution scores and matching compounds.
+ * The upper triangle of pairs is split into square tiles, each scored by a task submitted to the shared thread pool of
+ * the {@link ConcurrencyTools} utility, and the tasks reuse the score rows of one another once done, so that each
+ * thread works on the same few buffers.  The distances are written into the {@link BasicSymmetricalDistanceMatrix}
+ * from which a {@link GuideTree} is built.
+ * <p>
+ * The scores follow the recurrences and the traceback choices of {@link NeedlemanWunsch} and {@link SmithWaterman}.
+ * For the identity and similarity scores, the number of matching compounds and the length of the alignment are
+ * carried along with the score of each position, so they equal those of the alignment pair built by the aligner.
+ *
+ * @param <S> each {@link Sequence} of a pair is of type S
+ * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
+ * @since 6.0.4
+ */
+public class AllPairsScorer<S extends Sequence<C>, C extends Compound> {
+
+	private static int defaultTileSize = 16;
+
+	/**
+	 * Sets the default tile size, the number of sequences along each side of a square of pairs scored by one task.
+	 *
+	 * @param defaultTileSize the default tile size
+	 */
+	public static void setDefaultTileSize(int defaultTileSize) {
+		AllPairsScorer.defaultTileSize = Math.max(1, defaultTileSize);
+	}
+
+	// score of the unreachable states, low enough to stay below any alignment without overflowing
+	private static final int MIN = Integer.MIN_VALUE / 2;
+
+	// one more column of the alignment, added to the carried tallies which hold the length in their upper half
+	private static final long STEP = 1L << 32;
+
+	// similarities of amino acids, as counted by SimpleSequencePair
+	private static final SubstitutionMatrix<AminoAcidCompound> SIMILARITIES = SubstitutionMatrixHelper.getBlosum65();
+
+	// input fields
+	private final List<S> sequences;
+	private final PairwiseSequenceScorerType type;
+	private final GapPenalty gapPenalty;
+	private final SubstitutionMatrix<C> subMatrix;
+	private final boolean local, counting;
+	private int tileSize = defaultTileSize;
+
+	// sequences encoded as indices into the tables of substitution scores and matches, both indexed by code pairs
+	private int[][] encoded;
+	private int compounds, longest;
+	private int[] substitutions, matches, selfScores;
+
+	// output fields, one for each pair in the order of Alignments.getAllPairsScorers
+	private int[] scores, maxScores, minScores;
+	private BasicSymmetricalDistanceMatrix distances;
+	private long time = -1;
+
+	// score rows of the finished tasks, taken up by the next ones
+	private final Queue<Rows> idle = new ConcurrentLinkedQueue<Rows>();
+
+	/**
+	 * Prepares the scoring of all pairs of the given {@link Sequence}s.
+	 *
+	 * @param sequences the {@link List} of {@link Sequence}s to score
+	 * @param type chosen type from list of pairwise sequence scoring routines
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 * @throws UnsupportedOperationException if the scoring type is not yet supported
+	 * @throws IllegalArgumentException if the compound sets of the sequences differ
+	 */
+	public AllPairsScorer(List<S> sequences, PairwiseSequenceScorerType type, GapPenalty gapPenalty,
+			SubstitutionMatrix<C> subMatrix) {
+		switch (type) {
+		case KMERS:
+		case WU_MANBER:
+			throw new UnsupportedOperationException(getClass().getSimpleName() + " does not yet support " + type +
+					" scoring");
+		default:
+		}
+		for (S s : sequences) {
+			if (!s.getCompoundSet().equals(sequences.get(0).getCompoundSet())) {
+				throw new IllegalArgumentException("Compound sets of the sequences must match.");
+			}
+		}
+		this.sequences = Collections.unmodifiableList(sequences);
+		this.type = type;
+		this.gapPenalty = gapPenalty;
+		this.subMatrix = subMatrix;
+		local = (type == PairwiseSequenceScorerType.LOCAL || type == PairwiseSequenceScorerType.LOCAL_IDENTITIES ||
+				type == PairwiseSequenceScorerType.LOCAL_SIMILARITIES ||
+				type == PairwiseSequenceScorerType.LOCAL_STRIPED);
+		counting = (type == PairwiseSequenceScorerType.GLOBAL_IDENTITIES ||
+				type == PairwiseSequenceScorerType.GLOBAL_SIMILARITIES ||
+				type == PairwiseSequenceScorerType.LOCAL_IDENTITIES ||
+				type == PairwiseSequenceScorerType.LOCAL_SIMILARITIES);
+	}
+
+	/**
+	 * Returns the {@link Sequence}s scored.
+	 *
+	 * @return the sequences scored
+	 */
+	public List<S> getSequences() {
+		return sequences;
+	}
+
+	/**
+	 * Returns the scoring type.
+	 *
+	 * @return chosen type from list of pairwise sequence scoring routines
+	 */
+	public PairwiseSequenceScorerType getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the tile size, the number of sequences along each side of a square of pairs scored by one task.
+	 *
+	 * @return the tile size
+	 */
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * Sets the tile size, the number of sequences along each side of a square of pairs scored by one task.  Larger
+	 * tiles submit fewer tasks; smaller tiles balance the load better between the threads.
+	 *
+	 * @param tileSize the tile size
+	 */
+	public void setTileSize(int tileSize) {
+		this.tileSize = Math.max(1, tileSize);
+	}
+
+	/**
+	 * Returns the computation time of the scoring in nanoseconds, including the encoding of the sequences.
+	 *
+	 * @return the computation time
+	 */
+	public long getComputationTime() {
+		score();
+		return time;
+	}
+
+	/**
+	 * Returns the score of each pair of sequences, in the order of {@link Alignments#getAllPairsScorers}.
+	 *
+	 * @return list of sequence pair scores
+	 */
+	public double[] getScores() {
+		score();
+		return toDoubles(scores);
+	}
+
+	/**
+	 * Returns the maximum score of each pair of sequences, in the order of {@link Alignments#getAllPairsScorers}.
+	 *
+	 * @return list of sequence pair maximum scores
+	 */
+	public double[] getMaxScores() {
+		score();
+		return toDoubles(maxScores);
+	}
+
+	/**
+	 * Returns the minimum score of each pair of sequences, in the order of {@link Alignments#getAllPairsScorers}.
+	 *
+	 * @return list of sequence pair minimum scores
+	 */
+	public double[] getMinScores() {
+		score();
+		return toDoubles(minScores);
+	}
+
+	/**
+	 * Returns the distance matrix, holding the normalized distance of each pair of sequences.  The identifier of each
+	 * sequence is its accession ID or, without one, its position in the list counted from 1.  The matrix is shared, not
+	 * copied.
+	 *
+	 * @return the distance matrix
+	 */
+	public BasicSymmetricalDistanceMatrix getDistanceMatrix() {
+		score();
+		return distances;
+	}
+
+	// helper methods
+
+	private static double[] toDoubles(int[] values) {
+		double[] doubles = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			doubles[i] = values[i];
+		}
+		return doubles;
+	}
+
+	/**
+	 * Scores all pairs, unless done before.
+	 */
+	private synchronized void score() {
+		if (scores != null) {
+			return;
+		}
+
+		long timeStart = System.nanoTime();
+
+		encode();
+		int size = sequences.size(), pairs = size * (size - 1) / 2;
+		scores = new int[pairs];
+		maxScores = new int[pairs];
+		minScores = new int[pairs];
+		distances = new BasicSymmetricalDistanceMatrix(size);
+		for (int i = 0; i < size; i++) {
+			AccessionID id = sequences.get(i).getAccession();
+			distances.setIdentifier(i, (id == null) ? Integer.toString(i + 1) : id.getID());
+		}
+
+		int tiles = (size + tileSize - 1) / tileSize, n = 1, all = tiles * (tiles + 1) / 2;
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int first = 0; first < size; first += tileSize) {
+			for (int second = first; second < size; second += tileSize) {
+				futures.add(ConcurrencyTools.submit(new Tile(first, second),
+						String.format("Scoring tile %d of %d", n++, all)));
+			}
+		}
+		Alignments.getListFromFutures(futures);
+		idle.clear();
+
+		time = System.nanoTime() - timeStart;
+	}
+
+	/**
+	 * Encodes each sequence once, and builds the tables of substitution scores and matches of all compounds found.
+	 */
+	private void encode() {
+		Map<C, Integer> codes = new HashMap<C, Integer>();
+		List<C> found = new ArrayList<C>();
+		encoded = new int[sequences.size()][];
+		longest = 0;
+		for (int i = 0; i < encoded.length; i++) {
+			S sequence = sequences.get(i);
+			encoded[i] = new int[sequence.getLength()];
+			int x = 0;
+			for (C c : sequence) {
+				Integer code = codes.get(c);
+				if (code == null) {
+					code = found.size();
+					codes.put(c, code);
+					found.add(c);
+				}
+				encoded[i][x++] = code;
+			}
+			longest = Math.max(longest, x);
+		}
+
+		compounds = found.size();
+		substitutions = new int[compounds * compounds];
+		matches = new int[compounds * compounds];
+		CompoundSet<C> compoundSet = sequences.isEmpty() ? null : sequences.get(0).getCompoundSet();
+		boolean similarities = (type == PairwiseSequenceScorerType.GLOBAL_SIMILARITIES ||
+				type == PairwiseSequenceScorerType.LOCAL_SIMILARITIES);
+		for (int a = 0, code = 0; a < compounds; a++) {
+			C ca = found.get(a);
+			for (int b = 0; b < compounds; b++, code++) {
+				C cb = found.get(b);
+				substitutions[code] = subMatrix.getValue(ca, cb);
+				if (!similarities) {
+					matches[code] = ca.equalsIgnoreCase(cb) ? 1 : 0;
+				} else if (ca instanceof AminoAcidCompound && cb instanceof AminoAcidCompound) {
+					matches[code] = (SIMILARITIES.getValue((AminoAcidCompound) ca, (AminoAcidCompound) cb) > 0) ? 1 : 0;
+				} else {
+					matches[code] = compoundSet.compoundsEquivalent(ca, cb) ? 1 : 0;
+				}
+			}
+		}
+
+		selfScores = new int[encoded.length];
+		for (int i = 0; i < encoded.length; i++) {
+			for (int code : encoded[i]) {
+				selfScores[i] += substitutions[code * compounds + code];
+			}
+		}
+	}
+
+	/**
+	 * Scores the pairs of the first sequences of two tiles, with the first sequence before the second one.
+	 */
+	private class Tile implements Callable<Integer> {
+
+		private final int first, second;
+
+		private Tile(int first, int second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		public Integer call() {
+			Rows rows = idle.poll();
+			if (rows == null) {
+				rows = new Rows(longest + 1);
+			}
+			int size = sequences.size(), n = 0;
+			try {
+				for (int i = first; i < Math.min(first + tileSize, size); i++) {
+					for (int j = Math.max(i + 1, second); j < Math.min(second + tileSize, size); j++, n++) {
+						score(i, j, rows);
+					}
+				}
+			} finally {
+				idle.add(rows);
+			}
+			return n;
+		}
+
+		// scores one pair and stores the result at its index in the order of Alignments.getAllPairsScorers
+		private void score(int i, int j, Rows rows) {
+			int[] query = encoded[i], target = encoded[j];
+			int score = (gapPenalty.getType() == GapPenalty.Type.LINEAR) ? rows.alignLinear(query, target) :
+					rows.alignAffine(query, target);
+			int max, min;
+			if (counting) {
+				score = (int) rows.tally;
+				max = (int) (rows.tally >>> 32);
+				min = 0;
+			} else {
+				max = Math.max(selfScores[i], selfScores[j]);
+				min = local ? 0 : 2 * gapPenalty.getOpenPenalty() + (query.length + target.length) *
+						gapPenalty.getExtensionPenalty();
+			}
+			int index = i * sequences.size() - i * (i + 1) / 2 + j - i - 1;
+			scores[index] = score;
+			maxScores[index] = max;
+			minScores[index] = min;
+			distances.setValue(i, j, ((double) max - score) / ((double) max - min));
+		}
+
+	}
+
+	/**
+	 * Holds the previous and current rows of the score matrix for each state, with the tally of matches and length of
+	 * the alignment ending at each position.
+	 */
+	private class Rows {
+
+		private int[] s0, s1, d0, d1, i0, i1;
+		private long[] ts0, ts1, td0, td1, ti0, ti1;
+
+		// tally of the best alignment found last: the length in the upper half, the matches in the lower half
+		private long tally;
+
+		private Rows(int length) {
+			s0 = new int[length];
+			s1 = new int[length];
+			d0 = new int[length];
+			d1 = new int[length];
+			i0 = new int[length];
+			i1 = new int[length];
+			ts0 = new long[length];
+			ts1 = new long[length];
+			td0 = new long[length];
+			td1 = new long[length];
+			ti0 = new long[length];
+			ti1 = new long[length];
+		}
+
+		/**
+		 * Fills the score matrix for a linear gap penalty, breaking ties as
+		 * {@link org.biojava.nbio.alignment.routines.AlignerHelper} does.
+		 *
+		 * @return the score of the alignment
+		 */
+		private int alignLinear(int[] query, int[] target) {
+			int n = query.length, m = target.length, gep = gapPenalty.getExtensionPenalty(), best = 0;
+			int[] previous = s0, current = s1;
+			long[] tPrevious = ts0, tCurrent = ts1;
+			long bestTally = 0;
+
+			current[0] = 0;
+			tCurrent[0] = 0;
+			for (int y = 1; y <= m; y++) {
+				current[y] = local ? 0 : current[y - 1] + gep;
+				tCurrent[y] = local ? 0 : tCurrent[y - 1] + STEP;
+			}
+
+			for (int x = 1; x <= n; x++) {
+				int[] swap = previous;
+				previous = current;
+				current = swap;
+				long[] tSwap = tPrevious;
+				tPrevious = tCurrent;
+				tCurrent = tSwap;
+
+				current[0] = local ? 0 : previous[0] + gep;
+				tCurrent[0] = local ? 0 : tPrevious[0] + STEP;
+				int row = query[x - 1] * compounds;
+				for (int y = 1; y <= m; y++) {
+					int code = row + target[y - 1];
+					int d = previous[y] + gep, i = current[y - 1] + gep, s = previous[y - 1] + substitutions[code];
+					int score;
+					long t;
+					if (d >= s && d >= i) {
+						score = d;
+						t = tPrevious[y] + STEP;
+					} else if (s >= i) {
+						score = s;
+						t = tPrevious[y - 1] + STEP + matches[code];
+					} else {
+						score = i;
+						t = tCurrent[y - 1] + STEP;
+					}
+					if (local) {
+						if (score <= 0) {
+							score = 0;
+							t = 0;
+						} else if (score > best) {
+							best = score;
+							bestTally = t;
+						}
+					}
+					current[y] = score;
+					tCurrent[y] = t;
+				}
+			}
+
+			if (!local) {
+				best = current[m];
+				bestTally = tCurrent[m];
+			}
+			tally = bestTally;
+			return best;
+		}
+
+		/**
+		 * Fills the score matrix for an affine or constant gap penalty, breaking ties as
+		 * {@link org.biojava.nbio.alignment.routines.AlignerHelper} does.
+		 *
+		 * @return the score of the alignment
+		 */
+		private int alignAffine(int[] query, int[] target) {
+			int n = query.length, m = target.length, best = 0;
+			int gop = gapPenalty.getOpenPenalty(), gep = gapPenalty.getExtensionPenalty();
+			int[] sPrevious = s0, sCurrent = s1, dPrevious = d0, dCurrent = d1, iPrevious = i0, iCurrent = i1;
+			long[] tsPrevious = ts0, tsCurrent = ts1, tdPrevious = td0, tdCurrent = td1, tiPrevious = ti0,
+					tiCurrent = ti1;
+			long bestTally = 0;
+
+			sCurrent[0] = 0;
+			dCurrent[0] = iCurrent[0] = local ? 0 : gop;
+			tsCurrent[0] = tdCurrent[0] = tiCurrent[0] = 0;
+			for (int y = 1; y <= m; y++) {
+				sCurrent[y] = dCurrent[y] = local ? 0 : MIN;
+				iCurrent[y] = local ? 0 : iCurrent[y - 1] + gep;
+				tsCurrent[y] = tdCurrent[y] = 0;
+				tiCurrent[y] = local ? 0 : tiCurrent[y - 1] + STEP;
+			}
+
+			for (int x = 1; x <= n; x++) {
+				int[] swap = sPrevious;
+				sPrevious = sCurrent;
+				sCurrent = swap;
+				swap = dPrevious;
+				dPrevious = dCurrent;
+				dCurrent = swap;
+				swap = iPrevious;
+				iPrevious = iCurrent;
+				iCurrent = swap;
+				long[] tSwap = tsPrevious;
+				tsPrevious = tsCurrent;
+				tsCurrent = tSwap;
+				tSwap = tdPrevious;
+				tdPrevious = tdCurrent;
+				tdCurrent = tSwap;
+				tSwap = tiPrevious;
+				tiPrevious = tiCurrent;
+				tiCurrent = tSwap;
+
+				sCurrent[0] = iCurrent[0] = local ? 0 : MIN;
+				dCurrent[0] = local ? 0 : dPrevious[0] + gep;
+				tsCurrent[0] = tiCurrent[0] = 0;
+				tdCurrent[0] = local ? 0 : tdPrevious[0] + STEP;
+				int row = query[x - 1] * compounds;
+
+				// the diagonal and left positions are carried over from the previous column
+				int sDiagonal = sPrevious[0], dDiagonal = dPrevious[0], iDiagonal = iPrevious[0];
+				int sLeft = sCurrent[0], iLeft = iCurrent[0];
+				long tsDiagonal = tsPrevious[0], tdDiagonal = tdPrevious[0], tiDiagonal = tiPrevious[0];
+				long tsLeft = tsCurrent[0], tiLeft = tiCurrent[0];
+				for (int y = 1; y <= m; y++) {
+					int code = row + target[y - 1];
+					int sAbove = sPrevious[y], dAbove = dPrevious[y], s, d, i;
+					long tsAbove = tsPrevious[y], tdAbove = tdPrevious[y], ts, td, ti;
+
+					// substitution
+					if (dDiagonal >= sDiagonal && dDiagonal >= iDiagonal) {
+						s = dDiagonal;
+						ts = tdDiagonal;
+					} else if (sDiagonal >= iDiagonal) {
+						s = sDiagonal;
+						ts = tsDiagonal;
+					} else {
+						s = iDiagonal;
+						ts = tiDiagonal;
+					}
+					s += substitutions[code];
+					ts += STEP + matches[code];
+
+					// deletion
+					if (dAbove >= sAbove + gop) {
+						d = dAbove + gep;
+						td = tdAbove + STEP;
+					} else {
+						d = sAbove + gop + gep;
+						td = tsAbove + STEP;
+					}
+
+					// insertion
+					if (sLeft + gop >= iLeft) {
+						i = sLeft + gop + gep;
+						ti = tsLeft + STEP;
+					} else {
+						i = iLeft + gep;
+						ti = tiLeft + STEP;
+					}
+
+					if (local) {
+						if (s <= 0) {
+							s = 0;
+							ts = 0;
+						} else if (s > best) {
+							best = s;
+							bestTally = ts;
+						}
+						if (d <= 0) {
+							d = 0;
+							td = 0;
+						}
+						if (i <= 0) {
+							i = 0;
+							ti = 0;
+						}
+					}
+					sDiagonal = sAbove;
+					dDiagonal = dAbove;
+					iDiagonal = iPrevious[y];
+					tsDiagonal = tsAbove;
+					tdDiagonal = tdAbove;
+					tiDiagonal = tiPrevious[y];
+					sCurrent[y] = sLeft = s;
+					dCurrent[y] = d;
+					iCurrent[y] = iLeft = i;
+					tsCurrent[y] = tsLeft = ts;
+					tdCurrent[y] = td;
+					tiCurrent[y] = tiLeft = ti;
+				}
+			}
+
+			if (!local) {
+				int s = sCurrent[m], d = dCurrent[m], i = iCurrent[m];
+				best = Math.max(s, Math.max(d, i));
+				bestTally = (d > s && d > i) ? tdCurrent[m] : (s > i) ? tsCurrent[m] : tiCurrent[m];
+			}
+			tally = bestTally;
+			return best;
+		}
+
+	}
+
+}
@@ -56,6 +56,7 @@ public class GuideTree<S extends Sequence<C>, C extends Compound> implements Ite
 
 	private List<S> sequences;
 	private List<PairwiseSequenceScorer<S, C>> scorers;
+	private AllPairsScorer<S, C> allPairsScorer;
 	private BasicSymmetricalDistanceMatrix distances;
 	private String newick;
 	private Node root;
@@ -79,6 +80,25 @@ public class GuideTree<S extends Sequence<C>, C extends Compound> implements Ite
 				distances.setValue(i, j, dist);
 			}
 		}
+		setRoot();
+	}
+
+	/**
+	 * Creates a guide tree for use during progressive multiple sequence alignment from the distance matrix filled by
+	 * an {@link AllPairsScorer}, which keeps no scorer for each pair of sequences.
+	 *
+	 * @param scorer the scorer of all pairs of the {@link Sequence}s to align
+	 * @since 6.0.4
+	 */
+	public GuideTree(AllPairsScorer<S, C> scorer) {
+		sequences = scorer.getSequences();
+		allPairsScorer = scorer;
+		distances = scorer.getDistanceMatrix();
+		setRoot();
+	}
+
+	// builds the tree from the distance matrix, which is left unchanged
+	private void setRoot() {
 		BasicSymmetricalDistanceMatrix distclone = ForesterWrapper.cloneDM(distances);
 		Phylogeny phylogeny = TreeConstructor.distanceTree(distclone, TreeConstructorType.NJ);
 		newick = phylogeny.toString();
@@ -91,6 +111,9 @@ public class GuideTree<S extends Sequence<C>, C extends Compound> implements Ite
 	 * @return list of sequence pair scores
 	 */
 	public double[] getAllPairsScores() {
+		if (allPairsScorer != null) {
+			return allPairsScorer.getScores();
+		}
 		double[] scores = new double[scorers.size()];
 		int n = 0;
 		for (PairwiseSequenceScorer<S, C> scorer : scorers) {
@@ -130,10 +153,12 @@ public class GuideTree<S extends Sequence<C>, C extends Compound> implements Ite
 	 */
 	public double[][] getScoreMatrix() {
 		double[][] matrix = new double[sequences.size()][sequences.size()];
+		double[] scores = getAllPairsScores(), maxScores = (allPairsScorer == null) ? null :
+				allPairsScorer.getMaxScores();
 		for (int i = 0, n = 0; i < matrix.length; i++) {
-			matrix[i][i] = scorers.get(i).getMaxScore();
+			matrix[i][i] = (maxScores == null) ? scorers.get(i).getMaxScore() : maxScores[i];
 			for (int j = i+1; j < matrix.length; j++) {
-				matrix[i][j] = matrix[j][i] = scorers.get(n++).getScore();
+				matrix[i][j] = matrix[j][i] = scores[n++];
 			}
 		}
 		return matrix;
@@ -0,0 +1,376 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment;
+
+import org.biojava.nbio.alignment.template.AbstractScorer;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.alignment.template.PairwiseSequenceScorer;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the score of the {@link SmithWaterman} local alignment of two {@link Sequence}s without building a score
+ * matrix or a traceback.  The query is laid out in the striped order of Farrar (Bioinformatics 23, 2007): the query
+ * positions are split into {@link #LANES} lanes of consecutive segments, so that the positions updated together are
+ * independent of each other and only the gaps along the query need a (rarely repeated) correction pass.  The lanes are
+ * plain primitive loops which the JIT compiler can vectorize.
+ * <p>
+ * The scores equal the {@link SmithWaterman#getScore() scores} of the full alignment with the same gap penalty and
+ * substitution matrix.  The query profile is kept when only the target changes, so one instance can screen many
+ * targets against the same query with {@link #setTarget(Sequence)}.  Instances are not thread-safe.
+ *
+ * @param <S> each {@link Sequence} of the pair is of type S
+ * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
+ * @since 6.0.4
+ */
+public class StripedSmithWaterman<S extends Sequence<C>, C extends Compound> extends AbstractScorer
+		implements PairwiseSequenceScorer<S, C> {
+
+	/**
+	 * The number of query positions updated together
+	 */
+	public static final int LANES = 8;
+
+	// profile score of the padding positions after the end of the query, low enough to never start an alignment
+	private static final int PADDING = Integer.MIN_VALUE / 4;
+
+	// input fields
+	private S query, target;
+	private GapPenalty gapPenalty;
+	private SubstitutionMatrix<C> subMatrix;
+
+	// striped query profile, one row for each compound seen in the query or the targets
+	private int segments;
+	private List<C> queryCompounds;
+	private Map<C, Integer> codes;
+	private List<int[]> profile;
+	private List<Integer> selfScores;
+	private int querySelfScore;
+
+	// output fields
+	private boolean scored;
+	private int score, max;
+	private long time = -1;
+
+	/**
+	 * Before scoring, data must be sent in via calls to {@link #setQuery(Sequence)}, {@link #setTarget(Sequence)},
+	 * {@link #setGapPenalty(GapPenalty)}, and {@link #setSubstitutionMatrix(SubstitutionMatrix)}.
+	 */
+	public StripedSmithWaterman() {
+	}
+
+	/**
+	 * Prepares for a pairwise local sequence scoring.
+	 *
+	 * @param query the first {@link Sequence} of the pair to score
+	 * @param target the second {@link Sequence} of the pair to score
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 */
+	public StripedSmithWaterman(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+		this.query = query;
+		this.target = target;
+		this.gapPenalty = gapPenalty;
+		this.subMatrix = subMatrix;
+	}
+
+	/**
+	 * Sets the query {@link Sequence}, which discards the query profile.
+	 *
+	 * @param query the first {@link Sequence} of the pair to score
+	 */
+	public void setQuery(S query) {
+		this.query = query;
+		profile = null;
+		scored = false;
+	}
+
+	/**
+	 * Sets the target {@link Sequence}, keeping the query profile.
+	 *
+	 * @param target the second {@link Sequence} of the pair to score
+	 */
+	public void setTarget(S target) {
+		this.target = target;
+		scored = false;
+	}
+
+	/**
+	 * Returns the gap penalties.
+	 *
+	 * @return the gap penalties used during alignment
+	 */
+	public GapPenalty getGapPenalty() {
+		return gapPenalty;
+	}
+
+	/**
+	 * Sets the gap penalties.
+	 *
+	 * @param gapPenalty the gap penalties used during alignment
+	 */
+	public void setGapPenalty(GapPenalty gapPenalty) {
+		this.gapPenalty = gapPenalty;
+		scored = false;
+	}
+
+	/**
+	 * Returns the substitution matrix.
+	 *
+	 * @return the set of substitution scores used during alignment
+	 */
+	public SubstitutionMatrix<C> getSubstitutionMatrix() {
+		return subMatrix;
+	}
+
+	/**
+	 * Sets the substitution matrix, which discards the query profile.
+	 *
+	 * @param subMatrix the set of substitution scores used during alignment
+	 */
+	public void setSubstitutionMatrix(SubstitutionMatrix<C> subMatrix) {
+		this.subMatrix = subMatrix;
+		profile = null;
+		scored = false;
+	}
+
+	/**
+	 * Returns the computation time of the last scoring in nanoseconds, excluding the query profile.
+	 *
+	 * @return the computation time, or -1 if nothing was scored yet
+	 */
+	public long getComputationTime() {
+		if (!scored) {
+			align();
+		}
+		return time;
+	}
+
+	// methods for PairwiseSequenceScorer
+
+	@Override
+	public S getQuery() {
+		return query;
+	}
+
+	@Override
+	public S getTarget() {
+		return target;
+	}
+
+	// methods for Scorer
+
+	@Override
+	public double getMaxScore() {
+		if (!scored) {
+			align();
+		}
+		return max;
+	}
+
+	@Override
+	public double getMinScore() {
+		return 0;
+	}
+
+	@Override
+	public double getScore() {
+		if (!scored) {
+			align();
+		}
+		return score;
+	}
+
+	// helper methods
+
+	private boolean isReady() {
+		return query != null && target != null && gapPenalty != null && subMatrix != null &&
+				query.getCompoundSet().equals(target.getCompoundSet());
+	}
+
+	/**
+	 * Builds the striped query profile.  The query position i is stored in lane i / segments of segment
+	 * i % segments, at index segment * {@link #LANES} + lane.
+	 */
+	private void setProfile() {
+		queryCompounds = query.getAsList();
+		segments = Math.max(1, (queryCompounds.size() + LANES - 1) / LANES);
+		codes = new HashMap<C, Integer>();
+		profile = new ArrayList<int[]>();
+		selfScores = new ArrayList<Integer>();
+		querySelfScore = 0;
+		for (C c : queryCompounds) {
+			querySelfScore += selfScores.get(getCode(c));
+		}
+	}
+
+	// returns the code of a compound, adding its row to the query profile if it is new
+	private int getCode(C compound) {
+		Integer code = codes.get(compound);
+		if (code == null) {
+			code = profile.size();
+			codes.put(compound, code);
+
+			// look up each distinct query compound only once
+			Map<C, Integer> values = new HashMap<C, Integer>();
+			int[] row = new int[segments * LANES];
+			for (int lane = 0, i = 0; lane < LANES; lane++) {
+				for (int s = 0; s < segments; s++, i++) {
+					int value = PADDING;
+					if (i < queryCompounds.size()) {
+						C c = queryCompounds.get(i);
+						Integer v = values.get(c);
+						if (v == null) {
+							v = (int) subMatrix.getValue(c, compound);
+							values.put(c, v);
+						}
+						value = v;
+					}
+					row[s * LANES + lane] = value;
+				}
+			}
+			profile.add(row);
+			selfScores.add((int) subMatrix.getValue(compound, compound));
+		}
+		return code;
+	}
+
+	/**
+	 * Computes the score of the local alignment.
+	 */
+	private void align() {
+		if (!isReady()) {
+			return;
+		}
+		if (profile == null) {
+			setProfile();
+		}
+
+		long timeStart = System.nanoTime();
+
+		int[] t = new int[target.getLength()];
+		int targetSelfScore = 0, i = 0;
+		for (C c : target) {
+			t[i] = getCode(c);
+			targetSelfScore += selfScores.get(t[i++]);
+		}
+
+		boolean linear = (gapPenalty.getType() == GapPenalty.Type.LINEAR);
+		score = align(profile, t, segments, gapPenalty.getOpenPenalty(), gapPenalty.getExtensionPenalty(), linear);
+		max = Math.max(querySelfScore, targetSelfScore);
+		scored = true;
+
+		time = System.nanoTime() - timeStart;
+	}
+
+	/**
+	 * Fills the score matrix one target column at a time, using the recurrences of the affine (or linear) local
+	 * alignment of {@link org.biojava.nbio.alignment.routines.AlignerHelper}: substitutions extend the best score of
+	 * the previous diagonal position, gaps are opened from a substitution and all scores are clamped at 0.  The
+	 * maximum is taken over the substitutions, as gaps only lower the score.
+	 */
+	private static int align(List<int[]> profile, int[] target, int segments, int gop, int gep, boolean linear) {
+		int length = segments * LANES, last = (segments - 1) * LANES;
+		int goe = gop + gep;
+
+		// best, substitution and insertion scores of the previous and current columns, deletion scores
+		int[] hPrevious = new int[length], hCurrent = new int[length];
+		int[] mPrevious = new int[length], mCurrent = new int[length];
+		int[] insertion = new int[length], deletion = new int[length];
+		int[] openLinear = linear ? new int[length] : null;
+		int[] diagonal = new int[LANES], zeros = new int[LANES], maxima = new int[LANES];
+
+		for (int y = 0; y < target.length; y++) {
+			int[] scores = profile.get(target[y]);
+			int[] openInsertion = linear ? hPrevious : mPrevious;
+			int[] openDeletion = linear ? openLinear : mCurrent;
+
+			// the diagonal of the first segment is the last segment of the previous lane
+			System.arraycopy(hPrevious, last, diagonal, 1, LANES - 1);
+
+			// one pass over the segments, assuming no deletion enters a lane from the previous one
+			for (int s = 0; s < segments; s++) {
+				int j = s * LANES, p = j - LANES;
+				int[] h = hPrevious, o = openDeletion, d = deletion;
+				if (s == 0) {
+					h = diagonal;
+					o = d = zeros;
+					p = 0;
+				}
+				for (int k = 0; k < LANES; k++, j++, p++) {
+					int m = Math.max(h[p] + scores[j], 0);
+					int i = Math.max(Math.max(openInsertion[j] + goe, insertion[j] + gep), 0);
+					int e = Math.max(Math.max(o[p] + goe, d[p] + gep), 0);
+					mCurrent[j] = m;
+					insertion[j] = i;
+					deletion[j] = e;
+					if (linear) {
+						openLinear[j] = Math.max(m, i);
+					}
+					hCurrent[j] = Math.max(Math.max(m, i), e);
+					maxima[k] = Math.max(maxima[k], m);
+				}
+			}
+
+			// then carry the deletions over from the end of the previous lane until nothing changes
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (int s = 0; s < segments; s++) {
+					boolean segmentChanged = false;
+					for (int k = (s == 0) ? 1 : 0, j = s * LANES + k; k < LANES; k++, j++) {
+						int p = (s == 0) ? last + k - 1 : j - LANES;
+						int e = Math.max(openDeletion[p] + goe, deletion[p] + gep);
+						if (e > deletion[j]) {
+							deletion[j] = e;
+							hCurrent[j] = Math.max(hCurrent[j], e);
+							segmentChanged = true;
+						}
+					}
+					if (!segmentChanged) {
+						break;
+					}
+					changed = (s == segments - 1);
+				}
+			}
+
+			int[] swap = hPrevious;
+			hPrevious = hCurrent;
+			hCurrent = swap;
+			swap = mPrevious;
+			mPrevious = mCurrent;
+			mCurrent = swap;
+		}
+
+		int score = 0;
+		for (int m : maxima) {
+			score = Math.max(score, m);
+		}
+		return score;
+	}
+
+}
@@ -27,6 +27,7 @@ import org.biojava.nbio.core.alignment.template.AlignedSequence.Step;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -57,6 +58,24 @@ public class AlignerHelper {
 		INSERTION
 	}
 
+	// traceback pointers are coded as 0 for none and ordinal + 1, three of them packed in two bits each
+	private static final Last[] POINTER_CODES = { null, Last.SUBSTITUTION, Last.DELETION, Last.INSERTION };
+	static final int SUBSTITUTION_CODE = 1, DELETION_CODE = 2, INSERTION_CODE = 3;
+
+	// shared traceback pointers of a score matrix position, indexed by their code; these are never modified
+	private static final Last[][] LINEAR_POINTERS = new Last[4][], AFFINE_POINTERS = new Last[64][];
+	static {
+		for (int i = 0; i < 4; i++) {
+			LINEAR_POINTERS[i] = new Last[] { POINTER_CODES[i] };
+			for (int j = 0; j < 4; j++) {
+				for (int k = 0; k < 4; k++) {
+					AFFINE_POINTERS[(i << 4) | (j << 2) | k] =
+							new Last[] { POINTER_CODES[i], POINTER_CODES[j], POINTER_CODES[k] };
+				}
+			}
+		}
+	}
+
 	/**
 	 * Defines a 'cut' row for divide-and-conquer alignment in which a new anchor is found.
 	 */
@@ -311,39 +330,45 @@ public class AlignerHelper {
 	 * @return traceback direction for substitution, deletion and insertion
 	 */
 	public static Last[] setScorePoint(int x, int y, int gop, int gep, int sub, int[][][] scores) {
-		Last[] pointers = new Last[3];
+		return AFFINE_POINTERS[setScorePoint(scores[x - 1], scores[x], y, gop, gep, sub)].clone();
+	}
+
+	// affine or constant gap penalty on the previous and current rows of the score matrix; returns the pointer code
+	static int setScorePoint(int[][] previous, int[][] current, int y, int gop, int gep, int sub) {
+		int[] diagonal = previous[y - 1], above = previous[y], left = current[y - 1], point = current[y];
+		int code;
 
 		// substitution
-		if (scores[x - 1][y - 1][1] >= scores[x - 1][y - 1][0] && scores[x - 1][y - 1][1] >= scores[x - 1][y - 1][2]) {
-			scores[x][y][0] = scores[x - 1][y - 1][1] + sub;
-			pointers[0] = Last.DELETION;
-		} else if (scores[x - 1][y - 1][0] >= scores[x - 1][y - 1][2]) {
-			scores[x][y][0] = scores[x - 1][y - 1][0] + sub;
-			pointers[0] = Last.SUBSTITUTION;
+		if (diagonal[1] >= diagonal[0] && diagonal[1] >= diagonal[2]) {
+			point[0] = diagonal[1] + sub;
+			code = DELETION_CODE << 4;
+		} else if (diagonal[0] >= diagonal[2]) {
+			point[0] = diagonal[0] + sub;
+			code = SUBSTITUTION_CODE << 4;
 		} else {
-			scores[x][y][0] = scores[x - 1][y - 1][2] + sub;
-			pointers[0] = Last.INSERTION;
+			point[0] = diagonal[2] + sub;
+			code = INSERTION_CODE << 4;
 		}
 
 		// deletion
-		if (scores[x - 1][y][1] >= scores[x - 1][y][0] + gop) {
-			scores[x][y][1] = scores[x - 1][y][1] + gep;
-			pointers[1] = Last.DELETION;
+		if (above[1] >= above[0] + gop) {
+			point[1] = above[1] + gep;
+			code |= DELETION_CODE << 2;
 		} else {
-			scores[x][y][1] = scores[x - 1][y][0] + gop + gep;
-			pointers[1] = Last.SUBSTITUTION;
+			point[1] = above[0] + gop + gep;
+			code |= SUBSTITUTION_CODE << 2;
 		}
 
 		// insertion
-		if (scores[x][y - 1][0] + gop >= scores[x][y - 1][2]) {
-			scores[x][y][2] = scores[x][y - 1][0] + gop + gep;
-			pointers[2] = Last.SUBSTITUTION;
+		if (left[0] + gop >= left[2]) {
+			point[2] = left[0] + gop + gep;
+			code |= SUBSTITUTION_CODE;
 		} else {
-			scores[x][y][2] = scores[x][y - 1][2] + gep;
-			pointers[2] = Last.INSERTION;
+			point[2] = left[2] + gep;
+			code |= INSERTION_CODE;
 		}
 
-		return pointers;
+		return code;
 	}
 	/**
 	 * Calculates the optimal alignment score for the given sequence positions and a linear gap penalty
@@ -355,18 +380,23 @@ public class AlignerHelper {
 	 * @return traceback directions for substitution, deletion and insertion respectively
 	 */
 	public static Last setScorePoint(int x, int y, int gep, int sub, int[][][] scores) {
-		int d = scores[x - 1][y][0] + gep;
-		int i = scores[x][y - 1][0] + gep;
-		int s = scores[x - 1][y - 1][0] + sub;
+		return POINTER_CODES[setScorePoint(scores[x - 1], scores[x], y, gep, sub)];
+	}
+
+	// linear gap penalty on the previous and current rows of the score matrix; returns the pointer code
+	static int setScorePoint(int[][] previous, int[][] current, int y, int gep, int sub) {
+		int d = previous[y][0] + gep;
+		int i = current[y - 1][0] + gep;
+		int s = previous[y - 1][0] + sub;
 		if (d >= s && d >= i) {
-			scores[x][y][0] = d;
-			return Last.DELETION;
+			current[y][0] = d;
+			return DELETION_CODE;
 		} else if (s >= i) {
-			scores[x][y][0] = s;
-			return Last.SUBSTITUTION;
+			current[y][0] = s;
+			return SUBSTITUTION_CODE;
 		} else {
-			scores[x][y][0] = i;
-			return Last.INSERTION;
+			current[y][0] = i;
+			return INSERTION_CODE;
 		}
 	}
 
@@ -426,8 +456,9 @@ public class AlignerHelper {
 			scores[x][yb][0] = scores[x][yb][2] = min;
 			scores[x][yb][1] = scores[x - 1][yb][1] + gep;
 			pointers[yb] = new Last[] { null, Last.DELETION, null };
+			int[][] previous = scores[x - 1], current = scores[x];
 			for (int y = yb + 1; y <= ye; y++) {
-				pointers[y] = setScorePoint(x, y, gop, gep, subs[y], scores);
+				pointers[y] = AFFINE_POINTERS[setScorePoint(previous, current, y, gop, gep, subs[y])];
 			}
 		}
 		return pointers;
@@ -463,23 +494,25 @@ public class AlignerHelper {
 	 */
 	public static Last[][] setScoreVector(int x, int xb, int yb, int ye, int gep, int[] subs, boolean storing,
 			int[][][] scores, boolean startAnchored) {
-		Last[][] pointers = new Last[ye + 1][1];
+		Last[][] pointers = new Last[ye + 1][];
+		Arrays.fill(pointers, LINEAR_POINTERS[0]);
 		ensureScoringMatrixColumn(x, storing, scores);
 		if (x == xb) {
 			if (startAnchored) {
 				assert (xb > 0 && yb > 0);
 				scores[xb][yb][0] = scores[xb - 1][yb - 1][0] + subs[yb];
-				pointers[yb][0] = Last.SUBSTITUTION;
+				pointers[yb] = LINEAR_POINTERS[SUBSTITUTION_CODE];
 			}
 			for (int y = yb + 1; y <= ye; y++) {
 				scores[xb][y][0] = scores[xb][y - 1][0] + gep;
-				pointers[y][0] = Last.INSERTION;
+				pointers[y] = LINEAR_POINTERS[INSERTION_CODE];
 			}
 		} else {
 			scores[x][yb][0] = scores[x - 1][yb][0] + gep;
-			pointers[yb][0] = Last.DELETION;
+			pointers[yb] = LINEAR_POINTERS[DELETION_CODE];
+			int[][] previous = scores[x - 1], current = scores[x];
 			for (int y = yb + 1; y <= ye; y++) {
-				pointers[y][0] = setScorePoint(x, y, gep, subs[y], scores);
+				pointers[y] = LINEAR_POINTERS[setScorePoint(previous, current, y, gep, subs[y])];
 			}
 		}
 		return pointers;
@@ -526,18 +559,21 @@ public class AlignerHelper {
 		} else {
 			pointers = new Last[ye + 1][];
 			pointers[0] = new Last[scores[0][0].length];
+			int[][] previous = scores[x - 1], current = scores[x];
 			for (int y = 1; y < scores[0].length; y++) {
-				pointers[y] = setScorePoint(x, y, gop, gep, subs[y], scores);
-				for (int z = 0; z < scores[0][0].length; z++) {
-					if (scores[x][y][z] <= 0) {
-						scores[x][y][z] = 0;
-						pointers[y][z] = null;
+				int code = setScorePoint(previous, current, y, gop, gep, subs[y]);
+				int[] point = current[y];
+				for (int z = 0; z < point.length; z++) {
+					if (point[z] <= 0) {
+						point[z] = 0;
+						code &= ~(3 << (4 - 2 * z));
 					}
 				}
-				if (scores[x][y][0] > score) {
+				pointers[y] = AFFINE_POINTERS[code];
+				if (point[0] > score) {
 					xyMax[0] = x;
 					xyMax[1] = y;
-					score = scores[x][y][0];
+					score = point[0];
 				}
 			}
 		}
@@ -583,16 +619,18 @@ public class AlignerHelper {
 		} else {
 			pointers = new Last[ye + 1][];
 			pointers[0] = new Last[1];
-			for (int y = 1; y < scores[x].length; y++) {
-				pointers[y][0] = setScorePoint(x, y, gep, subs[y], scores);
-				if (scores[x][y][0] <= 0) {
-					scores[x][y][0] = 0;
-					pointers[y][0] = null;
-				} else if (scores[x][y][0] > score) {
+			int[][] previous = scores[x - 1], current = scores[x];
+			for (int y = 1; y < current.length; y++) {
+				int code = setScorePoint(previous, current, y, gep, subs[y]);
+				if (current[y][0] <= 0) {
+					current[y][0] = 0;
+					code = 0;
+				} else if (current[y][0] > score) {
 					xyMax[0] = x;
 					xyMax[1] = y;
-					score = scores[x][y][0];
+					score = current[y][0];
 				}
+				pointers[y] = LINEAR_POINTERS[code];
 			}
 		}
 		return pointers;
@@ -679,7 +717,9 @@ public class AlignerHelper {
 	 * @return
 	 */
 	public static int[] setSteps(Last[][][] traceback, int[] xyMax, List<Step> sx, List<Step> sy) {
-		return setSteps(traceback, true, xyMax, Last.SUBSTITUTION, sx, sy);
+		// with a linear gap penalty, start from the pointer of the maximum, which is null without any positive score
+		Last[] start = traceback[xyMax[0]][xyMax[1]];
+		return setSteps(traceback, true, xyMax, (start.length == 1) ? start[0] : Last.SUBSTITUTION, sx, sy);
 	}
 
 	public static String tracebackToString(Last[][][] traceback) {
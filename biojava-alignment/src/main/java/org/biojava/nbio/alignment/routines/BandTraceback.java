@@ -0,0 +1,99 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.core.alignment.template.AlignedSequence.Step;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traceback pointer codes of {@link AlignerHelper} kept for a band of the score matrix: each row holds the codes of
+ * consecutive columns only, so the space needed is the area of the band rather than of the whole matrix.
+ */
+class BandTraceback {
+
+	// states of a score matrix position, as in the third dimension of the score matrix
+	static final int SUBSTITUTION = 0, DELETION = 1, INSERTION = 2;
+
+	// score of the unreachable states, low enough to stay below any alignment without overflowing
+	static final int MIN = Integer.MIN_VALUE / 2;
+
+	private final boolean linear;
+	private final List<byte[]> rows = new ArrayList<byte[]>();
+	private final List<Integer> starts = new ArrayList<Integer>();
+
+	/**
+	 * Prepares an empty traceback.
+	 *
+	 * @param linear true for the pointer codes of a linear gap penalty
+	 */
+	BandTraceback(boolean linear) {
+		this.linear = linear;
+	}
+
+	/**
+	 * Adds the next row, starting at the given column.
+	 *
+	 * @param start the first column of the row
+	 * @param codes the pointer codes of the columns of the row
+	 */
+	void addRow(int start, byte[] codes) {
+		rows.add(codes);
+		starts.add(start);
+	}
+
+	/**
+	 * Follows the pointers from position (x, y) in state z back to position (0, 0), adding the steps in that order.
+	 *
+	 * @param x the row of the last position
+	 * @param y the column of the last position
+	 * @param z the state of the last position, ignored for a linear gap penalty
+	 * @param sx receives the steps of the query, last step first
+	 * @param sy receives the steps of the target, last step first
+	 */
+	void setSteps(int x, int y, int z, List<Step> sx, List<Step> sy) {
+		while (x > 0 || y > 0) {
+			int code = rows.get(x)[y - starts.get(x)];
+			switch (linear ? code - 1 : z) {
+			case SUBSTITUTION:
+				sx.add(Step.COMPOUND);
+				sy.add(Step.COMPOUND);
+				z = ((code >> 4) & 3) - 1;
+				x--;
+				y--;
+				break;
+			case DELETION:
+				sx.add(Step.COMPOUND);
+				sy.add(Step.GAP);
+				z = ((code >> 2) & 3) - 1;
+				x--;
+				break;
+			default:
+				sx.add(Step.GAP);
+				sy.add(Step.COMPOUND);
+				z = (code & 3) - 1;
+				y--;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,356 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.template.AbstractPairwiseSequenceAligner;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.SimpleSequencePair;
+import org.biojava.nbio.core.alignment.template.AlignedSequence;
+import org.biojava.nbio.core.alignment.template.AlignedSequence.Step;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.biojava.nbio.alignment.routines.AlignerHelper.DELETION_CODE;
+import static org.biojava.nbio.alignment.routines.AlignerHelper.INSERTION_CODE;
+import static org.biojava.nbio.alignment.routines.AlignerHelper.SUBSTITUTION_CODE;
+import static org.biojava.nbio.alignment.routines.AlignerHelper.setScorePoint;
+import static org.biojava.nbio.alignment.routines.BandTraceback.DELETION;
+import static org.biojava.nbio.alignment.routines.BandTraceback.INSERTION;
+import static org.biojava.nbio.alignment.routines.BandTraceback.MIN;
+import static org.biojava.nbio.alignment.routines.BandTraceback.SUBSTITUTION;
+
+/**
+ * Performs the pairwise global sequence alignment of {@link org.biojava.nbio.alignment.NeedlemanWunsch} within a band
+ * around the diagonal of the score matrix.  The band holds the positions whose difference of target and query
+ * positions is at most the band width beyond the range between 0 and the difference of the sequence lengths, so the
+ * time and space needed are a multiple of the query length times the band width.  This suits sequences whose optimal
+ * alignment stays close to the diagonal, such as reads against their reference or near-identical homologs.
+ * <p>
+ * With a fixed band width, the alignment is the best one within the band.  With an adaptive band width, the band is
+ * doubled as long as the alignment touches one of its edges, unless its score reaches an upper bound of the score of
+ * any alignment leaving the band, which proves it optimal.  This is a heuristic: an alignment clear of the edges is
+ * the best one within the band, but an alignment leaving the band can still score higher, so the score can be lower
+ * than the one of {@link org.biojava.nbio.alignment.NeedlemanWunsch}, mostly for dissimilar sequences.  Widening the
+ * band until the bound is reached would prove every score, but the bound is loose enough that the band then usually
+ * grows to the whole score matrix.  When the band covers the whole score matrix, the alignments are the ones of
+ * {@link org.biojava.nbio.alignment.NeedlemanWunsch}.  When the score matrix is stored, the whole score matrix is
+ * filled instead.
+ *
+ * @param <S> each {@link Sequence} of the alignment pair is of type S
+ * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+ * @since 6.0.4
+ */
+public class BandedNeedlemanWunsch<S extends Sequence<C>, C extends Compound>
+		extends AbstractPairwiseSequenceAligner<S, C> {
+
+	private static int defaultBandWidth = 16;
+
+	/**
+	 * Sets the default band width.
+	 *
+	 * @param defaultBandWidth the default number of diagonals on each side of the band
+	 */
+	public static void setDefaultBandWidth(int defaultBandWidth) {
+		BandedNeedlemanWunsch.defaultBandWidth = Math.max(0, defaultBandWidth);
+	}
+
+	private int bandWidth = defaultBandWidth;
+	private boolean adaptive;
+
+	/**
+	 * Before running a pairwise global sequence alignment, data must be sent in via calls to
+	 * {@link #setQuery(Sequence)}, {@link #setTarget(Sequence)}, {@link #setGapPenalty(GapPenalty)}, and
+	 * {@link #setSubstitutionMatrix(SubstitutionMatrix)}.
+	 */
+	public BandedNeedlemanWunsch() {
+	}
+
+	/**
+	 * Prepares for a pairwise global sequence alignment.
+	 *
+	 * @param query the first {@link Sequence} of the pair to align
+	 * @param target the second {@link Sequence} of the pair to align
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 */
+	public BandedNeedlemanWunsch(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+		super(query, target, gapPenalty, subMatrix);
+	}
+
+	/**
+	 * Prepares for a pairwise global sequence alignment.
+	 *
+	 * @param query the first {@link Sequence} of the pair to align
+	 * @param target the second {@link Sequence} of the pair to align
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 * @param bandWidth the number of diagonals on each side of the band
+	 * @param adaptive if true, widen the band while the alignment touches its edges
+	 */
+	public BandedNeedlemanWunsch(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix,
+			int bandWidth, boolean adaptive) {
+		super(query, target, gapPenalty, subMatrix);
+		this.bandWidth = Math.max(0, bandWidth);
+		this.adaptive = adaptive;
+	}
+
+	/**
+	 * Returns the band width, the initial one if it is adaptive.
+	 *
+	 * @return the number of diagonals on each side of the band
+	 */
+	public int getBandWidth() {
+		return bandWidth;
+	}
+
+	/**
+	 * Sets the band width, the initial one if it is adaptive.
+	 *
+	 * @param bandWidth the number of diagonals on each side of the band
+	 */
+	public void setBandWidth(int bandWidth) {
+		this.bandWidth = Math.max(0, bandWidth);
+		reset();
+	}
+
+	/**
+	 * Returns whether the band is widened while the alignment touches its edges.
+	 *
+	 * @return true if the band width is adaptive
+	 */
+	public boolean isAdaptive() {
+		return adaptive;
+	}
+
+	/**
+	 * Sets whether the band is widened while the alignment touches its edges.
+	 *
+	 * @param adaptive if true, widen the band while the alignment touches its edges
+	 */
+	public void setAdaptive(boolean adaptive) {
+		this.adaptive = adaptive;
+		reset();
+	}
+
+	// methods for AbstractMatrixAligner
+
+	@Override
+	protected void align() {
+		if (isStoringScoreMatrix() || !isReady()) {
+			super.align();
+			return;
+		}
+
+		long timeStart = System.nanoTime();
+
+		int[] dim = getScoreMatrixDimensions();
+		int n = dim[0] - 1, m = dim[1] - 1;
+		xyStart = new int[] { 0, 0 };
+		xyMax = new int[] { n, m };
+		List<Step> sx = new ArrayList<Step>(), sy = new ArrayList<Step>();
+		long[] bounds = null;
+		for (int width = bandWidth; ; width = Math.max(1, 2 * width)) {
+			sx.clear();
+			sy.clear();
+			score = align(n, m, width, sx, sy);
+			if (!adaptive || width >= Math.min(n, m) || !isTouchingEdge(n, m, width, sx, sy)) {
+				break;
+			}
+			if (bounds == null) {
+				bounds = getScoreBounds(n, m);
+			}
+			if (score >= bounds[Math.min(n, m) - width - 1]) {
+				break;
+			}
+		}
+		setProfile(sx, sy);
+
+		time = System.nanoTime() - timeStart;
+	}
+
+	@Override
+	protected void setProfile(List<Step> sx, List<Step> sy) {
+		profile = pair = new SimpleSequencePair<S, C>(getQuery(), getTarget(), sx, sy);
+	}
+
+	// helper methods
+
+	/**
+	 * Fills the band of the given width and follows its traceback, adding the steps.
+	 *
+	 * @return the score of the alignment
+	 */
+	private int align(int n, int m, int width, List<Step> sx, List<Step> sy) {
+		boolean linear = (getGapPenalty().getType() == GapPenalty.Type.LINEAR);
+		int gop = getGapPenalty().getOpenPenalty(), gep = getGapPenalty().getExtensionPenalty(), dim = linear ? 1 : 3;
+		long low = Math.min(0, m - n) - (long) width, high = Math.max(0, m - n) + (long) width;
+		int[][] previous = new int[m + 1][dim], current = new int[m + 1][dim];
+		BandTraceback traceback = new BandTraceback(linear);
+		for (int x = 0; x <= n; x++) {
+			int lo = (int) Math.max(0, x + low), hi = (int) Math.min(m, x + high);
+			byte[] codes = new byte[hi - lo + 1];
+			int[][] swap = previous;
+			previous = current;
+			current = swap;
+			if (x == 0) {
+				setFirstRow(current, codes, hi, linear, gop, gep);
+			} else {
+				int y = lo;
+				if (lo == 0) {
+					int[] above = previous[0], point = current[0];
+					if (linear) {
+						point[0] = above[0] + gep;
+						codes[0] = DELETION_CODE;
+					} else {
+						point[0] = point[2] = MIN;
+						if (above[1] >= above[0] + gop) {
+							point[1] = above[1] + gep;
+							codes[0] = DELETION_CODE << 2;
+						} else {
+							point[1] = above[0] + gop + gep;
+							codes[0] = SUBSTITUTION_CODE << 2;
+						}
+					}
+					y = 1;
+				} else {
+					Arrays.fill(current[lo - 1], MIN);
+				}
+				for (; y <= hi; y++) {
+					int sub = getSubstitutionScore(x, y);
+					codes[y - lo] = (byte) (linear ? setScorePoint(previous, current, y, gep, sub) :
+							setScorePoint(previous, current, y, gop, gep, sub));
+				}
+			}
+			if (hi < m) {
+				Arrays.fill(current[hi + 1], MIN);
+			}
+			traceback.addRow(lo, codes);
+		}
+
+		int[] point = current[m];
+		int z = linear ? SUBSTITUTION : (point[1] > point[0] && point[1] > point[2]) ? DELETION :
+				(point[0] > point[2]) ? SUBSTITUTION : INSERTION;
+		traceback.setSteps(n, m, z, sx, sy);
+		Collections.reverse(sx);
+		Collections.reverse(sy);
+		return point[z];
+	}
+
+	// returns true if the steps pass through a position on an edge of the band inside the score matrix
+	private static boolean isTouchingEdge(int n, int m, int width, List<Step> sx, List<Step> sy) {
+		long low = Math.min(0, m - n) - (long) width, high = Math.max(0, m - n) + (long) width;
+		long offset = 0;
+		for (int i = 0; i < sx.size(); i++) {
+			if (sx.get(i) == Step.GAP) {
+				offset++;
+			} else if (sy.get(i) == Step.GAP) {
+				offset--;
+			}
+			if ((offset == low && low > -n) || (offset == high && high < m)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// fills the first row of the band up to column hi, starting with a score of 0 in the substitution state
+	private static void setFirstRow(int[][] current, byte[] codes, int hi, boolean linear, int gop, int gep) {
+		if (linear) {
+			current[0][0] = 0;
+			for (int y = 1; y <= hi; y++) {
+				current[y][0] = current[y - 1][0] + gep;
+				codes[y] = INSERTION_CODE;
+			}
+		} else {
+			current[0][0] = 0;
+			current[0][1] = current[0][2] = MIN;
+			for (int y = 1; y <= hi; y++) {
+				int[] left = current[y - 1], point = current[y];
+				point[0] = point[1] = MIN;
+				if (left[0] + gop >= left[2]) {
+					point[2] = left[0] + gop + gep;
+					codes[y] = SUBSTITUTION_CODE;
+				} else {
+					point[2] = left[2] + gep;
+					codes[y] = INSERTION_CODE;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns upper bounds of the score of any alignment leaving a band, indexed by the largest number of aligned
+	 * pairs such an alignment can have, which is the shorter sequence length minus the band width minus 1.  An
+	 * alignment leaving the band has as many more gap positions, at least one insertion and one deletion, and each
+	 * aligned pair scores at most the best substitution score of its query compound and of its target compound.
+	 */
+	private long[] getScoreBounds(int n, int m) {
+		long[] query = getBestPairScores(getCompoundsOfQuery(), getCompoundsOfTarget()),
+				target = getBestPairScores(getCompoundsOfTarget(), getCompoundsOfQuery());
+		int gop = getGapPenalty().getOpenPenalty(), gep = getGapPenalty().getExtensionPenalty();
+		long[] bounds = new long[Math.min(n, m)];
+		long best = Long.MIN_VALUE;
+		for (int pairs = 0; pairs < bounds.length; pairs++) {
+			best = Math.max(best, Math.min(query[pairs], target[pairs]) + (long) gep * (n + m - 2 * pairs));
+			bounds[pairs] = 2L * gop + best;
+		}
+		return bounds;
+	}
+
+	/**
+	 * Returns the largest sums of the given number of best substitution scores of the compounds against any compound
+	 * of the other sequence.
+	 */
+	private long[] getBestPairScores(List<C> compounds, List<C> others) {
+		Set<C> distinct = new LinkedHashSet<C>(others);
+		Map<C, Integer> best = new HashMap<C, Integer>();
+		int[] scores = new int[compounds.size()];
+		for (int i = 0; i < scores.length; i++) {
+			C c = compounds.get(i);
+			Integer b = best.get(c);
+			if (b == null) {
+				b = Integer.MIN_VALUE;
+				for (C other : distinct) {
+					b = Math.max(b, getSubstitutionMatrix().getValue(c, other));
+				}
+				best.put(c, b);
+			}
+			scores[i] = b;
+		}
+		Arrays.sort(scores);
+		long[] sums = new long[scores.length + 1];
+		for (int i = 0; i < scores.length; i++) {
+			sums[i + 1] = sums[i] + scores[scores.length - 1 - i];
+		}
+		return sums;
+	}
+
+}
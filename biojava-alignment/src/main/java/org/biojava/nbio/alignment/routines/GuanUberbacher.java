@@ -23,18 +23,26 @@
 
 package org.biojava.nbio.alignment.routines;
 
+import org.biojava.nbio.alignment.routines.AlignerHelper.Subproblem;
 import org.biojava.nbio.core.alignment.template.AlignedSequence;
+import org.biojava.nbio.core.alignment.template.AlignedSequence.Step;
 import org.biojava.nbio.alignment.template.GapPenalty;
 import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
 import org.biojava.nbio.core.sequence.template.Compound;
 import org.biojava.nbio.core.sequence.template.Sequence;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Guan and Uberbacher defined an algorithm for pairwise global sequence alignments (from the first until the last
  * {@link Compound} of each {@link Sequence}).  This class performs such global sequence comparisons efficiently by
  * dynamic programming with a space requirement reduced from quadratic (a multiple of query sequence length times
  * target sequence length) to only linear (a multiple of query sequence length).  The counterpoint to this reduction in
  * space complexity is a modest (a multiple < 2) increase in time.
+ * <p>
+ * Without anchors, the alignments are the ones of {@link org.biojava.nbio.alignment.NeedlemanWunsch}.  When the score
+ * matrix is stored, the full traceback is kept as well.
  *
  * @author Mark Chapman
  * @param <S> each {@link Sequence} of the alignment pair is of type S
@@ -49,7 +57,7 @@ public class GuanUberbacher<S extends Sequence<C>, C extends Compound> extends A
 	 * @param defaultCutsPerSection the default number of cuts added to each section during each pass
 	 */
 	public static void setDefaultCutsPerSection(int defaultCutsPerSection) {
-		defaultCutsPerSection = Math.max(1, defaultCutsPerSection);
+		GuanUberbacher.defaultCutsPerSection = Math.max(1, defaultCutsPerSection);
 	}
 
 	/**
@@ -58,7 +66,7 @@ public class GuanUberbacher<S extends Sequence<C>, C extends Compound> extends A
 	 * {@link #setSubstitutionMatrix(SubstitutionMatrix)}.
 	 */
 	public GuanUberbacher() {
-		setDefaultCutsPerSection(defaultCutsPerSection);
+		cutsPerSection = defaultCutsPerSection;
 	}
 
 	/**
@@ -71,7 +79,7 @@ public class GuanUberbacher<S extends Sequence<C>, C extends Compound> extends A
 	 */
 	public GuanUberbacher(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
 		super(query, target, gapPenalty, subMatrix);
-		setDefaultCutsPerSection(defaultCutsPerSection);
+		cutsPerSection = defaultCutsPerSection;
 	}
 
 	/**
@@ -106,4 +114,33 @@ public class GuanUberbacher<S extends Sequence<C>, C extends Compound> extends A
 	public void setCutsPerSection(int cutsPerSection) {
 		this.cutsPerSection = Math.max(1, cutsPerSection);
 	}
+
+	// method for AbstractMatrixAligner
+
+	@Override
+	protected void align() {
+		if (isStoringScoreMatrix() || !isReady()) {
+			super.align();
+			return;
+		}
+
+		long timeStart = System.nanoTime();
+
+		int[] dim = getScoreMatrixDimensions();
+		final Subproblem all = new Subproblem(0, 0, dim[0] - 1, dim[1] - 1);
+		xyMax = new int[] { dim[0] - 1, dim[1] - 1 };
+		xyStart = new int[] { 0, 0 };
+		List<Step> sx = new ArrayList<Step>(), sy = new ArrayList<Step>();
+		LinearSpaceHelper helper = new LinearSpaceHelper(getGapPenalty(), cutsPerSection, sx, sy) {
+			@Override
+			protected int[] getSubstitutionScoreVector(int queryColumn) {
+				return GuanUberbacher.this.getSubstitutionScoreVector(queryColumn, all);
+			}
+		};
+		score = helper.alignGlobal(Subproblem.getSubproblems(anchors, xyMax[0], xyMax[1]));
+		setProfile(sx, sy);
+
+		time = System.nanoTime() - timeStart;
+	}
+
 }
@@ -0,0 +1,488 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.routines.AlignerHelper.Subproblem;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.template.AlignedSequence.Step;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.biojava.nbio.alignment.routines.AlignerHelper.DELETION_CODE;
+import static org.biojava.nbio.alignment.routines.AlignerHelper.INSERTION_CODE;
+import static org.biojava.nbio.alignment.routines.AlignerHelper.SUBSTITUTION_CODE;
+import static org.biojava.nbio.alignment.routines.AlignerHelper.setScorePoint;
+
+/**
+ * Traceback of the alignments of {@link AlignerHelper} in linear space, by the divide-and-conquer of Guan and Uberbacher
+ * (CABIOS 12, 1996).  A section of the score matrix is filled one row at a time, carrying along for a few cut rows the
+ * position where the optimal path to each point of the current row crosses the cut.  The crossings of the path to the
+ * end of the section split it into smaller sections, which are aligned in turn until they are small enough for a full
+ * traceback.
+ * <p>
+ * Each section starts and ends in a given state (substitution, deletion or insertion) and is filled with the scores
+ * and traceback pointers of {@link AlignerHelper}, ties included, so the steps are the ones of the full traceback.  The
+ * space needed is a multiple of the number of cuts times the target length.
+ */
+abstract class LinearSpaceHelper {
+
+	// states of a score matrix position, as in the third dimension of the score matrix
+	private static final int SUBSTITUTION = 0, DELETION = 1, INSERTION = 2;
+
+	// end states chosen like the traceback of a global alignment, or like the pointer of a substitution
+	private static final int BEST_STATE = -1, BEST_PREVIOUS_STATE = -2;
+
+	// score of the unreachable states, low enough to stay below any alignment without overflowing
+	private static final int MIN = Integer.MIN_VALUE / 2;
+
+	// sections with at most this many positions are aligned with a full traceback
+	private static final int MAX_TRACEBACK_SIZE = 1 << 16;
+
+	private final int gop, gep, dim, cuts;
+	private final boolean linear;
+	private final List<Step> sx, sy;
+
+	/**
+	 * Prepares for a traceback in linear space.
+	 *
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param cuts the number of cuts added to each section during each pass
+	 * @param sx receives the steps of the query
+	 * @param sy receives the steps of the target
+	 */
+	LinearSpaceHelper(GapPenalty gapPenalty, int cuts, List<Step> sx, List<Step> sy) {
+		linear = (gapPenalty.getType() == GapPenalty.Type.LINEAR);
+		gop = gapPenalty.getOpenPenalty();
+		gep = gapPenalty.getExtensionPenalty();
+		dim = linear ? 1 : 3;
+		this.cuts = Math.max(1, cuts);
+		this.sx = sx;
+		this.sy = sy;
+	}
+
+	/**
+	 * Returns the substitution scores of a query column against all target columns.
+	 *
+	 * @param queryColumn 1-based position in the query
+	 * @return the substitution scores, indexed like the columns of the score matrix
+	 */
+	protected abstract int[] getSubstitutionScoreVector(int queryColumn);
+
+	/**
+	 * Aligns the subproblems of a global alignment, each anchored to the end of the previous one.
+	 *
+	 * @param problems the subproblems, as returned by {@link Subproblem#getSubproblems(List, int, int)}
+	 * @return the score of the alignment
+	 */
+	int alignGlobal(List<Subproblem> problems) {
+		int score = 0;
+		for (int i = 0; i < problems.size(); i++) {
+			Subproblem problem = problems.get(i);
+			int x = problem.getQueryStartIndex(), y = problem.getTargetStartIndex();
+			if (problem.isStartAnchored()) {
+				sx.add(Step.COMPOUND);
+				sy.add(Step.COMPOUND);
+				score += getSubstitutionScoreVector(x)[y];
+			}
+			score += align(x, y, SUBSTITUTION, problem.getQueryEndIndex(), problem.getTargetEndIndex(),
+					(i == problems.size() - 1) ? BEST_STATE : BEST_PREVIOUS_STATE);
+		}
+		return score;
+	}
+
+	/**
+	 * Aligns the best local alignment, ending at the first maximum of the substitution scores.
+	 *
+	 * @param queryLength the length of the query
+	 * @param targetLength the length of the target
+	 * @return the score, the query and target positions before the first aligned pair and the query and target
+	 * positions of the last aligned pair
+	 */
+	int[] alignLocal(int queryLength, int targetLength) {
+		int[] local = setLocalCuts(queryLength, targetLength);
+		int score = local[0], x = local[1], y = local[2], z = SUBSTITUTION, xMax = local[3], yMax = local[4];
+		if (score > 0) {
+			for (int i = 5; i < local.length; i += 2) {
+				int xCut = local[i], crossing = local[i + 1];
+				align(x, y, z, xCut, crossing / dim, crossing % dim);
+				x = xCut;
+				y = crossing / dim;
+				z = crossing % dim;
+			}
+			align(x, y, z, xMax, yMax, SUBSTITUTION);
+		}
+		return new int[] { score, local[1], local[2], xMax, yMax };
+	}
+
+	/**
+	 * Aligns the section from position (x0, y0) in state z0 to position (x1, y1) in state z1, adding its steps.
+	 *
+	 * @return the score of the section
+	 */
+	private int align(int x0, int y0, int z0, int x1, int y1, int z1) {
+		int rows = x1 - x0, cols = y1 - y0;
+		int k = Math.min(cuts, rows - 1);
+		if (k < 1 || (long) (rows + 1) * (cols + 1) <= MAX_TRACEBACK_SIZE) {
+			return alignTraceback(x0, y0, z0, x1, y1, z1);
+		}
+		int[] cutRows = new int[k];
+		for (int i = 0; i < k; i++) {
+			cutRows[i] = x0 + (int) ((long) (i + 1) * rows / (k + 1));
+		}
+		int[] section = setCuts(x0, y0, z0, x1, y1, z1, cutRows);
+		int x = x0, y = y0, z = z0;
+		for (int i = 0; i < k; i++) {
+			int crossing = section[i + 2];
+			align(x, y, z, cutRows[i], y0 + crossing / dim, crossing % dim);
+			x = cutRows[i];
+			y = y0 + crossing / dim;
+			z = crossing % dim;
+		}
+		align(x, y, z, x1, y1, section[1]);
+		return section[0];
+	}
+
+	/**
+	 * Fills a section and finds where its optimal path crosses the cut rows.
+	 *
+	 * @return the score, the end state and the crossing of each cut row, coded as column * dim + state
+	 */
+	private int[] setCuts(int x0, int y0, int z0, int x1, int y1, int z1, int[] cutRows) {
+		int cols = y1 - y0, k = cutRows.length;
+		int[][] previous = new int[cols + 1][dim], current = new int[cols + 1][dim];
+		int[] codes = new int[cols + 1], crossings = null, spare = null;
+		int[][] saved = new int[k][];
+		setFirstRow(z0, current, codes);
+		for (int x = x0 + 1, cut = 0; x <= x1; x++) {
+			int[][] swap = previous;
+			previous = current;
+			current = swap;
+			setRow(getSubstitutionScoreVector(x), y0, previous, current, codes);
+			boolean initial = (cut < k && cutRows[cut] == x - 1);
+			if (initial) {
+				saved[cut++] = crossings;
+			}
+			if (cut > 0) {
+				int[] last = crossings;
+				crossings = (spare == null) ? new int[(cols + 1) * dim] : spare;
+				setCrossings(codes, last, crossings, initial);
+				spare = initial ? null : last;
+			}
+		}
+		int z = getEndState(current[cols], z1);
+		int[] section = new int[k + 2];
+		section[0] = current[cols][z];
+		section[1] = z;
+		int crossing = crossings[cols * dim + z];
+		for (int i = k - 1; i >= 0; i--) {
+			section[i + 2] = crossing;
+			if (i > 0) {
+				crossing = saved[i][crossing];
+			}
+		}
+		return section;
+	}
+
+	/**
+	 * Fills the local score matrix and finds the maximum, the start of its alignment and where it crosses the cut rows.
+	 *
+	 * @return the score, the query and target positions before the first aligned pair, the query and target positions
+	 * of the last aligned pair, then each cut row crossed after the start with its crossing
+	 */
+	private int[] setLocalCuts(int queryLength, int targetLength) {
+		int k = Math.max(0, Math.min(cuts, queryLength - 1));
+		int[] cutRows = new int[k];
+		for (int i = 0; i < k; i++) {
+			cutRows[i] = (int) ((long) (i + 1) * queryLength / (k + 1));
+		}
+		int[][] previous = new int[targetLength + 1][dim], current = new int[targetLength + 1][dim];
+		int[] codes = new int[targetLength + 1], lastCodes = new int[targetLength + 1], crossings = null, spare = null;
+		long[] starts = new long[(targetLength + 1) * dim], lastStarts = new long[(targetLength + 1) * dim];
+		int[][] saved = new int[k][];
+		int score = 0, xMax = 0, yMax = 0, cutMax = 0, crossingMax = -1;
+		long startMax = 0;
+		for (int x = 1, cut = 0; x <= queryLength; x++) {
+			int[][] swap = previous;
+			previous = current;
+			current = swap;
+			int[] swapCodes = lastCodes;
+			lastCodes = codes;
+			codes = swapCodes;
+			long[] swapStarts = lastStarts;
+			lastStarts = starts;
+			starts = swapStarts;
+			setLocalRow(getSubstitutionScoreVector(x), previous, current, codes);
+			boolean initial = (cut < k && cutRows[cut] == x - 1);
+			if (initial) {
+				saved[cut++] = crossings;
+			}
+			if (cut > 0) {
+				int[] last = crossings;
+				crossings = (spare == null) ? new int[(targetLength + 1) * dim] : spare;
+				setCrossings(codes, last, crossings, initial);
+				spare = initial ? null : last;
+			}
+			setStarts(x, codes, lastCodes, starts, lastStarts);
+			for (int y = 1; y <= targetLength; y++) {
+				if (current[y][0] > score) {
+					score = current[y][0];
+					xMax = x;
+					yMax = y;
+					startMax = starts[y * dim];
+					cutMax = cut;
+					crossingMax = (cut > 0) ? crossings[y * dim] : -1;
+				}
+			}
+		}
+		if (score == 0) {
+			return new int[] { 0, 0, 0, 0, 0 };
+		}
+
+		// the path starts after the position before its first aligned pair, which may lie on a cut row
+		int xStart = (int) (startMax >>> 32) - 1, yStart = (int) startMax - 1;
+		List<Integer> crossed = new ArrayList<Integer>();
+		for (int i = cutMax - 1, crossing = crossingMax; i >= 0 && crossing >= 0 && cutRows[i] > xStart; i--) {
+			crossed.add(crossing);
+			crossed.add(cutRows[i]);
+			crossing = (i > 0) ? saved[i][crossing] : -1;
+		}
+		Collections.reverse(crossed);
+		int[] local = new int[5 + crossed.size()];
+		local[0] = score;
+		local[1] = xStart;
+		local[2] = yStart;
+		local[3] = xMax;
+		local[4] = yMax;
+		for (int i = 0; i < crossed.size(); i++) {
+			local[5 + i] = crossed.get(i);
+		}
+		return local;
+	}
+
+	/**
+	 * Aligns a small section with a full traceback, adding its steps.
+	 *
+	 * @return the score of the section
+	 */
+	private int alignTraceback(int x0, int y0, int z0, int x1, int y1, int z1) {
+		int rows = x1 - x0, cols = y1 - y0;
+		byte[][] pointers = new byte[rows + 1][cols + 1];
+		int[][] previous = new int[cols + 1][dim], current = new int[cols + 1][dim];
+		int[] codes = new int[cols + 1];
+		setFirstRow(z0, current, codes);
+		for (int y = 0; y <= cols; y++) {
+			pointers[0][y] = (byte) codes[y];
+		}
+		for (int x = 1; x <= rows; x++) {
+			int[][] swap = previous;
+			previous = current;
+			current = swap;
+			setRow(getSubstitutionScoreVector(x0 + x), y0, previous, current, codes);
+			for (int y = 0; y <= cols; y++) {
+				pointers[x][y] = (byte) codes[y];
+			}
+		}
+		int z = getEndState(current[cols], z1), score = current[cols][z];
+
+		List<Step> tx = new ArrayList<Step>(), ty = new ArrayList<Step>();
+		for (int x = rows, y = cols; x > 0 || y > 0; ) {
+			int code = pointers[x][y];
+			switch (linear ? code - 1 : z) {
+			case SUBSTITUTION:
+				tx.add(Step.COMPOUND);
+				ty.add(Step.COMPOUND);
+				z = ((code >> 4) & 3) - 1;
+				x--;
+				y--;
+				break;
+			case DELETION:
+				tx.add(Step.COMPOUND);
+				ty.add(Step.GAP);
+				z = ((code >> 2) & 3) - 1;
+				x--;
+				break;
+			default:
+				tx.add(Step.GAP);
+				ty.add(Step.COMPOUND);
+				z = (code & 3) - 1;
+				y--;
+			}
+		}
+		Collections.reverse(tx);
+		Collections.reverse(ty);
+		sx.addAll(tx);
+		sy.addAll(ty);
+		return score;
+	}
+
+	// chooses the state at the end of a section, if it is not given
+	private int getEndState(int[] point, int z) {
+		if (linear) {
+			return SUBSTITUTION;
+		} else if (z == BEST_STATE) {
+			return (point[1] > point[0] && point[1] > point[2]) ? DELETION :
+					(point[0] > point[2]) ? SUBSTITUTION : INSERTION;
+		} else if (z == BEST_PREVIOUS_STATE) {
+			return (point[1] >= point[0] && point[1] >= point[2]) ? DELETION :
+					(point[0] >= point[2]) ? SUBSTITUTION : INSERTION;
+		}
+		return z;
+	}
+
+	// fills the first row of a section, starting with a score of 0 in state z0
+	private void setFirstRow(int z0, int[][] current, int[] codes) {
+		if (linear) {
+			current[0][0] = 0;
+			codes[0] = 0;
+			for (int y = 1; y < current.length; y++) {
+				current[y][0] = current[y - 1][0] + gep;
+				codes[y] = INSERTION_CODE;
+			}
+		} else {
+			current[0][0] = current[0][1] = current[0][2] = MIN;
+			current[0][z0] = 0;
+			codes[0] = 0;
+			for (int y = 1; y < current.length; y++) {
+				int[] left = current[y - 1], point = current[y];
+				point[0] = point[1] = MIN;
+				if (left[0] + gop >= left[2]) {
+					point[2] = left[0] + gop + gep;
+					codes[y] = SUBSTITUTION_CODE;
+				} else {
+					point[2] = left[2] + gep;
+					codes[y] = INSERTION_CODE;
+				}
+			}
+		}
+	}
+
+	// fills the next row of a section starting at column y0, keeping the pointer codes
+	private void setRow(int[] subs, int y0, int[][] previous, int[][] current, int[] codes) {
+		if (linear) {
+			current[0][0] = previous[0][0] + gep;
+			codes[0] = DELETION_CODE;
+			for (int y = 1; y < current.length; y++) {
+				codes[y] = setScorePoint(previous, current, y, gep, subs[y0 + y]);
+			}
+		} else {
+			int[] above = previous[0], point = current[0];
+			point[0] = point[2] = MIN;
+			if (above[1] >= above[0] + gop) {
+				point[1] = above[1] + gep;
+				codes[0] = DELETION_CODE << 2;
+			} else {
+				point[1] = above[0] + gop + gep;
+				codes[0] = SUBSTITUTION_CODE << 2;
+			}
+			for (int y = 1; y < current.length; y++) {
+				codes[y] = setScorePoint(previous, current, y, gop, gep, subs[y0 + y]);
+			}
+		}
+	}
+
+	// fills the next row of the local score matrix, clearing the pointers of the scores clamped at 0
+	private void setLocalRow(int[] subs, int[][] previous, int[][] current, int[] codes) {
+		for (int y = 1; y < current.length; y++) {
+			int code;
+			if (linear) {
+				code = setScorePoint(previous, current, y, gep, subs[y]);
+				if (current[y][0] <= 0) {
+					current[y][0] = 0;
+					code = 0;
+				}
+			} else {
+				code = setScorePoint(previous, current, y, gop, gep, subs[y]);
+				int[] point = current[y];
+				for (int z = 0; z < 3; z++) {
+					if (point[z] <= 0) {
+						point[z] = 0;
+						code &= ~(3 << (4 - 2 * z));
+					}
+				}
+			}
+			codes[y] = code;
+		}
+	}
+
+	/**
+	 * Carries the crossings of the last cut row over to the next row, following its pointers.  The row right after a
+	 * cut row crosses it at its pointers, and a position without pointer has no crossing (-1).
+	 */
+	private void setCrossings(int[] codes, int[] last, int[] crossings, boolean initial) {
+		for (int y = 0; y < codes.length; y++) {
+			for (int z = 0; z < dim; z++) {
+				int from = linear ? codes[y] : (codes[y] >> (4 - 2 * z)) & 3, i = y * dim + z;
+				if (from == 0) {
+					crossings[i] = -1;
+					continue;
+				}
+				int state = linear ? 0 : from - 1;
+				switch (linear ? from - 1 : z) {
+				case SUBSTITUTION:
+					crossings[i] = initial ? (y - 1) * dim + state : last[(y - 1) * dim + state];
+					break;
+				case DELETION:
+					crossings[i] = initial ? y * dim + state : last[y * dim + state];
+					break;
+				default:
+					crossings[i] = crossings[(y - 1) * dim + state];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Carries the first aligned pair of the local alignments over to the next row, following its pointers.  A local
+	 * alignment starts where its pointer leads to a position without pointer.  The pairs are coded as x << 32 | y.
+	 */
+	private void setStarts(int x, int[] codes, int[] lastCodes, long[] starts, long[] lastStarts) {
+		for (int y = 1; y < codes.length; y++) {
+			for (int z = 0; z < dim; z++) {
+				int from = linear ? codes[y] : (codes[y] >> (4 - 2 * z)) & 3;
+				if (from == 0) {
+					continue;
+				}
+				int state = linear ? 0 : from - 1, y1 = y, code;
+				long[] s;
+				switch (linear ? from - 1 : z) {
+				case SUBSTITUTION:
+					y1 = y - 1;
+					code = lastCodes[y1];
+					s = lastStarts;
+					break;
+				case DELETION:
+					code = lastCodes[y1];
+					s = lastStarts;
+					break;
+				default:
+					y1 = y - 1;
+					code = codes[y1];
+					s = starts;
+				}
+				boolean start = (linear ? code : (code >> (4 - 2 * state)) & 3) == 0;
+				starts[y * dim + z] = start ? ((long) x << 32) | y : s[y1 * dim + state];
+			}
+		}
+	}
+
+}
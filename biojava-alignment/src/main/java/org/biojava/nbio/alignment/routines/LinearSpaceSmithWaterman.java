@@ -0,0 +1,140 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.routines.AlignerHelper.Subproblem;
+import org.biojava.nbio.alignment.template.AbstractPairwiseSequenceAligner;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.SimpleSequencePair;
+import org.biojava.nbio.core.alignment.template.AlignedSequence;
+import org.biojava.nbio.core.alignment.template.AlignedSequence.Step;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Performs the pairwise local sequence alignment of {@link org.biojava.nbio.alignment.SmithWaterman} (the most similar
+ * regions of the two {@link Sequence}s) with a space requirement reduced from quadratic to linear, like
+ * {@link GuanUberbacher} does for global alignments.  A first pass over the score matrix finds the maximum score and
+ * the start of its alignment along with where it crosses a few cut rows, then the region between the start and the
+ * maximum is aligned globally in linear space.  The time is at most about twice the one of the full traceback.
+ * <p>
+ * The alignments are the ones of {@link org.biojava.nbio.alignment.SmithWaterman}.  When the score matrix is stored,
+ * the full traceback is kept as well.
+ *
+ * @param <S> each {@link Sequence} of the alignment pair is of type S
+ * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+ * @since 6.0.4
+ */
+public class LinearSpaceSmithWaterman<S extends Sequence<C>, C extends Compound>
+		extends AbstractPairwiseSequenceAligner<S, C> {
+
+	private static int defaultCutsPerSection = 10;
+
+	/**
+	 * Sets the default number of cuts added to each section during each pass.
+	 *
+	 * @param defaultCutsPerSection the default number of cuts added to each section during each pass
+	 */
+	public static void setDefaultCutsPerSection(int defaultCutsPerSection) {
+		LinearSpaceSmithWaterman.defaultCutsPerSection = Math.max(1, defaultCutsPerSection);
+	}
+
+	/**
+	 * Before running a pairwise local sequence alignment, data must be sent in via calls to
+	 * {@link #setQuery(Sequence)}, {@link #setTarget(Sequence)}, {@link #setGapPenalty(GapPenalty)}, and
+	 * {@link #setSubstitutionMatrix(SubstitutionMatrix)}.
+	 */
+	public LinearSpaceSmithWaterman() {
+		super(null, null, null, null, true);
+		cutsPerSection = defaultCutsPerSection;
+	}
+
+	/**
+	 * Prepares for a pairwise local sequence alignment.
+	 *
+	 * @param query the first {@link Sequence} of the pair to align
+	 * @param target the second {@link Sequence} of the pair to align
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 */
+	public LinearSpaceSmithWaterman(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+		super(query, target, gapPenalty, subMatrix, true);
+		cutsPerSection = defaultCutsPerSection;
+	}
+
+	/**
+	 * Returns the number of cuts added to each section during each pass.
+	 *
+	 * @return the number of cuts added to each section during each pass
+	 */
+	public int getCutsPerSection() {
+		return cutsPerSection;
+	}
+
+	/**
+	 * Sets the number of cuts added to each section during each pass.
+	 *
+	 * @param cutsPerSection the number of cuts added to each section during each pass
+	 */
+	public void setCutsPerSection(int cutsPerSection) {
+		this.cutsPerSection = Math.max(1, cutsPerSection);
+	}
+
+	// methods for AbstractMatrixAligner
+
+	@Override
+	protected void align() {
+		if (isStoringScoreMatrix() || !isReady()) {
+			super.align();
+			return;
+		}
+
+		long timeStart = System.nanoTime();
+
+		int[] dim = getScoreMatrixDimensions();
+		final Subproblem all = new Subproblem(0, 0, dim[0] - 1, dim[1] - 1);
+		List<Step> sx = new ArrayList<Step>(), sy = new ArrayList<Step>();
+		LinearSpaceHelper helper = new LinearSpaceHelper(getGapPenalty(), cutsPerSection, sx, sy) {
+			@Override
+			protected int[] getSubstitutionScoreVector(int queryColumn) {
+				return LinearSpaceSmithWaterman.this.getSubstitutionScoreVector(queryColumn, all);
+			}
+		};
+		int[] local = helper.alignLocal(dim[0] - 1, dim[1] - 1);
+		score = local[0];
+		xyStart = new int[] { local[1], local[2] };
+		xyMax = new int[] { local[3], local[4] };
+		setProfile(sx, sy);
+
+		time = System.nanoTime() - timeStart;
+	}
+
+	@Override
+	protected void setProfile(List<Step> sx, List<Step> sy) {
+		profile = pair = new SimpleSequencePair<S, C>(getQuery(), getTarget(), sx, xyStart[0],
+				getQuery().getLength() - xyMax[0], sy, xyStart[1], getTarget().getLength() - xyMax[1]);
+	}
+
+}
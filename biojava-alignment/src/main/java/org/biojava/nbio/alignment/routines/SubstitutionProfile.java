@@ -0,0 +1,214 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precompiled substitution scores of a pair of {@link Sequence}s.  Both sequences are encoded once as byte codes of
+ * their distinct {@link Compound}s, and the score of every query code against every target position is stored in a
+ * primitive table, so that filling a score matrix does not look up any {@link Compound} in the
+ * {@link SubstitutionMatrix}.  The scores are the ones returned by {@link SubstitutionMatrix#getValue(Compound,
+ * Compound)}, each distinct pair of compounds is looked up only once.
+ *
+ * @param <C> each element of the sequences is a {@link Compound} of type C
+ * @since 6.0.4
+ */
+public class SubstitutionProfile<C extends Compound> {
+
+	/**
+	 * The largest number of distinct compounds in the two sequences which can be encoded
+	 */
+	public static final int MAX_ALPHABET_SIZE = 256;
+
+	private final List<C> alphabet;
+	private final byte[] query, target;
+	private final int[] selfScores;
+
+	/**
+	 * Substitution score of each query code (first dimension) against each target column (second dimension,
+	 * 1-based to match the score matrix, the column 0 is always 0)
+	 */
+	private final int[][] profile;
+	private final int[] empty;
+
+	private SubstitutionProfile(List<C> alphabet, byte[] query, byte[] target, SubstitutionMatrix<C> subMatrix) {
+		this.alphabet = alphabet;
+		this.query = query;
+		this.target = target;
+
+		int size = alphabet.size();
+		int[][] table = new int[size][size];
+		selfScores = new int[size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				table[i][j] = subMatrix.getValue(alphabet.get(i), alphabet.get(j));
+			}
+			selfScores[i] = table[i][i];
+		}
+
+		profile = new int[size][target.length + 1];
+		for (int i = 0; i < size; i++) {
+			int[] scores = table[i], row = profile[i];
+			for (int y = 0; y < target.length; y++) {
+				row[y + 1] = scores[target[y] & 0xFF];
+			}
+		}
+		empty = new int[target.length + 1];
+	}
+
+	/**
+	 * Encodes the two sequences and precomputes their substitution scores.
+	 *
+	 * @param <C> each element of the sequences is a {@link Compound} of type C
+	 * @param query the first {@link Sequence} of the pair to align
+	 * @param target the second {@link Sequence} of the pair to align
+	 * @param subMatrix the set of substitution scores used during alignment
+	 * @return the profile, or null if the sequences have more than {@link #MAX_ALPHABET_SIZE} distinct compounds
+	 */
+	public static <C extends Compound> SubstitutionProfile<C> getProfile(Sequence<C> query, Sequence<C> target,
+			SubstitutionMatrix<C> subMatrix) {
+		List<C> alphabet = new ArrayList<C>();
+		Map<C, Integer> codes = new HashMap<C, Integer>();
+		byte[] q = encode(query, alphabet, codes), t = null;
+		if (q != null) {
+			t = encode(target, alphabet, codes);
+		}
+		if (t == null) {
+			return null;
+		}
+		return new SubstitutionProfile<C>(alphabet, q, t, subMatrix);
+	}
+
+	// encodes the sequence, adding new compounds to the alphabet; returns null if the alphabet becomes too large
+	private static <C extends Compound> byte[] encode(Sequence<C> sequence, List<C> alphabet, Map<C, Integer> codes) {
+		byte[] encoded = new byte[sequence.getLength()];
+		int i = 0;
+		for (C c : sequence) {
+			Integer code = codes.get(c);
+			if (code == null) {
+				if (alphabet.size() == MAX_ALPHABET_SIZE) {
+					return null;
+				}
+				code = alphabet.size();
+				codes.put(c, code);
+				alphabet.add(c);
+			}
+			encoded[i++] = (byte) code.intValue();
+		}
+		return encoded;
+	}
+
+	/**
+	 * Returns the number of distinct compounds in the two sequences.
+	 *
+	 * @return the size of the alphabet
+	 */
+	public int getAlphabetSize() {
+		return alphabet.size();
+	}
+
+	/**
+	 * Returns the compound encoded by the given code.
+	 *
+	 * @param code the code, between 0 and {@link #getAlphabetSize()} - 1
+	 * @return the compound
+	 */
+	public C getCompound(int code) {
+		return alphabet.get(code);
+	}
+
+	/**
+	 * Returns the code of the compound at the given position of the query.
+	 *
+	 * @param queryColumn 1-based position in the query
+	 * @return the code of the compound
+	 */
+	public int getQueryCode(int queryColumn) {
+		return query[queryColumn - 1] & 0xFF;
+	}
+
+	/**
+	 * Returns the code of the compound at the given position of the target.
+	 *
+	 * @param targetColumn 1-based position in the target
+	 * @return the code of the compound
+	 */
+	public int getTargetCode(int targetColumn) {
+		return target[targetColumn - 1] & 0xFF;
+	}
+
+	/**
+	 * Returns the score for the alignment of a query column to a target column.
+	 *
+	 * @param queryColumn 1-based position in the query
+	 * @param targetColumn 1-based position in the target
+	 * @return the substitution score
+	 */
+	public int getScore(int queryColumn, int targetColumn) {
+		return profile[query[queryColumn - 1] & 0xFF][targetColumn];
+	}
+
+	/**
+	 * Returns the scores for the alignment of a query column to all target columns, indexed like the columns of the
+	 * score matrix.  The returned array is shared and must not be modified.
+	 *
+	 * @param queryColumn position in the query, 0 for the empty first row of the score matrix
+	 * @return the substitution scores, with the length of the target + 1
+	 */
+	public int[] getScoreVector(int queryColumn) {
+		return (queryColumn == 0) ? empty : profile[query[queryColumn - 1] & 0xFF];
+	}
+
+	/**
+	 * Returns the sum of the scores of each query compound against itself.
+	 *
+	 * @return the score of the query aligned to itself without gaps
+	 */
+	public int getQuerySelfScore() {
+		return getSelfScore(query);
+	}
+
+	/**
+	 * Returns the sum of the scores of each target compound against itself.
+	 *
+	 * @return the score of the target aligned to itself without gaps
+	 */
+	public int getTargetSelfScore() {
+		return getSelfScore(target);
+	}
+
+	private int getSelfScore(byte[] sequence) {
+		int score = 0;
+		for (byte code : sequence) {
+			score += selfScores[code & 0xFF];
+		}
+		return score;
+	}
+
+}
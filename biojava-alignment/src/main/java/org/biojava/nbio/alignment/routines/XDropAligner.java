@@ -0,0 +1,344 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.template.AbstractPairwiseSequenceAligner;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.SimpleSequencePair;
+import org.biojava.nbio.core.alignment.template.AlignedSequence;
+import org.biojava.nbio.core.alignment.template.AlignedSequence.Step;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.biojava.nbio.alignment.routines.AlignerHelper.DELETION_CODE;
+import static org.biojava.nbio.alignment.routines.AlignerHelper.INSERTION_CODE;
+import static org.biojava.nbio.alignment.routines.AlignerHelper.SUBSTITUTION_CODE;
+import static org.biojava.nbio.alignment.routines.AlignerHelper.setScorePoint;
+import static org.biojava.nbio.alignment.routines.BandTraceback.MIN;
+import static org.biojava.nbio.alignment.routines.BandTraceback.SUBSTITUTION;
+
+/**
+ * Extends a pairwise alignment from a seed with the gapped X-drop rule of Zhang et al. (J Comput Biol 7, 2000), as done
+ * by BLAST.  The score matrix is filled one query position at a time away from the seed, keeping only the positions
+ * whose score is at most X below the best score found so far; the extension stops once no position is kept.  The
+ * alignment ends at the best score on each side of the seed.  The score rows only grow up to the last target position
+ * reached, and the traceback only holds the positions kept, so the time and space needed follow the length of the
+ * similar region times the width of the band of positions kept, rather than the product of the sequence lengths.
+ * <p>
+ * The seed is a pair of aligned compounds, extended in both directions.  Without a seed, the alignment starts at the
+ * first {@link Compound} of each {@link Sequence} and is extended towards their ends.  Within the positions kept, the
+ * scores follow the recurrences of {@link org.biojava.nbio.alignment.NeedlemanWunsch}.  No score matrix is kept.
+ *
+ * @param <S> each {@link Sequence} of the alignment pair is of type S
+ * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+ * @since 6.0.4
+ */
+public class XDropAligner<S extends Sequence<C>, C extends Compound> extends AbstractPairwiseSequenceAligner<S, C> {
+
+	private static final int INITIAL_ROW_LENGTH = 64;
+
+	private static int defaultXDrop = 30;
+
+	/**
+	 * Sets the default X-drop, the largest drop of the score below the best one before positions are discarded.
+	 *
+	 * @param defaultXDrop the default X-drop
+	 */
+	public static void setDefaultXDrop(int defaultXDrop) {
+		XDropAligner.defaultXDrop = Math.max(0, defaultXDrop);
+	}
+
+	private int xDrop = defaultXDrop, querySeed = -1, targetSeed = -1;
+
+	/**
+	 * Before running a pairwise sequence alignment, data must be sent in via calls to {@link #setQuery(Sequence)},
+	 * {@link #setTarget(Sequence)}, {@link #setGapPenalty(GapPenalty)}, and
+	 * {@link #setSubstitutionMatrix(SubstitutionMatrix)}.
+	 */
+	public XDropAligner() {
+		super(null, null, null, null, true);
+	}
+
+	/**
+	 * Prepares for a pairwise sequence alignment extended from the start of both sequences.
+	 *
+	 * @param query the first {@link Sequence} of the pair to align
+	 * @param target the second {@link Sequence} of the pair to align
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 */
+	public XDropAligner(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+		super(query, target, gapPenalty, subMatrix, true);
+	}
+
+	/**
+	 * Returns the X-drop, the largest drop of the score below the best one before positions are discarded.
+	 *
+	 * @return the X-drop
+	 */
+	public int getXDrop() {
+		return xDrop;
+	}
+
+	/**
+	 * Sets the X-drop, the largest drop of the score below the best one before positions are discarded.
+	 *
+	 * @param xDrop the X-drop
+	 */
+	public void setXDrop(int xDrop) {
+		this.xDrop = Math.max(0, xDrop);
+		reset();
+	}
+
+	/**
+	 * Returns the query index of the seed.
+	 *
+	 * @return the 0-based index of the query compound of the seed, or -1 without seed
+	 */
+	public int getQuerySeed() {
+		return querySeed;
+	}
+
+	/**
+	 * Returns the target index of the seed.
+	 *
+	 * @return the 0-based index of the target compound of the seed, or -1 without seed
+	 */
+	public int getTargetSeed() {
+		return targetSeed;
+	}
+
+	/**
+	 * Sets the seed, a pair of aligned compounds from which the alignment is extended in both directions.  A negative
+	 * index removes the seed.
+	 *
+	 * @param queryIndex 0-based index of the query compound of the seed
+	 * @param targetIndex 0-based index of the target compound of the seed
+	 */
+	public void setSeed(int queryIndex, int targetIndex) {
+		boolean seeded = queryIndex >= 0 && targetIndex >= 0;
+		querySeed = seeded ? queryIndex : -1;
+		targetSeed = seeded ? targetIndex : -1;
+		reset();
+	}
+
+	// methods for AbstractMatrixAligner
+
+	@Override
+	protected void align() {
+		if (!isReady()) {
+			return;
+		}
+
+		long timeStart = System.nanoTime();
+
+		int[] dim = getScoreMatrixDimensions();
+		int n = dim[0] - 1, m = dim[1] - 1;
+		if (querySeed >= n || targetSeed >= m) {
+			throw new IndexOutOfBoundsException("Seed (" + querySeed + ", " + targetSeed + ") outside of the sequences");
+		}
+		List<Step> sx = new ArrayList<Step>(), sy = new ArrayList<Step>();
+		if (querySeed < 0) {
+			int[] right = extend(0, 0, n, m, 1, sx, sy);
+			Collections.reverse(sx);
+			Collections.reverse(sy);
+			score = right[0];
+			xyStart = new int[] { 0, 0 };
+			xyMax = new int[] { right[1], right[2] };
+		} else {
+			int x = querySeed + 1, y = targetSeed + 1;
+			int[] left = extend(x, y, x - 1, y - 1, -1, sx, sy);
+			sx.add(Step.COMPOUND);
+			sy.add(Step.COMPOUND);
+			List<Step> rx = new ArrayList<Step>(), ry = new ArrayList<Step>();
+			int[] right = extend(x, y, n - x, m - y, 1, rx, ry);
+			Collections.reverse(rx);
+			Collections.reverse(ry);
+			sx.addAll(rx);
+			sy.addAll(ry);
+			score = left[0] + getSubstitutionScore(x, y) + right[0];
+			xyStart = new int[] { x - 1 - left[1], y - 1 - left[2] };
+			xyMax = new int[] { x + right[1], y + right[2] };
+		}
+		setProfile(sx, sy);
+
+		time = System.nanoTime() - timeStart;
+	}
+
+	@Override
+	protected void setProfile(List<Step> sx, List<Step> sy) {
+		profile = pair = new SimpleSequencePair<S, C>(getQuery(), getTarget(), sx, xyStart[0],
+				getQuery().getLength() - xyMax[0], sy, xyStart[1], getTarget().getLength() - xyMax[1]);
+	}
+
+	// helper methods
+
+	/**
+	 * Extends an alignment from the score matrix position (x0, y0) over up to n query and m target compounds in the
+	 * given direction, adding the steps from the best position back to the start.
+	 *
+	 * @return the best score and the numbers of query and target compounds it spans
+	 */
+	private int[] extend(int x0, int y0, int n, int m, int direction, List<Step> sx, List<Step> sy) {
+		boolean linear = (getGapPenalty().getType() == GapPenalty.Type.LINEAR);
+		int gop = getGapPenalty().getOpenPenalty(), gep = getGapPenalty().getExtensionPenalty(), dim = linear ? 1 : 3;
+		int capacity = Math.min(m + 1, INITIAL_ROW_LENGTH);
+		int[][] previous = new int[capacity][dim], current = new int[capacity][dim];
+		byte[] codes = new byte[capacity];
+		BandTraceback traceback = new BandTraceback(linear);
+		int best = 0, xBest = 0, yBest = 0;
+
+		// the first row holds the start and the insertions kept after it
+		int lo = 0, hi = 0;
+		current[0][0] = 0;
+		if (!linear) {
+			current[0][1] = current[0][2] = MIN;
+		}
+		for (int y = 1; y <= m; y++) {
+			if (y == codes.length) {
+				previous = grow(previous, m, dim);
+				current = grow(current, m, dim);
+				codes = Arrays.copyOf(codes, current.length);
+			}
+			int[] left = current[y - 1], point = current[y];
+			if (linear) {
+				point[0] = left[0] + gep;
+				codes[y] = INSERTION_CODE;
+			} else {
+				point[0] = point[1] = MIN;
+				if (left[0] + gop >= left[2]) {
+					point[2] = left[0] + gop + gep;
+					codes[y] = SUBSTITUTION_CODE;
+				} else {
+					point[2] = left[2] + gep;
+					codes[y] = INSERTION_CODE;
+				}
+			}
+			if (point[dim - 1] < -xDrop) {
+				Arrays.fill(point, MIN);
+				break;
+			}
+			hi = y;
+		}
+		traceback.addRow(0, Arrays.copyOf(codes, hi + 1));
+
+		for (int x = 1; x <= n; x++) {
+			int[][] swap = previous;
+			previous = current;
+			current = swap;
+			int threshold = best - xDrop, start = -1, end = -1, y = lo;
+
+			// positions before the first one kept in the previous row can only be reached from dropped positions
+			if (y == 0) {
+				int[] above = previous[0], point = current[0];
+				if (linear) {
+					point[0] = above[0] + gep;
+					codes[0] = DELETION_CODE;
+				} else {
+					point[0] = point[2] = MIN;
+					if (above[1] >= above[0] + gop) {
+						point[1] = above[1] + gep;
+						codes[0] = DELETION_CODE << 2;
+					} else {
+						point[1] = above[0] + gop + gep;
+						codes[0] = SUBSTITUTION_CODE << 2;
+					}
+				}
+				if (point[linear ? 0 : 1] < threshold) {
+					Arrays.fill(point, MIN);
+				} else {
+					start = end = 0;
+				}
+				y = 1;
+			} else {
+				Arrays.fill(current[y - 1], MIN);
+			}
+
+			// beyond the last position kept in the previous row, only insertions can keep a position
+			for (; y <= m; y++) {
+				// one more position is needed for the end of the kept positions
+				if (y + 1 == codes.length && y < m) {
+					previous = grow(previous, m, dim);
+					current = grow(current, m, dim);
+					codes = Arrays.copyOf(codes, current.length);
+				}
+				if (y > hi + 1) {
+					Arrays.fill(previous[y], MIN);
+				}
+				int sub = getSubstitutionScore(x0 + direction * x, y0 + direction * y);
+				codes[y] = (byte) (linear ? setScorePoint(previous, current, y, gep, sub) :
+						setScorePoint(previous, current, y, gop, gep, sub));
+				int[] point = current[y];
+				boolean kept = false;
+				for (int z = 0; z < dim; z++) {
+					if (point[z] < threshold) {
+						point[z] = MIN;
+					} else {
+						kept = true;
+					}
+				}
+				if (kept) {
+					if (start < 0) {
+						start = y;
+					}
+					end = y;
+					if (point[SUBSTITUTION] > best) {
+						best = point[SUBSTITUTION];
+						xBest = x;
+						yBest = y;
+					}
+				} else if (y > hi) {
+					break;
+				}
+			}
+			if (end < 0) {
+				break;
+			}
+			if (end < m) {
+				Arrays.fill(current[end + 1], MIN);
+			}
+			traceback.addRow(lo, Arrays.copyOfRange(codes, lo, end + 1));
+			lo = start;
+			hi = end;
+		}
+
+		traceback.setSteps(xBest, yBest, SUBSTITUTION, sx, sy);
+		return new int[] { best, xBest, yBest };
+	}
+
+	/**
+	 * Doubles the number of positions of the score rows, up to the m + 1 positions of the target.
+	 */
+	private static int[][] grow(int[][] rows, int m, int dim) {
+		int[][] grown = Arrays.copyOf(rows, Math.min(m + 1, 2 * rows.length));
+		for (int y = rows.length; y < grown.length; y++) {
+			grown[y] = new int[dim];
+		}
+		return grown;
+	}
+
+}
@@ -23,6 +23,8 @@
 
 package org.biojava.nbio.alignment.template;
 
+import org.biojava.nbio.alignment.routines.AlignerHelper.Subproblem;
+import org.biojava.nbio.alignment.routines.SubstitutionProfile;
 import org.biojava.nbio.core.alignment.template.SequencePair;
 import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
 import org.biojava.nbio.core.sequence.template.Compound;
@@ -48,6 +50,9 @@ public abstract class AbstractPairwiseSequenceAligner<S extends Sequence<C>, C e
 	// additional output field
 	protected SequencePair<S, C> pair;
 
+	// substitution scores of the encoded query and target, null if they cannot be encoded
+	private SubstitutionProfile<C> substitutionProfile;
+
 	/**
 	 * Before running a pairwise global sequence alignment, data must be sent in via calls to
 	 * {@link #setQuery(Sequence)}, {@link #setTarget(Sequence)}, {@link #setGapPenalty(GapPenalty)}, and
@@ -153,9 +158,24 @@ public abstract class AbstractPairwiseSequenceAligner<S extends Sequence<C>, C e
 
 	@Override
 	protected int getSubstitutionScore(int queryColumn, int targetColumn) {
+		if (substitutionProfile != null) {
+			return substitutionProfile.getScore(queryColumn, targetColumn);
+		}
 		return getSubstitutionMatrix().getValue(query.getCompoundAt(queryColumn), target.getCompoundAt(targetColumn));
 	}
 
+	/**
+	 * Returns the precompiled scores of the query column against all target columns.  The returned array is shared
+	 * between calls and must not be modified.
+	 */
+	@Override
+	protected int[] getSubstitutionScoreVector(int queryColumn, Subproblem subproblem) {
+		if (substitutionProfile != null) {
+			return substitutionProfile.getScoreVector(queryColumn);
+		}
+		return super.getSubstitutionScoreVector(queryColumn, subproblem);
+	}
+
 	@Override
 	protected boolean isReady() {
 		return query != null && target != null && getGapPenalty() != null && getSubstitutionMatrix() != null &&
@@ -166,14 +186,21 @@ public abstract class AbstractPairwiseSequenceAligner<S extends Sequence<C>, C e
 	protected void reset() {
 		super.reset();
 		pair = null;
+		substitutionProfile = null;
 		if (query != null && target != null && getGapPenalty() != null && getSubstitutionMatrix() != null &&
 				query.getCompoundSet().equals(target.getCompoundSet())) {
+			substitutionProfile = SubstitutionProfile.getProfile(query, target, getSubstitutionMatrix());
 			int maxq = 0, maxt = 0;
-			for (C c : query) {
-				maxq += getSubstitutionMatrix().getValue(c, c);
-			}
-			for (C c : target) {
-				maxt += getSubstitutionMatrix().getValue(c, c);
+			if (substitutionProfile != null) {
+				maxq = substitutionProfile.getQuerySelfScore();
+				maxt = substitutionProfile.getTargetSelfScore();
+			} else {
+				for (C c : query) {
+					maxq += getSubstitutionMatrix().getValue(c, c);
+				}
+				for (C c : target) {
+					maxt += getSubstitutionMatrix().getValue(c, c);
+				}
 			}
 			max = Math.max(maxq, maxt);
 			score = min = isLocal() ? 0 : (int) (2 * getGapPenalty().getOpenPenalty() + (query.getLength() +
@@ -0,0 +1,172 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment;
+
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceScorerType;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.alignment.template.PairwiseSequenceScorer;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.forester.evoinference.matrix.distance.BasicSymmetricalDistanceMatrix;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class AllPairsScorerTest {
+
+	private static final double PRECISION = 0.00000001;
+
+	private List<ProteinSequence> proteins;
+	private GapPenalty gaps;
+	private SubstitutionMatrix<AminoAcidCompound> blosum62;
+
+	@Before
+	public void setup() throws CompoundNotFoundException {
+		proteins = Arrays.asList(new ProteinSequence[] {new ProteinSequence("ARND"), new ProteinSequence("ARND"),
+				new ProteinSequence("HILK"), new ProteinSequence("ANDR")});
+		gaps = new SimpleGapPenalty((short) 2, (short) 1);
+		blosum62 = SubstitutionMatrixHelper.getBlosum62();
+	}
+
+	@Test
+	public void testGetScores() {
+		AllPairsScorer<ProteinSequence, AminoAcidCompound> scorer = new AllPairsScorer<ProteinSequence,
+				AminoAcidCompound>(proteins, PairwiseSequenceScorerType.GLOBAL_IDENTITIES, gaps, blosum62);
+		assertArrayEquals(new double[] {4, 0, 3, 0, 3, 0}, scorer.getScores(), PRECISION);
+		assertArrayEquals(new double[] {4, 6, 5, 6, 5, 5}, scorer.getMaxScores(), PRECISION);
+		assertArrayEquals(new double[] {0, 0, 0, 0, 0, 0}, scorer.getMinScores(), PRECISION);
+		assertArrayEquals(new double[] {4, 0, 3, 0, 3, 0}, Alignments.getAllPairsScores(proteins,
+				PairwiseSequenceScorerType.GLOBAL_IDENTITIES, gaps, blosum62), PRECISION);
+	}
+
+	@Test
+	public void testGetDistanceMatrix() {
+		AllPairsScorer<ProteinSequence, AminoAcidCompound> scorer = new AllPairsScorer<ProteinSequence,
+				AminoAcidCompound>(proteins, PairwiseSequenceScorerType.GLOBAL_IDENTITIES, gaps, blosum62);
+		BasicSymmetricalDistanceMatrix distances = scorer.getDistanceMatrix();
+		assertEquals(4, distances.getSize());
+		assertEquals("3", distances.getIdentifier(2));
+		assertEquals(0.0, distances.getValue(0, 1), PRECISION);
+		assertEquals(1.0, distances.getValue(0, 2), PRECISION);
+		assertEquals(0.4, distances.getValue(3, 1), PRECISION);
+	}
+
+	@Test
+	public void testAllPairsScorer() throws CompoundNotFoundException {
+		Random random = new Random(1);
+		List<ProteinSequence> family = new ArrayList<ProteinSequence>();
+		String ancestor = getRandomSequence(random, "ACDEFGHIKLMNPQRSTVWY", 120);
+		for (int i = 0; i < 12; i++) {
+			family.add(new ProteinSequence((i % 5 == 4) ? getRandomSequence(random, "ACDEFGHIKLMNPQRSTVWY", 90) :
+					getMutatedSequence(random, "ACDEFGHIKLMNPQRSTVWY", ancestor)));
+		}
+		for (GapPenalty penalty : new GapPenalty[] { gaps, new SimpleGapPenalty(0, 3), new SimpleGapPenalty(10, 0) }) {
+			for (PairwiseSequenceScorerType type : new PairwiseSequenceScorerType[] {
+					PairwiseSequenceScorerType.GLOBAL, PairwiseSequenceScorerType.GLOBAL_IDENTITIES,
+					PairwiseSequenceScorerType.GLOBAL_SIMILARITIES, PairwiseSequenceScorerType.LOCAL,
+					PairwiseSequenceScorerType.LOCAL_IDENTITIES, PairwiseSequenceScorerType.LOCAL_SIMILARITIES,
+					PairwiseSequenceScorerType.LOCAL_STRIPED }) {
+				AllPairsScorer<ProteinSequence, AminoAcidCompound> scorer =
+						new AllPairsScorer<ProteinSequence, AminoAcidCompound>(family, type, penalty, blosum62);
+				scorer.setTileSize(5);
+				assertSameScores(Alignments.getAllPairsScorers(family, type, penalty, blosum62), scorer);
+			}
+		}
+	}
+
+	@Test
+	public void testAllPairsScorerDNA() throws CompoundNotFoundException {
+		Random random = new Random(2);
+		List<DNASequence> family = new ArrayList<DNASequence>();
+		String ancestor = getRandomSequence(random, "ACGT", 150);
+		for (int i = 0; i < 6; i++) {
+			family.add(new DNASequence(getMutatedSequence(random, "ACGT", ancestor)));
+		}
+		SubstitutionMatrix<NucleotideCompound> nuc = SubstitutionMatrixHelper.getNuc4_4();
+		for (PairwiseSequenceScorerType type : new PairwiseSequenceScorerType[] {
+				PairwiseSequenceScorerType.GLOBAL_SIMILARITIES, PairwiseSequenceScorerType.LOCAL_IDENTITIES }) {
+			assertSameScores(Alignments.getAllPairsScorers(family, type, gaps, nuc),
+					new AllPairsScorer<DNASequence, NucleotideCompound>(family, type, gaps, nuc));
+		}
+	}
+
+	@Test(expected=UnsupportedOperationException.class)
+	public void testUnsupportedType() {
+		new AllPairsScorer<ProteinSequence, AminoAcidCompound>(proteins, PairwiseSequenceScorerType.KMERS, gaps,
+				blosum62);
+	}
+
+	private static <S extends Sequence<C>, C extends Compound> void assertSameScores(
+			List<PairwiseSequenceScorer<S, C>> expected, AllPairsScorer<S, C> scorer) {
+		double[] scores = scorer.getScores(), maxScores = scorer.getMaxScores(), minScores = scorer.getMinScores();
+		BasicSymmetricalDistanceMatrix distances = scorer.getDistanceMatrix();
+		assertEquals(expected.size(), scores.length);
+		for (int i = 0, n = 0; i < distances.getSize(); i++) {
+			for (int j = i + 1; j < distances.getSize(); j++, n++) {
+				PairwiseSequenceScorer<S, C> pair = expected.get(n);
+				assertEquals(pair.getScore(), scores[n], PRECISION);
+				assertEquals(pair.getMaxScore(), maxScores[n], PRECISION);
+				assertEquals(pair.getMinScore(), minScores[n], PRECISION);
+				assertEquals(pair.getDistance(), distances.getValue(i, j), PRECISION);
+			}
+		}
+	}
+
+	private static String getRandomSequence(Random random, String compounds, int length) {
+		StringBuilder sequence = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sequence.append(compounds.charAt(random.nextInt(compounds.length())));
+		}
+		return sequence.toString();
+	}
+
+	// deletes, inserts or substitutes about a tenth of the compounds each
+	private static String getMutatedSequence(Random random, String compounds, String sequence) {
+		StringBuilder mutated = new StringBuilder();
+		for (char c : sequence.toCharArray()) {
+			int mutation = random.nextInt(10);
+			if (mutation == 1) {
+				mutated.append(getRandomSequence(random, compounds, 1));
+			}
+			if (mutation == 2) {
+				mutated.append(getRandomSequence(random, compounds, 1));
+			} else if (mutation != 0) {
+				mutated.append(c);
+			}
+		}
+		return mutated.toString();
+	}
+
+}
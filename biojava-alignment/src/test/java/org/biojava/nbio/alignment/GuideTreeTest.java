@@ -62,6 +62,18 @@ public class GuideTreeTest {
 		assertNotNull(tree);
 	}
 
+	@Test
+	public void testGuideTreeAllPairsScorer() {
+		GuideTree<ProteinSequence, AminoAcidCompound> other = new GuideTree<ProteinSequence, AminoAcidCompound>(
+				new AllPairsScorer<ProteinSequence, AminoAcidCompound>(proteins,
+						PairwiseSequenceScorerType.GLOBAL_IDENTITIES, gaps, blosum62));
+		assertArrayEquals(tree.getAllPairsScores(), other.getAllPairsScores(), 0.00001);
+		assertArrayEquals(tree.getDistanceMatrix(), other.getDistanceMatrix());
+		assertArrayEquals(tree.getScoreMatrix(), other.getScoreMatrix());
+		assertEquals(tree.getSequences(), other.getSequences());
+		assertEquals(tree.toString(), other.toString());
+	}
+
 	@Test
 	public void testGetAllPairsScores() {
 		assertArrayEquals(tree.getAllPairsScores(), new double[] {4, 0, 3, 0, 3, 0}, 0.00001);
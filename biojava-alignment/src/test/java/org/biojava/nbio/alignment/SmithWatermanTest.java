@@ -64,6 +64,15 @@ public class SmithWatermanTest {
 		assertEquals(alig.getPair().toString(), String.format("ERNDKK%nER-DNK%n"));
 	}
 
+	@Test
+	public void testSmithWatermanLinear() {
+		SmithWaterman<ProteinSequence, AminoAcidCompound> alig =
+				new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target,
+						new SimpleGapPenalty((short) 0, (short) 5), blosum62);
+		assertEquals(alig.getPair().toString(), String.format("ERNDK%nERDNK%n"));
+		assertEquals(17, alig.getScore(), PRECISION);
+	}
+
 	@Test
 	public void testGetQuery() {
 		assertEquals(alignment.getQuery(), query);
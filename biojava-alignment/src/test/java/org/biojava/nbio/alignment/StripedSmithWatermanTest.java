@@ -0,0 +1,116 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment;
+
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StripedSmithWatermanTest {
+
+	private static final double PRECISION = 0.00000001;
+
+	private ProteinSequence query, target;
+	private GapPenalty gaps;
+	private SubstitutionMatrix<AminoAcidCompound> blosum62;
+
+	@Before
+	public void setup() throws CompoundNotFoundException {
+		query = new ProteinSequence("AERNDKK");
+		target = new ProteinSequence("ERDNKGFPS");
+		gaps = new SimpleGapPenalty((short) 2, (short) 1);
+		blosum62 = SubstitutionMatrixHelper.getBlosum62();
+	}
+
+	@Test
+	public void testGetScore() {
+		StripedSmithWaterman<ProteinSequence, AminoAcidCompound> striped =
+				new StripedSmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		SmithWaterman<ProteinSequence, AminoAcidCompound> alignment =
+				new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		assertEquals(alignment.getScore(), striped.getScore(), PRECISION);
+		assertEquals(alignment.getMaxScore(), striped.getMaxScore(), PRECISION);
+		assertEquals(alignment.getMinScore(), striped.getMinScore(), PRECISION);
+		assertEquals(alignment.getDistance(), striped.getDistance(), PRECISION);
+		assertEquals(query, striped.getQuery());
+		assertEquals(target, striped.getTarget());
+	}
+
+	@Test
+	public void testGetPairwiseScorer() {
+		assertEquals(new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62).getScore(),
+				Alignments.getPairwiseScore(query, target, Alignments.PairwiseSequenceScorerType.LOCAL_STRIPED,
+						gaps, blosum62), PRECISION);
+	}
+
+	/**
+	 * The same scores as {@link SmithWaterman} for random sequences of all lengths and gap penalty types, reusing
+	 * the query profile for all targets.
+	 */
+	@Test
+	public void testRandomSequences() throws CompoundNotFoundException {
+		Random random = new Random(42);
+		GapPenalty[] penalties = { new SimpleGapPenalty(10, 1), new SimpleGapPenalty(0, 4),
+				new SimpleGapPenalty(5, 0) };
+		for (int q = 0; q < 20; q++) {
+			ProteinSequence query = getRandomSequence(random, random.nextInt(3 * StripedSmithWaterman.LANES * q + 1) + 1);
+			StripedSmithWaterman<ProteinSequence, AminoAcidCompound> striped =
+					new StripedSmithWaterman<ProteinSequence, AminoAcidCompound>();
+			striped.setQuery(query);
+			striped.setSubstitutionMatrix(blosum62);
+			for (int t = 0; t < 10; t++) {
+				ProteinSequence target = getRandomSequence(random, random.nextInt(200) + 1);
+				for (GapPenalty penalty : penalties) {
+					striped.setTarget(target);
+					striped.setGapPenalty(penalty);
+					SmithWaterman<ProteinSequence, AminoAcidCompound> alignment =
+							new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, penalty, blosum62);
+					assertEquals(alignment.getScore(), striped.getScore(), PRECISION);
+					assertEquals(alignment.getMaxScore(), striped.getMaxScore(), PRECISION);
+				}
+			}
+		}
+	}
+
+	private static ProteinSequence getRandomSequence(Random random, int length) throws CompoundNotFoundException {
+		// a small alphabet with repeats, to have long alignments and gaps
+		String compounds = "ACDEKLW";
+		StringBuilder sequence = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			if (i > 0 && random.nextInt(3) == 0) {
+				sequence.append(sequence.charAt(random.nextInt(i)));
+			} else {
+				sequence.append(compounds.charAt(random.nextInt(compounds.length())));
+			}
+		}
+		return new ProteinSequence(sequence.toString());
+	}
+
+}
@@ -0,0 +1,198 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.Alignments;
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceAlignerType;
+import org.biojava.nbio.alignment.NeedlemanWunsch;
+import org.biojava.nbio.alignment.SimpleGapPenalty;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.alignment.template.PairwiseSequenceAligner;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BandedNeedlemanWunschTest {
+
+	private static final double PRECISION = 0.00000001;
+
+	private ProteinSequence query, target;
+	private GapPenalty gaps;
+	private SubstitutionMatrix<AminoAcidCompound> blosum62;
+	private BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound> alignment, self;
+
+	@Before
+	public void setup() throws CompoundNotFoundException {
+		query = new ProteinSequence("ARND");
+		target = new ProteinSequence("RDG");
+		gaps = new SimpleGapPenalty(10, 1);
+		blosum62 = SubstitutionMatrixHelper.getBlosum62();
+		alignment = new BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		self = new BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, query, gaps, blosum62);
+	}
+
+	@Test
+	public void testBandedNeedlemanWunsch() {
+		BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound> alig =
+				new BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound>();
+		alig.setQuery(query);
+		alig.setTarget(target);
+		alig.setGapPenalty(gaps);
+		alig.setSubstitutionMatrix(blosum62);
+		assertEquals(String.format("ARND%n-RDG%n"), alig.getPair().toString());
+		assertEquals(-6, alig.getScore(), PRECISION);
+	}
+
+	@Test
+	public void testGetScore() {
+		assertEquals(-6, alignment.getScore(), PRECISION);
+		assertEquals(21, self.getScore(), PRECISION);
+	}
+
+	@Test
+	public void testGetPair() {
+		assertEquals(String.format("ARND%n-RDG%n"), alignment.getPair().toString());
+		assertEquals(String.format("ARND%nARND%n"), self.getPair().toString());
+	}
+
+	@Test
+	public void testGetPairDiagonal() {
+		alignment.setBandWidth(0);
+		assertEquals(String.format("ARND%n-RDG%n"), alignment.getPair().toString());
+		assertEquals(-6, alignment.getScore(), PRECISION);
+	}
+
+	@Test
+	public void testFixedBand() throws CompoundNotFoundException {
+		ProteinSequence query = new ProteinSequence("WWWWWCCCCCCCC"), target = new ProteinSequence("CCCCCCCCWWWWW");
+		NeedlemanWunsch<ProteinSequence, AminoAcidCompound> nw =
+				new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound> banded =
+				new BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62, 2, false);
+		assertTrue(banded.getScore() < nw.getScore());
+		banded.setAdaptive(true);
+		assertEquals(nw.getScore(), banded.getScore(), PRECISION);
+		assertEquals(nw.getPair().toString(), banded.getPair().toString());
+	}
+
+	@Test
+	public void testGetScoreMatrix() {
+		NeedlemanWunsch<ProteinSequence, AminoAcidCompound> nw =
+				new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		int[][][] expected = nw.getScoreMatrix(), scores = alignment.getScoreMatrix();
+		for (int x = 0; x < expected.length; x++) {
+			for (int y = 0; y < expected[x].length; y++) {
+				assertArrayEquals(expected[x][y], scores[x][y]);
+			}
+		}
+		assertEquals(String.format("ARND%n-RDG%n"), alignment.getPair().toString());
+	}
+
+	@Test
+	public void testAdaptiveBand() throws CompoundNotFoundException {
+		Random random = new Random(1);
+		for (GapPenalty penalty : new GapPenalty[] { gaps, new SimpleGapPenalty(0, 4), new SimpleGapPenalty(8, 0) }) {
+			ProteinSequence query = getRandomSequence(random, 600);
+			ProteinSequence target = new ProteinSequence(getMutatedSequence(random, query));
+			NeedlemanWunsch<ProteinSequence, AminoAcidCompound> nw =
+					new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, penalty, blosum62);
+			BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound> banded =
+					new BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, penalty, blosum62,
+							1, true);
+			assertEquals(nw.getScore(), banded.getScore(), PRECISION);
+			banded.setAdaptive(false);
+			assertTrue(banded.getScore() <= nw.getScore());
+			banded.setBandWidth(600);
+			assertEquals(nw.getPair().toString(), banded.getPair().toString());
+		}
+	}
+
+	@Test
+	public void testAdaptiveBandClearOfEdges() throws CompoundNotFoundException {
+		// the best alignments within the bands of width 8 and 16 stay clear of their edges, but are not optimal
+		ProteinSequence query = new ProteinSequence("DEQCARAEPCRDCEAYPEEQCACSRLNAYFCIAFMCFGCVCCGCDSNLCIDEEEDEE"),
+				target = new ProteinSequence("NEDEMCLAECENCAEDCCADQDDCFQNNCFDEEEDNCHRENTGEEAAHCTVHEDD");
+		GapPenalty penalty = new SimpleGapPenalty(8, 1);
+		NeedlemanWunsch<ProteinSequence, AminoAcidCompound> nw =
+				new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, penalty, blosum62);
+		assertEquals(18, nw.getScore(), PRECISION);
+		BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound> banded =
+				new BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, penalty, blosum62, 0,
+						true);
+		assertEquals(13, banded.getScore(), PRECISION);
+		banded.setBandWidth(16);
+		assertEquals(16, banded.getScore(), PRECISION);
+		banded.setBandWidth(query.getLength());
+		assertEquals(nw.getScore(), banded.getScore(), PRECISION);
+		assertEquals(nw.getPair().toString(), banded.getPair().toString());
+	}
+
+	@Test
+	public void testGetPairwiseAligner() {
+		PairwiseSequenceAligner<ProteinSequence, AminoAcidCompound> aligner = Alignments.getPairwiseAligner(query,
+				target, PairwiseSequenceAlignerType.GLOBAL_BANDED, gaps, blosum62);
+		assertFalse(((BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound>) aligner).isAdaptive());
+		assertEquals(-6, aligner.getScore(), PRECISION);
+		aligner = Alignments.getPairwiseAligner(query, target, PairwiseSequenceAlignerType.GLOBAL_BANDED_ADAPTIVE,
+				gaps, blosum62);
+		assertTrue(((BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound>) aligner).isAdaptive());
+		assertEquals(-6, aligner.getScore(), PRECISION);
+	}
+
+	private static ProteinSequence getRandomSequence(Random random, int length) throws CompoundNotFoundException {
+		String compounds = "ACDEFGHIKLMNPQRSTVWY";
+		StringBuilder sequence = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sequence.append(compounds.charAt(random.nextInt(compounds.length())));
+		}
+		return new ProteinSequence(sequence.toString());
+	}
+
+	// deletes, inserts or substitutes about a tenth of the compounds each
+	private static String getMutatedSequence(Random random, ProteinSequence sequence)
+			throws CompoundNotFoundException {
+		StringBuilder mutated = new StringBuilder();
+		for (char c : sequence.getSequenceAsString().toCharArray()) {
+			int mutation = random.nextInt(10);
+			if (mutation == 1) {
+				mutated.append(getRandomSequence(random, 1).getSequenceAsString());
+			}
+			if (mutation == 2) {
+				mutated.append(getRandomSequence(random, 1).getSequenceAsString());
+			} else if (mutation != 0) {
+				mutated.append(c);
+			}
+		}
+		return mutated.toString();
+	}
+
+}
@@ -23,6 +23,9 @@
 
 package org.biojava.nbio.alignment.routines;
 
+import org.biojava.nbio.alignment.Alignments;
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceAlignerType;
+import org.biojava.nbio.alignment.NeedlemanWunsch;
 import org.biojava.nbio.alignment.SimpleGapPenalty;
 import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
 import org.biojava.nbio.alignment.template.GapPenalty;
@@ -36,6 +39,8 @@ import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -135,4 +140,57 @@ public class GuanUberbacherTest {
 		aligner.setCutsPerSection(2); // 3 bases with 2 cuts
 		assertEquals(String.format("AAT-%nAATG%n"), aligner.getPair().toString());
 	}
+
+	@Test
+	public void should_align_anchors() throws CompoundNotFoundException {
+		DNASequence query = new DNASequence("ACGT", AmbiguityDNACompoundSet.getDNACompoundSet());
+		DNASequence target = new DNASequence("ATACGT", AmbiguityDNACompoundSet.getDNACompoundSet());
+		GuanUberbacher<DNASequence, NucleotideCompound> aligner = new GuanUberbacher<DNASequence, NucleotideCompound>(query, target, new SimpleGapPenalty((short)0, (short)10), SubstitutionMatrixHelper.getNuc4_4());
+		aligner.addAnchor(0, 0);
+		aligner.addAnchor(1, 1);
+		aligner.addAnchor(2, 2);
+		aligner.addAnchor(3, 5);
+		assertEquals(String.format("ACG--T%nATACGT%n"), aligner.getPair().toString());
+		assertEquals(-18, aligner.getScore(), PRECISION);
+	}
+
+	@Test
+	public void testLinearSpace() throws CompoundNotFoundException {
+		Random random = new Random(1);
+		for (GapPenalty penalty : new GapPenalty[] { gaps, new SimpleGapPenalty(0, 4), new SimpleGapPenalty(8, 0) }) {
+			ProteinSequence query = getRandomSequence(random, 600), target = getRandomSequence(random, 500);
+			NeedlemanWunsch<ProteinSequence, AminoAcidCompound> nw =
+					new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, penalty, blosum62);
+			GuanUberbacher<ProteinSequence, AminoAcidCompound> gu =
+					new GuanUberbacher<ProteinSequence, AminoAcidCompound>(query, target, penalty, blosum62, 2);
+			assertEquals(nw.getScore(), gu.getScore(), PRECISION);
+			assertEquals(nw.getPair().toString(), gu.getPair().toString());
+		}
+	}
+
+	@Test
+	public void testGetPairwiseAligner() {
+		long size = Alignments.getMaxTracebackSize();
+		try {
+			Alignments.setMaxTracebackSize(20);
+			assertTrue(Alignments.getPairwiseAligner(query, target, PairwiseSequenceAlignerType.GLOBAL, gaps, blosum62)
+					instanceof NeedlemanWunsch);
+			Alignments.setMaxTracebackSize(19);
+			assertTrue(Alignments.getPairwiseAligner(query, target, PairwiseSequenceAlignerType.GLOBAL, gaps, blosum62)
+					instanceof GuanUberbacher);
+		} finally {
+			Alignments.setMaxTracebackSize(size);
+		}
+		assertEquals(-6, Alignments.getPairwiseAligner(query, target, PairwiseSequenceAlignerType.GLOBAL_LINEAR_SPACE,
+				gaps, blosum62).getScore(), PRECISION);
+	}
+
+	private static ProteinSequence getRandomSequence(Random random, int length) throws CompoundNotFoundException {
+		String compounds = "ACDEFGHIKLMNPQRSTVWY";
+		StringBuilder sequence = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sequence.append(compounds.charAt(random.nextInt(compounds.length())));
+		}
+		return new ProteinSequence(sequence.toString());
+	}
 }
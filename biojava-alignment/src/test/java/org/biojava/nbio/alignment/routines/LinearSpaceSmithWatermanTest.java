@@ -0,0 +1,178 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.Alignments;
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceAlignerType;
+import org.biojava.nbio.alignment.SimpleGapPenalty;
+import org.biojava.nbio.alignment.SmithWaterman;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SequencePair;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LinearSpaceSmithWatermanTest {
+
+	private static final double PRECISION = 0.00000001;
+
+	private ProteinSequence query, target;
+	private GapPenalty gaps;
+	private SubstitutionMatrix<AminoAcidCompound> blosum62;
+	private LinearSpaceSmithWaterman<ProteinSequence, AminoAcidCompound> alignment, self;
+
+	@Before
+	public void setup() throws CompoundNotFoundException {
+		query = new ProteinSequence("AERNDKK");
+		target = new ProteinSequence("ERDNKGFPS");
+		gaps = new SimpleGapPenalty((short) 2, (short) 1);
+		blosum62 = SubstitutionMatrixHelper.getBlosum62();
+		alignment = new LinearSpaceSmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		self = new LinearSpaceSmithWaterman<ProteinSequence, AminoAcidCompound>(query, query, gaps, blosum62);
+	}
+
+	@Test
+	public void testLinearSpaceSmithWaterman() {
+		LinearSpaceSmithWaterman<ProteinSequence, AminoAcidCompound> alig =
+				new LinearSpaceSmithWaterman<ProteinSequence, AminoAcidCompound>();
+		alig.setQuery(query);
+		alig.setTarget(target);
+		alig.setGapPenalty(gaps);
+		alig.setSubstitutionMatrix(blosum62);
+		assertEquals(String.format("ERNDKK%nER-DNK%n"), alig.getPair().toString());
+	}
+
+	@Test
+	public void testGetScore() {
+		assertEquals(18, alignment.getScore(), PRECISION);
+		assertEquals(36, self.getScore(), PRECISION);
+	}
+
+	@Test
+	public void testGetPair() {
+		assertEquals(String.format("ERNDKK%nER-DNK%n"), alignment.getPair().toString());
+		assertEquals(String.format("AERNDKK%nAERNDKK%n"), self.getPair().toString());
+		assertEquals(2, alignment.getPair().getQuery().getSequenceIndexAt(1));
+	}
+
+	@Test
+	public void testGetPairLinear() {
+		LinearSpaceSmithWaterman<ProteinSequence, AminoAcidCompound> alig =
+				new LinearSpaceSmithWaterman<ProteinSequence, AminoAcidCompound>(query, target,
+						new SimpleGapPenalty((short) 0, (short) 5), blosum62);
+		assertEquals(String.format("ERNDK%nERDNK%n"), alig.getPair().toString());
+		assertEquals(17, alig.getScore(), PRECISION);
+	}
+
+	@Test
+	public void testGetScoreMatrix() {
+		assertEquals(11, alignment.getScoreMatrix()[4][3][0]);
+		assertEquals(String.format("ERNDKK%nER-DNK%n"), alignment.getPair().toString());
+	}
+
+	@Test
+	public void testGetMaxScore() {
+		assertEquals(50, alignment.getMaxScore(), PRECISION);
+		assertEquals(36, self.getMaxScore(), PRECISION);
+	}
+
+	@Test
+	public void testGetMinScore() {
+		assertEquals(0, alignment.getMinScore(), PRECISION);
+	}
+
+	@Test
+	public void testLinearSpace() throws CompoundNotFoundException {
+		Random random = new Random(1);
+		for (GapPenalty penalty : new GapPenalty[] { gaps, new SimpleGapPenalty(0, 4), new SimpleGapPenalty(8, 0) }) {
+			for (int cuts = 1; cuts <= 10; cuts += 3) {
+				ProteinSequence query = getRandomSequence(random, 400);
+				ProteinSequence target = new ProteinSequence(getRandomSequence(random, 100).getSequenceAsString() +
+						getMutatedSequence(random, query) + getRandomSequence(random, 100).getSequenceAsString());
+				SmithWaterman<ProteinSequence, AminoAcidCompound> sw =
+						new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, penalty, blosum62);
+				LinearSpaceSmithWaterman<ProteinSequence, AminoAcidCompound> ls =
+						new LinearSpaceSmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, penalty,
+								blosum62);
+				ls.setCutsPerSection(cuts);
+				SequencePair<ProteinSequence, AminoAcidCompound> expected = sw.getPair(), pair = ls.getPair();
+				assertEquals(sw.getScore(), ls.getScore(), PRECISION);
+				assertEquals(expected.toString(), pair.toString());
+				assertEquals(expected.getQuery().getSequenceIndexAt(1), pair.getQuery().getSequenceIndexAt(1));
+				assertEquals(expected.getTarget().getSequenceIndexAt(1), pair.getTarget().getSequenceIndexAt(1));
+			}
+		}
+	}
+
+	@Test
+	public void testGetPairwiseAligner() {
+		long size = Alignments.getMaxTracebackSize();
+		try {
+			Alignments.setMaxTracebackSize(80);
+			assertTrue(Alignments.getPairwiseAligner(query, target, PairwiseSequenceAlignerType.LOCAL, gaps, blosum62)
+					instanceof SmithWaterman);
+			Alignments.setMaxTracebackSize(79);
+			assertTrue(Alignments.getPairwiseAligner(query, target, PairwiseSequenceAlignerType.LOCAL, gaps, blosum62)
+					instanceof LinearSpaceSmithWaterman);
+		} finally {
+			Alignments.setMaxTracebackSize(size);
+		}
+		assertEquals(18, Alignments.getPairwiseAligner(query, target, PairwiseSequenceAlignerType.LOCAL_LINEAR_SPACE,
+				gaps, blosum62).getScore(), PRECISION);
+	}
+
+	private static ProteinSequence getRandomSequence(Random random, int length) throws CompoundNotFoundException {
+		String compounds = "ACDEFGHIKLMNPQRSTVWY";
+		StringBuilder sequence = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sequence.append(compounds.charAt(random.nextInt(compounds.length())));
+		}
+		return new ProteinSequence(sequence.toString());
+	}
+
+	// deletes, inserts or substitutes about a tenth of the compounds each
+	private static String getMutatedSequence(Random random, ProteinSequence sequence)
+			throws CompoundNotFoundException {
+		StringBuilder mutated = new StringBuilder();
+		for (char c : sequence.getSequenceAsString().toCharArray()) {
+			int mutation = random.nextInt(10);
+			if (mutation == 1) {
+				mutated.append(getRandomSequence(random, 1).getSequenceAsString());
+			}
+			if (mutation == 2) {
+				mutated.append(getRandomSequence(random, 1).getSequenceAsString());
+			} else if (mutation != 0) {
+				mutated.append(c);
+			}
+		}
+		return mutated.toString();
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class SubstitutionProfileTest {
+
+	private ProteinSequence query, target;
+	private SubstitutionMatrix<AminoAcidCompound> blosum62;
+	private SubstitutionProfile<AminoAcidCompound> profile;
+
+	@Before
+	public void setup() throws CompoundNotFoundException {
+		query = new ProteinSequence("AERNDKKW");
+		target = new ProteinSequence("ERDNKGFPSX");
+		blosum62 = SubstitutionMatrixHelper.getBlosum62();
+		profile = SubstitutionProfile.getProfile(query, target, blosum62);
+	}
+
+	@Test
+	public void testGetScore() {
+		assertNotNull(profile);
+		for (int x = 1; x <= query.getLength(); x++) {
+			int[] subs = profile.getScoreVector(x);
+			assertEquals(target.getLength() + 1, subs.length);
+			for (int y = 1; y <= target.getLength(); y++) {
+				int expected = blosum62.getValue(query.getCompoundAt(x), target.getCompoundAt(y));
+				assertEquals(expected, profile.getScore(x, y));
+				assertEquals(expected, subs[y]);
+			}
+		}
+		for (int s : profile.getScoreVector(0)) {
+			assertEquals(0, s);
+		}
+	}
+
+	@Test
+	public void testEncoding() {
+		for (int x = 1; x <= query.getLength(); x++) {
+			assertEquals(query.getCompoundAt(x), profile.getCompound(profile.getQueryCode(x)));
+		}
+		for (int y = 1; y <= target.getLength(); y++) {
+			assertEquals(target.getCompoundAt(y), profile.getCompound(profile.getTargetCode(y)));
+		}
+		assertEquals(profile.getQueryCode(6), profile.getQueryCode(7));
+	}
+
+	@Test
+	public void testGetSelfScore() {
+		int maxq = 0, maxt = 0;
+		for (AminoAcidCompound c : query) {
+			maxq += blosum62.getValue(c, c);
+		}
+		for (AminoAcidCompound c : target) {
+			maxt += blosum62.getValue(c, c);
+		}
+		assertEquals(maxq, profile.getQuerySelfScore());
+		assertEquals(maxt, profile.getTargetSelfScore());
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.Alignments;
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceAlignerType;
+import org.biojava.nbio.alignment.SimpleGapPenalty;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SequencePair;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class XDropAlignerTest {
+
+	private static final double PRECISION = 0.00000001;
+
+	private ProteinSequence query, target;
+	private GapPenalty gaps;
+	private SubstitutionMatrix<AminoAcidCompound> blosum62;
+	private XDropAligner<ProteinSequence, AminoAcidCompound> alignment;
+
+	@Before
+	public void setup() throws CompoundNotFoundException {
+		query = new ProteinSequence("AERNDKK");
+		target = new ProteinSequence("ERDNKGFPS");
+		gaps = new SimpleGapPenalty((short) 2, (short) 1);
+		blosum62 = SubstitutionMatrixHelper.getBlosum62();
+		alignment = new XDropAligner<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+	}
+
+	@Test
+	public void testXDropAligner() {
+		XDropAligner<ProteinSequence, AminoAcidCompound> alig = new XDropAligner<ProteinSequence, AminoAcidCompound>();
+		alig.setQuery(query);
+		alig.setTarget(target);
+		alig.setGapPenalty(gaps);
+		alig.setSubstitutionMatrix(blosum62);
+		assertEquals(String.format("AERNDKK%n-ER-DNK%n"), alig.getPair().toString());
+		assertEquals(15, alig.getScore(), PRECISION);
+	}
+
+	@Test
+	public void testGetPair() {
+		SequencePair<ProteinSequence, AminoAcidCompound> pair = alignment.getPair();
+		assertEquals(String.format("AERNDKK%n-ER-DNK%n"), pair.toString());
+		assertEquals(1, pair.getQuery().getSequenceIndexAt(1));
+		assertEquals(1, pair.getTarget().getSequenceIndexAt(2));
+	}
+
+	@Test
+	public void testSetSeed() {
+		alignment.setSeed(1, 0);
+		assertEquals(String.format("ERNDKK%nER-DNK%n"), alignment.getPair().toString());
+		assertEquals(18, alignment.getScore(), PRECISION);
+		alignment.setSeed(4, 3);
+		SequencePair<ProteinSequence, AminoAcidCompound> pair = alignment.getPair();
+		assertEquals(String.format("ERNDK%nERDNK%n"), pair.toString());
+		assertEquals(17, alignment.getScore(), PRECISION);
+		assertEquals(2, pair.getQuery().getSequenceIndexAt(1));
+		assertEquals(1, pair.getTarget().getSequenceIndexAt(1));
+		alignment.setSeed(-1, -1);
+		assertEquals(15, alignment.getScore(), PRECISION);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testSetSeedOutside() {
+		alignment.setSeed(7, 0);
+		alignment.getPair();
+	}
+
+	@Test
+	public void testSetXDrop() throws CompoundNotFoundException {
+		ProteinSequence query = new ProteinSequence("WWWWWPPPPPPPPPPPPPPPPPPPPWWWWW"),
+				target = new ProteinSequence("WWWWWGGGGGGGGGGGGGGGGGGGGWWWWW");
+		XDropAligner<ProteinSequence, AminoAcidCompound> alig =
+				new XDropAligner<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		assertEquals(String.format("WWWWW%nWWWWW%n"), alig.getPair().toString());
+		assertEquals(55, alig.getScore(), PRECISION);
+		alig.setXDrop(100);
+		assertEquals(70, alig.getScore(), PRECISION);
+		assertEquals(30, alig.getPair().getLength());
+	}
+
+	@Test
+	public void testLongTarget() throws CompoundNotFoundException {
+		StringBuilder core = new StringBuilder(), tail = new StringBuilder();
+		for (int i = 0; i < 8; i++) {
+			core.append("ACDEFGHIKLMNPQRSTVWY");
+		}
+		for (int i = 0; i < 1000; i++) {
+			tail.append('P');
+		}
+		ProteinSequence query = new ProteinSequence(core.toString()), target = new ProteinSequence(
+				core.substring(0, 100) + "G" + core.substring(100) + tail);
+		XDropAligner<ProteinSequence, AminoAcidCompound> alig =
+				new XDropAligner<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+		SequencePair<ProteinSequence, AminoAcidCompound> pair = alig.getPair();
+		assertEquals(925, alig.getScore(), PRECISION);
+		assertEquals(161, pair.getLength());
+		assertEquals(161, pair.getTarget().getEnd().getPosition().intValue());
+	}
+
+	@Test
+	public void testGetPairwiseAligner() {
+		assertTrue(Alignments.getPairwiseAligner(query, target, PairwiseSequenceAlignerType.EXTENSION_XDROP, gaps,
+				blosum62) instanceof XDropAligner);
+		assertEquals(15, Alignments.getPairwiseAligner(query, target, PairwiseSequenceAlignerType.EXTENSION_XDROP,
+				gaps, blosum62).getScore(), PRECISION);
+	}
+
+}
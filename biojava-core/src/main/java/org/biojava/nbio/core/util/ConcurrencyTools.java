@@ -26,6 +26,8 @@ package org.biojava.nbio.core.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 
 /**
@@ -166,4 +168,54 @@ public class ConcurrencyTools {
 		return submit(task, "");
 	}
 
+	/**
+	 * Runs the tasks on the given executor and waits for all of them. Without an executor, or with a single task,
+	 * the tasks are run one after the other in the calling thread. If a task fails, the ones not finished yet are
+	 * cancelled and its exception is thrown: unchecked exceptions as they are, checked ones wrapped in an
+	 * {@link IllegalStateException}.
+	 *
+	 * @param <T> type returned from the tasks
+	 * @param tasks the tasks to run
+	 * @param executor the executor, or null to run the tasks in the calling thread. It is not shut down.
+	 * @return the results, in the order of the tasks
+	 * @since 6.0.4
+	 */
+	public static <T> List<T> invokeAll(List<? extends Callable<T>> tasks, ExecutorService executor) {
+		List<T> results = new ArrayList<>(tasks.size());
+		if (executor == null || tasks.size() < 2) {
+			for (Callable<T> task : tasks) {
+				try {
+					results.add(task.call());
+				} catch (RuntimeException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+			return results;
+		}
+
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+		try {
+			for (Callable<T> task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			futures.forEach(f -> f.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for tasks", e);
+		} catch (ExecutionException e) {
+			futures.forEach(f -> f.cancel(true));
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+		return results;
+	}
+
 }
@@ -0,0 +1,90 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyToolsTest {
+
+	@Test
+	void testInvokeAll() {
+		List<Callable<Integer>> tasks = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			int n = i;
+			tasks.add(() -> n * n);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Integer> results = ConcurrencyTools.invokeAll(tasks, executor);
+			assertEquals(ConcurrencyTools.invokeAll(tasks, null), results);
+			for (int i = 0; i < 50; i++) {
+				assertEquals(i * i, results.get(i).intValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void testInvokeAllInCallingThread() {
+		Thread caller = Thread.currentThread();
+		List<Callable<Thread>> tasks = new ArrayList<>();
+		tasks.add(Thread::currentThread);
+		tasks.add(Thread::currentThread);
+		for (Thread thread : ConcurrencyTools.invokeAll(tasks, null)) {
+			assertSame(caller, thread);
+		}
+	}
+
+	@Test
+	void testInvokeAllFailure() {
+		IllegalArgumentException unchecked = new IllegalArgumentException();
+		IOException checked = new IOException();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (ExecutorService e : new ExecutorService[] { null, executor }) {
+				List<Callable<Integer>> tasks = new ArrayList<>();
+				tasks.add(() -> 1);
+				tasks.add(() -> { throw unchecked; });
+				assertSame(unchecked, assertThrows(IllegalArgumentException.class,
+						() -> ConcurrencyTools.invokeAll(tasks, e)));
+
+				tasks.set(1, () -> { throw checked; });
+				assertSame(checked, assertThrows(IllegalStateException.class,
+						() -> ConcurrencyTools.invokeAll(tasks, e)).getCause());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
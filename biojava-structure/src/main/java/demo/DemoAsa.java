@@ -89,7 +89,7 @@ public class DemoAsa {
 
 			asaCalc = new AsaCalculator(structure,
 					AsaCalculator.DEFAULT_PROBE_SIZE,
-					1000, numThreads, hetAtoms);
+					1000, nThreads, hetAtoms);
 
 			// only calculating all atom ASAs without keeping the returned value
 			asaCalc.calculateAsas();
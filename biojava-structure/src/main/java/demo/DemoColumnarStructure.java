@@ -0,0 +1,112 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.AtomIterator;
+import org.biojava.nbio.structure.ColumnarStructure;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.StructureIO;
+
+/**
+ * Compares {@link ColumnarStructure} with the default object-per-atom representation
+ * ({@link org.biojava.nbio.structure.StructureImpl StructureImpl},
+ * {@link org.biojava.nbio.structure.ChainImpl ChainImpl},
+ * {@link org.biojava.nbio.structure.HetatomImpl HetatomImpl} and
+ * {@link org.biojava.nbio.structure.AtomImpl AtomImpl}):
+ * heap used per atom, and time to iterate over all atom coordinates.
+ * <p>
+ * Usage: DemoColumnarStructure [PDB ID, default 4V6X] [copies]
+ *
+ */
+public class DemoColumnarStructure {
+
+	public static void main(String[] args) throws IOException, StructureException {
+		String pdbId = args.length > 0 ? args[0] : "4V6X";
+		int copies = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		Structure structure = StructureIO.getStructure(pdbId);
+		ColumnarStructure columnar = new ColumnarStructure(structure);
+		int nAtoms = columnar.getAtomCount();
+		System.out.printf("%s: %d atoms%n", pdbId, nAtoms);
+
+		System.out.printf("objects\t%.1f bytes/atom%n", bytesPerAtom(structure, Structure::clone, copies, nAtoms));
+		System.out.printf("columnar\t%.1f bytes/atom%n", bytesPerAtom(structure, ColumnarStructure::new, copies, nAtoms));
+
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			double sum = sumAtoms(structure);
+			report("objects, atom iterator", start, nAtoms, sum);
+
+			start = System.nanoTime();
+			sum = sumAtoms(columnar);
+			report("columnar, atom iterator", start, nAtoms, sum);
+
+			start = System.nanoTime();
+			sum = 0;
+			double[] coords = columnar.getCoordinateArray();
+			for (int i = 0; i < coords.length; i++) {
+				sum += coords[i];
+			}
+			report("columnar, coordinate array", start, nAtoms, sum);
+		}
+	}
+
+	private static double bytesPerAtom(Structure s, Function<Structure, Structure> copy, int copies, int nAtoms) {
+		List<Structure> keep = new ArrayList<>();
+		long before = usedHeap();
+		for (int i = 0; i < copies; i++) {
+			keep.add(copy.apply(s));
+		}
+		long after = usedHeap();
+		if (keep.isEmpty())
+			return 0;
+		return (double) (after - before) / copies / nAtoms;
+	}
+
+	private static long usedHeap() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	private static double sumAtoms(Structure s) {
+		double sum = 0;
+		AtomIterator it = new AtomIterator(s);
+		while (it.hasNext()) {
+			Atom a = it.next();
+			sum += a.getX() + a.getY() + a.getZ();
+		}
+		return sum;
+	}
+
+	private static void report(String mode, long start, int nAtoms, double checksum) {
+		System.out.printf("%s\t%.2f ns/atom\t(checksum %.1f)%n", mode, (System.nanoTime() - start) / (double) nAtoms, checksum);
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package demo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.StructureIO;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.io.mmtf.MmtfActions;
+
+/**
+ * Measures the wall-clock time of MMTF encoding and decoding of a large
+ * assembly, with the sequential codec and with the columns processed
+ * concurrently by {@link MmtfActions}.
+ * <p>
+ * Usage: DemoMmtfParallelCodec [PDB ID, default 4V6X] [threads, default all processors]
+ *
+ */
+public class DemoMmtfParallelCodec {
+
+	public static void main(String[] args) throws IOException, StructureException {
+		String pdbId = args.length > 0 ? args[0] : "4V6X";
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+		Structure structure = StructureIO.getStructure(pdbId);
+		System.out.printf("%s: %d atoms, %d chains, %d threads%n", pdbId,
+				StructureTools.getNrAtoms(structure), structure.getChains().size(), threads);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			for (int round = 0; round < 5; round++) {
+				for (boolean parallel : new boolean[] {false, true}) {
+					long start = System.nanoTime();
+					ByteArrayOutputStream out = new ByteArrayOutputStream();
+					if (parallel)
+						MmtfActions.writeToOutputStream(structure, out, executor);
+					else
+						MmtfActions.writeToOutputStream(structure, out);
+					long encode = System.nanoTime() - start;
+
+					byte[] bytes = out.toByteArray();
+					start = System.nanoTime();
+					if (parallel)
+						MmtfActions.readFromInputStream(new ByteArrayInputStream(bytes), executor);
+					else
+						MmtfActions.readFromInputStream(new ByteArrayInputStream(bytes));
+					long decode = System.nanoTime() - start;
+
+					System.out.printf("%s\tencode %d ms\tdecode %d ms\t%d bytes%n", parallel ? "parallel" : "sequential",
+							encode / 1000000, decode / 1000000, bytes.length);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -61,6 +61,8 @@ public class AtomImpl implements Atom {
 	private Group parent;
 
 	private List<Bond> bonds;
+	// set while the creation of bonds is deferred by the parser, see StructureImpl.deferPostProcessing
+	private transient volatile boolean bondsPending;
 
 	public AtomImpl () {
 		name       = null;
@@ -271,6 +273,8 @@ public class AtomImpl implements Atom {
 	 */
 	@Override
 	public List<Bond> getBonds() {
+		if (bondsPending)
+			completeBonds();
 		return bonds;
 	}
 
@@ -279,6 +283,8 @@ public class AtomImpl implements Atom {
 	 */
 	@Override
 	public boolean hasBond(Atom other){
+		if (bondsPending)
+			completeBonds();
 		if ( bonds == null)
 			return false;
 
@@ -305,6 +311,22 @@ public class AtomImpl implements Atom {
 		bonds.add(bond);
 	}
 
+	/**
+	 * Creates the bonds if that was deferred by the parser
+	 */
+	private void completeBonds() {
+		// an atom removed from the structure is not reached when the bonds are created
+		if (parent == null || StructureImpl.completePostProcessing(parent.getChain(), StructureImpl.PostProcessing.BONDS))
+			bondsPending = false;
+	}
+
+	/**
+	 * Flags if the creation of bonds is deferred by the parser
+	 */
+	void setBondsPending(boolean bondsPending) {
+		this.bondsPending = bondsPending;
+	}
+
 	@Override
 	public short getCharge() {
 		// Get the charge
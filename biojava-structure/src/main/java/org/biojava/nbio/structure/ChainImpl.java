@@ -126,6 +126,7 @@ public class ChainImpl implements Chain {
 		// here we don't deep-copy it and just keep the same reference, in case the cloning is happening at the Chain level only
 		n.setEntityInfo(this.entity);
 
+		completeSeqRes();
 
 		for (Group group : groups) {
 			Group g = (Group) group.clone();
@@ -348,6 +349,7 @@ public class ChainImpl implements Chain {
 
 	@Override
 	public int getSeqResLength() {
+		completeSeqRes();
 		//new method returns the length of the sequence defined in the SEQRES records
 		return seqResGroups.size();
 	}
@@ -409,6 +411,7 @@ public class ChainImpl implements Chain {
 
 	@Override
 	public String getSeqResSequence(){
+		completeSeqRes();
 
 		StringBuilder str = new StringBuilder();
 		for (Group g : seqResGroups) {
@@ -440,6 +443,7 @@ public class ChainImpl implements Chain {
 	 * as seqResGroups.
 	 */
 	public String getSeqResOneLetterSeq(){
+		completeSeqRes();
 
 		StringBuilder str = new StringBuilder();
 		for (Group g : seqResGroups) {
@@ -465,11 +469,13 @@ public class ChainImpl implements Chain {
 
 	@Override
 	public Group getSeqResGroup(int position) {
+		completeSeqRes();
 		return seqResGroups.get(position);
 	}
 
 	@Override
 	public List<Group> getSeqResGroups(GroupType type) {
+		completeSeqRes();
 		List<Group> tmp = new ArrayList<>() ;
 		for (Group g : seqResGroups) {
 			if (g.getType().equals(type)) {
@@ -482,6 +488,7 @@ public class ChainImpl implements Chain {
 
 	@Override
 	public List<Group> getSeqResGroups() {
+		completeSeqRes();
 		return seqResGroups;
 	}
 
@@ -495,6 +502,13 @@ public class ChainImpl implements Chain {
 		this.seqResGroups = groups;
 	}
 
+	/**
+	 * Runs the SEQRES alignment if it was deferred by the parser
+	 */
+	private void completeSeqRes() {
+		StructureImpl.completePostProcessing(this, StructureImpl.PostProcessing.SEQRES_ALIGNMENT);
+	}
+
 	@Override
 	public int getAtomLength() {
 
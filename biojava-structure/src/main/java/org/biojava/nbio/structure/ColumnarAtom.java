@@ -0,0 +1,228 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure;
+
+import java.util.List;
+
+import javax.vecmath.Point3d;
+
+import org.biojava.nbio.structure.io.FileConvert;
+
+/**
+ * An atom of a {@link ColumnarStructure}: a view on one row of its columns.
+ * Holds nothing but the columns and the row index, views on the same row are equal.
+ *
+ * @since 6.0.4
+ */
+final class ColumnarAtom implements Atom {
+
+	private static final long serialVersionUID = -5364108411587326305L;
+
+	final ColumnarStructure columns;
+	final int index;
+
+	ColumnarAtom(ColumnarStructure columns, int index) {
+		this.columns = columns;
+		this.index = index;
+	}
+
+	@Override
+	public void setName(String s) { columns.names[index] = s; }
+
+	@Override
+	public String getName() { return columns.names[index]; }
+
+	@Override
+	public void setElement(Element e) {
+		columns.elements[index] = e == null ? -1 : (byte) e.ordinal();
+	}
+
+	@Override
+	public Element getElement() {
+		return ColumnarStructure.getElement(columns.elements[index]);
+	}
+
+	@Override
+	public void setPDBserial(int i) { columns.serials[index] = i; }
+
+	@Override
+	public int getPDBserial() { return columns.serials[index]; }
+
+	@Override
+	public void setCoords(double[] c) {
+		System.arraycopy(c, 0, columns.coords, 3 * index, 3);
+	}
+
+	@Override
+	public double[] getCoords() {
+		double[] c = new double[3];
+		System.arraycopy(columns.coords, 3 * index, c, 0, 3);
+		return c;
+	}
+
+	/**
+	 * Returns a copy of the coordinates, changes to it are not reflected in the atom.
+	 */
+	@Override
+	public Point3d getCoordsAsPoint3d() {
+		return new Point3d(getX(), getY(), getZ());
+	}
+
+	@Override
+	public void setX(double x) { columns.coords[3 * index] = x; }
+
+	@Override
+	public void setY(double y) { columns.coords[3 * index + 1] = y; }
+
+	@Override
+	public void setZ(double z) { columns.coords[3 * index + 2] = z; }
+
+	@Override
+	public double getX() { return columns.coords[3 * index]; }
+
+	@Override
+	public double getY() { return columns.coords[3 * index + 1]; }
+
+	@Override
+	public double getZ() { return columns.coords[3 * index + 2]; }
+
+	@Override
+	public void setAltLoc(Character c) {
+		columns.altLocs[index] = c == null ? 0 : c;
+	}
+
+	@Override
+	public Character getAltLoc() {
+		char altLoc = columns.altLocs[index];
+		if (altLoc == 0) return null;
+		return altLoc;
+	}
+
+	@Override
+	public void setOccupancy(float occupancy) { columns.occupancies[index] = occupancy; }
+
+	@Override
+	public float getOccupancy() { return columns.occupancies[index]; }
+
+	@Override
+	public void setTempFactor(float temp) { columns.tempFactors[index] = temp; }
+
+	@Override
+	public float getTempFactor() { return columns.tempFactors[index]; }
+
+	@Override
+	public short getCharge() { return columns.charges[index]; }
+
+	@Override
+	public void setCharge(short charge) { columns.charges[index] = charge; }
+
+	/**
+	 * Returns a detached copy as {@link AtomImpl}, without bonds.
+	 */
+	@Override
+	public Object clone() {
+		AtomImpl n = new AtomImpl();
+		n.setOccupancy(getOccupancy());
+		n.setTempFactor(getTempFactor());
+		n.setAltLoc(getAltLoc());
+		n.setCharge(getCharge());
+		n.setX(getX());
+		n.setY(getY());
+		n.setZ(getZ());
+		n.setPDBserial(getPDBserial());
+		n.setName(getName());
+		n.setElement(getElement());
+		return n;
+	}
+
+	@Override
+	public void setGroup(Group parent) {
+		if (columns.groups[columns.groupIndices[index]] != parent)
+			columns.groupIndices[index] = columns.indexOf(parent);
+	}
+
+	@Override
+	public Group getGroup() {
+		return columns.groups[columns.groupIndices[index]];
+	}
+
+	@Override
+	public List<Bond> getBonds() {
+		return columns.bonds[index];
+	}
+
+	@Override
+	public void setBonds(List<Bond> bonds) {
+		columns.bonds[index] = bonds;
+	}
+
+	/**
+	 * Adds the bond. A bond between two atoms of the same structure is stored as
+	 * a bond between their rows, see {@link ColumnarStructure}.
+	 */
+	@Override
+	public void addBond(Bond bond) {
+		columns.addBond(index, bond);
+	}
+
+	@Override
+	public boolean hasBond(Atom other) {
+		List<Bond> bonds = columns.bonds[index];
+		if (bonds == null)
+			return false;
+
+		for (Bond b : bonds) {
+			if (b.getAtomA().equals(other) || b.getAtomB().equals(other))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public String toPDB() {
+		return FileConvert.toPDB(this);
+	}
+
+	@Override
+	public void toPDB(StringBuffer buf) {
+		FileConvert.toPDB(this, buf);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof ColumnarAtom))
+			return false;
+		ColumnarAtom other = (ColumnarAtom) o;
+		return columns == other.columns && index == other.index;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(columns) + index;
+	}
+
+	@Override
+	public String toString() {
+		return getName() + " " + getElement() + " " + getPDBserial() + " " + getX() + " " + getY() + " " + getZ();
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure;
+
+/**
+ * A bond between two atoms of a {@link ColumnarStructure}, stored as the indices
+ * of their rows. Any view on the rows is accepted by {@link #getOther(Atom)}.
+ *
+ * @since 6.0.4
+ */
+final class ColumnarBond implements Bond {
+
+	private static final long serialVersionUID = 4466275163917446375L;
+
+	private final ColumnarStructure columns;
+	private final int indexA;
+	private final int indexB;
+	private final int bondOrder;
+
+	ColumnarBond(ColumnarStructure columns, int indexA, int indexB, int bondOrder) {
+		this.columns = columns;
+		this.indexA = indexA;
+		this.indexB = indexB;
+		this.bondOrder = bondOrder;
+	}
+
+	@Override
+	public Atom getAtomA() {
+		return new ColumnarAtom(columns, indexA);
+	}
+
+	@Override
+	public Atom getAtomB() {
+		return new ColumnarAtom(columns, indexB);
+	}
+
+	/**
+	 * Returns the other atom of the bond. Atoms are compared by their row, so
+	 * unlike {@link BondImpl#getOther(Atom)} any view on the row is accepted.
+	 */
+	@Override
+	public Atom getOther(Atom exclude) {
+		if (exclude instanceof ColumnarAtom && ((ColumnarAtom) exclude).columns == columns) {
+			int index = ((ColumnarAtom) exclude).index;
+			if (index == indexA)
+				return getAtomB();
+			if (index == indexB)
+				return getAtomA();
+		}
+		throw new IllegalArgumentException("Atom to exclude is not in bond.");
+	}
+
+	@Override
+	public int getBondOrder() {
+		return bondOrder;
+	}
+
+	@Override
+	public double getLength() {
+		return Calc.getDistance(getAtomA(), getAtomB());
+	}
+
+	@Override
+	public String toString() {
+		return "Bond [atomA=" + getAtomA() + ", atomB=" + getAtomB() + ", bondOrder="
+				+ bondOrder + "]";
+	}
+}
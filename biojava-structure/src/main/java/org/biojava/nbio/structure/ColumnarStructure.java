@@ -0,0 +1,462 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A {@link Structure} that stores its atoms in columns of primitive arrays
+ * instead of one {@link AtomImpl} object per atom.
+ * <p>
+ * Coordinates are kept in a single interleaved array (x0, y0, z0, x1, ...),
+ * the remaining atom fields in one array each, atom names are interned so that
+ * all atoms with the same name share one String. Groups only keep the indices
+ * of their atoms, the atoms they return are lightweight views that read and write
+ * these columns and are created when asked for. Chains and groups (which keep their
+ * usual implementations) work as for {@link StructureImpl}. This saves the
+ * per-object overhead of {@link AtomImpl} and its Point3d and allows iterating
+ * over all coordinates without creating atom objects, see
+ * {@link #getCoordinateArray()}. Coordinates are kept in double precision, so
+ * calculations give the same results as with {@link StructureImpl}.
+ * <p>
+ * Each atom has an index (0 to {@link #getAtomCount()}-1), in order of models,
+ * chains, groups (followed by their alternate location groups) and atoms. Atoms
+ * refer to their group, groups to their chain and chains to their model through
+ * int indices, see {@link #getGroupIndex(int)}, {@link #getChainIndex(int)} and
+ * {@link #getModelIndex(int)}.
+ * <p>
+ * Notes:
+ * <ul>
+ * <li>Asking twice for the same atom can return two different objects. They are
+ * {@link Object#equals(Object) equal}, so compare atoms with equals() rather than ==.</li>
+ * <li>{@link Atom#getCoordsAsPoint3d()} returns a copy, changes to it are not written
+ * back. Use {@link Atom#setX(double)} etc. to move an atom.</li>
+ * <li>Atoms added to a group after construction are not part of the columns.</li>
+ * <li>As for {@link StructureImpl#clone()}, only bonds within groups are kept.</li>
+ * <li>Bonds between atoms of the structure refer to their rows, so
+ * {@link Bond#getOther(Atom)} accepts any object for the atom.</li>
+ * </ul>
+ *
+ * @since 6.0.4
+ */
+public class ColumnarStructure extends StructureImpl {
+
+	private static final long serialVersionUID = 2926432498513211478L;
+
+	private static final Element[] ELEMENTS = Element.values();
+
+	private int atomCount;
+
+	// atom columns
+	double[] coords;
+	String[] names;
+	byte[] elements;
+	int[] serials;
+	float[] occupancies;
+	float[] tempFactors;
+	char[] altLocs;
+	short[] charges;
+	List<Bond>[] bonds;
+	int[] groupIndices;
+
+	// group, chain and model tables
+	Group[] groups;
+	int groupCount;
+	private int[] chainIndices;
+	private Chain[] chains;
+	private int[] modelIndices;
+	private Map<Group, Integer> groupIndexLookup;
+
+	/**
+	 * Creates a columnar copy of a structure. The source structure is not modified.
+	 * @param source the structure to copy
+	 */
+	public ColumnarStructure(Structure source) {
+		super();
+		Structure copy = source instanceof ColumnarStructure
+				? ((ColumnarStructure) source).cloneAsStructureImpl()
+				: source.clone();
+		adopt(copy);
+		setStructureIdentifier(source.getStructureIdentifier());
+		setBiologicalAssembly(source.isBiologicalAssembly());
+	}
+
+	/**
+	 * Returns an identical copy of this structure, which is also columnar.
+	 * @return a columnar copy of this structure
+	 */
+	@Override
+	public ColumnarStructure clone() {
+		return new ColumnarStructure(this);
+	}
+
+	/**
+	 * @return the number of atoms stored in columns
+	 */
+	public int getAtomCount() {
+		return atomCount;
+	}
+
+	/**
+	 * @param atomIndex index of an atom
+	 * @return the atom
+	 */
+	public Atom getAtom(int atomIndex) {
+		if (atomIndex < 0 || atomIndex >= atomCount)
+			throw new IndexOutOfBoundsException("Atom index " + atomIndex + " out of range 0-" + (atomCount - 1));
+		return new ColumnarAtom(this, atomIndex);
+	}
+
+	/**
+	 * Returns the coordinates of all atoms as one array: x, y and z of atom 0,
+	 * followed by those of atom 1 etc. This is the backing array, not a copy:
+	 * changes are visible through the atoms and vice versa.
+	 * @return the interleaved coordinates, of length 3 * {@link #getAtomCount()}
+	 */
+	public double[] getCoordinateArray() {
+		return coords;
+	}
+
+	/**
+	 * @param atomIndex index of an atom
+	 * @return the index of the group of the atom
+	 */
+	public int getGroupIndex(int atomIndex) {
+		return groupIndices[atomIndex];
+	}
+
+	/**
+	 * @param groupIndex index of a group
+	 * @return the index of the chain of the group
+	 */
+	public int getChainIndex(int groupIndex) {
+		return chainIndices[groupIndex];
+	}
+
+	/**
+	 * @param chainIndex index of a chain
+	 * @return the index of the model of the chain
+	 */
+	public int getModelIndex(int chainIndex) {
+		return modelIndices[chainIndex];
+	}
+
+	/**
+	 * @param groupIndex index of a group, see {@link #getGroupIndex(int)}
+	 * @return the group
+	 */
+	public Group getIndexedGroup(int groupIndex) {
+		return groups[groupIndex];
+	}
+
+	/**
+	 * @param chainIndex index of a chain, see {@link #getChainIndex(int)}
+	 * @return the chain
+	 */
+	public Chain getIndexedChain(int chainIndex) {
+		return chains[chainIndex];
+	}
+
+	/**
+	 * @return the number of groups, including alternate location groups
+	 */
+	public int getGroupCount() {
+		return groupCount;
+	}
+
+	/**
+	 * @return the number of chains in all models
+	 */
+	public int getChainCount() {
+		return chains.length;
+	}
+
+	/**
+	 * Returns the index of a group, registering it if an atom was moved to it
+	 * after construction.
+	 * @return the index of the group
+	 */
+	int indexOf(Group group) {
+		Integer groupIndex = groupIndexLookup.get(group);
+		return groupIndex != null ? groupIndex : addGroup(group);
+	}
+
+	private int addGroup(Group group) {
+		if (groupCount == groups.length) {
+			groups = Arrays.copyOf(groups, Math.max(1, 2 * groupCount));
+			chainIndices = Arrays.copyOf(chainIndices, groups.length);
+		}
+		int chainIndex = -1;
+		for (int i = 0; i < chains.length; i++) {
+			if (chains[i] == group.getChain()) {
+				chainIndex = i;
+				break;
+			}
+		}
+		groups[groupCount] = group;
+		chainIndices[groupCount] = chainIndex;
+		groupIndexLookup.put(group, groupCount);
+		return groupCount++;
+	}
+
+	/**
+	 * Adds a bond to the bonds of an atom, as a bond between rows if both its
+	 * atoms are rows of this structure.
+	 */
+	void addBond(int atomIndex, Bond bond) {
+		if (!(bond instanceof ColumnarBond) && bond.getAtomA() instanceof ColumnarAtom
+				&& bond.getAtomB() instanceof ColumnarAtom) {
+			ColumnarAtom atomA = (ColumnarAtom) bond.getAtomA();
+			ColumnarAtom atomB = (ColumnarAtom) bond.getAtomB();
+			if (atomA.columns == this && atomB.columns == this)
+				bond = new ColumnarBond(this, atomA.index, atomB.index, bond.getBondOrder());
+		}
+		if (bonds[atomIndex] == null)
+			bonds[atomIndex] = new ArrayList<>(AtomImpl.BONDS_INITIAL_CAPACITY);
+		bonds[atomIndex].add(bond);
+	}
+
+	static Element getElement(byte ordinal) {
+		return ordinal < 0 ? null : ELEMENTS[ordinal];
+	}
+
+	private Structure cloneAsStructureImpl() {
+		return super.clone();
+	}
+
+	/**
+	 * Takes over the chains of the given structure (which must not be used
+	 * afterwards) and replaces their atoms by columnar ones.
+	 */
+	@SuppressWarnings("unchecked")
+	private void adopt(Structure s) {
+		setPdbId(s.getPdbId());
+		setName(s.getName());
+		setPDBHeader(s.getPDBHeader());
+		setDBRefs(s.getDBRefs());
+		setSites(s.getSites());
+
+		// first pass: count to allocate the columns once
+		int nAtoms = 0;
+		int nGroups = 0;
+		int nChains = 0;
+		for (int model = 0; model < s.nrModels(); model++) {
+			for (Chain chain : s.getModel(model)) {
+				nChains++;
+				for (Group group : chain.getAtomGroups()) {
+					nGroups++;
+					nAtoms += group.size();
+					for (Group altLoc : group.getAltLocs()) {
+						nGroups++;
+						nAtoms += altLoc.size();
+					}
+				}
+			}
+		}
+
+		coords = new double[3 * nAtoms];
+		names = new String[nAtoms];
+		elements = new byte[nAtoms];
+		serials = new int[nAtoms];
+		occupancies = new float[nAtoms];
+		tempFactors = new float[nAtoms];
+		altLocs = new char[nAtoms];
+		charges = new short[nAtoms];
+		bonds = new List[nAtoms];
+		groupIndices = new int[nAtoms];
+		groups = new Group[nGroups];
+		chainIndices = new int[nGroups];
+		groupIndexLookup = new IdentityHashMap<>(nGroups);
+		chains = new Chain[nChains];
+		modelIndices = new int[nChains];
+
+		// second pass: fill the columns and replace the atoms
+		Map<String, String> internedNames = new HashMap<>();
+		Map<Atom, Integer> replaced = new IdentityHashMap<>(nAtoms);
+		int chainIndex = 0;
+		for (int model = 0; model < s.nrModels(); model++) {
+			List<Chain> modelChains = s.getModel(model);
+			for (Chain chain : modelChains) {
+				chains[chainIndex] = chain;
+				modelIndices[chainIndex] = model;
+				for (Group group : chain.getAtomGroups()) {
+					addAtoms(group, chainIndex, internedNames, replaced);
+					for (Group altLoc : group.getAltLocs()) {
+						addAtoms(altLoc, chainIndex, internedNames, replaced);
+					}
+				}
+				chainIndex++;
+			}
+			addModel(new ArrayList<>(modelChains));
+		}
+
+		if (atomCount < nAtoms)
+			trimColumns();
+
+		// bonds between the replaced atoms, in atom order
+		Atom[] originals = new Atom[atomCount];
+		for (Map.Entry<Atom, Integer> entry : replaced.entrySet()) {
+			originals[entry.getValue()] = entry.getKey();
+		}
+		for (int i = 0; i < atomCount; i++) {
+			List<Bond> oldBonds = originals[i].getBonds();
+			if (oldBonds == null)
+				continue;
+			for (Bond bond : oldBonds) {
+				if (bond.getAtomA() != originals[i])
+					continue;
+				Integer atomB = replaced.get(bond.getAtomB());
+				if (atomB != null) {
+					Bond columnarBond = new ColumnarBond(this, i, atomB, bond.getBondOrder());
+					addBond(i, columnarBond);
+					addBond(atomB, columnarBond);
+				}
+			}
+		}
+
+		// entities are already linked to the chains taken over
+		setEntityInfos(s.getEntityInfos());
+	}
+
+	private void trimColumns() {
+		coords = Arrays.copyOf(coords, 3 * atomCount);
+		names = Arrays.copyOf(names, atomCount);
+		elements = Arrays.copyOf(elements, atomCount);
+		serials = Arrays.copyOf(serials, atomCount);
+		occupancies = Arrays.copyOf(occupancies, atomCount);
+		tempFactors = Arrays.copyOf(tempFactors, atomCount);
+		altLocs = Arrays.copyOf(altLocs, atomCount);
+		charges = Arrays.copyOf(charges, atomCount);
+		bonds = Arrays.copyOf(bonds, atomCount);
+		groupIndices = Arrays.copyOf(groupIndices, atomCount);
+	}
+
+	private void addAtoms(Group group, int chainIndex, Map<String, String> internedNames, Map<Atom, Integer> replaced) {
+		int groupIndex = groupCount++;
+		groups[groupIndex] = group;
+		chainIndices[groupIndex] = chainIndex;
+		groupIndexLookup.put(group, groupIndex);
+
+		int[] atomIndices = new int[group.size()];
+		int n = 0;
+		for (Atom atom : group.getAtoms()) {
+			Integer existing = replaced.get(atom);
+			if (existing != null) {
+				// shared between a group and its alternate locations
+				atomIndices[n++] = existing;
+				continue;
+			}
+			int i = atomCount++;
+			coords[3 * i] = atom.getX();
+			coords[3 * i + 1] = atom.getY();
+			coords[3 * i + 2] = atom.getZ();
+			String name = atom.getName();
+			if (name != null) {
+				String interned = internedNames.putIfAbsent(name, name);
+				names[i] = interned == null ? name : interned;
+			}
+			elements[i] = atom.getElement() == null ? -1 : (byte) atom.getElement().ordinal();
+			serials[i] = atom.getPDBserial();
+			occupancies[i] = atom.getOccupancy();
+			tempFactors[i] = atom.getTempFactor();
+			Character altLoc = atom.getAltLoc();
+			altLocs[i] = altLoc == null ? 0 : altLoc;
+			charges[i] = atom.getCharge();
+			groupIndices[i] = groupIndex;
+
+			replaced.put(atom, i);
+			atomIndices[n++] = i;
+		}
+		group.setAtoms(new GroupAtoms(this, atomIndices));
+	}
+
+	/**
+	 * The atoms of a group: the indices of its rows, a view on a row is created
+	 * per access. Changing the list turns it into a plain list of the atoms.
+	 */
+	private static final class GroupAtoms extends AbstractList<Atom> implements RandomAccess, Serializable {
+
+		private static final long serialVersionUID = -1870465622311829764L;
+
+		private final ColumnarStructure columns;
+		private final int[] atomIndices;
+		private List<Atom> modified;
+
+		GroupAtoms(ColumnarStructure columns, int[] atomIndices) {
+			this.columns = columns;
+			this.atomIndices = atomIndices;
+		}
+
+		@Override
+		public Atom get(int i) {
+			if (modified != null)
+				return modified.get(i);
+			return new ColumnarAtom(columns, atomIndices[i]);
+		}
+
+		@Override
+		public int size() {
+			return modified != null ? modified.size() : atomIndices.length;
+		}
+
+		@Override
+		public Atom set(int i, Atom atom) {
+			return modifiable().set(i, atom);
+		}
+
+		@Override
+		public void add(int i, Atom atom) {
+			modifiable().add(i, atom);
+			modCount++;
+		}
+
+		@Override
+		public Atom remove(int i) {
+			modCount++;
+			return modifiable().remove(i);
+		}
+
+		@Override
+		public void clear() {
+			modCount++;
+			modifiable().clear();
+		}
+
+		private List<Atom> modifiable() {
+			if (modified == null) {
+				List<Atom> atoms = new ArrayList<>(atomIndices.length + 1);
+				for (int atomIndex : atomIndices) {
+					atoms.add(new ColumnarAtom(columns, atomIndex));
+				}
+				modified = atoms;
+			}
+			return modified;
+		}
+	}
+}
@@ -26,6 +26,7 @@ package org.biojava.nbio.structure;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.biojava.nbio.structure.io.FileConvert;
 import org.slf4j.Logger;
@@ -63,6 +64,29 @@ public class StructureImpl implements Structure {
 
 	private boolean biologicalAssembly;
 
+	// deferred post-processing steps, null if none were deferred
+	private transient volatile AtomicReferenceArray<Runnable> pendingPostProcessing;
+	// guarded by pendingPostProcessing
+	private transient boolean[] runningPostProcessing;
+
+	/**
+	 * Steps of structure parsing that can be deferred until their results are
+	 * first needed, see {@link org.biojava.nbio.structure.io.FileParsingParameters#setLazyPostProcessing(boolean)}.
+	 * Cloning the structure completes all deferred steps.
+	 * @since 6.0.4
+	 */
+	public enum PostProcessing {
+		/**
+		 * Aligning the SEQRES groups to the ATOM groups, run on first access to
+		 * the SEQRES groups of any chain
+		 */
+		SEQRES_ALIGNMENT,
+		/**
+		 * Creating bonds, run on first access to the bonds of any atom or to the disulfide bonds
+		 */
+		BONDS
+	}
+
 	/**
 	 *  Constructs a StructureImpl object.
 	 */
@@ -111,6 +135,8 @@ public class StructureImpl implements Structure {
 		// Note: structures are also cloned in SubstructureIdentifier.reduce().
 		// Changes might need to be made there as well
 
+		completePostProcessing();
+
 		Structure n = new StructureImpl();
 		// go through whole substructure and clone ...
 
@@ -871,6 +897,7 @@ public class StructureImpl implements Structure {
 	/** {@inheritDoc} */
 	@Override
 	public List<Bond> getSSBonds(){
+		completePostProcessing(PostProcessing.BONDS);
 		return ssbonds;
 
 	}
@@ -1048,6 +1075,100 @@ public class StructureImpl implements Structure {
 		models = new ArrayList<>();
 	}
 
+	/**
+	 * Defers a post-processing step of parsing until its results are first
+	 * needed. Used by the parsers for lazy post-processing: the step runs
+	 * once, in the thread that first needs it, while other threads wait.
+	 * @param step the step
+	 * @param task the code performing the step
+	 * @since 6.0.4
+	 */
+	public void deferPostProcessing(PostProcessing step, Runnable task) {
+		if (pendingPostProcessing == null) {
+			runningPostProcessing = new boolean[PostProcessing.values().length];
+			pendingPostProcessing = new AtomicReferenceArray<>(PostProcessing.values().length);
+		}
+		pendingPostProcessing.set(step.ordinal(), task);
+		if (step == PostProcessing.BONDS)
+			setBondsPending(true);
+	}
+
+	/**
+	 * Runs a deferred post-processing step, if it has not run yet.
+	 * @param step the step
+	 * @see #deferPostProcessing(PostProcessing, Runnable)
+	 * @since 6.0.4
+	 */
+	public void completePostProcessing(PostProcessing step) {
+		AtomicReferenceArray<Runnable> pending = pendingPostProcessing;
+		if (pending == null || pending.get(step.ordinal()) == null)
+			return;
+
+		synchronized (pending) {
+			Runnable task = pending.get(step.ordinal());
+			// the step itself may access its own results
+			if (task == null || runningPostProcessing[step.ordinal()])
+				return;
+			runningPostProcessing[step.ordinal()] = true;
+			try {
+				task.run();
+			} finally {
+				runningPostProcessing[step.ordinal()] = false;
+				pending.set(step.ordinal(), null);
+				if (step == PostProcessing.BONDS)
+					setBondsPending(false);
+			}
+		}
+	}
+
+	/**
+	 * Runs all deferred post-processing steps that have not run yet.
+	 * @since 6.0.4
+	 */
+	public void completePostProcessing() {
+		for (PostProcessing step : PostProcessing.values()) {
+			completePostProcessing(step);
+		}
+	}
+
+	/**
+	 * Runs a deferred post-processing step of the structure of the given chain, if any.
+	 * @return false if the step is still running, i.e. it is accessing its own results
+	 */
+	static boolean completePostProcessing(Chain chain, PostProcessing step) {
+		if (chain != null && chain.getStructure() instanceof StructureImpl) {
+			StructureImpl structure = (StructureImpl) chain.getStructure();
+			structure.completePostProcessing(step);
+			AtomicReferenceArray<Runnable> pending = structure.pendingPostProcessing;
+			return pending == null || pending.get(step.ordinal()) == null;
+		}
+		return true;
+	}
+
+	/**
+	 * Flags the atoms of all models, so that they only look for deferred bonds
+	 * until the bonds are created.
+	 */
+	private void setBondsPending(boolean bondsPending) {
+		for (Model model : models) {
+			for (Chain chain : model.getChains()) {
+				for (Group group : chain.getAtomGroups()) {
+					setBondsPending(group, bondsPending);
+					for (Group altLoc : group.getAltLocs()) {
+						setBondsPending(altLoc, bondsPending);
+					}
+				}
+			}
+		}
+	}
+
+	private static void setBondsPending(Group group, boolean bondsPending) {
+		for (Atom atom : group.getAtoms()) {
+			if (atom instanceof AtomImpl)
+				((AtomImpl) atom).setBondsPending(bondsPending);
+		}
+	}
+
 	/**
 	 * Creates a SubstructureIdentifier based on the residues in this Structure.
 	 *
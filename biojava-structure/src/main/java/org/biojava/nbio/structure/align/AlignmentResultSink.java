@@ -0,0 +1,49 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+import org.biojava.nbio.structure.align.model.AFPChain;
+
+/**
+ * A destination for the results of many pairwise structure alignments, such
+ * as the results of an {@link AllVsAllAlignment}. Only a summary of each
+ * {@link AFPChain} (names, lengths and scores) is usually kept.
+ *
+ * @see TsvAlignmentResultSink
+ * @see BinaryAlignmentResultSink
+ * @since 6.0.4
+ */
+public interface AlignmentResultSink extends Closeable, Flushable {
+
+	/**
+	 * Writes the result of one alignment. Calls are not concurrent.
+	 *
+	 * @param afpChain
+	 *            the alignment, with the names of both structures set
+	 * @throws IOException
+	 */
+	void write(AFPChain afpChain) throws IOException;
+
+}
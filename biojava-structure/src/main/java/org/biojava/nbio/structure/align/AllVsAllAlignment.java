@@ -0,0 +1,333 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.StructureIdentifier;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.align.ce.ConfigStrucAligParams;
+import org.biojava.nbio.structure.align.model.AFPChain;
+import org.biojava.nbio.structure.align.util.AFPChainScorer;
+import org.biojava.nbio.structure.align.util.AtomCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aligns all pairs of a list of structures with a pairwise
+ * {@link StructureAlignment} algorithm, as in a database search of the list
+ * against itself.
+ * <p>
+ * The representative atoms of each structure are loaded only once. The pairs
+ * are split recursively into tasks of a {@link ForkJoinPool}, so that idle
+ * threads steal work from the busy ones. The results are written to an
+ * {@link AlignmentResultSink} as soon as they are calculated, in no particular
+ * order. Pairs that fail to align are logged and skipped.
+ * <p>
+ * With a checkpoint file, the names of each aligned pair are appended to the
+ * file after the result was written to the sink. A run that was cancelled
+ * with {@link #cancel()} or killed can be resumed with the same checkpoint
+ * file, and the pairs in it are not aligned again. The result of a pair
+ * aligned just before the run was killed may be written twice.
+ * <p>
+ * Example:
+ * <pre>
+ * AllVsAllAlignment allVsAll = new AllVsAllAlignment(CeMain.algorithmName);
+ * allVsAll.setCheckpoint(Paths.get("done.txt"));
+ * try (AlignmentResultSink sink = new TsvAlignmentResultSink(Paths.get("results.tsv"))) {
+ *     allVsAll.align(cache, identifiers, sink);
+ * }
+ * </pre>
+ *
+ * @since 6.0.4
+ */
+public class AllVsAllAlignment {
+
+	private static final Logger logger = LoggerFactory.getLogger(AllVsAllAlignment.class);
+
+	/**
+	 * The number of pairs below which a task is not split any further
+	 */
+	private static final int PAIRS_PER_TASK = 4;
+
+	private final String algorithmName;
+	private ConfigStrucAligParams parameters;
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+	private Path checkpoint;
+	private volatile boolean cancelled;
+
+	/**
+	 * @param algorithmName
+	 *            the name of the pairwise algorithm in the
+	 *            {@link StructureAlignmentFactory}. A new instance is
+	 *            created for each pair.
+	 * @throws StructureException
+	 *             if the algorithm is unknown
+	 */
+	public AllVsAllAlignment(String algorithmName) throws StructureException {
+		StructureAlignmentFactory.getAlgorithm(algorithmName);
+		this.algorithmName = algorithmName;
+	}
+
+	/**
+	 * @param parameters
+	 *            the parameters of the algorithm, or null for the defaults
+	 */
+	public void setParameters(ConfigStrucAligParams parameters) {
+		this.parameters = parameters;
+	}
+
+	/**
+	 * Sets the pool running the alignments. By default the common
+	 * {@link ForkJoinPool} is used.
+	 *
+	 * @param pool
+	 *            the pool running the alignments
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * @param checkpoint
+	 *            the file recording the aligned pairs, or null for none
+	 */
+	public void setCheckpoint(Path checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+
+	/**
+	 * Stops the current run: the alignments that are running are finished
+	 * and written, the others are skipped.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Loads the representative atoms of the structures from the cache and
+	 * aligns all pairs of them. Structures that fail to load are logged and
+	 * skipped.
+	 *
+	 * @param cache
+	 *            the cache to load the structures from
+	 * @param identifiers
+	 *            the structures to align. The pairs are named by
+	 *            {@link StructureIdentifier#getIdentifier()}.
+	 * @param sink
+	 *            the sink to write the results to
+	 * @return the number of pairs aligned by this call
+	 * @throws IOException
+	 *             if writing the results or the checkpoint failed
+	 */
+	public int align(AtomCache cache, List<? extends StructureIdentifier> identifiers,
+			AlignmentResultSink sink) throws IOException {
+		Atom[][] atoms = pool.submit(() -> identifiers.parallelStream().map(id -> {
+			try {
+				Structure structure = cache.getStructure(id);
+				return StructureTools.getRepresentativeAtomArray(structure);
+			} catch (IOException | StructureException e) {
+				logger.error("Could not load structure {}, it will not be aligned", id.getIdentifier(), e);
+				return null;
+			}
+		}).toArray(Atom[][]::new)).join();
+
+		List<String> names = new ArrayList<>();
+		List<Atom[]> loaded = new ArrayList<>();
+		for (int i = 0; i < atoms.length; i++) {
+			if (atoms[i] != null) {
+				names.add(identifiers.get(i).getIdentifier());
+				loaded.add(atoms[i]);
+			}
+		}
+		return align(names, loaded, sink);
+	}
+
+	/**
+	 * Aligns all pairs of the given atom arrays. The atoms are not modified.
+	 *
+	 * @param names
+	 *            the names of the structures
+	 * @param atoms
+	 *            the atoms to align of each structure
+	 * @param sink
+	 *            the sink to write the results to
+	 * @return the number of pairs aligned by this call
+	 * @throws IOException
+	 *             if writing the results or the checkpoint failed
+	 */
+	public int align(List<String> names, List<Atom[]> atoms, AlignmentResultSink sink) throws IOException {
+		if (names.size() != atoms.size())
+			throw new IllegalArgumentException(names.size() + " names for " + atoms.size() + " atom arrays");
+		cancelled = false;
+		// no pairs, e.g. none of the structures could be loaded
+		if (names.size() < 2)
+			return 0;
+
+		Set<String> done = new HashSet<>();
+		if (checkpoint != null && Files.exists(checkpoint))
+			done.addAll(Files.readAllLines(checkpoint, StandardCharsets.UTF_8));
+
+		// the index of the first pair (i, i+1) of each i
+		int n = names.size();
+		long[] rowStarts = new long[n];
+		for (int i = 1; i < n; i++)
+			rowStarts[i] = rowStarts[i - 1] + (n - i);
+		long numPairs = (long) n * (n - 1) / 2;
+
+		Writer checkpointWriter = checkpoint == null ? null : Files.newBufferedWriter(checkpoint,
+				StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		AtomicInteger aligned = new AtomicInteger();
+		try {
+			Run run = new Run(names, atoms, rowStarts, done, sink, checkpointWriter, aligned);
+			pool.invoke(run.new PairTask(0, numPairs));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			if (checkpointWriter != null)
+				checkpointWriter.close();
+		}
+		sink.flush();
+		if (cancelled)
+			logger.info("Cancelled after aligning {} pairs", aligned.get());
+		return aligned.get();
+	}
+
+	/**
+	 * The state of one call of {@link AllVsAllAlignment#align(List, List, AlignmentResultSink)}
+	 */
+	private class Run {
+
+		private final List<String> names;
+		private final List<Atom[]> atoms;
+		private final long[] rowStarts;
+		private final Set<String> done;
+		private final AlignmentResultSink sink;
+		private final Writer checkpointWriter;
+		private final AtomicInteger aligned;
+
+		Run(List<String> names, List<Atom[]> atoms, long[] rowStarts, Set<String> done,
+				AlignmentResultSink sink, Writer checkpointWriter, AtomicInteger aligned) {
+			this.names = names;
+			this.atoms = atoms;
+			this.rowStarts = rowStarts;
+			this.done = done;
+			this.sink = sink;
+			this.checkpointWriter = checkpointWriter;
+			this.aligned = aligned;
+		}
+
+		/**
+		 * Aligns the pairs with indices from (inclusive) to to (exclusive),
+		 * in the order (0,1), (0,2), ..., (1,2), ...
+		 */
+		private class PairTask extends RecursiveAction {
+
+			private static final long serialVersionUID = 1L;
+
+			private final long from;
+			private final long to;
+
+			PairTask(long from, long to) {
+				this.from = from;
+				this.to = to;
+			}
+
+			@Override
+			protected void compute() {
+				if (to - from <= PAIRS_PER_TASK) {
+					int i = Arrays.binarySearch(rowStarts, from);
+					if (i < 0)
+						i = -i - 2;
+					int j = (int) (from - rowStarts[i]) + i + 1;
+					for (long p = from; p < to && !cancelled; p++) {
+						alignPair(i, j);
+						if (++j == names.size()) {
+							i++;
+							j = i + 1;
+						}
+					}
+				} else {
+					long middle = (from + to) >>> 1;
+					invokeAll(new PairTask(from, middle), new PairTask(middle, to));
+				}
+			}
+		}
+
+		private void alignPair(int i, int j) {
+			String key = names.get(i) + "\t" + names.get(j);
+			if (done.contains(key))
+				return;
+
+			AFPChain afpChain;
+			try {
+				StructureAlignment algorithm = StructureAlignmentFactory.getAlgorithm(algorithmName);
+				if (parameters != null)
+					algorithm.setParameters(parameters);
+				// the algorithms may modify the atoms
+				Atom[] ca1 = StructureTools.cloneAtomArray(atoms.get(i));
+				Atom[] ca2 = StructureTools.cloneAtomArray(atoms.get(j));
+				afpChain = algorithm.align(ca1, ca2);
+				afpChain.setName1(names.get(i));
+				afpChain.setName2(names.get(j));
+				if (afpChain.getTMScore() < 0)
+					afpChain.setTMScore(AFPChainScorer.getTMScore(afpChain, ca1, ca2));
+			} catch (StructureException | RuntimeException e) {
+				logger.error("Could not align {} and {}", names.get(i), names.get(j), e);
+				return;
+			}
+
+			synchronized (this) {
+				try {
+					sink.write(afpChain);
+					if (checkpointWriter != null) {
+						// the result is written before the pair is marked as done
+						sink.flush();
+						checkpointWriter.write(key);
+						checkpointWriter.write('\n');
+						checkpointWriter.flush();
+					}
+				} catch (IOException e) {
+					cancelled = true;
+					throw new UncheckedIOException(e);
+				}
+			}
+			aligned.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import org.biojava.nbio.structure.align.model.AFPChain;
+
+/**
+ * Writes a summary of each alignment as a compact binary record. The records
+ * follow a 4 byte header ("BJA" and a version byte), and contain the names of
+ * the structures and of the algorithm as modified UTF-8 strings, the lengths
+ * as ints, the scores as floats and the calculation time as a long. They can
+ * be read back with {@link #read(InputStream, Consumer)}.
+ *
+ * @since 6.0.4
+ */
+public class BinaryAlignmentResultSink implements AlignmentResultSink {
+
+	private static final byte[] MAGIC = {'B', 'J', 'A', 1};
+
+	/**
+	 * The length of a record without its three strings
+	 */
+	private static final int FIXED_LENGTH = 3 * 4 + 6 * 4 + 8;
+
+	private final DataOutputStream out;
+
+	/**
+	 * Writes the header and the results to the stream.
+	 *
+	 * @param out
+	 *            the stream, closed when this sink is closed
+	 * @throws IOException
+	 */
+	public BinaryAlignmentResultSink(OutputStream out) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+		this.out.write(MAGIC);
+	}
+
+	/**
+	 * Appends the results to a file. The header is only written if the file
+	 * does not exist or is empty, so that the results of a resumed
+	 * {@link AllVsAllAlignment} can be appended to the same file. A record
+	 * that was only partly written when the previous run stopped is cut off
+	 * before appending.
+	 *
+	 * @param file
+	 *            the file to append to
+	 * @throws IOException
+	 *             if the file is not in the format of this class
+	 */
+	public BinaryAlignmentResultSink(Path file) throws IOException {
+		long length = 0;
+		if (Files.exists(file) && Files.size(file) > 0) {
+			length = getCompleteLength(file);
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.truncate(length);
+			}
+		}
+		out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+		if (length == 0)
+			out.write(MAGIC);
+	}
+
+	/**
+	 * Returns the length of the header and the complete records of a file,
+	 * or 0 if not even the header is complete.
+	 */
+	private static long getCompleteLength(Path file) throws IOException {
+		try (DataInputStream data = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			byte[] magic = new byte[MAGIC.length];
+			try {
+				data.readFully(magic);
+			} catch (EOFException e) {
+				return 0;
+			}
+			for (int i = 0; i < MAGIC.length; i++) {
+				if (magic[i] != MAGIC[i])
+					throw new IOException("Not a binary alignment result file: " + file);
+			}
+			long complete = MAGIC.length;
+			byte[] buffer = new byte[Math.max(FIXED_LENGTH, 0xFFFF)];
+			while (true) {
+				try {
+					long length = FIXED_LENGTH;
+					for (int i = 0; i < 3; i++) {
+						int n = data.readUnsignedShort();
+						data.readFully(buffer, 0, n);
+						length += 2 + n;
+					}
+					data.readFully(buffer, 0, FIXED_LENGTH);
+					complete += length;
+				} catch (EOFException e) {
+					return complete;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void write(AFPChain afpChain) throws IOException {
+		out.writeUTF(afpChain.getName1());
+		out.writeUTF(afpChain.getName2());
+		out.writeUTF(afpChain.getAlgorithmName());
+		out.writeInt(afpChain.getCa1Length());
+		out.writeInt(afpChain.getCa2Length());
+		out.writeInt(afpChain.getOptLength());
+		out.writeFloat((float) afpChain.getTotalRmsdOpt());
+		out.writeFloat((float) afpChain.getTMScore());
+		out.writeFloat((float) afpChain.getAlignScore());
+		out.writeFloat((float) afpChain.getProbability());
+		out.writeFloat((float) afpChain.getIdentity());
+		out.writeFloat((float) afpChain.getSimilarity());
+		out.writeLong(afpChain.getCalculationTime());
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 * Reads the records written by a BinaryAlignmentResultSink. Each record
+	 * is returned as an {@link AFPChain} with only the summary fields set.
+	 *
+	 * @param in
+	 *            the stream to read, not closed
+	 * @param consumer
+	 *            the consumer of the alignments, in the order of the stream
+	 * @throws IOException
+	 *             if the stream is not in the format of this class
+	 */
+	public static void read(InputStream in, Consumer<AFPChain> consumer) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		byte[] magic = new byte[MAGIC.length];
+		data.readFully(magic);
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (magic[i] != MAGIC[i])
+				throw new IOException("Not a binary alignment result stream");
+		}
+		while (true) {
+			String name1;
+			try {
+				name1 = data.readUTF();
+			} catch (EOFException e) {
+				return;
+			}
+			String name2 = data.readUTF();
+			AFPChain afpChain = new AFPChain(data.readUTF());
+			afpChain.setName1(name1);
+			afpChain.setName2(name2);
+			afpChain.setCa1Length(data.readInt());
+			afpChain.setCa2Length(data.readInt());
+			afpChain.setOptLength(data.readInt());
+			afpChain.setTotalRmsdOpt(data.readFloat());
+			afpChain.setTMScore(data.readFloat());
+			afpChain.setAlignScore(data.readFloat());
+			afpChain.setProbability(data.readFloat());
+			afpChain.setIdentity(data.readFloat());
+			afpChain.setSimilarity(data.readFloat());
+			afpChain.setCalculationTime(data.readLong());
+			consumer.accept(afpChain);
+		}
+	}
+}
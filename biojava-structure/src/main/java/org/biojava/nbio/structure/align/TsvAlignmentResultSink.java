@@ -0,0 +1,104 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+import org.biojava.nbio.structure.align.model.AFPChain;
+
+/**
+ * Writes a summary of each alignment as a line of tab-separated values, after
+ * a header line starting with '#':
+ * <pre>
+ * #name1	name2	algorithm	length1	length2	alignedLength	rmsd	tmScore	score	probability	identity	similarity	time
+ * </pre>
+ * The time is the calculation time of the alignment in milliseconds.
+ *
+ * @since 6.0.4
+ */
+public class TsvAlignmentResultSink implements AlignmentResultSink {
+
+	/**
+	 * The header line, without the line separator
+	 */
+	public static final String HEADER = "#name1\tname2\talgorithm\tlength1\tlength2\talignedLength"
+			+ "\trmsd\ttmScore\tscore\tprobability\tidentity\tsimilarity\ttime";
+
+	private final Writer writer;
+
+	/**
+	 * Writes the header and the results to the writer.
+	 *
+	 * @param writer
+	 *            the writer, closed when this sink is closed
+	 * @throws IOException
+	 */
+	public TsvAlignmentResultSink(Writer writer) throws IOException {
+		this.writer = writer;
+		writer.write(HEADER);
+		writer.write('\n');
+	}
+
+	/**
+	 * Appends the results to a file. The header is only written if the file
+	 * does not exist or is empty, so that the results of a resumed
+	 * {@link AllVsAllAlignment} can be appended to the same file.
+	 *
+	 * @param file
+	 *            the file to append to
+	 * @throws IOException
+	 */
+	public TsvAlignmentResultSink(Path file) throws IOException {
+		boolean header = !Files.exists(file) || Files.size(file) == 0;
+		writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		if (header) {
+			writer.write(HEADER);
+			writer.write('\n');
+		}
+	}
+
+	@Override
+	public void write(AFPChain afpChain) throws IOException {
+		writer.write(String.format(Locale.US, "%s\t%s\t%s\t%d\t%d\t%d\t%.2f\t%.4f\t%.2f\t%.2e\t%.4f\t%.4f\t%d\n",
+				afpChain.getName1(), afpChain.getName2(), afpChain.getAlgorithmName(),
+				afpChain.getCa1Length(), afpChain.getCa2Length(), afpChain.getOptLength(),
+				afpChain.getTotalRmsdOpt(), afpChain.getTMScore(), afpChain.getAlignScore(),
+				afpChain.getProbability(), afpChain.getIdentity(), afpChain.getSimilarity(),
+				afpChain.getCalculationTime()));
+	}
+
+	@Override
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+}
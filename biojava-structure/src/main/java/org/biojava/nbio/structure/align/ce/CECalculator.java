@@ -42,6 +42,7 @@ import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.vecmath.Matrix4d;
@@ -68,6 +69,9 @@ public class CECalculator {
 	int[] f2;
 	double[][]dist1;
 	double[][]dist2;
+	// the intramolecular distances in the low memory mode, null otherwise
+	float[][] floatDist1;
+	float[][] floatDist2;
 	protected double[][]mat;
 	protected int[] bestTrace1;
 	protected int[] bestTrace2;
@@ -109,6 +113,12 @@ public class CECalculator {
 	protected static final int nIter = 1;
 	private static final boolean distAll = false;
 
+	/**
+	 * The size of the square tiles in which the distance matrices are
+	 * calculated, small enough for a tile of both matrices to stay in cache.
+	 */
+	private static final int TILE_SIZE = 64;
+
 	List<MatrixListener> matrixListeners;
 
 
@@ -144,8 +154,17 @@ public class CECalculator {
 		f1 = new int[nse1];
 		f2 = new int[nse2];
 
-		dist1 = initIntraDistmatrix(ca1, nse1);
-		dist2 = initIntraDistmatrix(ca2, nse2);
+		if (params.isLowMemory()) {
+			dist1 = new double[0][0];
+			dist2 = new double[0][0];
+			floatDist1 = initFloatIntraDistmatrix(ca1, nse1);
+			floatDist2 = initFloatIntraDistmatrix(ca2, nse2);
+		} else {
+			dist1 = initIntraDistmatrix(ca1, nse1);
+			dist2 = initIntraDistmatrix(ca2, nse2);
+			floatDist1 = null;
+			floatDist2 = null;
+		}
 
 
 		if ( debug )
@@ -379,35 +398,124 @@ public class CECalculator {
 		return intraDist;
 	}
 
+	/** build up intramolecular distance matrix dist1 & dist2 in the low
+	 * memory mode. Only the upper triangle is calculated, in tiles, and
+	 * mirrored to the lower one.
+	 *
+	 * @param ca
+	 * @param nse
+	 * @return
+	 * @throws StructureException
+	 */
+	private float[][] initFloatIntraDistmatrix(Atom[] ca, int nse) throws StructureException
+	{
+		float[][] intraDist = new float[nse][nse];
+
+		boolean caOnly = params.getScoringStrategy() == CeParameters.ScoringStrategy.CA_SCORING;
+		double[] coords = new double[caOnly ? 3 * nse : 0];
+		if (caOnly) {
+			for (int i = 0; i < nse; i++) {
+				coords[3 * i] = ca[i].getX();
+				coords[3 * i + 1] = ca[i].getY();
+				coords[3 * i + 2] = ca[i].getZ();
+			}
+		}
+
+		for (int ti = 0; ti < nse; ti += TILE_SIZE) {
+			int tiEnd = Math.min(ti + TILE_SIZE, nse);
+			for (int tj = ti; tj < nse; tj += TILE_SIZE) {
+				int tjEnd = Math.min(tj + TILE_SIZE, nse);
+				for (int i = ti; i < tiEnd; i++) {
+					float[] row = intraDist[i];
+					for (int j = Math.max(i, tj); j < tjEnd; j++) {
+						float d;
+						if (caOnly) {
+							double x = coords[3 * i] - coords[3 * j];
+							double y = coords[3 * i + 1] - coords[3 * j + 1];
+							double z = coords[3 * i + 2] - coords[3 * j + 2];
+							d = (float) Math.sqrt(x * x + y * y + z * z);
+						} else {
+							d = (float) getDistanceWithSidechain(ca[i], ca[j]);
+						}
+						row[j] = d;
+						intraDist[j][i] = d;
+					}
+				}
+			}
+		}
+		return intraDist;
+	}
+
+	/**
+	 * Copies the distances compared by {@link #initSumOfDistances(int, int, int, int, Atom[], Atom[])}
+	 * for each fragment into a contiguous block of winSizeComb1 values.
+	 */
+	private static double[] getFragmentDistances(double[][] dist, int nFrag, int winSize, int winSizeComb1) {
+		double[] fragDist = new double[nFrag * winSizeComb1];
+		for (int ise = 0, k = 0; ise < nFrag; ise++) {
+			for (int is1 = 0; is1 < winSize - 2; is1++)
+				for (int is2 = is1 + 2; is2 < winSize; is2++)
+					fragDist[k++] = dist[ise + is1][ise + is2];
+		}
+		return fragDist;
+	}
+
+	private static double[] getFragmentDistances(float[][] dist, int nFrag, int winSize, int winSizeComb1) {
+		double[] fragDist = new double[nFrag * winSizeComb1];
+		for (int ise = 0, k = 0; ise < nFrag; ise++) {
+			for (int is1 = 0; is1 < winSize - 2; is1++)
+				for (int is2 = is1 + 2; is2 < winSize; is2++)
+					fragDist[k++] = dist[ise + is1][ise + is2];
+		}
+		return fragDist;
+	}
+
 
 	public double[][] initSumOfDistances(int nse1, int nse2, int winSize, int  winSizeComb1, Atom[] ca1, Atom[] ca2) {
 
 		double d;
 
 		double[][] mat   = new double[nse1][nse2];
+		for (double[] row : mat)
+			Arrays.fill(row, -1.0);
+
+		// the number of fragments, the other cells of mat stay -1
+		int nFrag1 = Math.max(nse1 - winSize + 1, 0);
+		int nFrag2 = Math.max(nse2 - winSize + 1, 0);
+		if (nFrag1 == 0 || nFrag2 == 0)
+			return mat;
+
+		// the distances of each fragment are copied into a contiguous block,
+		// in the order in which they are summed up
+		double[] fragDist1;
+		double[] fragDist2;
+		if (floatDist1 != null) {
+			fragDist1 = getFragmentDistances(floatDist1, nFrag1, winSize, winSizeComb1);
+			fragDist2 = getFragmentDistances(floatDist2, nFrag2, winSize, winSizeComb1);
+		} else {
+			fragDist1 = getFragmentDistances(dist1, nFrag1, winSize, winSizeComb1);
+			fragDist2 = getFragmentDistances(dist2, nFrag2, winSize, winSizeComb1);
+		}
 
 		// init the initial mat[] array.
 		// at this stage mat contains the sum of the distances of fragments of the matrices dist1, dist
-		for(int ise1=0; ise1<nse1; ise1++) {
-			for(int ise2=0; ise2<nse2; ise2++) {
-
-				mat[ise1][ise2]=-1.0;
-
-				if(ise1>nse1-winSize || ise2>nse2-winSize) continue;
-
-				d=0.0;
-				// this sums up over the distances of the fragments
-				for(int is1=0; is1<winSize-2; is1++)
-					for(int is2=is1+2; is2<winSize; is2++) {
-						//System.out.println("pos1 :" +  (ise1+is1) + " " + (ise1+is2) +  " " + (ise2+is1) + " " + (ise2+is2));
-						// is this abs or floor? check!
-						d+=Math.abs(dist1[ise1+is1][ise1+is2]-dist2[ise2+is1][ise2+is2]);
+		for (int ti = 0; ti < nFrag1; ti += TILE_SIZE) {
+			int tiEnd = Math.min(ti + TILE_SIZE, nFrag1);
+			for (int tj = 0; tj < nFrag2; tj += TILE_SIZE) {
+				int tjEnd = Math.min(tj + TILE_SIZE, nFrag2);
+				for (int ise1 = ti; ise1 < tiEnd; ise1++) {
+					double[] row = mat[ise1];
+					int k1 = ise1 * winSizeComb1;
+					for (int ise2 = tj; ise2 < tjEnd; ise2++) {
+						int k2 = ise2 * winSizeComb1;
+						d = 0.0;
+						// this sums up over the distances of the fragments
+						for (int k = 0; k < winSizeComb1; k++)
+							d += Math.abs(fragDist1[k1 + k] - fragDist2[k2 + k]);
+						row[ise2] = d / winSizeComb1;
 					}
-				mat[ise1][ise2]=d/winSizeComb1;
-
-				//System.out.println("mat ["+ise1+"]["+ise2+"]="+mat[ise1][ise2]);
+				}
 			}
-
 		}
 
 		// verified: mat[][] probably ok.
@@ -888,6 +996,9 @@ nBestTrace=nTrace;
 
 	protected double getScoreFromDistanceMatrices(int mse1, int mse2,int winSize) {
 
+		if (floatDist1 != null)
+			return getScoreFromFloatDistanceMatrices(mse1, mse2, winSize);
+
 		double score = 0;
 		// (winSize) "best" dist
 
@@ -910,6 +1021,27 @@ nBestTrace=nTrace;
 		return score;
 	}
 
+	/** {@link #getScoreFromDistanceMatrices(int, int, int)} in the low memory mode */
+	private double getScoreFromFloatDistanceMatrices(int mse1, int mse2, int winSize) {
+
+		double score = 0;
+
+		for(int itrace=0; itrace<nTrace; itrace++) {
+			score+=  Math.abs(floatDist1[trace1[itrace]][mse1]-
+					floatDist2[trace2[itrace]][mse2]);
+
+			score+=  Math.abs(floatDist1[trace1[itrace]+winSize-1][mse1+winSize-1]-
+					floatDist2[trace2[itrace]+winSize-1][mse2+winSize-1]);
+
+			for(int id=1; id<winSize-1; id++)
+				score+=  Math.abs(floatDist1[trace1[itrace]+id][mse1+winSize-1-id]-
+						floatDist2[trace2[itrace]+id][mse2+winSize-1-id]);
+
+		}
+
+		return score;
+	}
+
 	public void nextStep( AFPChain afpChain,
 			Atom[] ca1, Atom[] ca2) throws StructureException{
 
@@ -1048,8 +1180,14 @@ nBestTrace=nTrace;
 			System.out.println("got first rmsd: " + rmsd);
 		boolean isCopied=false;
 
+		// the Z-score only depends on the length, score and gaps of the best
+		// trace, which do not change from here on. Alignments that can not
+		// reach the minimum Z-score are neither refined nor optimized.
+		z=zStrAlign(winSize, strLen/winSize, bestTraceScore, nGaps);
+		boolean belowMinZScore = z < params.getMinZScore();
+
 		outer_loop:
-			for(int it=1; it<nBestTrace; it++) {
+			for(int it=1; it<nBestTrace && !belowMinZScore; it++) {
 
 				/* not needed...
 			int igap;
@@ -1126,7 +1264,6 @@ nBestTrace=nTrace;
 		nAtom = strLen;
 
 		//System.out.println("zStrAlign: " + winSize + " strLen " + strLen  + " s/w " + (strLen/winSize) + " " + bestTraceScore + " " + nGaps);
-		z=zStrAlign(winSize, strLen/winSize, bestTraceScore, nGaps);
 
 		if(params.isShowAFPRanges()) {
 			System.out.println("win size: " + winSize + " strLen/winSize: " + strLen/winSize + " best trace score: " + String.format("%.2f",bestTraceScore) + " nr gaps: " + nGaps + " nr residues: " + nAtom);
@@ -1159,7 +1296,7 @@ nBestTrace=nTrace;
 		afpChain.setAfpSet(afpSet);
 
 		//System.out.println("z:"+z + " zThr" + zThr+ " bestTraceScore " + bestTraceScore + " " + nGaps );
-		if(params.isOptimizeAlignment() && z>=zThr) {
+		if(params.isOptimizeAlignment() && z>=zThr && !belowMinZScore) {
 			nGaps = optimizeSuperposition(afpChain,nse1, nse2, strLen, rmsd, ca1, ca2,nGaps,strBuf1,strBuf2);
 			//	      if(isPrint) {
 			//		/*
@@ -2143,6 +2280,7 @@ nBestTrace=nTrace;
 		 int nse2 = ca2.length;
 		 //System.out.println("dist1 :" + dist1.length + " " + dist2.length);
 
+		 // the distance matrices are not kept in the low memory mode
 		 if ( nse1 > 0 && dist1.length > 0 )
 			 afpChain.setDisTable1(new Matrix(dist1));
 		 else
@@ -2305,6 +2443,10 @@ nBestTrace=nTrace;
 		 return t;
 	 }
 
+	/**
+	 * @return the intramolecular distance matrix of the first structure, or
+	 * an empty matrix in the {@link CeParameters#isLowMemory() low memory mode}
+	 */
 	public double[][] getDist1() {
 		return dist1;
 	}
@@ -2313,6 +2455,10 @@ nBestTrace=nTrace;
 		this.dist1 = dist1;
 	}
 
+	/**
+	 * @return the intramolecular distance matrix of the second structure, or
+	 * an empty matrix in the {@link CeParameters#isLowMemory() low memory mode}
+	 */
 	public double[][] getDist2() {
 		return dist2;
 	}
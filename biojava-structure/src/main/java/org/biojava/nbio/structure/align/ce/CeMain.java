@@ -124,13 +124,18 @@ public class CeMain extends AbstractStructureAlignment implements StructureAlign
 		if ( afpChain.getNrEQR() == 0)
 		   return afpChain;
 
+		afpChain.setSequentialAlignment(true);
+
+		// the distance matrix is only kept for display, not in the low memory mode
+		if (params.isLowMemory())
+			return afpChain;
+
 		// Set the distance matrix
 
 		int winSize = params.getWinSize();
 		int winSizeComb1 = (winSize-1)*(winSize-2)/2;
 		double[][] m = calculator.initSumOfDistances(ca1.length, ca2.length, winSize, winSizeComb1, ca1, ca2clone);
 		afpChain.setDistanceMatrix(new Matrix(m));
-		afpChain.setSequentialAlignment(true);
 
 		return afpChain;
 	}
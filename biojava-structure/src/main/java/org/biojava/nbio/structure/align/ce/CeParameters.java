@@ -78,6 +78,17 @@ public class CeParameters implements ConfigStrucAligParams  {
 	 */
 	private boolean optimizeAlignment;
 
+	/**
+	 * Whether the intramolecular distances should be stored as floats and only
+	 * as large as needed, for the alignment of long chains.
+	 */
+	protected boolean lowMemory;
+
+	/**
+	 * The Z-score below which the slow optimization of the alignment is skipped.
+	 */
+	protected double minZScore;
+
 	protected static final double DEFAULT_GAP_OPEN = 5.0;
 	protected static final double DEFAULT_GAP_EXTENSION = 0.5;
 	protected static final double DISTANCE_INCREMENT = 0.5;
@@ -130,6 +141,8 @@ public class CeParameters implements ConfigStrucAligParams  {
 		maxNrIterationsForOptimization = Integer.MAX_VALUE;
 		seqWeight = 0;
 		optimizeAlignment = true;
+		lowMemory = false;
+		minZScore = 0;
 	}
 
 	/** The window size to look at
@@ -447,4 +460,56 @@ public class CeParameters implements ConfigStrucAligParams  {
 		this.optimizeAlignment = optimizeAlignment;
 	}
 
+	/**
+	 * Whether the intramolecular distance matrices should be stored as floats
+	 * and calculated in tiles, which saves memory and time for long chains.
+	 * The alignments may differ slightly from the default mode, and the
+	 * distance matrices are not stored in the resulting AFPChain.
+	 *
+	 * @return lowMemory (default false)
+	 * @since 6.0.4
+	 */
+	public boolean isLowMemory() {
+		return lowMemory;
+	}
+
+	/**
+	 * Whether the intramolecular distance matrices should be stored as floats
+	 * and calculated in tiles, which saves memory and time for long chains.
+	 * The alignments may differ slightly from the default mode, and the
+	 * distance matrices are not stored in the resulting AFPChain.
+	 *
+	 * @param lowMemory (default false)
+	 * @since 6.0.4
+	 */
+	public void setLowMemory(boolean lowMemory) {
+		this.lowMemory = lowMemory;
+	}
+
+	/**
+	 * The Z-score below which an alignment is not optimized. Alignments of
+	 * the best trace with a lower Z-score are returned as they are, which
+	 * makes screening a large library for significant hits faster. The
+	 * Z-score of the alignment does not depend on the optimization.
+	 *
+	 * @return minZScore (default 0, all alignments are optimized)
+	 * @since 6.0.4
+	 */
+	public double getMinZScore() {
+		return minZScore;
+	}
+
+	/**
+	 * The Z-score below which an alignment is not optimized. Alignments of
+	 * the best trace with a lower Z-score are returned as they are, which
+	 * makes screening a large library for significant hits faster. The
+	 * Z-score of the alignment does not depend on the optimization.
+	 *
+	 * @param minZScore (default 0, all alignments are optimized)
+	 * @since 6.0.4
+	 */
+	public void setMinZScore(double minZScore) {
+		this.minZScore = minZScore;
+	}
+
 }
@@ -237,9 +237,12 @@ public class OptimalCECPMain extends CeMain {
 			afpChain.setSequentialAlignment(false);
 		// fix up matrices
 		// ca1 corresponds to row indices, while ca2 corresponds to column indices.
-		afpChain.setDistanceMatrix(permuteMatrix(afpChain.getDistanceMatrix(),0,-cp));
+		// the matrices are not set in the low memory mode
+		if(afpChain.getDistanceMatrix() != null)
+			afpChain.setDistanceMatrix(permuteMatrix(afpChain.getDistanceMatrix(),0,-cp));
 		// this is square, so permute both
-		afpChain.setDisTable2(permuteMatrix(afpChain.getDisTable2(),-cp,-cp));
+		if(afpChain.getDisTable2().getRowDimension() == ca2len)
+			afpChain.setDisTable2(permuteMatrix(afpChain.getDisTable2(),-cp,-cp));
 
 		//TODO fix up other AFP parameters?
 
@@ -34,6 +34,8 @@ import org.biojava.nbio.structure.align.fatcat.calc.FatCatParameters;
 import org.biojava.nbio.structure.align.model.AFPChain;
 import org.biojava.nbio.structure.align.util.ConfigurationException;
 
+import java.util.concurrent.ExecutorService;
+
 
 public class FatCat
 {
@@ -49,6 +51,8 @@ public class FatCat
 
 	FatCatAligner aligner;
 
+	private ExecutorService executor;
+
 	public static final String algorithmName = "jFatCat";
 
 
@@ -96,6 +100,7 @@ public class FatCat
 	protected AFPChain align(Atom[] ca1, Atom[] ca2, FatCatParameters params, boolean doRigid) throws StructureException{
 
 		aligner = new FatCatAligner();
+		aligner.setExecutorService(executor);
 
 		aligner.align(ca1, ca2, doRigid, params);
 
@@ -105,9 +110,21 @@ public class FatCat
 	}
 
 	public FatCatAligner getFatCatAligner(){
-		if ( aligner == null)
+		if ( aligner == null) {
 			aligner = new FatCatAligner();
+			aligner.setExecutorService(executor);
+		}
 		return aligner;
 	}
 
+	/**
+	 * Set the executor used to extract the AFPs of the alignments in parallel.
+	 * The result does not depend on the executor. The executor is not shut down by this class.
+	 * @param executor the executor, or null to do all calculations in the calling thread (the default)
+	 * @since 6.0.4
+	 */
+	public void setExecutorService(ExecutorService executor) {
+		this.executor = executor;
+	}
+
 }
@@ -26,14 +26,18 @@
 
 package org.biojava.nbio.structure.align.fatcat.calc;
 
+import org.biojava.nbio.core.util.ConcurrencyTools;
 import org.biojava.nbio.structure.*;
 import org.biojava.nbio.structure.align.model.AFP;
 import org.biojava.nbio.structure.align.model.AFPChain;
-import org.biojava.nbio.structure.geometry.SuperPositions;
+import org.biojava.nbio.structure.geometry.SuperPositionQCP;
 import org.biojava.nbio.structure.jama.Matrix;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 /**
  * A class that performs calculations on AFPChains
@@ -46,7 +50,30 @@ public class AFPCalculator
 	public static final boolean debug = FatCatAligner.debug;
 
 
+	/**
+	 * The number of rows of the ca1 x ca2 space calculated in one task.
+	 */
+	private static final int BAND_ROWS = 16;
+
+	/**
+	 * Extracts the AFPs of the two structures in the calling thread.
+	 * @see #extractAFPChains(FatCatParameters, AFPChain, Atom[], Atom[], ExecutorService)
+	 */
 	public static void extractAFPChains(FatCatParameters params, AFPChain afpChain,Atom[] ca1,Atom[] ca2) throws StructureException {
+		extractAFPChains(params, afpChain, ca1, ca2, null);
+	}
+
+	/**
+	 * Extracts the AFPs of the two structures into the AFP set of the AFPChain.
+	 * Bands of rows of the ca1 x ca2 space are calculated in parallel on the
+	 * executor, each storing its AFPs in primitive arrays. The AFPs are listed
+	 * in the same order as on a single thread.
+	 *
+	 * @param executor the executor, or null to do all calculations in the calling thread.
+	 * The executor is not shut down by this method.
+	 * @since 6.0.4
+	 */
+	public static void extractAFPChains(FatCatParameters params, AFPChain afpChain,Atom[] ca1,Atom[] ca2, ExecutorService executor) throws StructureException {
 
 		List<AFP> afpSet = new ArrayList<AFP>();
 		afpChain.setAfpSet(afpSet);
@@ -54,28 +81,13 @@ public class AFPCalculator
 		if ( debug )
 			System.err.println("nr of atoms ca1: " + ca1.length + " ca2: " +  ca2.length);
 
-
-
-		int     p1, p2;
-		@SuppressWarnings("unused")
-		int n0, n, n1, n2;
-		double  filter1;
-		double rmsd = 0;
-
-		Matrix r = new Matrix(3,3);
-		Atom   t = new AtomImpl();
-
-
 		int sparse = params.getSparse();
 		int maxTra = params.getMaxTra();
 		int fragLen = params.getFragLen();
-		double disFilter = params.getDisFilter();
-		double rmsdCut = params.getRmsdCut();
 		double badRmsd = params.getBadRmsd();
 		double fragScore = params.getFragScore();
 
 		int     add = sparse + 1; //if add > 1, use sparse sampling
-		n0 = n = n1 = n2 = 0;
 
 		int minLen = 0;
 
@@ -92,39 +104,38 @@ public class AFPCalculator
 		afpChain.setFocusRes1(new int[minLen]);
 		afpChain.setFocusRes2(new int[minLen]);
 
-		for(p1 = 0; p1 < prot1Length - fragLen; p1 += add )    {
-			for(p2 = 0; p2 < prot2Length - fragLen; p2 += add)     {
-				n0 ++;
-				filter1 = getEnd2EndDistance(ca1, ca2, p1, p1 + fragLen - 1, p2, p2 + fragLen - 1);
-				//difference bewteen end-to-end distances
-				if(filter1 > disFilter) { n1 ++; continue; }
-				boolean filter2 = filterTerminal(ca1,ca2, p1, p1 + fragLen - 1, p2, p2 + fragLen - 1, fragLen, minLen);
-				if(filter2)     {
-					n2 ++;
-					continue;
-
-				} //be cautious to use this filter !!
-
-				// here FATCAT does a a jacobi transformation
-				//rmsd = kearsay(fragLen, ca1[p1], ca2[p2], r, t);
-				// we use the BioJava SVD instead...
-
-				//
-				rmsd = getRmsd(ca1,ca2,fragLen, p1,p2,r,t);
+		double[] coords1 = getCoords(ca1);
+		double[] coords2 = getCoords(ca2);
+		int bandMinLen = minLen;
+
+		// the rows p1 = 0, add, 2*add, ... < prot1Length - fragLen
+		int rows = Math.max(0, (prot1Length - fragLen + add - 1) / add);
+		List<Callable<AfpBand>> tasks = new ArrayList<>();
+		for (int row = 0; row < rows; row += BAND_ROWS) {
+			int p1From = row * add;
+			int p1To = Math.min(rows, row + BAND_ROWS) * add;
+			tasks.add(() -> extractBand(params, coords1, coords2, p1From, p1To, bandMinLen));
+		}
 
-				if(rmsd < rmsdCut)      {
-					AFP     afptmp = new AFP();
-					afptmp.setP1(p1);
-					afptmp.setP2(p2);
-					afptmp.setFragLen(fragLen);
-					afptmp.setRmsd(rmsd);
-					afptmp.setM(r);
-					afptmp.setT(t.getCoords());
-					afptmp.setScore(scoreAfp(afptmp,badRmsd,fragScore));
-					afpSet.add(afptmp);
-					n ++;
-				}
+		// all AFPs share the (unused) transformation, as in FATCAT
+		Matrix r = new Matrix(3,3);
+		int n0, n1, n2;
+		n0 = n1 = n2 = 0;
+		for (AfpBand band : ConcurrencyTools.invokeAll(tasks, executor)) {
+			for (int k = 0; k < band.size; k++) {
+				AFP     afptmp = new AFP();
+				afptmp.setP1(band.p1[k]);
+				afptmp.setP2(band.p2[k]);
+				afptmp.setFragLen(fragLen);
+				afptmp.setRmsd(band.rmsd[k]);
+				afptmp.setM(r);
+				afptmp.setT(new double[3]);
+				afptmp.setScore(scoreAfp(afptmp,badRmsd,fragScore));
+				afpSet.add(afptmp);
 			}
+			n0 += band.n0;
+			n1 += band.n1;
+			n2 += band.n2;
 		}
 
 		int afpNum = afpSet.size();
@@ -138,6 +149,84 @@ public class AFPCalculator
 
 	}
 
+	/**
+	 * The AFPs of a band of rows, in primitive arrays.
+	 */
+	private static final class AfpBand {
+		int size;
+		int[] p1 = new int[16];
+		int[] p2 = new int[16];
+		double[] rmsd = new double[16];
+		int n0, n1, n2;
+
+		void add(int afpP1, int afpP2, double afpRmsd) {
+			if (size == p1.length) {
+				p1 = Arrays.copyOf(p1, 2 * size);
+				p2 = Arrays.copyOf(p2, 2 * size);
+				rmsd = Arrays.copyOf(rmsd, 2 * size);
+			}
+			p1[size] = afpP1;
+			p2[size] = afpP2;
+			rmsd[size] = afpRmsd;
+			size++;
+		}
+	}
+
+	/**
+	 * Extracts the AFPs starting at the rows p1From (inclusive) to p1To (exclusive).
+	 */
+	private static AfpBand extractBand(FatCatParameters params, double[] coords1, double[] coords2,
+			int p1From, int p1To, int minLen) {
+
+		int add = params.getSparse() + 1;
+		int fragLen = params.getFragLen();
+		double disFilter = params.getDisFilter();
+		double rmsdCut = params.getRmsdCut();
+
+		int prot1Length = coords1.length / 3;
+		int prot2Length = coords2.length / 3;
+
+		// here FATCAT does a a jacobi transformation
+		// we use the BioJava QCP superposition instead...
+		SuperPositionQCP qcp = new SuperPositionQCP(false);
+		AfpBand band = new AfpBand();
+
+		for(int p1 = p1From; p1 < p1To; p1 += add )    {
+			for(int p2 = 0; p2 < prot2Length - fragLen; p2 += add)     {
+				band.n0 ++;
+				double filter1 = getEnd2EndDistance(coords1, coords2, p1, p1 + fragLen - 1, p2, p2 + fragLen - 1);
+				//difference bewteen end-to-end distances
+				if(filter1 > disFilter) { band.n1 ++; continue; }
+				boolean filter2 = filterTerminal(prot1Length, prot2Length, p1, p1 + fragLen - 1, p2, p2 + fragLen - 1, fragLen, minLen);
+				if(filter2)     {
+					band.n2 ++;
+					continue;
+
+				} //be cautious to use this filter !!
+
+				double rmsd = qcp.getRmsd(coords1, 3 * p1, coords2, 3 * p2, fragLen);
+
+				if(rmsd < rmsdCut)      {
+					band.add(p1, p2, rmsd);
+				}
+			}
+		}
+		return band;
+	}
+
+	/**
+	 * @return the consecutive x, y, z coordinates of the atoms
+	 */
+	private static double[] getCoords(Atom[] ca) {
+		double[] coords = new double[3 * ca.length];
+		for (int i = 0; i < ca.length; i++) {
+			coords[3 * i] = ca[i].getX();
+			coords[3 * i + 1] = ca[i].getY();
+			coords[3 * i + 2] = ca[i].getZ();
+		}
+		return coords;
+	}
+
 	/**
 	 * filter 1 for AFP extration: the distance of end-to-end
 	 * @param p1b
@@ -146,17 +235,30 @@ public class AFPCalculator
 	 * @param p2e
 	 * @return
 	 */
-	private static final double getEnd2EndDistance(Atom[] ca1, Atom[] ca2, int p1b, int p1e, int p2b, int p2e)
+	private static final double getEnd2EndDistance(double[] coords1, double[] coords2, int p1b, int p1e, int p2b, int p2e)
 	{
 
 		double min = 99;
-			double dist1 = Calc.getDistance(ca1[p1b], ca1[p1e]);
-			double dist2 = Calc.getDistance(ca2[p2b], ca2[p2e]);
+			double dist1 = getDistance(coords1, p1b, p1e);
+			double dist2 = getDistance(coords2, p2b, p2e);
 			min = dist1 - dist2;
 
 		return Math.abs(min);
 	}
 
+	/**
+	 * The distance of the atoms i and j, as {@link Calc#getDistance(Atom, Atom)}
+	 */
+	private static double getDistance(double[] coords, int i, int j) {
+		double x = coords[3 * i] - coords[3 * j];
+		double y = coords[3 * i + 1] - coords[3 * j + 1];
+		double z = coords[3 * i + 2] - coords[3 * j + 2];
+
+		double s  = x * x  + y * y + z * z;
+
+		return Math.sqrt(s);
+	}
+
 	/**
 	 * filter 2 for AFP extration: the context
 	 * @param p1b
@@ -166,10 +268,10 @@ public class AFPCalculator
 	 * @return
 	 */
 
-	private static final  boolean filterTerminal(Atom[] ca1, Atom[] ca2, int p1b, int p1e, int p2b, int p2e, int fragLen, int minLen)
+	private static final  boolean filterTerminal(int prot1Length, int prot2Length, int p1b, int p1e, int p2b, int p2e, int fragLen, int minLen)
 	{
 		int     d1 = (p1b < p2b)?p1b:p2b;
-		int     d2 = (ca1.length - p1e) < (ca2.length - p2e)?(ca1.length - p1e):(ca2.length - p2e);
+		int     d2 = (prot1Length - p1e) < (prot2Length - p2e)?(prot1Length - p1e):(prot2Length - p2e);
 		int     d3 = d1 + d2 + fragLen; //maximum alignment length from current AFP
 
 
@@ -180,55 +282,6 @@ public class AFPCalculator
 
 	}
 
-	private static final double getRmsd(Atom[] ca1, Atom[] ca2, int fragLen,
-			int p1, int p2, Matrix m, Atom t) throws StructureException {
-
-
-		double rmsd = 99.9;
-		Atom[] catmp1 = getFragment(ca1, p1, fragLen,false);
-		Atom[] catmp2 = getFragment(ca2, p2, fragLen,false);
-
-		if ( catmp1 == null) {
-			System.err.println("could not get fragment for ca1 " + p1 + " " + fragLen );
-			return rmsd;
-		}
-
-		if ( catmp2 == null) {
-			System.err.println("could not get fragment for ca2 " + p2 + " " + fragLen );
-			return rmsd;
-		}
-
-		return SuperPositions.getRmsd(Calc.atomsToPoints(catmp1),
-				Calc.atomsToPoints(catmp2));
-	}
-
-	/** get a continue subset of Atoms based by the starting position and the length
-	 *
-	 * @param caall
-	 * @param pos ... the start position
-	 * @param fragmentLength .. the length of the subset to extract.
-	 * @param clone: returns a copy of the atom (in case the coordinate get manipulated...)
-	 * @return an Atom[] array
-	 */
-	private static final Atom[] getFragment(Atom[] caall, int pos, int fragmentLength ,
-			boolean clone){
-
-		if ( pos+fragmentLength > caall.length)
-			return null;
-
-		Atom[] tmp = new Atom[fragmentLength];
-
-		for (int i=0;i< fragmentLength;i++){
-			if (clone){
-				tmp[i] = (Atom)caall[i+pos].clone();
-			} else {
-				tmp[i] = caall[i+pos];
-			}
-		}
-		return tmp;
-
-	}
-
 
 	/**
 	 * Assign score to each AFP
@@ -168,23 +168,18 @@ public class AFPChainer
 
 	{
 		int length = ca.length;
-		Matrix dis = new Matrix(length,length);
+		// only the band of width maxlen around the diagonal is calculated
+		double[][] dis = new double[length][length];
 
 		int     i, j;
 		for(i = 0; i < length; i ++)    {
-			dis.set(i,i,0);
 			for(j = i + 1;( j < length) && (j <= i + maxlen); j ++)     {
-				dis.set(i,j,0);
-
-				double val = dis.get(i,j) + (Calc.getDistance(ca[i],ca[j])) * (Calc.getDistance(ca[i],ca[j]));
-				dis.set(i,j,val);
-
-
-				dis.set(i,j,Math.sqrt(dis.get(i,j)));
-				dis.set(j,i,dis.get(i,j));
+				double d = Calc.getDistance(ca[i],ca[j]);
+				dis[i][j] = d;
+				dis[j][i] = dis[i][j];
 			}
 		}
-		return dis;
+		return new Matrix(dis, length, length);
 
 	}
 
@@ -38,6 +38,7 @@ import org.biojava.nbio.structure.align.util.AFPAlignmentDisplay;
 import org.biojava.nbio.structure.align.util.AFPChainScorer;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 
 /**
@@ -54,6 +55,7 @@ public class FatCatAligner
 
 	AFPChain afpChain ;
 	Group[] twistedGroups;
+	ExecutorService executor;
 
 
 
@@ -75,6 +77,16 @@ public class FatCatAligner
 	}
 
 
+	/**
+	 * Set the executor used to extract the AFPs in parallel.
+	 * The result does not depend on the executor. The executor is not shut down by this class.
+	 * @param executor the executor, or null to do all calculations in the calling thread (the default)
+	 * @since 6.0.4
+	 */
+	public void setExecutorService(ExecutorService executor) {
+		this.executor = executor;
+	}
+
 	public  void align(Atom[] ca1, Atom[] ca2, boolean doRigid, FatCatParameters params) throws StructureException{
 
 		long tstart = System.currentTimeMillis();
@@ -85,7 +97,7 @@ public class FatCatAligner
 
 
 
-		AFPCalculator.extractAFPChains(params, afpChain,ca1, ca2);
+		AFPCalculator.extractAFPChains(params, afpChain,ca1, ca2, executor);
 
 		long cend = System.currentTimeMillis();
 
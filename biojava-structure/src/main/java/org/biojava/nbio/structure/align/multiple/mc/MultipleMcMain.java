@@ -30,6 +30,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.biojava.nbio.structure.Atom;
 import org.biojava.nbio.structure.StructureException;
@@ -377,13 +378,38 @@ public class MultipleMcMain implements MultipleStructureAligner {
 			ensemble.addMultipleAlignment(result);
 			executor.shutdown();*/
 
-		MultipleMcOptimizer optimizer = new MultipleMcOptimizer(
-				result, params, reference);
-
 		Long runtime = System.currentTimeMillis()-ensemble.getIoTime();
 		ensemble.setCalculationTime(runtime);
 
-		result = optimizer.optimize();
+		if (params.getNrTrajectories() > 1) {
+			//Run independent trajectories and keep the best one
+			AtomicBoolean stop = new AtomicBoolean(false);
+			List<MultipleMcOptimizer> trajectories =
+					new ArrayList<MultipleMcOptimizer>();
+			for (int i=0; i<params.getNrTrajectories(); i++){
+				MultipleMcOptimizer optimizer = new MultipleMcOptimizer(
+						result, params, reference, i);
+				optimizer.setStop(stop);
+				trajectories.add(optimizer);
+			}
+			try {
+				result = MultipleMcTrajectories.optimize(trajectories, stop,
+						params.isEarlyStop(), params.getNrThreads());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new StructureException("Optimization interrupted.", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof StructureException)
+					throw (StructureException) e.getCause();
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw new StructureException("Optimization failed.", e.getCause());
+			}
+		} else {
+			MultipleMcOptimizer optimizer = new MultipleMcOptimizer(
+					result, params, reference);
+			result = optimizer.optimize();
+		}
 		result.setEnsemble(ensemble);
 		ensemble.addMultipleAlignment(result);
 
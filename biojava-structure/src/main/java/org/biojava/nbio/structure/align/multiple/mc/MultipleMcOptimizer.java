@@ -29,6 +29,7 @@ import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.biojava.nbio.structure.Atom;
 import org.biojava.nbio.structure.StructureException;
@@ -90,6 +91,7 @@ public class MultipleMcOptimizer implements Callable<MultipleAlignment> {
 	private int size; // number of structures in the alignment
 	private int blockNr; // the number of Blocks in the alignment
 	private double mcScore; // Optimization score, objective function
+	private AtomicBoolean stop; // Set to stop the optimization early
 
 	// Variables that store the history of the optimization - slower if on
 	private static final boolean history = false;
@@ -112,13 +114,33 @@ public class MultipleMcOptimizer implements Callable<MultipleAlignment> {
 	 */
 	public MultipleMcOptimizer(MultipleAlignment seedAln,
 			MultipleMcParameters params, int reference) {
+		this(seedAln, params, reference, 0);
+	}
+
+	/**
+	 * Constructor of one of several independent trajectories. The random
+	 * number generator of the trajectory is seeded with the random seed of
+	 * the parameters plus the trajectory index.
+	 *
+	 * @param seedAln
+	 *            MultipleAlignment to be optimized.
+	 * @param params
+	 *            the parameter beam
+	 * @param reference
+	 *            the index of the most similar structure to all others
+	 * @param trajectory
+	 *            the index of the trajectory
+	 * @since 6.0.4
+	 */
+	public MultipleMcOptimizer(MultipleAlignment seedAln,
+			MultipleMcParameters params, int reference, int trajectory) {
 
 		MultipleAlignmentEnsemble e = seedAln.getEnsemble().clone();
 		msa = e.getMultipleAlignment(0);
 		atomArrays = msa.getAtomArrays();
 		size = seedAln.size();
 
-		rnd = new Random(params.getRandomSeed());
+		rnd = new Random(params.getRandomSeed() + trajectory);
 		Gopen = params.getGapOpen();
 		Gextend = params.getGapExtension();
 		dCutoff = params.getDistanceCutoff();
@@ -174,6 +196,18 @@ public class MultipleMcOptimizer implements Callable<MultipleAlignment> {
 		return optimize();
 	}
 
+	/**
+	 * Set a flag that stops the optimization after the current step when
+	 * set, see {@link MultipleMcTrajectories}.
+	 *
+	 * @param stop
+	 *            the stop flag, or null to always run until convergence
+	 * @since 6.0.4
+	 */
+	public void setStop(AtomicBoolean stop) {
+		this.stop = stop;
+	}
+
 	/**
 	 * Initialize the freePool and all the variables needed for the
 	 * optimization.
@@ -245,7 +279,8 @@ public class MultipleMcOptimizer implements Callable<MultipleAlignment> {
 		int i = 1;
 		int maxIter = convergenceSteps * 100;
 
-		while (i < maxIter && conv < convergenceSteps) {
+		while (i < maxIter && conv < convergenceSteps
+				&& (stop == null || !stop.get())) {
 
 			// Save the state of the system
 			MultipleAlignment lastMSA = msa.clone();
@@ -43,6 +43,8 @@ public class MultipleMcParameters implements ConfigStrucAligParams {
 	private double distanceCutoff;
 	private int convergenceSteps;
 	private int nrThreads;
+	private int nrTrajectories;
+	private boolean earlyStop;
 
 	/**
 	 * Constructor with DEFAULT values of the parameters.
@@ -63,6 +65,8 @@ public class MultipleMcParameters implements ConfigStrucAligParams {
 		params.add("DistanceCutoff");
 		params.add("ConvergenceSteps");
 		params.add("NrThreads");
+		params.add("NrTrajectories");
+		params.add("EarlyStop");
 		return params;
 	}
 
@@ -78,6 +82,8 @@ public class MultipleMcParameters implements ConfigStrucAligParams {
 		params.add("Distance Cutoff");
 		params.add("Steps to Convergence");
 		params.add("Number of Threads");
+		params.add("Number of Trajectories");
+		params.add("Early Stop");
 		return params;
 	}
 
@@ -94,6 +100,8 @@ public class MultipleMcParameters implements ConfigStrucAligParams {
 		params.add(Double.class);
 		params.add(Integer.class);
 		params.add(Integer.class);
+		params.add(Integer.class);
+		params.add(Boolean.class);
 		return params;
 	}
 
@@ -123,6 +131,14 @@ public class MultipleMcParameters implements ConfigStrucAligParams {
 		String nrThreads =
 				"Number of threads to be used for the seed calculation (all-"
 				+ "to-all pairwise alignments) and the MC optimization.";
+		String nrTrajectories =
+				"Number of independent MC optimizations run in parallel, "
+				+ "with the random seeds Random Seed, Random Seed + 1, etc. "
+				+ "The alignment with the highest MC-Score is kept.";
+		String earlyStop =
+				"Stop all MC optimizations once two of them converged to "
+				+ "the same MC-Score. The result can then depend on the "
+				+ "thread timing.";
 
 		params.add(randomSeed);
 		params.add(minBlockLen);
@@ -132,6 +148,8 @@ public class MultipleMcParameters implements ConfigStrucAligParams {
 		params.add(dCutoff);
 		params.add(convergenceSteps);
 		params.add(nrThreads);
+		params.add(nrTrajectories);
+		params.add(earlyStop);
 		return params;
 	}
 
@@ -142,7 +160,8 @@ public class MultipleMcParameters implements ConfigStrucAligParams {
 				+ minAlignedStructures + ", gapOpen=" + gapOpen
 				+ ", gapExtension=" + gapExtension + ", distanceCutoff="
 				+ distanceCutoff + ", convergenceSteps=" + convergenceSteps
-				+ ", nrThreads=" + nrThreads + "]";
+				+ ", nrThreads=" + nrThreads + ", nrTrajectories="
+				+ nrTrajectories + ", earlyStop=" + earlyStop + "]";
 	}
 
 	@Override
@@ -156,6 +175,8 @@ public class MultipleMcParameters implements ConfigStrucAligParams {
 		distanceCutoff = 7.0;
 		convergenceSteps = 0;
 		nrThreads = Runtime.getRuntime().availableProcessors();
+		nrTrajectories = 1;
+		earlyStop = false;
 	}
 
 	public int getRandomSeed() {
@@ -214,6 +235,49 @@ public class MultipleMcParameters implements ConfigStrucAligParams {
 		this.nrThreads = nrThreads;
 	}
 
+	/**
+	 * The number of independent Monte Carlo trajectories, run in parallel
+	 * on {@link #getNrThreads()} threads. Trajectory i uses the random seed
+	 * {@link #getRandomSeed()} + i.
+	 *
+	 * @return the number of trajectories (default 1)
+	 * @since 6.0.4
+	 */
+	public int getNrTrajectories() {
+		return nrTrajectories;
+	}
+
+	/**
+	 * @param nrTrajectories
+	 *            the number of trajectories (default 1)
+	 * @see #getNrTrajectories()
+	 * @since 6.0.4
+	 */
+	public void setNrTrajectories(Integer nrTrajectories) {
+		this.nrTrajectories = nrTrajectories;
+	}
+
+	/**
+	 * Whether all trajectories are stopped once two of them converged to
+	 * the same MC-Score, see {@link MultipleMcTrajectories}.
+	 *
+	 * @return earlyStop (default false)
+	 * @since 6.0.4
+	 */
+	public boolean isEarlyStop() {
+		return earlyStop;
+	}
+
+	/**
+	 * @param earlyStop
+	 *            (default false)
+	 * @see #isEarlyStop()
+	 * @since 6.0.4
+	 */
+	public void setEarlyStop(Boolean earlyStop) {
+		this.earlyStop = earlyStop;
+	}
+
 	public double getDistanceCutoff() {
 		return distanceCutoff;
 	}
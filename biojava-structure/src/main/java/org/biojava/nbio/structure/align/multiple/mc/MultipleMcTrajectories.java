@@ -0,0 +1,140 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.multiple.mc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.biojava.nbio.structure.align.multiple.MultipleAlignment;
+import org.biojava.nbio.structure.align.multiple.util.MultipleAlignmentScorer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs independent Monte Carlo trajectories of a multiple alignment
+ * optimization concurrently, and keeps the alignment with the highest
+ * MC-Score. Each trajectory should use its own random seed, so that every
+ * trajectory is reproducible.
+ * <p>
+ * If early stopping is enabled, the remaining trajectories are stopped as
+ * soon as two finished trajectories agree on the MC-Score (within
+ * {@link #CONVERGENCE_TOLERANCE}). The trajectories check the shared stop
+ * flag after each step and return their current alignment. Which
+ * trajectories finish before the stop can depend on the thread timing, so
+ * only the results without early stopping are fully reproducible.
+ *
+ * @since 6.0.4
+ *
+ */
+public class MultipleMcTrajectories {
+
+	private static final Logger logger = LoggerFactory
+			.getLogger(MultipleMcTrajectories.class);
+
+	/**
+	 * The relative difference of the MC-Scores of two trajectories below
+	 * which they are considered converged.
+	 */
+	public static final double CONVERGENCE_TOLERANCE = 0.001;
+
+	/** Prevent instantiation */
+	private MultipleMcTrajectories(){}
+
+	/**
+	 * Runs the trajectories on a new thread pool and returns the alignment
+	 * with the highest MC-Score. The first trajectory wins ties, so that the
+	 * result does not depend on the order in which they finish.
+	 *
+	 * @param trajectories
+	 *            the optimizations, all checking the stop flag
+	 * @param stop
+	 *            the flag that is set to stop the trajectories early
+	 * @param earlyStop
+	 *            stop the trajectories once two of them converged
+	 * @param nrThreads
+	 *            the number of threads
+	 * @return the alignment with the highest MC-Score
+	 * @throws ExecutionException
+	 *             if a trajectory failed, with its exception as the cause
+	 * @throws InterruptedException
+	 */
+	public static MultipleAlignment optimize(
+			List<? extends Callable<MultipleAlignment>> trajectories,
+			AtomicBoolean stop, boolean earlyStop, int nrThreads)
+			throws ExecutionException, InterruptedException {
+
+		int threads = Math.max(1, Math.min(nrThreads, trajectories.size()));
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CompletionService<MultipleAlignment> completion =
+				new ExecutorCompletionService<MultipleAlignment>(executor);
+
+		List<Future<MultipleAlignment>> futures =
+				new ArrayList<Future<MultipleAlignment>>();
+		try {
+			for (Callable<MultipleAlignment> t : trajectories)
+				futures.add(completion.submit(t));
+
+			// Stop the others once two finished trajectories agree
+			List<Double> finished = new ArrayList<Double>();
+			for (int i = 0; i < futures.size(); i++) {
+				MultipleAlignment msa = completion.take().get();
+				if (!earlyStop || stop.get())
+					continue;
+				double score = msa.getScore(MultipleAlignmentScorer.MC_SCORE);
+				for (double s : finished) {
+					if (Math.abs(score - s) <= CONVERGENCE_TOLERANCE
+							* Math.max(Math.abs(score), Math.abs(s))) {
+						logger.info("Trajectories converged after "
+								+ (finished.size() + 1) + " of "
+								+ futures.size());
+						stop.set(true);
+						break;
+					}
+				}
+				finished.add(score);
+			}
+
+			MultipleAlignment best = null;
+			double maxScore = Double.NEGATIVE_INFINITY;
+			for (Future<MultipleAlignment> f : futures) {
+				MultipleAlignment msa = f.get();
+				double score = msa.getScore(MultipleAlignmentScorer.MC_SCORE);
+				if (score > maxScore) {
+					best = msa;
+					maxScore = score;
+				}
+			}
+			return best;
+
+		} finally {
+			stop.set(true);
+			executor.shutdownNow();
+		}
+	}
+}
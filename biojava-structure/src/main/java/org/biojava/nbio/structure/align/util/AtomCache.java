@@ -36,6 +36,7 @@ import org.biojava.nbio.structure.cath.CathFactory;
 import org.biojava.nbio.structure.io.BcifFileReader;
 import org.biojava.nbio.structure.io.CifFileReader;
 import org.biojava.nbio.structure.io.FileParsingParameters;
+import org.biojava.nbio.structure.io.LocalPDBDirectory;
 import org.biojava.nbio.structure.io.LocalPDBDirectory.FetchBehavior;
 import org.biojava.nbio.structure.io.LocalPDBDirectory.ObsoleteBehavior;
 import org.biojava.nbio.structure.io.MMTFFileReader;
@@ -89,6 +90,9 @@ public class AtomCache {
 	private String path;
 	private StructureFiletype filetype = StructureFiletype.BCIF;
 
+	// null if in-memory caching of parsed structures is disabled
+	private StructureCache structureCache;
+
 	/**
 	 * Default AtomCache constructor.
 	 *
@@ -724,6 +728,8 @@ public class AtomCache {
 	 */
 	public void setPath(String path) {
 		this.path = FileDownloadUtils.expandUserHome(path);
+		if (structureCache != null)
+			structureCache.clear();
 	}
 
 	/**
@@ -742,6 +748,36 @@ public class AtomCache {
 		this.filetype = filetype;
 	}
 
+	/**
+	 * Enables an in-memory cache of parsed structures, so that repeated requests for
+	 * the same PDB ID (e.g. for different chains or domains of one entry) are only
+	 * parsed once. The cache is bounded by the estimated heap footprint of the
+	 * cached structures and evicts the least recently used ones. Callers always
+	 * receive a copy of the cached structure.
+	 * <p>
+	 * Disabled by default. Replaces any previously cached structures.
+	 *
+	 * @param maxBytes the maximum estimated heap footprint of the cached structures
+	 * in bytes, 0 to disable the cache
+	 * @see StructureCache#estimateBytes(Structure)
+	 * @since 6.0.4
+	 */
+	public void setStructureCacheSize(long maxBytes) {
+		if (maxBytes < 0)
+			throw new IllegalArgumentException("Cache size must not be negative");
+		structureCache = maxBytes > 0 ? new StructureCache(maxBytes) : null;
+	}
+
+	/**
+	 * Returns the in-memory cache of parsed structures, e.g. to query its hit rate.
+	 * @return the cache, or null if disabled
+	 * @see #setStructureCacheSize(long)
+	 * @since 6.0.4
+	 */
+	public StructureCache getStructureCache() {
+		return structureCache;
+	}
+
 	private boolean checkLoading(PdbId pdbId) {
 		return currentlyLoading.contains(pdbId.getId());
 	}
@@ -812,7 +848,13 @@ public class AtomCache {
 	public Structure getStructureForPdbId(PdbId pdbId) throws IOException {
 		if (pdbId == null)
 			return null;
-		
+
+		StructureCache cache = structureCache;
+		if (cache != null) {
+			// the cache makes sure each entry is only loaded once
+			return cache.get(pdbId, filetype, params, () -> loadStructureForPdbId(pdbId));
+		}
+
 		while (checkLoading(pdbId)) {
 			// waiting for loading to be finished...
 			try {
@@ -822,6 +864,10 @@ public class AtomCache {
 			}
 		}
 
+		return loadStructureForPdbId(pdbId);
+	}
+
+	private Structure loadStructureForPdbId(PdbId pdbId) throws IOException {
 		switch (filetype) {
 			case CIF:
 				logger.debug("loading from mmcif");
@@ -838,7 +884,34 @@ public class AtomCache {
 		}
 	}
 
-	
+	/**
+	 * Makes sure the file for the given PDB ID is available locally, downloading it if required by the
+	 * {@link FetchBehavior}, without parsing it. Used to pre-fetch large numbers of structures.
+	 * @param pdbId the PDB ID
+	 * @throws IOException if the file is not available and cannot be downloaded
+	 * @since 6.0.4
+	 */
+	public void prefetchStructure(PdbId pdbId) throws IOException {
+		LocalPDBDirectory reader;
+		switch (filetype) {
+			case CIF:
+				reader = new CifFileReader(path);
+				break;
+			case BCIF:
+				reader = new BcifFileReader(path);
+				break;
+			case MMTF:
+				reader = new MMTFFileReader();
+				break;
+			case PDB: default:
+				reader = new PDBFileReader(path);
+				break;
+		}
+		reader.setFetchBehavior(fetchBehavior);
+		reader.setObsoleteBehavior(obsoleteBehavior);
+		reader.prefetchStructure(pdbId.getId());
+	}
+
 	protected Structure loadStructureFromMmtfByPdbId(String pdbId) throws IOException {
 		return loadStructureFromMmtfByPdbId(new PdbId(pdbId));
 	}
@@ -0,0 +1,338 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.util;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.biojava.nbio.structure.PdbId;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.StructureIdentifier;
+import org.biojava.nbio.structure.SubstructureIdentifier;
+import org.biojava.nbio.structure.align.client.StructureName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads many structures from an {@link AtomCache} as a pipeline of three
+ * {@link Stage stages}, each running on its own thread pool:
+ * <ol>
+ * <li>{@link Stage#FETCH}: make the file available locally (download if required)</li>
+ * <li>{@link Stage#PARSE}: parse the file, including the post-processing configured
+ * in the {@link org.biojava.nbio.structure.io.FileParsingParameters FileParsingParameters}
+ * of the cache (bonds, entities, SEQRES alignment)</li>
+ * <li>{@link Stage#REDUCE}: reduce the structure to the requested substructure</li>
+ * </ol>
+ * At most {@link #getMaxInFlight()} structures are in the pipeline at any time, new
+ * identifiers are only fed into the pipeline as results are consumed (backpressure).
+ * Results are returned in the order of the input identifiers. Identifiers that fail
+ * to load are logged and skipped.
+ * <p>
+ * Example:
+ * <pre>
+ * try (BatchStructureLoader loader = new BatchStructureLoader(cache)) {
+ *     loader.stream(identifiers).forEach(s -&gt; ...);
+ * }
+ * </pre>
+ *
+ * @since 6.0.4
+ */
+public class BatchStructureLoader implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(BatchStructureLoader.class);
+
+	/**
+	 * The stages of the loading pipeline
+	 */
+	public enum Stage {
+		FETCH, PARSE, REDUCE
+	}
+
+	private final AtomCache cache;
+	private final int maxInFlight;
+	private final ExecutorService[] executors;
+
+	private final StageCounters completed = new StageCounters();
+	private final StageCounters busyNanos = new StageCounters();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong startNanos = new AtomicLong(Long.MIN_VALUE);
+
+	/**
+	 * Creates a loader with 2 fetch threads, one parse thread per available
+	 * processor and a single reduce thread.
+	 * @param cache the cache to load structures from
+	 */
+	public BatchStructureLoader(AtomCache cache) {
+		this(cache, 2, Runtime.getRuntime().availableProcessors(), 1);
+	}
+
+	/**
+	 * Creates a loader with the given number of threads per stage. The number of
+	 * structures in flight is bounded by twice the total number of threads.
+	 * @param cache the cache to load structures from
+	 * @param fetchThreads number of threads for {@link Stage#FETCH}
+	 * @param parseThreads number of threads for {@link Stage#PARSE}
+	 * @param reduceThreads number of threads for {@link Stage#REDUCE}
+	 */
+	public BatchStructureLoader(AtomCache cache, int fetchThreads, int parseThreads, int reduceThreads) {
+		this(cache, fetchThreads, parseThreads, reduceThreads, 2 * (fetchThreads + parseThreads + reduceThreads));
+	}
+
+	/**
+	 * Creates a loader with the given number of threads per stage.
+	 * @param cache the cache to load structures from
+	 * @param fetchThreads number of threads for {@link Stage#FETCH}
+	 * @param parseThreads number of threads for {@link Stage#PARSE}
+	 * @param reduceThreads number of threads for {@link Stage#REDUCE}
+	 * @param maxInFlight maximum number of structures in the pipeline at any time
+	 */
+	public BatchStructureLoader(AtomCache cache, int fetchThreads, int parseThreads, int reduceThreads, int maxInFlight) {
+		if (fetchThreads < 1 || parseThreads < 1 || reduceThreads < 1 || maxInFlight < 1)
+			throw new IllegalArgumentException("Number of threads and structures in flight must be positive");
+
+		this.cache = cache;
+		this.maxInFlight = maxInFlight;
+		this.executors = new ExecutorService[] {
+				Executors.newFixedThreadPool(fetchThreads),
+				Executors.newFixedThreadPool(parseThreads),
+				Executors.newFixedThreadPool(reduceThreads)
+		};
+	}
+
+	/**
+	 * Loads the given structures. The returned iterator drives the pipeline:
+	 * identifiers are submitted as results are consumed.
+	 * @param identifiers the structures to load
+	 * @return the loaded structures, in input order, without those that failed to load
+	 */
+	public Iterator<Structure> iterator(Collection<? extends StructureIdentifier> identifiers) {
+		return new PipelineIterator(identifiers.iterator());
+	}
+
+	/**
+	 * Loads the given structures as a sequential stream, see {@link #iterator(Collection)}.
+	 * @param identifiers the structures to load
+	 * @return the loaded structures, in input order, without those that failed to load
+	 */
+	public Stream<Structure> stream(Collection<? extends StructureIdentifier> identifiers) {
+		Spliterator<Structure> spliterator = Spliterators.spliteratorUnknownSize(iterator(identifiers),
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false);
+	}
+
+	/**
+	 * @return the maximum number of structures in the pipeline at any time
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * @param stage a pipeline stage
+	 * @return the number of structures that passed the stage
+	 */
+	public long getCompleted(Stage stage) {
+		return completed.get(stage);
+	}
+
+	/**
+	 * @return the number of structures that failed to load in any stage
+	 */
+	public long getFailed() {
+		return failed.get();
+	}
+
+	/**
+	 * The throughput of a stage in structures per second of wall-clock time
+	 * since the first structure entered the pipeline.
+	 * @param stage a pipeline stage
+	 * @return structures per second, 0 if nothing was loaded yet
+	 */
+	public double getThroughput(Stage stage) {
+		long start = startNanos.get();
+		if (start == Long.MIN_VALUE)
+			return 0;
+		double seconds = (System.nanoTime() - start) / 1e9;
+		return seconds > 0 ? completed.get(stage) / seconds : 0;
+	}
+
+	/**
+	 * The throughput of a single thread of a stage in structures per second,
+	 * i.e. the inverse of the average time spent per structure in the stage.
+	 * Comparing this across stages shows where more threads are needed.
+	 * @param stage a pipeline stage
+	 * @return structures per second and thread, 0 if nothing passed the stage yet
+	 */
+	public double getThroughputPerThread(Stage stage) {
+		long nanos = busyNanos.get(stage);
+		return nanos > 0 ? completed.get(stage) / (nanos / 1e9) : 0;
+	}
+
+	/**
+	 * Shuts down the thread pools of all stages. Structures still in flight are
+	 * finished, but no new ones can be loaded.
+	 */
+	@Override
+	public void close() {
+		for (ExecutorService executor : executors) {
+			executor.shutdown();
+		}
+	}
+
+	private CompletableFuture<Structure> submit(StructureIdentifier identifier) {
+		startNanos.compareAndSet(Long.MIN_VALUE, System.nanoTime());
+
+		return CompletableFuture
+				.supplyAsync(() -> timed(Stage.FETCH, () -> {
+					fetch(identifier);
+					return identifier;
+				}), executors[Stage.FETCH.ordinal()])
+				.thenApplyAsync(id -> timed(Stage.PARSE, () -> id.loadStructure(cache)),
+						executors[Stage.PARSE.ordinal()])
+				.thenApplyAsync(s -> timed(Stage.REDUCE, () -> {
+					Structure reduced = identifier.reduce(s);
+					reduced.setStructureIdentifier(identifier);
+					return reduced;
+				}), executors[Stage.REDUCE.ordinal()]);
+	}
+
+	/**
+	 * Downloads the file of identifiers that refer to a PDB entry. Others
+	 * (files, URLs, domains) are fetched during parsing.
+	 */
+	private void fetch(StructureIdentifier identifier) throws IOException, StructureException {
+		PdbId pdbId = null;
+		if (identifier instanceof StructureName && ((StructureName) identifier).isPdbId()) {
+			pdbId = ((StructureName) identifier).getPdbId();
+		} else if (identifier instanceof SubstructureIdentifier) {
+			pdbId = ((SubstructureIdentifier) identifier).getPdbId();
+		}
+		if (pdbId != null) {
+			cache.prefetchStructure(pdbId);
+		}
+	}
+
+	private <T> T timed(Stage stage, StageTask<T> task) {
+		long start = System.nanoTime();
+		try {
+			T result = task.run();
+			completed.increment(stage);
+			return result;
+		} catch (IOException | StructureException e) {
+			throw new CompletionException(e);
+		} finally {
+			busyNanos.add(stage, System.nanoTime() - start);
+		}
+	}
+
+	@FunctionalInterface
+	private interface StageTask<T> {
+		T run() throws IOException, StructureException;
+	}
+
+	/**
+	 * One counter per stage
+	 */
+	private static class StageCounters {
+		private final AtomicLong[] values = new AtomicLong[Stage.values().length];
+
+		StageCounters() {
+			for (int i = 0; i < values.length; i++) {
+				values[i] = new AtomicLong();
+			}
+		}
+
+		long get(Stage stage) {
+			return values[stage.ordinal()].get();
+		}
+
+		void increment(Stage stage) {
+			values[stage.ordinal()].incrementAndGet();
+		}
+
+		void add(Stage stage, long delta) {
+			values[stage.ordinal()].addAndGet(delta);
+		}
+	}
+
+	/**
+	 * Keeps up to maxInFlight structures in the pipeline and hands them out in input order.
+	 */
+	private class PipelineIterator implements Iterator<Structure> {
+		private final Iterator<? extends StructureIdentifier> identifiers;
+		private final Deque<CompletableFuture<Structure>> inFlight = new ArrayDeque<>();
+		private final Deque<StructureIdentifier> inFlightIds = new ArrayDeque<>();
+		private Structure next;
+
+		PipelineIterator(Iterator<? extends StructureIdentifier> identifiers) {
+			this.identifiers = identifiers;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next == null) {
+				fill();
+				if (inFlight.isEmpty())
+					return false;
+
+				StructureIdentifier identifier = inFlightIds.poll();
+				try {
+					next = inFlight.poll().join();
+				} catch (CompletionException e) {
+					failed.incrementAndGet();
+					logger.warn("Could not load structure {}: {}", identifier, e.getCause().getMessage());
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public Structure next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Structure s = next;
+			next = null;
+			return s;
+		}
+
+		private void fill() {
+			while (inFlight.size() < maxInFlight && identifiers.hasNext()) {
+				StructureIdentifier identifier = identifiers.next();
+				inFlightIds.add(identifier);
+				inFlight.add(submit(identifier));
+			}
+		}
+	}
+}
@@ -0,0 +1,308 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.util;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.biojava.nbio.structure.Chain;
+import org.biojava.nbio.structure.Group;
+import org.biojava.nbio.structure.PdbId;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.io.FileParsingParameters;
+import org.biojava.nbio.structure.io.StructureFiletype;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An in-memory cache of parsed structures, bounded by their estimated heap
+ * footprint. Entries are keyed by PDB ID, file type and
+ * {@link FileParsingParameters} and evicted in least-recently-used order.
+ * <p>
+ * Loading is single-flight: if several threads request the same entry at
+ * the same time it is parsed only once and the other threads wait for the
+ * result.
+ * <p>
+ * The cached structures are never handed out directly. Every call to
+ * {@link #get(PdbId, StructureFiletype, FileParsingParameters, StructureLoader)}
+ * returns a {@link Structure#clone() copy}, so callers can modify the
+ * returned structure (e.g. apply a superposition) without affecting the cache.
+ *
+ * @see AtomCache#setStructureCacheSize(long)
+ * @since 6.0.4
+ */
+public class StructureCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(StructureCache.class);
+
+	/**
+	 * Estimated heap usage of an atom: AtomImpl, its Point3d, name and bond list
+	 */
+	static final long BYTES_PER_ATOM = 200;
+
+	/**
+	 * Estimated heap usage of a group without its atoms
+	 */
+	static final long BYTES_PER_GROUP = 250;
+
+	/**
+	 * Estimated heap usage of a chain without its groups
+	 */
+	static final long BYTES_PER_CHAIN = 500;
+
+	/**
+	 * Estimated heap usage of a structure without its chains (header, entities, ...)
+	 */
+	static final long BYTES_PER_STRUCTURE = 20000;
+
+	/**
+	 * Loads a structure on a cache miss
+	 */
+	@FunctionalInterface
+	public interface StructureLoader {
+		Structure load() throws IOException;
+	}
+
+	private final long maxBytes;
+
+	// access-ordered, guarded by this
+	private final LinkedHashMap<Key, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long currentBytes;
+
+	private final Map<Key, CompletableFuture<Structure>> loading = new ConcurrentHashMap<>();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * @param maxBytes the maximum estimated heap footprint of all cached structures
+	 */
+	public StructureCache(long maxBytes) {
+		if (maxBytes <= 0)
+			throw new IllegalArgumentException("Cache size must be positive");
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns a copy of the cached structure, loading and caching it first if required.
+	 * @param pdbId the PDB ID
+	 * @param filetype the file type the structure is loaded from
+	 * @param params the parameters the structure is parsed with
+	 * @param loader loads the structure on a cache miss
+	 * @return a copy of the structure
+	 * @throws IOException if loading fails
+	 */
+	public Structure get(PdbId pdbId, StructureFiletype filetype, FileParsingParameters params, StructureLoader loader)
+			throws IOException {
+		Key key = new Key(pdbId, filetype, params);
+
+		Structure cached = lookup(key);
+		if (cached != null) {
+			hits.incrementAndGet();
+			return cached.clone();
+		}
+
+		CompletableFuture<Structure> future = new CompletableFuture<>();
+		CompletableFuture<Structure> pending = loading.putIfAbsent(key, future);
+		if (pending != null) {
+			// someone else is parsing the same entry
+			hits.incrementAndGet();
+			return await(pending).clone();
+		}
+
+		try {
+			// the entry may have been added between lookup and registering as loader
+			Structure s = lookup(key);
+			if (s == null) {
+				misses.incrementAndGet();
+				s = loader.load();
+				put(key, s);
+			} else {
+				hits.incrementAndGet();
+			}
+			future.complete(s);
+			return s.clone();
+		} catch (IOException | RuntimeException e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			loading.remove(key, future);
+		}
+	}
+
+	/**
+	 * @return the number of requests served from the cache, including those
+	 * that waited for another thread loading the same entry
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of requests that required loading the structure
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the number of entries removed to stay within the size bound
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return the number of cached structures
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the estimated heap footprint of all cached structures in bytes
+	 */
+	public synchronized long getEstimatedBytes() {
+		return currentBytes;
+	}
+
+	/**
+	 * @return the maximum estimated heap footprint in bytes
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Removes all cached structures. Counters are not reset.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		currentBytes = 0;
+	}
+
+	/**
+	 * Estimates the heap footprint of a structure from the number of its
+	 * chains, groups and atoms in all models.
+	 * @param s a structure
+	 * @return the estimated size in bytes
+	 */
+	public static long estimateBytes(Structure s) {
+		long bytes = BYTES_PER_STRUCTURE;
+		for (int model = 0; model < s.nrModels(); model++) {
+			List<Chain> chains = s.getModel(model);
+			bytes += chains.size() * BYTES_PER_CHAIN;
+			for (Chain chain : chains) {
+				// SEQRES groups without observed atoms are separate objects
+				bytes += Math.max(0, chain.getSeqResLength() - chain.getAtomLength()) * BYTES_PER_GROUP;
+				for (Group group : chain.getAtomGroups()) {
+					bytes += BYTES_PER_GROUP + group.size() * BYTES_PER_ATOM;
+				}
+			}
+		}
+		return bytes;
+	}
+
+	private synchronized Structure lookup(Key key) {
+		CacheEntry entry = entries.get(key);
+		return entry == null ? null : entry.structure;
+	}
+
+	private synchronized void put(Key key, Structure s) {
+		long bytes = estimateBytes(s);
+		if (bytes > maxBytes) {
+			logger.debug("Not caching {}, estimated size {} exceeds cache size {}", key.pdbId, bytes, maxBytes);
+			return;
+		}
+
+		CacheEntry previous = entries.put(key, new CacheEntry(s, bytes));
+		if (previous != null)
+			currentBytes -= previous.bytes;
+		currentBytes += bytes;
+
+		Iterator<CacheEntry> it = entries.values().iterator();
+		while (currentBytes > maxBytes && it.hasNext()) {
+			CacheEntry eldest = it.next();
+			it.remove();
+			currentBytes -= eldest.bytes;
+			evictions.incrementAndGet();
+		}
+	}
+
+	private static Structure await(CompletableFuture<Structure> future) throws IOException {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+	}
+
+	private static class CacheEntry {
+		final Structure structure;
+		final long bytes;
+
+		CacheEntry(Structure structure, long bytes) {
+			this.structure = structure;
+			this.bytes = bytes;
+		}
+	}
+
+	private static class Key {
+		final PdbId pdbId;
+		final StructureFiletype filetype;
+		final FileParsingParameters params;
+
+		Key(PdbId pdbId, StructureFiletype filetype, FileParsingParameters params) {
+			this.pdbId = pdbId;
+			this.filetype = filetype;
+			// copy, parameters are mutable
+			this.params = params == null ? null : new FileParsingParameters(params);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(pdbId, filetype, params);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			Key other = (Key) obj;
+			return pdbId.equals(other.pdbId) && filetype == other.filetype && Objects.equals(params, other.params);
+		}
+	}
+}
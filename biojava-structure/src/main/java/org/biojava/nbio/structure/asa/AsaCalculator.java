@@ -21,16 +21,16 @@
 package org.biojava.nbio.structure.asa;
 
 import org.biojava.nbio.structure.*;
-import org.biojava.nbio.structure.contact.Contact;
 import org.biojava.nbio.structure.contact.Grid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.vecmath.Point3d;
-import javax.vecmath.Vector3d;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 /**
@@ -44,6 +44,11 @@ import java.util.concurrent.Executors;
  * A few optimizations come from Eisenhaber et al, J Comp Chemistry 1994
  * (https://onlinelibrary.wiley.com/doi/epdf/10.1002/jcc.540160303)
  * <p>
+ * The calculation works on primitive coordinate arrays and a compact neighbor list.
+ * With more than 1 thread the atoms are split in contiguous chunks, each one
+ * calculated as a single task. The tasks can run on an executor shared by several
+ * calculations, see {@link #setExecutorService(ExecutorService)}.
+ * <p>
  * See
  * Shrake, A., and J. A. Rupley. "Environment and Exposure to Solvent of Protein Atoms.
  * Lysozyme and Insulin." JMB (1973) 79:351-371.
@@ -66,6 +71,12 @@ public class AsaCalculator {
 
 	private static final boolean DEFAULT_USE_SPATIAL_HASHING = true;
 
+	/**
+	 * The number of chunks per thread the atoms are split in, more than one to balance
+	 * the load between chunks of buried and exposed atoms
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+	private static final int MIN_CHUNK_SIZE = 64;
 
 
 	// Chothia's amino acid atoms vdw radii
@@ -85,22 +96,6 @@ public class AsaCalculator {
 
 
 
-	private class AsaCalcWorker implements Runnable {
-
-		private final int i;
-		private final double[] asas;
-
-		private AsaCalcWorker(int i, double[] asas) {
-			this.i = i;
-			this.asas = asas;
-		}
-
-		@Override
-		public void run() {
-			asas[i] = calcSingleAsa(i);
-		}
-	}
-
 	static class IndexAndDistance {
 		final int index;
 		final double dist;
@@ -116,11 +111,13 @@ public class AsaCalculator {
 	private final double[] radii;
 	private final double probe;
 	private final int nThreads;
-	private Vector3d[] spherePoints;
+	private double[] spherePointsX;
+	private double[] spherePointsY;
+	private double[] spherePointsZ;
 	private double cons;
-	private IndexAndDistance[][] neighborIndices;
 
 	private boolean useSpatialHashingForNeighbors;
+	private ExecutorService executor;
 
 	/**
 	 * Constructs a new AsaCalculator. Subsequently call {@link #calculateAsas()}
@@ -184,7 +181,7 @@ public class AsaCalculator {
 	}
 
 	/**
-	 * Constructs a new AsaCalculator. Subsequently call {@link #calcSingleAsa(int)}
+	 * Constructs a new AsaCalculator. Subsequently call {@link #calculateAsas()}
 	 * to calculate the atom ASAs. The given radius parameter will be taken as the radius for
 	 * all points given. No ASA calculation per group will be possible with this constructor, so
 	 * usage of {@link #getGroupAsas()} will result in a NullPointerException.
@@ -222,7 +219,7 @@ public class AsaCalculator {
 		logger.debug("Will use {} sphere points", nSpherePoints);
 
 		// initialising the sphere points to sample
-		spherePoints = generateSpherePoints(nSpherePoints);
+		generateSpherePoints(nSpherePoints);
 
 		cons = 4.0 * Math.PI / nSpherePoints;
 	}
@@ -257,8 +254,6 @@ public class AsaCalculator {
 
 	/**
 	 * Calculates the Accessible Surface Areas for the atoms given in constructor and with parameters given.
-	 * Beware that the parallel implementation is quite memory hungry. It scales well as long as there is
-	 * enough memory available.
 	 * @return an array with asa values corresponding to each atom of the input array
 	 */
 	public double[] calculateAsas() {
@@ -266,36 +261,54 @@ public class AsaCalculator {
 		double[] asas = new double[atomCoords.length];
 
 		long start = System.currentTimeMillis();
+		NeighborList neighbors;
 		if (useSpatialHashingForNeighbors) {
 			logger.debug("Will use spatial hashing to find neighbors");
-			neighborIndices = findNeighborIndicesSpatialHashing();
+			neighbors = findNeighborsSpatialHashing();
 		} else {
 			logger.debug("Will not use spatial hashing to find neighbors");
-			neighborIndices = findNeighborIndices();
+			neighbors = new NeighborList(findNeighborIndices());
 		}
 		long end = System.currentTimeMillis();
 		logger.debug("Took {} s to find neighbors", (end-start)/1000.0);
 
+		double[] x = new double[atomCoords.length];
+		double[] y = new double[atomCoords.length];
+		double[] z = new double[atomCoords.length];
+		for (int i=0;i<atomCoords.length;i++) {
+			x[i] = atomCoords[i].x;
+			y[i] = atomCoords[i].y;
+			z[i] = atomCoords[i].z;
+		}
+
 		start = System.currentTimeMillis();
-		if (nThreads<=1) { // (i.e. it will also be 1 thread if 0 or negative number specified)
+		if (executor==null && nThreads<=1) { // (i.e. it will also be 1 thread if 0 or negative number specified)
 			logger.debug("Will use 1 thread for ASA calculation");
-			for (int i=0;i<atomCoords.length;i++) {
-				asas[i] = calcSingleAsa(i);
-			}
+			calcAsas(0, atomCoords.length, x, y, z, neighbors, asas);
 
 		} else {
-			logger.debug("Will use {} threads for ASA calculation", nThreads);
-
-			ExecutorService threadPool = Executors.newFixedThreadPool(nThreads);
-
-			for (int i=0;i<atomCoords.length;i++) {
-				threadPool.submit(new AsaCalcWorker(i,asas));
+			ExecutorService threadPool = executor;
+			int parallelism = nThreads;
+			if (threadPool==null) {
+				logger.debug("Will use {} threads for ASA calculation", nThreads);
+				threadPool = Executors.newFixedThreadPool(nThreads);
+			} else if (parallelism<=1) {
+				parallelism = Runtime.getRuntime().availableProcessors();
 			}
 
-			threadPool.shutdown();
-
-			while (!threadPool.isTerminated());
-
+			try {
+				int chunkSize = Math.max(MIN_CHUNK_SIZE, (atomCoords.length + parallelism*CHUNKS_PER_THREAD - 1) / (parallelism*CHUNKS_PER_THREAD));
+				List<Future<?>> chunks = new ArrayList<>();
+				for (int from=0;from<atomCoords.length;from+=chunkSize) {
+					int chunkFrom = from;
+					int chunkTo = Math.min(atomCoords.length, from + chunkSize);
+					chunks.add(threadPool.submit(() -> calcAsas(chunkFrom, chunkTo, x, y, z, neighbors, asas)));
+				}
+				waitFor(chunks);
+			} finally {
+				if (threadPool!=executor)
+					threadPool.shutdown();
+			}
 		}
 		end = System.currentTimeMillis();
 		logger.debug("Took {} s to calculate all {} atoms ASAs (excluding neighbors calculation)", (end-start)/1000.0, atomCoords.length);
@@ -303,6 +316,38 @@ public class AsaCalculator {
 		return asas;
 	}
 
+	/**
+	 * Set the executor the calculation runs on when called from many threads or
+	 * repeatedly, instead of a new thread pool of nThreads threads on every call
+	 * to {@link #calculateAsas()}. The executor is not shut down by this class.
+	 * @param executor the executor, or null (the default) to use the nThreads given in constructor
+	 * @since 6.0.4
+	 */
+	public void setExecutorService(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	private static void waitFor(List<Future<?>> chunks) {
+		try {
+			for (Future<?> chunk : chunks) {
+				chunk.get();
+			}
+		} catch (InterruptedException e) {
+			for (Future<?> chunk : chunks) {
+				chunk.cancel(true);
+			}
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while calculating ASAs", e);
+		} catch (ExecutionException e) {
+			for (Future<?> chunk : chunks) {
+				chunk.cancel(true);
+			}
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
 	/**
 	 * Set the useSpatialHashingForNeighbors flag to use spatial hashing to calculate neighbors (true) or all-to-all
 	 * distance calculation (false). Default is {@value DEFAULT_USE_SPATIAL_HASHING}.
@@ -315,21 +360,23 @@ public class AsaCalculator {
 
 	/**
 	 * Returns list of 3d coordinates of points on a unit sphere using the
-	 * Golden Section Spiral algorithm.
+	 * Golden Section Spiral algorithm, stored in the spherePointsX/Y/Z arrays.
 	 * @param nSpherePoints the number of points to be used in generating the spherical dot-density
-	 * @return the array of points as Vector3d objects
 	 */
-	private Vector3d[] generateSpherePoints(int nSpherePoints) {
-		Vector3d[] points = new Vector3d[nSpherePoints];
+	private void generateSpherePoints(int nSpherePoints) {
+		spherePointsX = new double[nSpherePoints];
+		spherePointsY = new double[nSpherePoints];
+		spherePointsZ = new double[nSpherePoints];
 		double inc = Math.PI * (3.0 - Math.sqrt(5.0));
 		double offset = 2.0 / nSpherePoints;
 		for (int k=0;k<nSpherePoints;k++) {
 			double y = k * offset - 1.0 + (offset / 2.0);
 			double r = Math.sqrt(1.0 - y*y);
 			double phi = k * inc;
-			points[k] = new Vector3d(Math.cos(phi)*r, y, Math.sin(phi)*r);
+			spherePointsX[k] = Math.cos(phi)*r;
+			spherePointsY[k] = y;
+			spherePointsZ[k] = Math.sin(phi)*r;
 		}
-		return points;
 	}
 
 	/**
@@ -370,65 +417,58 @@ public class AsaCalculator {
 	 * @return 2-dimensional array of size: n_atoms x n_neighbors_per_atom
 	 */
 	IndexAndDistance[][] findNeighborIndicesSpatialHashing() {
+		return findNeighborsSpatialHashing().toIndexAndDistances();
+	}
 
-		// looking at a typical protein case, number of neighbours are from ~10 to ~50, with an average of ~30
-		int initialCapacity = 60;
+	/**
+	 * Returns the neighbors of every atom, using spatial hashing to avoid all to all
+	 * distance calculation.
+	 */
+	private NeighborList findNeighborsSpatialHashing() {
 
-		List<Contact> contactList = calcContacts();
-		Map<Integer, List<IndexAndDistance>> indices = new HashMap<>(atomCoords.length);
-		for (Contact contact : contactList) {
-			// note contacts are stored 1-way only, with j>i
-			int i = contact.getI();
-			int j = contact.getJ();
-
-			List<IndexAndDistance> iIndices;
-			List<IndexAndDistance> jIndices;
-			if (!indices.containsKey(i)) {
-				iIndices = new ArrayList<>(initialCapacity);
-				indices.put(i, iIndices);
-			} else {
-				iIndices = indices.get(i);
-			}
-			if (!indices.containsKey(j)) {
-				jIndices = new ArrayList<>(initialCapacity);
-				indices.put(j, jIndices);
-			} else {
-				jIndices = indices.get(j);
-			}
+		int[] offsets = new int[atomCoords.length + 1];
+		if (atomCoords.length == 0)
+			return new NeighborList(offsets, new int[0], new double[0]);
 
-			double radius = radii[i] + probe + probe;
-			double dist = contact.getDistance();
-			if (dist < radius + radii[j]) {
-				iIndices.add(new IndexAndDistance(j, dist));
-				jIndices.add(new IndexAndDistance(i, dist));
-			}
-		}
+		Grid grid = createGrid();
 
-		// convert map to array for fast access
-		IndexAndDistance[][] nbsIndices = new IndexAndDistance[atomCoords.length][];
-		for (Map.Entry<Integer, List<IndexAndDistance>> entry : indices.entrySet()) {
-			List<IndexAndDistance> list = entry.getValue();
-			IndexAndDistance[] indexAndDistances = list.toArray(new IndexAndDistance[0]);
-			nbsIndices[entry.getKey()] = indexAndDistances;
+		// first pass: count the neighbors of each atom. Note contacts are produced 1-way only, with j>i
+		grid.forEachContact((i, j, distance) -> {
+			if (isNeighbor(i, j, distance)) {
+				offsets[i + 1]++;
+				offsets[j + 1]++;
+			}
+		});
+		for (int i=0;i<atomCoords.length;i++) {
+			offsets[i + 1] += offsets[i];
 		}
 
-		// important: some atoms might have no neighbors at all: we need to initialise to empty arrays
-		for (int i=0; i<nbsIndices.length; i++) {
-			if (nbsIndices[i] == null) {
-				nbsIndices[i] = new IndexAndDistance[0];
+		// second pass: fill them in
+		int[] indices = new int[offsets[atomCoords.length]];
+		double[] dists = new double[indices.length];
+		int[] next = Arrays.copyOf(offsets, atomCoords.length);
+		grid.forEachContact((i, j, distance) -> {
+			if (isNeighbor(i, j, distance)) {
+				indices[next[i]] = j;
+				dists[next[i]++] = distance;
+				indices[next[j]] = i;
+				dists[next[j]++] = distance;
 			}
-		}
+		});
 
-		return nbsIndices;
+		return new NeighborList(offsets, indices, dists);
+	}
+
+	private boolean isNeighbor(int i, int j, double distance) {
+		double radius = radii[i] + probe + probe;
+		return distance < radius + radii[j];
 	}
 
 	Point3d[] getAtomCoords() {
 		return atomCoords;
 	}
 
-	private List<Contact> calcContacts() {
-		if (atomCoords.length == 0)
-			return new ArrayList<>();
+	private Grid createGrid() {
 		double maxRadius = 0;
 		OptionalDouble optionalDouble = Arrays.stream(radii).max();
 		if (optionalDouble.isPresent())
@@ -437,75 +477,140 @@ public class AsaCalculator {
 		logger.debug("Max radius is {}, cutoff is {}", maxRadius, cutoff);
 		Grid grid = new Grid(cutoff);
 		grid.addCoords(atomCoords);
-		return grid.getIndicesContacts();
+		return grid;
 	}
 
-	private double calcSingleAsa(int i) {
-		Point3d atom_i = atomCoords[i];
-
-		int n_neighbor = neighborIndices[i].length;
-		IndexAndDistance[] neighbor_indices = neighborIndices[i];
-		// Sorting by closest to farthest away neighbors achieves faster runtimes when checking for occluded
-		// sphere sample points below. This follows the ideas exposed in
-		// Eisenhaber et al, J Comp Chemistry 1994 (https://onlinelibrary.wiley.com/doi/epdf/10.1002/jcc.540160303)
-		// This is essential for performance. In my tests this brings down the number of occlusion checks in loop below to
-		// an average of n_sphere_points/10 per atom i, producing ~ x4 performance gain overall
-		Arrays.sort(neighbor_indices, Comparator.comparingDouble(o -> o.dist));
-
-		double radius_i = probe + radii[i];
-
-		int n_accessible_point = 0;
-		// purely for debugging
-		int[] numDistsCalced = null;
-		if (logger.isDebugEnabled()) numDistsCalced = new int[n_neighbor];
-
-		// now we precalculate anything depending only on i,j in equation 3 in Eisenhaber 1994
-		double[] sqRadii = new double[n_neighbor];
-		Vector3d[] aj_minus_ais = new Vector3d[n_neighbor];
-		for (int nbArrayInd =0; nbArrayInd<n_neighbor; nbArrayInd++) {
-			int j = neighbor_indices[nbArrayInd].index;
-			double dist = neighbor_indices[nbArrayInd].dist;
-			double radius_j = radii[j] + probe;
-			// see equation 3 in Eisenhaber 1994
-			sqRadii[nbArrayInd] = (dist*dist + radius_i*radius_i - radius_j*radius_j)/(2*radius_i);
-			Vector3d aj_minus_ai = new Vector3d(atomCoords[j]);
-			aj_minus_ai.sub(atom_i);
-			aj_minus_ais[nbArrayInd] = aj_minus_ai;
+	/**
+	 * Calculates the ASAs of atoms from (inclusive) to to (exclusive) into asas.
+	 * All temporary arrays are allocated once for the whole range.
+	 */
+	private void calcAsas(int from, int to, double[] x, double[] y, double[] z, NeighborList neighbors, double[] asas) {
+		int maxNeighbors = 0;
+		for (int i=from;i<to;i++) {
+			maxNeighbors = Math.max(maxNeighbors, neighbors.offsets[i+1] - neighbors.offsets[i]);
 		}
+		double[] ajMinusAiX = new double[maxNeighbors];
+		double[] ajMinusAiY = new double[maxNeighbors];
+		double[] ajMinusAiZ = new double[maxNeighbors];
+		double[] sqRadii = new double[maxNeighbors];
+		double[] pointsX = new double[spherePointsX.length];
+		double[] pointsY = new double[spherePointsX.length];
+		double[] pointsZ = new double[spherePointsX.length];
+
+		for (int i=from;i<to;i++) {
+			int first = neighbors.offsets[i];
+			int nNeighbors = neighbors.offsets[i+1] - first;
+
+			// Sorting by closest to farthest away neighbors achieves faster runtimes when checking for occluded
+			// sphere sample points below. This follows the ideas exposed in
+			// Eisenhaber et al, J Comp Chemistry 1994 (https://onlinelibrary.wiley.com/doi/epdf/10.1002/jcc.540160303)
+			// This is essential for performance, it brings down the number of occlusion checks in loop below to
+			// an average of n_sphere_points/10 per atom i
+			neighbors.sortByDistance(i);
+
+			double radius_i = probe + radii[i];
+
+			// now we precalculate anything depending only on i,j in equation 3 in Eisenhaber 1994
+			for (int k=0;k<nNeighbors;k++) {
+				int j = neighbors.indices[first + k];
+				double dist = neighbors.dists[first + k];
+				double radius_j = radii[j] + probe;
+				// see equation 3 in Eisenhaber 1994
+				sqRadii[k] = (dist*dist + radius_i*radius_i - radius_j*radius_j)/(2*radius_i);
+				ajMinusAiX[k] = x[j] - x[i];
+				ajMinusAiY[k] = y[j] - y[i];
+				ajMinusAiZ[k] = z[j] - z[i];
+			}
 
-		for (Vector3d point: spherePoints){
-			boolean is_accessible = true;
-
-			// note that the neighbors are sorted by distance, achieving optimal performance in this inner loop
-			// See Eisenhaber et al, J Comp Chemistry 1994
-
-			for (int nbArrayInd =0; nbArrayInd<n_neighbor; nbArrayInd++) {
+			// Each neighbor removes the sphere points it occludes from the remaining accessible ones, keeping
+			// the remaining points packed at the start of the arrays. The inner loop is branch-free, and as
+			// the neighbors are sorted by distance most points are removed by the first few neighbors.
+			int nAccessiblePoints = spherePointsX.length;
+			System.arraycopy(spherePointsX, 0, pointsX, 0, nAccessiblePoints);
+			System.arraycopy(spherePointsY, 0, pointsY, 0, nAccessiblePoints);
+			System.arraycopy(spherePointsZ, 0, pointsZ, 0, nAccessiblePoints);
+
+			for (int k=0;k<nNeighbors && nAccessiblePoints>0;k++) {
+				double ax = ajMinusAiX[k];
+				double ay = ajMinusAiY[k];
+				double az = ajMinusAiZ[k];
+				double sqRadius = sqRadii[k];
+				int nKept = 0;
+				for (int p=0;p<nAccessiblePoints;p++) {
+					// see equation 3 in Eisenhaber 1994. This is slightly more efficient than
+					// calculating distances to the actual sphere points on atom_i
+					double dotProd = ax*pointsX[p] + ay*pointsY[p] + az*pointsZ[p];
+					pointsX[nKept] = pointsX[p];
+					pointsY[nKept] = pointsY[p];
+					pointsZ[nKept] = pointsZ[p];
+					nKept += dotProd > sqRadius ? 0 : 1;
+				}
+				nAccessiblePoints = nKept;
+			}
 
-				// see equation 3 in Eisenhaber 1994. This is slightly more efficient than
-				// calculating distances to the actual sphere points on atom_i (which would be obtained with:
-				// Point3d test_point = new Point3d(point.x*radius + atom_i.x,point.y*radius + atom_i.y,point.z*radius + atom_i.z))
-				double dotProd = aj_minus_ais[nbArrayInd].dot(point);
+			asas[i] = cons*nAccessiblePoints*radius_i*radius_i;
+		}
+	}
 
-				if (numDistsCalced!=null) numDistsCalced[nbArrayInd]++;
+	/**
+	 * The neighbors of all atoms in compressed sparse row layout: the neighbors of atom i
+	 * are at positions offsets[i] (inclusive) to offsets[i+1] (exclusive) of indices and dists.
+	 */
+	static class NeighborList {
+		final int[] offsets;
+		final int[] indices;
+		final double[] dists;
+
+		NeighborList(int[] offsets, int[] indices, double[] dists) {
+			this.offsets = offsets;
+			this.indices = indices;
+			this.dists = dists;
+		}
 
-				if (dotProd > sqRadii[nbArrayInd]) {
-					is_accessible = false;
-					break;
-				}
+		NeighborList(IndexAndDistance[][] nbsIndices) {
+			offsets = new int[nbsIndices.length + 1];
+			for (int i=0;i<nbsIndices.length;i++) {
+				offsets[i+1] = offsets[i] + nbsIndices[i].length;
 			}
-			if (is_accessible) {
-				n_accessible_point++;
+			indices = new int[offsets[nbsIndices.length]];
+			dists = new double[indices.length];
+			for (int i=0;i<nbsIndices.length;i++) {
+				for (int k=0;k<nbsIndices[i].length;k++) {
+					indices[offsets[i] + k] = nbsIndices[i][k].index;
+					dists[offsets[i] + k] = nbsIndices[i][k].dist;
+				}
 			}
 		}
 
-		// purely for debugging
-		if (numDistsCalced!=null) {
-			int sum = 0;
-			for (int numDistCalcedForJ : numDistsCalced) sum += numDistCalcedForJ;
-			logger.debug("Number of sample points distances calculated for neighbors of i={} : average {}, all {}", i, (double) sum / (double) n_neighbor, numDistsCalced);
+		/**
+		 * Sorts the neighbors of atom i by increasing distance, with an insertion
+		 * sort as there are only a few tens of them.
+		 */
+		void sortByDistance(int i) {
+			for (int k=offsets[i]+1;k<offsets[i+1];k++) {
+				int index = indices[k];
+				double dist = dists[k];
+				int l = k - 1;
+				while (l>=offsets[i] && dists[l]>dist) {
+					indices[l+1] = indices[l];
+					dists[l+1] = dists[l];
+					l--;
+				}
+				indices[l+1] = index;
+				dists[l+1] = dist;
+			}
 		}
 
-		return cons*n_accessible_point*radius_i*radius_i;
+		IndexAndDistance[][] toIndexAndDistances() {
+			IndexAndDistance[][] nbsIndices = new IndexAndDistance[offsets.length - 1][];
+			for (int i=0;i<nbsIndices.length;i++) {
+				nbsIndices[i] = new IndexAndDistance[offsets[i+1] - offsets[i]];
+				for (int k=0;k<nbsIndices[i].length;k++) {
+					nbsIndices[i][k] = new IndexAndDistance(indices[offsets[i] + k], dists[offsets[i] + k]);
+				}
+			}
+			return nbsIndices;
+		}
 	}
 
 	/**
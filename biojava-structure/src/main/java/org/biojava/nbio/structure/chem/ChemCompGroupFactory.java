@@ -1,6 +1,5 @@
 package org.biojava.nbio.structure.chem;
 
-import org.biojava.nbio.core.util.SoftHashMap;
 import org.biojava.nbio.structure.AminoAcid;
 import org.biojava.nbio.structure.AminoAcidImpl;
 import org.biojava.nbio.structure.Group;
@@ -9,30 +8,68 @@ import org.biojava.nbio.structure.NucleotideImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class ChemCompGroupFactory {
     private static final Logger logger = LoggerFactory.getLogger(ChemCompGroupFactory.class);
-    private static ChemCompProvider chemCompProvider = new DownloadChemCompProvider();
-    private static final SoftHashMap<String, ChemComp> cache = new SoftHashMap<>(0);
+    private static volatile ChemCompProvider chemCompProvider = new DownloadChemCompProvider();
+    // lookups from parsing threads don't lock; soft references so that definitions can be reclaimed when memory is short
+    private static final ConcurrentHashMap<String, CachedChemComp> cache = new ConcurrentHashMap<>();
+    // the references cleared by the garbage collector, whose entries are removed from the cache
+    private static final ReferenceQueue<ChemComp> queue = new ReferenceQueue<>();
 
     public static ChemComp getChemComp(String recordName) {
         recordName = recordName.toUpperCase().trim();
+        processQueue();
 
         // we are using the cache, to avoid hitting the file system too often.
-        ChemComp cc = cache.get(recordName);
+        CachedChemComp ref = cache.get(recordName);
+        ChemComp cc = ref == null ? null : ref.get();
         if (cc != null) {
             logger.debug("Chem comp {} read from cache", cc.getThreeLetterCode());
             return cc;
         }
+        if (ref != null) {
+            cache.remove(recordName, ref);
+        }
 
         // not cached, get the chem comp from the provider
         logger.debug("Chem comp {} read from provider {}", recordName, chemCompProvider.getClass().getCanonicalName());
         cc = chemCompProvider.getChemComp(recordName);
 
-        // Note that this also caches null or empty responses
-        cache.put(recordName, cc);
+        // Note that this also caches empty responses. A null response can't be put in the map, so it is asked for again next time
+        if (cc != null) {
+            cache.put(recordName, new CachedChemComp(recordName, cc, queue));
+        }
         return cc;
     }
 
+    /**
+     * Removes the entries whose definitions have been garbage collected. An entry
+     * that has been replaced in the meantime is kept.
+     */
+    private static void processQueue() {
+        Reference<? extends ChemComp> ref;
+        while ((ref = queue.poll()) != null) {
+            cache.remove(((CachedChemComp) ref).recordName, ref);
+        }
+    }
+
+    /**
+     * A soft reference to a cached definition that knows its key in the cache.
+     */
+    private static class CachedChemComp extends SoftReference<ChemComp> {
+        private final String recordName;
+
+        private CachedChemComp(String recordName, ChemComp cc, ReferenceQueue<ChemComp> queue) {
+            super(cc, queue);
+            this.recordName = recordName;
+        }
+    }
+
     /**
      * The new ChemCompProvider will be set in the static variable,
      * so this provider will be used from now on until it is changed
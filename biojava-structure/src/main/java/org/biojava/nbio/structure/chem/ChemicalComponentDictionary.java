@@ -1,5 +1,7 @@
 package org.biojava.nbio.structure.chem;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -106,6 +108,15 @@ public class ChemicalComponentDictionary {
         return dictionary.size();
     }
 
+    /**
+     * Returns all ChemComps in this dictionary
+     * @return an unmodifiable view of the ChemComps
+     * @since 6.0.4
+     */
+    public Collection<ChemComp> getChemComps() {
+        return Collections.unmodifiableCollection(dictionary.values());
+    }
+
     public ChemComp getChemComp(String id) {
         return dictionary.get(id);
     }
@@ -0,0 +1,439 @@
+package org.biojava.nbio.structure.chem;
+
+import org.biojava.nbio.structure.align.util.UserConfiguration;
+import org.biojava.nbio.structure.io.cif.ChemCompConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A provider that serves all chemical component definitions from a compact binary index file, which is
+ * written once from the full components dictionary (components.cif.gz, see {@link AllChemCompProvider}) and
+ * then memory-mapped. Opening the index only reads the table of component ids, the definitions are decoded
+ * from the mapped file on each request, so the heap holds neither the dictionary nor the file contents and
+ * nothing is lost when the JVM is short of memory.
+ * <p>
+ * Lookups do not lock, so a single instance can serve any number of parsing threads. Each call returns a
+ * new {@link ChemComp}. Components missing from the dictionary are returned as
+ * {@link ChemComp#getEmptyChemComp() empty} definitions with the requested id.
+ *
+ * @since 6.0.4
+ */
+public class MemoryMappedChemCompProvider implements ChemCompProvider {
+    private static final Logger logger = LoggerFactory.getLogger(MemoryMappedChemCompProvider.class);
+
+    public static final String INDEX_FILE_NAME = "components.bjcc";
+
+    private static final int MAGIC = 0x424a4343; // "BJCC"
+    private static final int VERSION = 1;
+
+    private final ByteBuffer buffer;
+    // component id to offset of its record in the buffer, not modified after construction
+    private final Map<String, Integer> offsets;
+
+    /**
+     * Opens the index in the chemcomp directory of the PDB cache path ({@link UserConfiguration#getCacheFilePath()}).
+     * If the index is missing, it is written from the components dictionary in the same directory,
+     * which is downloaded first if needed.
+     * @throws IOException if the dictionary can't be downloaded or read, or the index can't be written or read
+     */
+    public MemoryMappedChemCompProvider() throws IOException {
+        this(getDefaultDirectory().resolve("components.cif.gz"), getDefaultDirectory().resolve(INDEX_FILE_NAME));
+    }
+
+    /**
+     * Opens the given index. If it is missing or older than the dictionary, it is written from the dictionary first.
+     * @param dictionaryFile the components dictionary, in any format read by {@link ChemCompConverter#fromPath(Path)}.
+     * If it is missing and this is the default location, it is downloaded.
+     * @param indexFile the index file
+     * @throws IOException if the dictionary can't be read, or the index can't be written or read
+     */
+    public MemoryMappedChemCompProvider(Path dictionaryFile, Path indexFile) throws IOException {
+        if (!Files.exists(dictionaryFile) && !Files.exists(indexFile)
+                && dictionaryFile.equals(getDefaultDirectory().resolve("components.cif.gz"))) {
+            AllChemCompProvider.downloadFile();
+        }
+        if (!Files.exists(indexFile) || (Files.exists(dictionaryFile)
+                && Files.getLastModifiedTime(indexFile).compareTo(Files.getLastModifiedTime(dictionaryFile)) < 0)) {
+            long start = System.currentTimeMillis();
+            logger.info("Writing chemical component index {} from {}", indexFile, dictionaryFile);
+            writeIndex(ChemCompConverter.fromPath(dictionaryFile), indexFile);
+            logger.debug("Time to write chemical component index: {} ms", System.currentTimeMillis() - start);
+        }
+
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Chemical component index " + indexFile + " is too large to be mapped");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        ByteBuffer in = buffer.duplicate();
+        if (in.remaining() < 12 || in.getInt() != MAGIC) {
+            throw new IOException(indexFile + " is not a chemical component index");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported chemical component index version " + version + " in " + indexFile);
+        }
+        int count = in.getInt();
+        Map<String, Integer> map = new HashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            String id = readUtf8(in, readVarInt(in));
+            map.put(id, in.getInt());
+        }
+        offsets = Collections.unmodifiableMap(map);
+        logger.debug("Opened chemical component index {} with {} components", indexFile, count);
+    }
+
+    private static Path getDefaultDirectory() {
+        File dir = new File(new UserConfiguration().getCacheFilePath(), DownloadChemCompProvider.CHEM_COMP_CACHE_DIRECTORY);
+        if (!dir.exists()) {
+            logger.info("Creating directory {}", dir);
+            dir.mkdirs();
+        }
+        return dir.toPath();
+    }
+
+    /**
+     * Returns a new instance of the chemical component definition, or an empty definition
+     * if the component is not in the dictionary.
+     * @param recordName the ID of the {@link ChemComp}
+     * @return a new {@link ChemComp} definition
+     */
+    @Override
+    public ChemComp getChemComp(String recordName) {
+        String id = recordName.toUpperCase().trim();
+        Integer offset = offsets.get(id);
+        if (offset == null) {
+            logger.debug("Chemical component {} not found in index, using empty definition", id);
+            ChemComp cc = ChemComp.getEmptyChemComp();
+            cc.setId(id);
+            return cc;
+        }
+        ByteBuffer in = buffer.duplicate();
+        // through Buffer, ByteBuffer.position(int) does not exist in Java 8
+        ((Buffer) in).position(offset);
+        return readChemComp(in);
+    }
+
+    /**
+     * @return the number of chemical components in the index
+     */
+    public int size() {
+        return offsets.size();
+    }
+
+    /**
+     * Writes the index file for the given dictionary. The file is written to a temporary
+     * file first and then moved into place, so that readers never see a partial index.
+     * @param dictionary the chemical components
+     * @param indexFile the index file
+     * @throws IOException if the file can't be written
+     */
+    public static void writeIndex(ChemicalComponentDictionary dictionary, Path indexFile) throws IOException {
+        List<String> ids = new ArrayList<>();
+        List<byte[]> records = new ArrayList<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (ChemComp cc : dictionary.getChemComps()) {
+            bytes.reset();
+            writeChemComp(cc, new DataOutputStream(bytes));
+            ids.add(cc.getId());
+            records.add(bytes.toByteArray());
+        }
+
+        // the header: magic, version, count and one (id, offset) pair per component
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(header);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(ids.size());
+        for (String id : ids) {
+            writeUtf8(out, id);
+            out.writeInt(0);
+        }
+        out.flush();
+
+        byte[] head = header.toByteArray();
+        ByteBuffer index = ByteBuffer.wrap(head);
+        ((Buffer) index).position(12);
+        int offset = head.length;
+        for (int i = 0; i < ids.size(); i++) {
+            readUtf8(index, readVarInt(index));
+            index.putInt(offset);
+            offset += records.get(i).length;
+            if (offset < 0) {
+                throw new IOException("Chemical component index is too large");
+            }
+        }
+
+        Path dir = indexFile.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, indexFile.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                os.write(head);
+                for (byte[] record : records) {
+                    os.write(record);
+                }
+            }
+            Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // a record is a table of the distinct strings of the component followed by its fields,
+    // with strings written as their (1-based) index in the table and null as 0
+
+    private static void writeChemComp(ChemComp cc, DataOutputStream out) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        ByteArrayOutputStream fieldBytes = new ByteArrayOutputStream();
+        DataOutputStream fields = new DataOutputStream(fieldBytes);
+
+        writeString(fields, strings, cc.getId());
+        writeString(fields, strings, cc.getName());
+        writeString(fields, strings, cc.getType());
+        writeString(fields, strings, cc.getPdbxType());
+        writeString(fields, strings, cc.getFormula());
+        writeString(fields, strings, cc.getMonNstdParentCompId());
+        writeString(fields, strings, cc.getPdbxSynonyms());
+        fields.writeInt(cc.getPdbxFormalCharge());
+        writeString(fields, strings, cc.getPdbxInitialDate());
+        writeString(fields, strings, cc.getPdbxModifiedDate());
+        writeString(fields, strings, cc.getPdbxAmbiguousFlag());
+        writeString(fields, strings, cc.getPdbxReleaseStatus());
+        writeString(fields, strings, cc.getPdbxReplacedBy());
+        writeString(fields, strings, cc.getPdbxReplaces());
+        fields.writeDouble(cc.getFormulaWeight());
+        writeString(fields, strings, cc.getOneLetterCode());
+        writeString(fields, strings, cc.getThreeLetterCode());
+        writeString(fields, strings, cc.getPdbxModelCoordinatesDetails());
+        writeString(fields, strings, cc.getPdbxModelCoordinatesMissingFlag());
+        writeString(fields, strings, cc.getPdbxIdealCoordinatesDetails());
+        writeString(fields, strings, cc.getPdbxIdealCoordinatesMissingFlag());
+        writeString(fields, strings, cc.getPdbxModelCoordinatesDbCode());
+        writeString(fields, strings, cc.getPdbxSubcomponentList());
+        writeString(fields, strings, cc.getPdbxProcessingSite());
+        writeString(fields, strings, cc.getMonNstdFlag());
+        fields.writeByte(cc.getResidueType() == null ? 0 : cc.getResidueType().ordinal() + 1);
+        fields.writeByte(cc.getPolymerType() == null ? 0 : cc.getPolymerType().ordinal() + 1);
+
+        writeVarInt(fields, cc.getAtoms().size());
+        for (ChemCompAtom a : cc.getAtoms()) {
+            writeString(fields, strings, a.getCompId());
+            writeString(fields, strings, a.getAtomId());
+            writeString(fields, strings, a.getAltAtomId());
+            writeString(fields, strings, a.getTypeSymbol());
+            fields.writeInt(a.getCharge());
+            fields.writeInt(a.getPdbxAlign());
+            writeString(fields, strings, a.getPdbxAromaticFlag());
+            writeString(fields, strings, a.getPdbxLeavingAtomFlag());
+            writeString(fields, strings, a.getPdbxStereoConfig());
+            fields.writeDouble(a.getModelCartnX());
+            fields.writeDouble(a.getModelCartnY());
+            fields.writeDouble(a.getModelCartnZ());
+            fields.writeDouble(a.getPdbxModelCartnXIdeal());
+            fields.writeDouble(a.getPdbxModelCartnYIdeal());
+            fields.writeDouble(a.getPdbxModelCartnZIdeal());
+            writeString(fields, strings, a.getPdbxComponentCompId());
+            writeString(fields, strings, a.getPdbxResidueNumbering());
+            writeString(fields, strings, a.getPdbxComponentAtomId());
+            writeString(fields, strings, a.getPdbxPolymerType());
+            writeString(fields, strings, a.getPdbxRefId());
+            writeString(fields, strings, a.getPdbxComponentId());
+            fields.writeInt(a.getPdbxOrdinal());
+        }
+
+        writeVarInt(fields, cc.getBonds().size());
+        for (ChemCompBond b : cc.getBonds()) {
+            writeString(fields, strings, b.getCompId());
+            writeString(fields, strings, b.getAtomId1());
+            writeString(fields, strings, b.getAtomId2());
+            writeString(fields, strings, b.getValueOrder());
+            writeString(fields, strings, b.getPdbxAromaticFlag());
+            writeString(fields, strings, b.getPdbxStereoConfig());
+            fields.writeInt(b.getPdbxOrdinal());
+        }
+
+        writeVarInt(fields, cc.getDescriptors().size());
+        for (ChemCompDescriptor d : cc.getDescriptors()) {
+            writeString(fields, strings, d.getCompId());
+            writeString(fields, strings, d.getType());
+            writeString(fields, strings, d.getProgram());
+            writeString(fields, strings, d.getProgramVersion());
+            writeString(fields, strings, d.getDescriptor());
+        }
+        fields.flush();
+
+        writeVarInt(out, strings.size());
+        for (String s : strings.keySet()) {
+            writeUtf8(out, s);
+        }
+        fieldBytes.writeTo(out);
+        out.flush();
+    }
+
+    private static ChemComp readChemComp(ByteBuffer in) {
+        String[] strings = new String[readVarInt(in) + 1];
+        for (int i = 1; i < strings.length; i++) {
+            strings[i] = readUtf8(in, readVarInt(in));
+        }
+
+        // same order as ChemCompConsumerImpl, the standard flag is derived from the type,
+        // parent and one letter code when they are set
+        ChemComp cc = new ChemComp();
+        cc.setId(readString(in, strings));
+        cc.setName(readString(in, strings));
+        cc.setType(readString(in, strings));
+        cc.setPdbxType(readString(in, strings));
+        cc.setFormula(readString(in, strings));
+        cc.setMonNstdParentCompId(readString(in, strings));
+        cc.setPdbxSynonyms(readString(in, strings));
+        cc.setPdbxFormalCharge(in.getInt());
+        cc.setPdbxInitialDate(readString(in, strings));
+        cc.setPdbxModifiedDate(readString(in, strings));
+        cc.setPdbxAmbiguousFlag(readString(in, strings));
+        cc.setPdbxReleaseStatus(readString(in, strings));
+        cc.setPdbxReplacedBy(readString(in, strings));
+        cc.setPdbxReplaces(readString(in, strings));
+        cc.setFormulaWeight(in.getDouble());
+        cc.setOneLetterCode(readString(in, strings));
+        cc.setThreeLetterCode(readString(in, strings));
+        cc.setPdbxModelCoordinatesDetails(readString(in, strings));
+        cc.setPdbxModelCoordinatesMissingFlag(readString(in, strings));
+        cc.setPdbxIdealCoordinatesDetails(readString(in, strings));
+        cc.setPdbxIdealCoordinatesMissingFlag(readString(in, strings));
+        cc.setPdbxModelCoordinatesDbCode(readString(in, strings));
+        cc.setPdbxSubcomponentList(readString(in, strings));
+        cc.setPdbxProcessingSite(readString(in, strings));
+        cc.setMonNstdFlag(readString(in, strings));
+        int residueType = in.get();
+        cc.setResidueType(residueType == 0 ? null : ResidueType.values()[residueType - 1]);
+        int polymerType = in.get();
+        cc.setPolymerType(polymerType == 0 ? null : PolymerType.values()[polymerType - 1]);
+
+        int nAtoms = readVarInt(in);
+        List<ChemCompAtom> atoms = new ArrayList<>(nAtoms);
+        for (int i = 0; i < nAtoms; i++) {
+            ChemCompAtom a = new ChemCompAtom();
+            a.setCompId(readString(in, strings));
+            a.setAtomId(readString(in, strings));
+            a.setAltAtomId(readString(in, strings));
+            a.setTypeSymbol(readString(in, strings));
+            a.setCharge(in.getInt());
+            a.setPdbxAlign(in.getInt());
+            a.setPdbxAromaticFlag(readString(in, strings));
+            a.setPdbxLeavingAtomFlag(readString(in, strings));
+            a.setPdbxStereoConfig(readString(in, strings));
+            a.setModelCartnX(in.getDouble());
+            a.setModelCartnY(in.getDouble());
+            a.setModelCartnZ(in.getDouble());
+            a.setPdbxModelCartnXIdeal(in.getDouble());
+            a.setPdbxModelCartnYIdeal(in.getDouble());
+            a.setPdbxModelCartnZIdeal(in.getDouble());
+            a.setPdbxComponentCompId(readString(in, strings));
+            a.setPdbxResidueNumbering(readString(in, strings));
+            a.setPdbxComponentAtomId(readString(in, strings));
+            a.setPdbxPolymerType(readString(in, strings));
+            a.setPdbxRefId(readString(in, strings));
+            a.setPdbxComponentId(readString(in, strings));
+            a.setPdbxOrdinal(in.getInt());
+            atoms.add(a);
+        }
+        cc.setAtoms(atoms);
+
+        int nBonds = readVarInt(in);
+        List<ChemCompBond> bonds = new ArrayList<>(nBonds);
+        for (int i = 0; i < nBonds; i++) {
+            ChemCompBond b = new ChemCompBond();
+            b.setCompId(readString(in, strings));
+            b.setAtomId1(readString(in, strings));
+            b.setAtomId2(readString(in, strings));
+            b.setValueOrder(readString(in, strings));
+            b.setPdbxAromaticFlag(readString(in, strings));
+            b.setPdbxStereoConfig(readString(in, strings));
+            b.setPdbxOrdinal(in.getInt());
+            bonds.add(b);
+        }
+        cc.setBonds(bonds);
+
+        int nDescriptors = readVarInt(in);
+        List<ChemCompDescriptor> descriptors = new ArrayList<>(nDescriptors);
+        for (int i = 0; i < nDescriptors; i++) {
+            ChemCompDescriptor d = new ChemCompDescriptor();
+            d.setCompId(readString(in, strings));
+            d.setType(readString(in, strings));
+            d.setProgram(readString(in, strings));
+            d.setProgramVersion(readString(in, strings));
+            d.setDescriptor(readString(in, strings));
+            descriptors.add(d);
+        }
+        cc.setDescriptors(descriptors);
+
+        return cc;
+    }
+
+    private static void writeString(DataOutputStream out, Map<String, Integer> strings, String s) throws IOException {
+        if (s == null) {
+            writeVarInt(out, 0);
+        } else {
+            writeVarInt(out, strings.computeIfAbsent(s, k -> strings.size() + 1));
+        }
+    }
+
+    private static String readString(ByteBuffer in, String[] strings) {
+        return strings[readVarInt(in)];
+    }
+
+    private static void writeUtf8(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, b.length);
+        out.write(b);
+    }
+
+    private static String readUtf8(ByteBuffer in, int length) {
+        byte[] b = new byte[length];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.cluster;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.biojava.nbio.alignment.Alignments;
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceAlignerType;
+import org.biojava.nbio.alignment.SimpleGapPenalty;
+import org.biojava.nbio.alignment.template.PairwiseSequenceAligner;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+
+/**
+ * A thread-safe cache of the pairwise sequence alignments of the
+ * representative {@link Subunit}s of {@link SubunitCluster}s, keyed by the
+ * two protein sequences and the alignment type.
+ * <p>
+ * Only the alignments with the default scoring of
+ * {@link SubunitCluster#mergeSequence(SubunitCluster, SubunitClustererParameters)}
+ * are cached. Since the alignment only depends on the sequences, one cache
+ * can be shared between the clustering of many structures, for instance to
+ * avoid realigning the same chains of many entries. The cache is not bounded,
+ * use {@link #clear()} to release the alignments.
+ *
+ * @since 6.0.4
+ *
+ */
+public class SubunitAlignmentCache {
+
+	/**
+	 * The result of a sequence alignment, independent of the equivalent
+	 * residues of the clusters.
+	 */
+	static final class SequenceAlignment {
+
+		/** The percentage of identity of the aligned (local) or all (global) positions */
+		final double localIdentity;
+		final double globalIdentity;
+
+		/** The fraction of the longer sequence aligned without gaps */
+		final double coverage;
+
+		/** The 0-based indices of the aligned positions without gaps */
+		final int[] queryIndices;
+		final int[] targetIndices;
+
+		SequenceAlignment(double localIdentity, double globalIdentity,
+				double coverage, int[] queryIndices, int[] targetIndices) {
+			this.localIdentity = localIdentity;
+			this.globalIdentity = globalIdentity;
+			this.coverage = coverage;
+			this.queryIndices = queryIndices;
+			this.targetIndices = targetIndices;
+		}
+	}
+
+	private static final class Key {
+
+		private final String query;
+		private final String target;
+		private final PairwiseSequenceAlignerType alignerType;
+
+		Key(String query, String target, PairwiseSequenceAlignerType alignerType) {
+			this.query = query;
+			this.target = target;
+			this.alignerType = alignerType;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof Key))
+				return false;
+			Key other = (Key) o;
+			return alignerType == other.alignerType
+					&& query.equals(other.query)
+					&& target.equals(other.target);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(query, target, alignerType);
+		}
+	}
+
+	private final Map<Key, SequenceAlignment> alignments = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the alignment of the two sequences, aligning them if they are
+	 * not cached yet. Two threads can align the same sequences at the same
+	 * time, with the same result.
+	 *
+	 * @param query
+	 *            the protein sequence of the first Subunit
+	 * @param target
+	 *            the protein sequence of the second Subunit
+	 * @param alignerType
+	 *            LOCAL or GLOBAL
+	 * @return the alignment
+	 * @throws CompoundNotFoundException
+	 */
+	SequenceAlignment getSequenceAlignment(String query, String target,
+			PairwiseSequenceAlignerType alignerType)
+			throws CompoundNotFoundException {
+
+		Key key = new Key(query, target, alignerType);
+		SequenceAlignment alignment = alignments.get(key);
+		if (alignment == null) {
+			alignment = align(new ProteinSequence(query),
+					new ProteinSequence(target), alignerType);
+			SequenceAlignment previous = alignments.putIfAbsent(key, alignment);
+			if (previous != null)
+				alignment = previous;
+		}
+		return alignment;
+	}
+
+	/**
+	 * @return whether the alignment of the two sequences is cached
+	 */
+	boolean contains(String query, String target,
+			PairwiseSequenceAlignerType alignerType) {
+		return alignments.containsKey(new Key(query, target, alignerType));
+	}
+
+	/**
+	 * @return the number of cached alignments
+	 */
+	public int size() {
+		return alignments.size();
+	}
+
+	/**
+	 * Removes all cached alignments.
+	 */
+	public void clear() {
+		alignments.clear();
+	}
+
+	/**
+	 * Aligns the two sequences with the default scoring of
+	 * {@link SubunitCluster#mergeSequence(SubunitCluster, SubunitClustererParameters)}.
+	 */
+	private static SequenceAlignment align(ProteinSequence query,
+			ProteinSequence target, PairwiseSequenceAlignerType alignerType) {
+
+		PairwiseSequenceAligner<ProteinSequence, AminoAcidCompound> aligner = Alignments
+				.getPairwiseAligner(query, target, alignerType,
+						new SimpleGapPenalty(),
+						SubstitutionMatrixHelper.getBlosum62());
+		return SubunitCluster.getSequenceAlignment(aligner);
+	}
+}
@@ -352,6 +352,37 @@ public class SubunitCluster {
 				SubstitutionMatrixHelper.getBlosum62());
 	}
 
+	/**
+	 * Merges the other SubunitCluster into this one if their representatives
+	 * sequences are similar (according to the criteria in params), like
+	 * {@link #mergeSequence(SubunitCluster, SubunitClustererParameters)}.
+	 * The alignment of the representative sequences is taken from the cache,
+	 * or aligned and stored in the cache if it is not there.
+	 *
+	 * @param other
+	 *            SubunitCluster
+	 * @param params
+	 *            {@link SubunitClustererParameters}, with information whether to use local
+	 *            or global alignment, sequence identity and coverage thresholds.
+	 * @param cache
+	 *            the cache of sequence alignments
+	 * @return true if the SubunitClusters were merged, false otherwise
+	 * @throws CompoundNotFoundException
+	 * @since 6.0.4
+	 */
+	public boolean mergeSequence(SubunitCluster other, SubunitClustererParameters params,
+								 SubunitAlignmentCache cache) throws CompoundNotFoundException {
+		PairwiseSequenceAlignerType alignerType = PairwiseSequenceAlignerType.LOCAL;
+		if (params.isUseGlobalMetrics()) {
+			alignerType = PairwiseSequenceAlignerType.GLOBAL;
+		}
+		SubunitAlignmentCache.SequenceAlignment alignment = cache.getSequenceAlignment(
+				this.getRepresentativeSubunit().getProteinSequenceString(),
+				other.getRepresentativeSubunit().getProteinSequenceString(),
+				alignerType);
+		return mergeSequence(other, params, alignment);
+	}
+
 	/**
 	 * Merges the other SubunitCluster into this one if their representatives
 	 * sequences are similar (according to the criteria in params).
@@ -393,11 +424,62 @@ public class SubunitCluster {
 				.getPairwiseAligner(thisSequence, otherSequence, alignerType,
 						gapPenalty, subsMatrix);
 
+		return mergeSequence(other, params, getSequenceAlignment(aligner));
+	}
+
+	/**
+	 * Extracts the scores and aligned positions of a pairwise sequence
+	 * alignment.
+	 */
+	static SubunitAlignmentCache.SequenceAlignment getSequenceAlignment(
+			PairwiseSequenceAligner<ProteinSequence, AminoAcidCompound> aligner) {
+
+		double localIdentity = aligner.getPair().getPercentageOfIdentity(false);
+		double globalIdentity = aligner.getPair().getPercentageOfIdentity(true);
+
+		// Calculate real coverage (subtract gaps in both sequences)
+		double gaps1 = aligner.getPair().getAlignedSequence(1)
+				.getNumGapPositions();
+		double gaps2 = aligner.getPair().getAlignedSequence(2)
+				.getNumGapPositions();
+		double lengthAlignment = aligner.getPair().getLength();
+		double lengthThis = aligner.getQuery().getLength();
+		double lengthOther = aligner.getTarget().getLength();
+		double sequenceCoverage = (lengthAlignment - gaps1 - gaps2)
+				/ Math.max(lengthThis, lengthOther);
+
+		int length = aligner.getPair().getLength();
+		int[] queryIndices = new int[length];
+		int[] targetIndices = new int[length];
+		int n = 0;
+
+		// Extract the aligned residues of both Subunit
+		for (int p = 1; p < length + 1; p++) {
+
+			// Skip gaps in any of the two sequences
+			if (aligner.getPair().getAlignedSequence(1).isGap(p))
+				continue;
+			if (aligner.getPair().getAlignedSequence(2).isGap(p))
+				continue;
+
+			queryIndices[n] = aligner.getPair().getIndexInQueryAt(p) - 1;
+			targetIndices[n] = aligner.getPair().getIndexInTargetAt(p) - 1;
+			n++;
+		}
+
+		return new SubunitAlignmentCache.SequenceAlignment(localIdentity,
+				globalIdentity, sequenceCoverage,
+				Arrays.copyOf(queryIndices, n), Arrays.copyOf(targetIndices, n));
+	}
+
+	private boolean mergeSequence(SubunitCluster other, SubunitClustererParameters params,
+								  SubunitAlignmentCache.SequenceAlignment alignment) {
+
 		double sequenceIdentity;
 		if(params.isUseGlobalMetrics()) {
-			sequenceIdentity = aligner.getPair().getPercentageOfIdentity(true);
+			sequenceIdentity = alignment.globalIdentity;
 		} else {
-			sequenceIdentity = aligner.getPair().getPercentageOfIdentity(false);
+			sequenceIdentity = alignment.localIdentity;
 		}
 
 		if (sequenceIdentity < params.getSequenceIdentityThreshold())
@@ -405,16 +487,7 @@ public class SubunitCluster {
 
 		double sequenceCoverage = 0;
 		if(params.isUseSequenceCoverage()) {
-			// Calculate real coverage (subtract gaps in both sequences)
-			double gaps1 = aligner.getPair().getAlignedSequence(1)
-					.getNumGapPositions();
-			double gaps2 = aligner.getPair().getAlignedSequence(2)
-					.getNumGapPositions();
-			double lengthAlignment = aligner.getPair().getLength();
-			double lengthThis = aligner.getQuery().getLength();
-			double lengthOther = aligner.getTarget().getLength();
-			sequenceCoverage = (lengthAlignment - gaps1 - gaps2)
-					/ Math.max(lengthThis, lengthOther);
+			sequenceCoverage = alignment.coverage;
 
 			if (sequenceCoverage < params.getSequenceCoverageThreshold())
 				return false;
@@ -430,17 +503,10 @@ public class SubunitCluster {
 		List<Integer> thisAligned = new ArrayList<>();
 		List<Integer> otherAligned = new ArrayList<>();
 
-		// Extract the aligned residues of both Subunit
-		for (int p = 1; p < aligner.getPair().getLength() + 1; p++) {
-
-			// Skip gaps in any of the two sequences
-			if (aligner.getPair().getAlignedSequence(1).isGap(p))
-				continue;
-			if (aligner.getPair().getAlignedSequence(2).isGap(p))
-				continue;
+		for (int p = 0; p < alignment.queryIndices.length; p++) {
 
-			int thisIndex = aligner.getPair().getIndexInQueryAt(p) - 1;
-			int otherIndex = aligner.getPair().getIndexInTargetAt(p) - 1;
+			int thisIndex = alignment.queryIndices[p];
+			int otherIndex = alignment.targetIndices[p];
 
 			// Only consider residues that are part of the SubunitCluster
 			if (this.subunitEQR.get(this.representative).contains(thisIndex)
@@ -474,6 +540,19 @@ public class SubunitCluster {
 
 	public boolean mergeStructure(SubunitCluster other, SubunitClustererParameters params) throws StructureException {
 
+		AFPChain afp = alignStructures(this.getRepresentativeSubunit(),
+				other.getRepresentativeSubunit(), params);
+		return mergeStructure(other, params, afp);
+	}
+
+	/**
+	 * Aligns the representative Atoms of two Subunits with the structure
+	 * alignment algorithm of the params. A new aligner is created for every
+	 * call, so that Subunits can be aligned in parallel.
+	 */
+	static AFPChain alignStructures(Subunit subunit1, Subunit subunit2,
+			SubunitClustererParameters params) throws StructureException {
+
 		StructureAlignment aligner = StructureAlignmentFactory.getAlgorithm(params.getSuperpositionAlgorithm());
 		ConfigStrucAligParams aligner_params = aligner.getParameters();
 
@@ -491,10 +570,16 @@ public class SubunitCluster {
 			}
 		}
 
-		AFPChain afp = aligner.align(this.subunits.get(this.representative)
-				.getRepresentativeAtoms(),
-				other.subunits.get(other.representative)
-						.getRepresentativeAtoms());
+		return aligner.align(subunit1.getRepresentativeAtoms(),
+				subunit2.getRepresentativeAtoms());
+	}
+
+	/**
+	 * Merges the other SubunitCluster into this one if the given structure
+	 * alignment of their representatives meets the criteria in params.
+	 */
+	boolean mergeStructure(SubunitCluster other, SubunitClustererParameters params,
+			AFPChain afp) {
 
 		// Convert AFPChain to MultipleAlignment for convenience
 		MultipleAlignment msa = new MultipleAlignmentEnsembleImpl(
@@ -558,6 +643,13 @@ public class SubunitCluster {
 		return true;
 	}
 
+	/**
+	 * @return the representative Subunit of the cluster
+	 */
+	Subunit getRepresentativeSubunit() {
+		return subunits.get(representative);
+	}
+
 	private void updateEquivResidues(SubunitCluster other, List<Integer> thisAligned, List<Integer> otherAligned) {
 		// Do a List intersection to find out which EQR columns to remove
 		List<Integer> thisRemove = new ArrayList<>();
@@ -21,11 +21,20 @@
 package org.biojava.nbio.structure.cluster;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceAlignerType;
 import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.util.ConcurrencyTools;
 import org.biojava.nbio.structure.Structure;
 import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.align.model.AFPChain;
 import org.biojava.nbio.structure.symmetry.core.Stoichiometry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +66,33 @@ public class SubunitClusterer {
 	}
 
 	public static Stoichiometry cluster(List<Subunit> subunits, SubunitClustererParameters params) {
+		return cluster(subunits, params, new SubunitAlignmentCache(), null);
+	}
+
+	/**
+	 * Clusters the Subunits like {@link #cluster(List, SubunitClustererParameters)}.
+	 * The pairwise alignments of each cluster with the following ones are
+	 * calculated in parallel on the executor before the clusters are merged
+	 * in the same order as on a single thread, so the result does not depend
+	 * on the executor. Sequence alignments are taken from the cache, and
+	 * structure alignments of the same representatives are only calculated
+	 * once per call.
+	 *
+	 * @param subunits
+	 *            the Subunits to cluster
+	 * @param params
+	 *            the clustering parameters
+	 * @param cache
+	 *            the cache of sequence alignments, can be shared between calls
+	 * @param executor
+	 *            the executor, or null to do all calculations in the calling
+	 *            thread. The executor is not shut down by this method.
+	 * @return the Stoichiometry of the clusters
+	 * @since 6.0.4
+	 */
+	public static Stoichiometry cluster(List<Subunit> subunits,
+			SubunitClustererParameters params, SubunitAlignmentCache cache,
+			ExecutorService executor) {
 		List<SubunitCluster> clusters = new ArrayList<>();
 		if (subunits.size() == 0)
 			return new Stoichiometry(clusters);
@@ -65,10 +101,14 @@ public class SubunitClusterer {
 		for (Subunit s : subunits)
 			clusters.add(new SubunitCluster(s));
 
+		// The structure alignments of the representatives calculated so far
+		Map<SubunitPair, AFPChain> structureAlignments = new HashMap<>();
+
 		if (params.getClustererMethod() == SubunitClustererMethod.SEQUENCE ||
 				params.getClustererMethod() == SubunitClustererMethod.SEQUENCE_STRUCTURE) {
 			// Now merge clusters by SEQUENCE
 			for (int c1 = 0; c1 < clusters.size(); c1++) {
+				alignSequences(clusters, c1, params, cache, executor);
 				for (int c2 = clusters.size() - 1; c2 > c1; c2--) {
 					try {
 						if (params.isUseEntityIdForSeqIdentityDetermination() &&
@@ -78,7 +118,7 @@ public class SubunitClusterer {
 							// chains of deposited PDB entries. For instance for 6NHJ: with pure alignments it
 							// takes ~ 6 hours, with entity id comparisons it takes 2 minutes.
 							clusters.remove(c2);
-						} else if (clusters.get(c1).mergeSequence(clusters.get(c2), params)) {
+						} else if (clusters.get(c1).mergeSequence(clusters.get(c2), params, cache)) {
 							clusters.remove(c2);
 						}
 
@@ -93,17 +133,7 @@ public class SubunitClusterer {
 		if (params.getClustererMethod() == SubunitClustererMethod.STRUCTURE ||
 				params.getClustererMethod() == SubunitClustererMethod.SEQUENCE_STRUCTURE) {
 			// Now merge clusters by STRUCTURE
-			for (int c1 = 0; c1 < clusters.size(); c1++) {
-				for (int c2 = clusters.size() - 1; c2 > c1; c2--) {
-					try {
-						if (clusters.get(c1).mergeStructure(clusters.get(c2), params)) {
-							clusters.remove(c2);
-						}
-					} catch (StructureException e) {
-						logger.warn("Could not merge by Structure. {}", e.getMessage());
-					}
-				}
-			}
+			mergeStructures(clusters, params, structureAlignments, executor);
 		}
 
 		if (params.isInternalSymmetry()) {
@@ -119,19 +149,172 @@ public class SubunitClusterer {
 
 			// After internal symmetry merge again by structural similarity
 			// Use case: C8 propeller with 3 chains with 3+3+2 repeats each
-			for (int c1 = 0; c1 < clusters.size(); c1++) {
-				for (int c2 = clusters.size() - 1; c2 > c1; c2--) {
-					try {
-						if (clusters.get(c1).mergeStructure(clusters.get(c2), params))
-							clusters.remove(c2);
-					} catch (StructureException e) {
-						logger.warn("Could not merge by Structure. {}",
-								e.getMessage());
+			mergeStructures(clusters, params, structureAlignments, executor);
+		}
+
+		return new Stoichiometry(clusters);
+	}
+
+	/**
+	 * Merges the clusters by structure, in the same order as the sequence
+	 * merging.
+	 */
+	private static void mergeStructures(List<SubunitCluster> clusters,
+			SubunitClustererParameters params,
+			Map<SubunitPair, AFPChain> structureAlignments,
+			ExecutorService executor) {
+
+		for (int c1 = 0; c1 < clusters.size(); c1++) {
+			for (int c2 = clusters.size() - 1; c2 > c1; c2--) {
+				SubunitCluster cluster1 = clusters.get(c1);
+				SubunitCluster cluster2 = clusters.get(c2);
+				SubunitPair pair = new SubunitPair(cluster1.getRepresentativeSubunit(),
+						cluster2.getRepresentativeSubunit());
+				// Align the remaining clusters with the (new) representative
+				if (!structureAlignments.containsKey(pair))
+					alignStructures(clusters, c1, c2, params, structureAlignments, executor);
+				try {
+					AFPChain afp = structureAlignments.get(pair);
+					if (afp == null) {
+						afp = alignStructures(pair, params);
+						structureAlignments.put(pair, afp);
 					}
+					if (cluster1.mergeStructure(cluster2, params, afp))
+						clusters.remove(c2);
+				} catch (StructureException e) {
+					logger.warn("Could not merge by Structure. {}", e.getMessage());
 				}
 			}
 		}
+	}
 
-		return new Stoichiometry(clusters);
+	/**
+	 * Aligns the sequence of the representative of cluster c1 with the ones
+	 * of all following clusters that are not in the cache yet.
+	 */
+	private static void alignSequences(List<SubunitCluster> clusters, int c1,
+			SubunitClustererParameters params, SubunitAlignmentCache cache,
+			ExecutorService executor) {
+
+		if (executor == null)
+			return;
+
+		PairwiseSequenceAlignerType alignerType = params.isUseGlobalMetrics() ?
+				PairwiseSequenceAlignerType.GLOBAL : PairwiseSequenceAlignerType.LOCAL;
+		String query = clusters.get(c1).getRepresentativeSubunit().getProteinSequenceString();
+
+		Set<String> targets = new LinkedHashSet<>();
+		for (int c2 = clusters.size() - 1; c2 > c1; c2--) {
+			if (params.isUseEntityIdForSeqIdentityDetermination() &&
+					clusters.get(c1).isIdenticalByEntityIdTo(clusters.get(c2)))
+				continue;
+			String target = clusters.get(c2).getRepresentativeSubunit().getProteinSequenceString();
+			if (!cache.contains(query, target, alignerType))
+				targets.add(target);
+		}
+
+		// not worth a thread, the merging aligns the pair if needed
+		if (targets.size() < 2)
+			return;
+
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (String target : targets) {
+			tasks.add(() -> {
+				try {
+					cache.getSequenceAlignment(query, target, alignerType);
+				} catch (CompoundNotFoundException e) {
+					// The alignment is tried again when merging, which logs the error
+					logger.debug("Could not align sequences. {}", e.getMessage());
+				}
+				return null;
+			});
+		}
+		ConcurrencyTools.invokeAll(tasks, executor);
+	}
+
+	/**
+	 * Aligns the structure of the representative of cluster c1 with the ones
+	 * of clusters c2 and lower, down to c1 + 1.
+	 */
+	private static void alignStructures(List<SubunitCluster> clusters, int c1, int c2,
+			SubunitClustererParameters params,
+			Map<SubunitPair, AFPChain> structureAlignments,
+			ExecutorService executor) {
+
+		if (executor == null)
+			return;
+
+		Subunit subunit1 = clusters.get(c1).getRepresentativeSubunit();
+		List<SubunitPair> pairs = new ArrayList<>();
+		for (int c = c2; c > c1; c--) {
+			SubunitPair pair = new SubunitPair(subunit1,
+					clusters.get(c).getRepresentativeSubunit());
+			if (!structureAlignments.containsKey(pair) && !pairs.contains(pair))
+				pairs.add(pair);
+		}
+
+		// not worth a thread, the merging aligns the pair if needed
+		if (pairs.size() < 2)
+			return;
+
+		List<Callable<AFPChain>> tasks = new ArrayList<>();
+		for (SubunitPair pair : pairs) {
+			tasks.add(() -> {
+				try {
+					return alignStructures(pair, params);
+				} catch (StructureException e) {
+					// The alignment is tried again when merging, which logs the error
+					logger.debug("Could not align structures. {}", e.getMessage());
+					return null;
+				}
+			});
+		}
+		List<AFPChain> results = ConcurrencyTools.invokeAll(tasks, executor);
+		for (int i = 0; i < pairs.size(); i++) {
+			if (results.get(i) != null)
+				structureAlignments.put(pairs.get(i), results.get(i));
+		}
+	}
+
+	/**
+	 * Aligns the representative Atoms of the pair. The distance matrices,
+	 * which are not needed for merging, are not kept.
+	 */
+	private static AFPChain alignStructures(SubunitPair pair,
+			SubunitClustererParameters params) throws StructureException {
+		AFPChain afp = SubunitCluster.alignStructures(pair.subunit1,
+				pair.subunit2, params);
+		afp.setDistanceMatrix(null);
+		afp.setDisTable1(null);
+		afp.setDisTable2(null);
+		return afp;
+	}
+
+	/**
+	 * A pair of Subunits, compared by identity.
+	 */
+	private static final class SubunitPair {
+
+		private final Subunit subunit1;
+		private final Subunit subunit2;
+
+		SubunitPair(Subunit subunit1, Subunit subunit2) {
+			this.subunit1 = subunit1;
+			this.subunit2 = subunit2;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof SubunitPair))
+				return false;
+			SubunitPair other = (SubunitPair) o;
+			return subunit1 == other.subunit1 && subunit2 == other.subunit2;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(subunit1)
+					+ System.identityHashCode(subunit2);
+		}
 	}
 }
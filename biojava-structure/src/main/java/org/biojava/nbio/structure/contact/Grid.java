@@ -37,6 +37,8 @@ import org.biojava.nbio.structure.Calc;
  * <p>
  * The grid is composed of cells of size of the cutoff so that the distances that need to be calculated
  * are reduced to those within each cell and to the neighbouring cells.
+ * The cells are stored as a compact cell list: the atom indices sorted by cell
+ * plus an offsets array per set of atoms, so that no objects are needed per cell or per contact.
  * <p>
  * Usage, for generic 3D points:
  * <pre>
@@ -52,6 +54,10 @@ import org.biojava.nbio.structure.Calc;
  *  grid.addCoords(atoms);
  *  AtomContactSet contacts = getAtomContacts();
  * </pre>
+ * Usage, without creating contact objects:
+ * <pre>
+ *  grid.forEachContact((i, j, distance) -&gt; ...);
+ * </pre>
  *
  * @author Jose Duarte
  *
@@ -63,11 +69,27 @@ public class Grid {
 	 */
 	private static final int SCALE=100;
 
-	private GridCell[][][] cells;
-
 	private double cutoff;
 	private int cellSize;
 
+	// the number of cells in each dimension
+	private int xcells;
+	private int ycells;
+	private int zcells;
+
+	// the atom indices sorted by cell: those of cell c are in [offsets[c], offsets[c+1])
+	private int[] iCellOffsets;
+	private int[] iCellAtoms;
+	private int[] jCellOffsets;
+	private int[] jCellAtoms;
+
+	private double[] ix;
+	private double[] iy;
+	private double[] iz;
+	private double[] jx;
+	private double[] jy;
+	private double[] jz;
+
 	private Point3d[] iAtoms;
 	private Point3d[] jAtoms;
 
@@ -83,6 +105,20 @@ public class Grid {
 
 	private boolean noOverlap; // if the 2 sets of atoms are found not to overlap then this is set to true
 
+	/**
+	 * Receives the contacts found by {@link Grid#forEachContact(ContactConsumer)}.
+	 * @since 6.0.4
+	 */
+	@FunctionalInterface
+	public interface ContactConsumer {
+		/**
+		 * @param i the index of the first atom (in the i set)
+		 * @param j the index of the second atom (in the j set, or in the i set if there is only one set)
+		 * @param distance the distance between the two atoms, below the cutoff
+		 */
+		void accept(int i, int j, double distance);
+	}
+
 	/**
 	 * Creates a <code>Grid</code>, the cutoff is in the same units as the coordinates
 	 * (Angstroms if they are atom coordinates) and can
@@ -299,38 +335,56 @@ public class Grid {
 
 		findFullGridIntBounds();
 
-		cells = new GridCell[1+(bounds[3]-bounds[0])/cellSize]
-		                    [1+(bounds[4]-bounds[1])/cellSize]
-		                    [1+(bounds[5]-bounds[2])/cellSize];
+		xcells = 1+(bounds[3]-bounds[0])/cellSize;
+		ycells = 1+(bounds[4]-bounds[1])/cellSize;
+		zcells = 1+(bounds[5]-bounds[2])/cellSize;
 
-		int i = 0;
-		for (Point3d atom:iAtoms) {
-
-			int xind = xintgrid2xgridindex(getFloor(atom.x));
-			int yind = yintgrid2ygridindex(getFloor(atom.y));
-			int zind = zintgrid2zgridindex(getFloor(atom.z));
-			if (cells[xind][yind][zind]==null) {
-				cells[xind][yind][zind] = new GridCell(this);
-			}
-			cells[xind][yind][zind].addIindex(i);
-			i++;
-		}
+		ix = new double[iAtoms.length];
+		iy = new double[iAtoms.length];
+		iz = new double[iAtoms.length];
+		iCellOffsets = new int[xcells*ycells*zcells+1];
+		iCellAtoms = fillCells(iAtoms, ix, iy, iz, iCellOffsets);
 
 		if (jAtoms==null) return;
 
-		int j = 0;
-		for (Point3d atom:jAtoms) {
+		jx = new double[jAtoms.length];
+		jy = new double[jAtoms.length];
+		jz = new double[jAtoms.length];
+		jCellOffsets = new int[iCellOffsets.length];
+		jCellAtoms = fillCells(jAtoms, jx, jy, jz, jCellOffsets);
+	}
 
-			int xind = xintgrid2xgridindex(getFloor(atom.x));
-			int yind = yintgrid2ygridindex(getFloor(atom.y));
-			int zind = zintgrid2zgridindex(getFloor(atom.z));
-			if (cells[xind][yind][zind]==null) {
-				cells[xind][yind][zind] = new GridCell(this);
-			}
-			cells[xind][yind][zind].addJindex(j);
-			j++;
+	/**
+	 * Copies the coordinates into x, y, z and sorts the atom indices by cell with a counting sort,
+	 * so that the indices within a cell stay in ascending order.
+	 * @return the atom indices sorted by cell, the cell boundaries are written into offsets
+	 */
+	private int[] fillCells(Point3d[] atoms, double[] x, double[] y, double[] z, int[] offsets) {
+		int[] cellOfAtom = new int[atoms.length];
+		for (int i=0;i<atoms.length;i++) {
+			x[i] = atoms[i].x;
+			y[i] = atoms[i].y;
+			z[i] = atoms[i].z;
+			int cell = getCellIndex(
+					xintgrid2xgridindex(getFloor(x[i])),
+					yintgrid2ygridindex(getFloor(y[i])),
+					zintgrid2zgridindex(getFloor(z[i])));
+			cellOfAtom[i] = cell;
+			offsets[cell+1]++;
 		}
+		for (int c=1;c<offsets.length;c++) {
+			offsets[c] += offsets[c-1];
+		}
+		int[] cellAtoms = new int[atoms.length];
+		int[] next = Arrays.copyOf(offsets, offsets.length-1);
+		for (int i=0;i<atoms.length;i++) {
+			cellAtoms[next[cellOfAtom[i]]++] = i;
+		}
+		return cellAtoms;
+	}
 
+	private int getCellIndex(int xind, int yind, int zind) {
+		return (xind*ycells + yind)*zcells + zind;
 	}
 
 	/**
@@ -382,18 +436,9 @@ public class Grid {
 
 		AtomContactSet contacts = new AtomContactSet(cutoff);
 
-		List<Contact> list = getIndicesContacts();
-
-		if (jAtomObjects == null) {
-			for (Contact cont : list) {
-				contacts.add(new AtomContact(new Pair<Atom>(iAtomObjects[cont.getI()],iAtomObjects[cont.getJ()]),cont.getDistance()));
-			}
-
-		} else {
-			for (Contact cont : list) {
-				contacts.add(new AtomContact(new Pair<Atom>(iAtomObjects[cont.getI()],jAtomObjects[cont.getJ()]),cont.getDistance()));
-			}
-		}
+		Atom[] jObjects = jAtomObjects == null ? iAtomObjects : jAtomObjects;
+		forEachContact((i, j, distance) ->
+				contacts.add(new AtomContact(new Pair<Atom>(iAtomObjects[i],jObjects[j]),distance)));
 
 		return contacts;
 	}
@@ -419,20 +464,33 @@ public class Grid {
 	public List<Contact> getIndicesContacts() {
 
 		List<Contact> list = new ArrayList<>();
+		forEachContact((i, j, distance) -> list.add(new Contact(i, j, distance)));
+		return list;
+	}
+
+	/**
+	 * Passes all contacts, i.e. all atoms that are within the cutoff distance, to the given consumer
+	 * as atom indices pairs and their distance, without creating any contact objects.
+	 * If both iAtoms and jAtoms are defined then contacts are between iAtoms and jAtoms,
+	 * if jAtoms is null, then contacts are within the iAtoms (each pair once, with j&gt;i).
+	 * The contacts are produced in the same order as in {@link #getIndicesContacts()}.
+	 * @param consumer
+	 * @since 6.0.4
+	 */
+	public void forEachContact(ContactConsumer consumer) {
 
 		// if the 2 sets of atoms are not overlapping they are too far away and no need to calculate anything
 		// this won't apply if there's only one set of atoms (iAtoms), where we would want all-to-all contacts
-		if (noOverlap) return list;
+		if (noOverlap) return;
 
+		for (int xind=0;xind<xcells;xind++) {
+			for (int yind=0;yind<ycells;yind++) {
+				for (int zind=0;zind<zcells;zind++) {
+					int cell = getCellIndex(xind, yind, zind);
+					if (iCellOffsets[cell]==iCellOffsets[cell+1]) continue;
 
-		for (int xind=0;xind<cells.length;xind++) {
-			for (int yind=0;yind<cells[xind].length;yind++) {
-				for (int zind=0;zind<cells[xind][yind].length;zind++) {
 					// distances of points within this cell
-					GridCell thisCell = cells[xind][yind][zind];
-					if (thisCell==null) continue;
-
-					list.addAll(thisCell.getContactsWithinCell());
+					addContacts(cell, cell, consumer);
 
 					// distances of points from this box to all neighbouring boxes: 26 iterations (26 neighbouring boxes)
 					for (int x=xind-1;x<=xind+1;x++) {
@@ -440,10 +498,8 @@ public class Grid {
 							for (int z=zind-1;z<=zind+1;z++) {
 								if (x==xind && y==yind && z==zind) continue;
 
-								if (x>=0 && x<cells.length && y>=0 && y<cells[x].length && z>=0 && z<cells[x][y].length) {
-									if (cells[x][y][z] == null) continue;
-
-									list.addAll(thisCell.getContactsToOtherCell(cells[x][y][z]));
+								if (x>=0 && x<xcells && y>=0 && y<ycells && z>=0 && z<zcells) {
+									addContacts(cell, getCellIndex(x, y, z), consumer);
 								}
 							}
 						}
@@ -451,8 +507,45 @@ public class Grid {
 				}
 			}
 		}
+	}
 
-		return list;
+	/**
+	 * Finds the contacts between the iAtoms of cell and the jAtoms (or the iAtoms with a higher index
+	 * if there's only one set) of otherCell.
+	 */
+	private void addContacts(int cell, int otherCell, ContactConsumer consumer) {
+		boolean single = jAtoms==null;
+		int[] otherOffsets = single ? iCellOffsets : jCellOffsets;
+		int[] otherAtoms = single ? iCellAtoms : jCellAtoms;
+		double[] ox = single ? ix : jx;
+		double[] oy = single ? iy : jy;
+		double[] oz = single ? iz : jz;
+		int otherStart = otherOffsets[otherCell];
+		int otherEnd = otherOffsets[otherCell+1];
+		if (otherStart==otherEnd) return;
+
+		// the squared distance is only a pre-filter: the contact is decided on the distance itself,
+		// rounded exactly as in Point3d.distance(). The next value up covers the rounding of cutoff*cutoff
+		double cutoffSq = Math.nextUp(cutoff*cutoff);
+
+		for (int m=iCellOffsets[cell];m<iCellOffsets[cell+1];m++) {
+			int i = iCellAtoms[m];
+			double x = ix[i];
+			double y = iy[i];
+			double z = iz[i];
+			for (int n=otherStart;n<otherEnd;n++) {
+				int j = otherAtoms[n];
+				if (single && j<=i) continue;
+				double dx = x-ox[j];
+				double dy = y-oy[j];
+				double dz = z-oz[j];
+				double distSq = dx*dx+dy*dy+dz*dz;
+				if (distSq<=cutoffSq) {
+					double distance = Math.sqrt(distSq);
+					if (distance<cutoff) consumer.accept(i, j, distance);
+				}
+			}
+		}
 	}
 
 	/**
@@ -474,15 +567,16 @@ public class Grid {
 
 			// Consider 3x3x3 grid of cells around point
 			for (int x=xind-1;x<=xind+1;x++) {
-				if( x<0 || cells.length<=x) continue;
+				if( x<0 || xcells<=x) continue;
 				for (int y=yind-1;y<=yind+1;y++) {
-					if( y<0 || cells[x].length<=y ) continue;
+					if( y<0 || ycells<=y ) continue;
 					for (int z=zind-1;z<=zind+1;z++) {
-						if( z<0 || cells[x][y].length<=z ) continue;
+						if( z<0 || zcells<=z ) continue;
 
-						GridCell cell = cells[x][y][z];
+						int cell = getCellIndex(x, y, z);
 						// Check for contacts in this cell
-						if(cell != null && cell.hasContactToAtom(iAtoms, jAtoms, atom, cutoff)) {
+						if(hasContactToAtom(iCellOffsets, iCellAtoms, ix, iy, iz, cell, atom)
+								|| (jAtoms!=null && hasContactToAtom(jCellOffsets, jCellAtoms, jx, jy, jz, cell, atom))) {
 							return true;
 						}
 					}
@@ -492,6 +586,18 @@ public class Grid {
 		return false;
 	}
 
+	private boolean hasContactToAtom(int[] offsets, int[] cellAtoms, double[] x, double[] y, double[] z, int cell, Point3d query) {
+		for (int m=offsets[cell];m<offsets[cell+1];m++) {
+			int i = cellAtoms[m];
+			double dx = x[i]-query.x;
+			double dy = y[i]-query.y;
+			double dz = z[i]-query.z;
+			if (Math.sqrt(dx*dx+dy*dy+dz*dz)<cutoff)
+				return true;
+		}
+		return false;
+	}
+
 	public double getCutoff() {
 		return cutoff;
 	}
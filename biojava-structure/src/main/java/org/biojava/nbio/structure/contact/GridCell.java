@@ -30,8 +30,10 @@ import javax.vecmath.Point3d;
  * A grid cell to be used in contact calculation via spatial hashing algorithm.
  *
  * @author Jose Duarte
- *
+ * @deprecated {@link Grid} no longer uses grid cell objects, it stores its cells as primitive arrays.
+ * Use {@link Grid#getIndicesContacts()} or {@link Grid#forEachContact(Grid.ContactConsumer)} instead
  */
+@Deprecated
 public class GridCell {
 
 
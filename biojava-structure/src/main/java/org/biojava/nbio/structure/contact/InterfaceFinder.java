@@ -1,5 +1,6 @@
 package org.biojava.nbio.structure.contact;
 
+import org.biojava.nbio.core.util.ConcurrencyTools;
 import org.biojava.nbio.structure.Atom;
 import org.biojava.nbio.structure.Calc;
 import org.biojava.nbio.structure.Chain;
@@ -13,6 +14,8 @@ import javax.vecmath.Point3d;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 /**
  * A class containing methods to find interfaces in a given structure.
@@ -31,6 +34,8 @@ public class InterfaceFinder {
 
     private BoundingBox[] boundingBoxes;
 
+    private ExecutorService executor;
+
     public InterfaceFinder(Structure structure) {
         this.polyChains = new ArrayList<>(structure.getPolyChains());
         trimPolyChains();
@@ -55,26 +60,43 @@ public class InterfaceFinder {
         this.cutoff = cutoff;
     }
 
+    /**
+     * Set the executor used to calculate the contacts of the chain pairs in parallel.
+     * The result does not depend on the executor. The executor is not shut down by this class.
+     * @param executor the executor, or null to do all calculations in the calling thread (the default)
+     * @since 6.0.4
+     */
+    public void setExecutorService(ExecutorService executor) {
+        this.executor = executor;
+    }
+
     /**
      * Find all inter polymer-chain interfaces in the structure.
      * Two chains will be considered in contact if at least a pair of atoms (one from each chain) is within the
      * contact cutoff.
+     * The chain pairs whose bounding boxes overlap are calculated in parallel, the interfaces
+     * are listed in the order of the chains.
      * @return the list of all interfaces
      */
     public StructureInterfaceList getAllInterfaces() {
         initBoundingBoxes();
 
-        StructureInterfaceList list = new StructureInterfaceList();
-
+        List<Callable<StructureInterface>> tasks = new ArrayList<>();
         for (int i = 0; i<polyChains.size(); i++) {
             for (int j = i + 1; j<polyChains.size(); j++) {
                 if (! boundingBoxes[i].overlaps(boundingBoxes[j], cutoff)) {
                     continue;
                 }
-                StructureInterface interf = calcInterface(polyChains.get(i), polyChains.get(j));
-                if (interf!=null) {
-                    list.add(interf);
-                }
+                Chain chain1 = polyChains.get(i);
+                Chain chain2 = polyChains.get(j);
+                tasks.add(() -> calcInterface(chain1, chain2));
+            }
+        }
+
+        StructureInterfaceList list = new StructureInterfaceList();
+        for (StructureInterface interf : ConcurrencyTools.invokeAll(tasks, executor)) {
+            if (interf!=null) {
+                list.add(interf);
             }
         }
         return list;
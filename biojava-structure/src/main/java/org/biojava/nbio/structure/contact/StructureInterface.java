@@ -51,6 +51,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
 
 
 /**
@@ -211,14 +212,15 @@ public class StructureInterface implements Serializable, Comparable<StructureInt
 	 * @param asas1 ASA values for atoms of partner 1
 	 * @param asas2 ASA values for atoms of partner 2
 	 * @param nSpherePoints the number of sphere points to be used for complexed ASA calculation
-	 * @param nThreads the number of threads to be used for complexed ASA calculation
+	 * @param executor the executor to be used for complexed ASA calculation, or null to use a single thread
 	 * @param cofactorSizeToUse the minimum size of cofactor molecule (non-chain HET atoms) that will be used in ASA calculation
 	 */
-	void setAsas(double[] asas1, double[] asas2, int nSpherePoints, int nThreads, int cofactorSizeToUse) {
+	void setAsas(double[] asas1, double[] asas2, int nSpherePoints, ExecutorService executor, int cofactorSizeToUse) {
 
 		Atom[] atoms = getAtomsForAsa(cofactorSizeToUse);
 		AsaCalculator asaCalc = new AsaCalculator(atoms,
-				AsaCalculator.DEFAULT_PROBE_SIZE, nSpherePoints, nThreads);
+				AsaCalculator.DEFAULT_PROBE_SIZE, nSpherePoints, 1);
+		asaCalc.setExecutorService(executor);
 
 		double[] complexAsas = asaCalc.calculateAsas();
 
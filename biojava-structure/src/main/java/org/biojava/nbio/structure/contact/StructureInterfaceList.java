@@ -29,6 +29,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.biojava.nbio.core.util.SingleLinkageClusterer;
 import org.biojava.nbio.structure.Atom;
@@ -165,43 +167,51 @@ public class StructureInterfaceList implements Serializable, Iterable<StructureI
 
 		logger.debug("Will calculate uncomplexed ASA for {} orientation-unique chains.", uniqAsaChains.size());
 
-		long start = System.currentTimeMillis();
+		// a single thread pool shared by all the ASA calculations
+		ExecutorService executor = nThreads > 1 ? Executors.newFixedThreadPool(nThreads) : null;
+		try {
+			long start = System.currentTimeMillis();
 
-		// we only need to calculate ASA for that subset (any translation of those will have same values)
-		for (String molecId:uniqAsaChains.keySet()) {
+			// we only need to calculate ASA for that subset (any translation of those will have same values)
+			for (String molecId:uniqAsaChains.keySet()) {
 
-			logger.debug("Calculating uncomplexed ASA for molecId {}, with {} atoms", molecId, uniqAsaChains.get(molecId).length);
+				logger.debug("Calculating uncomplexed ASA for molecId {}, with {} atoms", molecId, uniqAsaChains.get(molecId).length);
 
-			AsaCalculator asaCalc = new AsaCalculator(uniqAsaChains.get(molecId),
-					AsaCalculator.DEFAULT_PROBE_SIZE, nSpherePoints, nThreads);
+				AsaCalculator asaCalc = new AsaCalculator(uniqAsaChains.get(molecId),
+						AsaCalculator.DEFAULT_PROBE_SIZE, nSpherePoints, nThreads);
+				asaCalc.setExecutorService(executor);
 
-			double[] atomAsas = asaCalc.calculateAsas();
+				double[] atomAsas = asaCalc.calculateAsas();
 
-			chainAsas.put(molecId, atomAsas);
+				chainAsas.put(molecId, atomAsas);
 
-		}
-		long end = System.currentTimeMillis();
+			}
+			long end = System.currentTimeMillis();
 
-		logger.debug("Calculated uncomplexed ASA for {} orientation-unique chains. Time: {} s", uniqAsaChains.size(), ((end-start)/1000.0));
+			logger.debug("Calculated uncomplexed ASA for {} orientation-unique chains. Time: {} s", uniqAsaChains.size(), ((end-start)/1000.0));
 
-		logger.debug ("Will calculate complexed ASA for {} pairwise complexes.", redundancyReducedList.size());
+			logger.debug ("Will calculate complexed ASA for {} pairwise complexes.", redundancyReducedList.size());
 
-		start = System.currentTimeMillis();
+			start = System.currentTimeMillis();
 
-		// now we calculate the ASAs for each of the complexes
-		for (StructureInterface interf:redundancyReducedList) {
+			// now we calculate the ASAs for each of the complexes
+			for (StructureInterface interf:redundancyReducedList) {
 
-			String molecId1 = interf.getMoleculeIds().getFirst()+interf.getTransforms().getFirst().getTransformId();
-			String molecId2 = interf.getMoleculeIds().getSecond()+interf.getTransforms().getSecond().getTransformId();
+				String molecId1 = interf.getMoleculeIds().getFirst()+interf.getTransforms().getFirst().getTransformId();
+				String molecId2 = interf.getMoleculeIds().getSecond()+interf.getTransforms().getSecond().getTransformId();
 
-			logger.debug("Calculating complexed ASAs for interface {} between molecules {} and {}", interf.getId(), molecId1, molecId2);
+				logger.debug("Calculating complexed ASAs for interface {} between molecules {} and {}", interf.getId(), molecId1, molecId2);
 
-			interf.setAsas(chainAsas.get(molecId1), chainAsas.get(molecId2), nSpherePoints, nThreads, cofactorSizeToUse);
+				interf.setAsas(chainAsas.get(molecId1), chainAsas.get(molecId2), nSpherePoints, executor, cofactorSizeToUse);
 
-		}
-		end = System.currentTimeMillis();
+			}
+			end = System.currentTimeMillis();
 
-		logger.debug("Calculated complexes ASA for {} pairwise complexes. Time: {} s", redundancyReducedList.size(), ((end-start)/1000.0));
+			logger.debug("Calculated complexes ASA for {} pairwise complexes. Time: {} s", redundancyReducedList.size(), ((end-start)/1000.0));
+		} finally {
+			if (executor != null)
+				executor.shutdown();
+		}
 
 		// now let's populate the interface area value for the NCS-redundant ones from the reference interface (first one in list)
 		if (clustersNcs!=null) {
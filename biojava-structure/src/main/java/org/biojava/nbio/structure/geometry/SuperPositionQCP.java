@@ -21,10 +21,11 @@
 
 package org.biojava.nbio.structure.geometry;
 
+import java.util.Arrays;
+
 import javax.vecmath.Matrix3d;
 import javax.vecmath.Matrix4d;
 import javax.vecmath.Point3d;
-import javax.vecmath.Vector3d;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -72,6 +73,12 @@ import org.slf4j.LoggerFactory;
  * Point3d[] ySuperposed = qcp.getTransformedCoordinates();
  * </pre>
  * <p>
+ * The coordinates can also be given as flat arrays of consecutive x, y, z
+ * values with {@link #getRmsd(double[], int, double[], int, int)} and
+ * {@link #superpose(double[], int, double[], int, int)}. No objects are
+ * allocated by these calls. See {@link SuperPositionQCPBatch} to superpose
+ * many coordinate sets at once.
+ * <p>
  * Citations:
  * <p>
  * Liu P, Agrafiotis DK, & Theobald DL (2011) Reply to comment on: "Fast
@@ -111,6 +118,13 @@ public final class SuperPositionQCP extends SuperPositionAbstract {
 
 	private static final Logger logger = LoggerFactory.getLogger(SuperPositionQCP.class);
 
+	/**
+	 * The number of values per coordinate set in the statistics of
+	 * {@link #calcStats(double[], int, int, boolean, double[], int)}: the
+	 * centroid and the sum of the squared centered coordinates.
+	 */
+	static final int STATS_SIZE = 4;
+
 	private double evec_prec = 1E-6;
 	private double eval_prec = 1E-11;
 
@@ -120,10 +134,9 @@ public final class SuperPositionQCP extends SuperPositionAbstract {
 	private double[] weight;
 	private double wsum;
 
-	private Point3d[] xref;
-	private Point3d[] yref;
-	private Point3d xtrans;
-	private Point3d ytrans;
+	private final double[] xcentroid = new double[3];
+	private final double[] ycentroid = new double[3];
+	private final double[] stats = new double[2 * STATS_SIZE];
 
 	private double e0;
 	private Matrix3d rotmat = new Matrix3d();
@@ -256,54 +269,46 @@ public final class SuperPositionQCP extends SuperPositionAbstract {
 	 */
 	private void calcRmsd(Point3d[] x, Point3d[] y) {
 		if (centered) {
-			innerProduct(y, x);
+			Arrays.fill(xcentroid, 0);
+			Arrays.fill(ycentroid, 0);
 		} else {
-			// translate to origin
-			xref = CalcPoint.clonePoint3dArray(x);
-			xtrans = CalcPoint.centroid(xref);
-			logger.debug("x centroid: " + xtrans);
-			xtrans.negate();
-			CalcPoint.translate(new Vector3d(xtrans), xref);
-
-			yref = CalcPoint.clonePoint3dArray(y);
-			ytrans = CalcPoint.centroid(yref);
-			logger.debug("y centroid: " + ytrans);
-			ytrans.negate();
-			CalcPoint.translate(new Vector3d(ytrans), yref);
-			innerProduct(yref, xref);
+			// the points are translated to the origin in innerProduct
+			centroid(x, xcentroid);
+			centroid(y, ycentroid);
+			logger.debug("x centroid: {}", xcentroid);
+			logger.debug("y centroid: {}", ycentroid);
 		}
+		innerProduct(y, ycentroid, x, xcentroid);
 		calcRmsd(wsum);
 	}
 
+	/**
+	 * Calculates the centroid of the points as {@link CalcPoint#centroid(Point3d[])}.
+	 */
+	private static void centroid(Point3d[] x, double[] centroid) {
+		double cx = 0, cy = 0, cz = 0;
+		for (Point3d p : x) {
+			cx += p.x;
+			cy += p.y;
+			cz += p.z;
+		}
+		double scale = 1.0 / x.length;
+		centroid[0] = cx * scale;
+		centroid[1] = cy * scale;
+		centroid[2] = cz * scale;
+	}
+
 	/**
 	 * Superposition coords2 onto coords1 -- in other words, coords2 is rotated,
 	 * coords1 is held fixed
 	 */
 	private void calcTransformation() {
 
-		// transformation.set(rotmat,new Vector3d(0,0,0), 1);
+		// the rotation, combined with x -> origin and origin -> y translations
 		transformation.set(rotmat);
-		// long t2 = System.nanoTime();
-		// System.out.println("create transformation: " + (t2-t1));
-		// System.out.println("m3d -> m4d");
-		// System.out.println(transformation);
-
-		// combine with x -> origin translation
-		Matrix4d trans = new Matrix4d();
-		trans.setIdentity();
-		trans.setTranslation(new Vector3d(xtrans));
-		transformation.mul(transformation, trans);
-		// System.out.println("setting xtrans");
-		// System.out.println(transformation);
-
-		// combine with origin -> y translation
-		ytrans.negate();
-		Matrix4d transInverse = new Matrix4d();
-		transInverse.setIdentity();
-		transInverse.setTranslation(new Vector3d(ytrans));
-		transformation.mul(transInverse, transformation);
-		// System.out.println("setting ytrans");
-		// System.out.println(transformation);
+		transformation.m03 = ycentroid[0] - (rotmat.m00 * xcentroid[0] + rotmat.m01 * xcentroid[1] + rotmat.m02 * xcentroid[2]);
+		transformation.m13 = ycentroid[1] - (rotmat.m10 * xcentroid[0] + rotmat.m11 * xcentroid[1] + rotmat.m12 * xcentroid[2]);
+		transformation.m23 = ycentroid[2] - (rotmat.m20 * xcentroid[0] + rotmat.m21 * xcentroid[1] + rotmat.m22 * xcentroid[2]);
 	}
 
 	/**
@@ -314,11 +319,17 @@ public final class SuperPositionQCP extends SuperPositionAbstract {
 	 * http://theobald.brandeis.edu/qcp/qcprot.c
 	 *
 	 * @param coords1
+	 * @param centroid1
+	 *            the centroid subtracted from coords1
 	 * @param coords2
+	 * @param centroid2
+	 *            the centroid subtracted from coords2
 	 * @return
 	 */
-	private void innerProduct(Point3d[] coords1, Point3d[] coords2) {
+	private void innerProduct(Point3d[] coords1, double[] centroid1, Point3d[] coords2, double[] centroid2) {
 		double x1, x2, y1, y2, z1, z2;
+		double c1x = centroid1[0], c1y = centroid1[1], c1z = centroid1[2];
+		double c2x = centroid2[0], c2y = centroid2[1], c2z = centroid2[2];
 		double g1 = 0.0, g2 = 0.0;
 
 		Sxx = 0;
@@ -337,15 +348,19 @@ public final class SuperPositionQCP extends SuperPositionAbstract {
 
 				wsum += weight[i];
 
-				x1 = weight[i] * coords1[i].x;
-				y1 = weight[i] * coords1[i].y;
-				z1 = weight[i] * coords1[i].z;
+				double cx1 = coords1[i].x - c1x;
+				double cy1 = coords1[i].y - c1y;
+				double cz1 = coords1[i].z - c1z;
+
+				x1 = weight[i] * cx1;
+				y1 = weight[i] * cy1;
+				z1 = weight[i] * cz1;
 
-				g1 += x1 * coords1[i].x + y1 * coords1[i].y + z1 * coords1[i].z;
+				g1 += x1 * cx1 + y1 * cy1 + z1 * cz1;
 
-				x2 = coords2[i].x;
-				y2 = coords2[i].y;
-				z2 = coords2[i].z;
+				x2 = coords2[i].x - c2x;
+				y2 = coords2[i].y - c2y;
+				z2 = coords2[i].z - c2z;
 
 				g2 += weight[i] * (x2 * x2 + y2 * y2 + z2 * z2);
 
@@ -363,25 +378,142 @@ public final class SuperPositionQCP extends SuperPositionAbstract {
 			}
 		} else {
 			for (int i = 0; i < coords1.length; i++) {
-				g1 += coords1[i].x * coords1[i].x + coords1[i].y * coords1[i].y + coords1[i].z * coords1[i].z;
-				g2 += coords2[i].x * coords2[i].x + coords2[i].y * coords2[i].y + coords2[i].z * coords2[i].z;
+				x1 = coords1[i].x - c1x;
+				y1 = coords1[i].y - c1y;
+				z1 = coords1[i].z - c1z;
+				x2 = coords2[i].x - c2x;
+				y2 = coords2[i].y - c2y;
+				z2 = coords2[i].z - c2z;
+
+				g1 += x1 * x1 + y1 * y1 + z1 * z1;
+				g2 += x2 * x2 + y2 * y2 + z2 * z2;
+
+				Sxx += x1 * x2;
+				Sxy += x1 * y2;
+				Sxz += x1 * z2;
+
+				Syx += y1 * x2;
+				Syy += y1 * y2;
+				Syz += y1 * z2;
+
+				Szx += z1 * x2;
+				Szy += z1 * y2;
+				Szz += z1 * z2;
+			}
+			wsum = coords1.length;
+		}
 
-				Sxx += coords1[i].x * coords2[i].x;
-				Sxy += coords1[i].x * coords2[i].y;
-				Sxz += coords1[i].x * coords2[i].z;
+		e0 = (g1 + g2) * 0.5;
+	}
 
-				Syx += coords1[i].y * coords2[i].x;
-				Syy += coords1[i].y * coords2[i].y;
-				Syz += coords1[i].y * coords2[i].z;
+	/**
+	 * Calculates the inner product between two coordinate sets given as flat
+	 * arrays of x, y, z values, the statistics of which were calculated with
+	 * {@link #calcStats(double[], int, int, boolean, double[], int)}.
+	 */
+	private void innerProduct(double[] coords1, int offset1, double[] stats1, int statsOffset1,
+			double[] coords2, int offset2, double[] stats2, int statsOffset2, int length) {
+		double c1x = stats1[statsOffset1], c1y = stats1[statsOffset1 + 1], c1z = stats1[statsOffset1 + 2];
+		double c2x = stats2[statsOffset2], c2y = stats2[statsOffset2 + 1], c2z = stats2[statsOffset2 + 2];
+		double sxx = 0, sxy = 0, sxz = 0, syx = 0, syy = 0, syz = 0, szx = 0, szy = 0, szz = 0;
+
+		for (int i = 0; i < 3 * length; i += 3) {
+			double x1 = coords1[offset1 + i] - c1x;
+			double y1 = coords1[offset1 + i + 1] - c1y;
+			double z1 = coords1[offset1 + i + 2] - c1z;
+			double x2 = coords2[offset2 + i] - c2x;
+			double y2 = coords2[offset2 + i + 1] - c2y;
+			double z2 = coords2[offset2 + i + 2] - c2z;
+
+			sxx += x1 * x2;
+			sxy += x1 * y2;
+			sxz += x1 * z2;
+
+			syx += y1 * x2;
+			syy += y1 * y2;
+			syz += y1 * z2;
+
+			szx += z1 * x2;
+			szy += z1 * y2;
+			szz += z1 * z2;
+		}
+		Sxx = sxx;
+		Sxy = sxy;
+		Sxz = sxz;
+		Syx = syx;
+		Syy = syy;
+		Syz = syz;
+		Szx = szx;
+		Szy = szy;
+		Szz = szz;
+
+		// coords1 is the fixed set (y) and coords2 the moved set (x)
+		System.arraycopy(stats1, statsOffset1, ycentroid, 0, 3);
+		System.arraycopy(stats2, statsOffset2, xcentroid, 0, 3);
+		wsum = length;
+		e0 = (stats1[statsOffset1 + 3] + stats2[statsOffset2 + 3]) * 0.5;
+	}
 
-				Szx += coords1[i].z * coords2[i].x;
-				Szy += coords1[i].z * coords2[i].y;
-				Szz += coords1[i].z * coords2[i].z;
+	/**
+	 * Calculates the statistics of a coordinate set needed for the
+	 * superposition: the centroid (zero if the coordinates are centered) and
+	 * the sum of the squared coordinates after subtracting the centroid.
+	 *
+	 * @param coords
+	 *            flat array of x, y, z values
+	 * @param offset
+	 *            the index of the x value of the first point
+	 * @param length
+	 *            the number of points
+	 * @param centered
+	 *            true if the points are centered at the origin
+	 * @param stats
+	 *            the array to write the {@link #STATS_SIZE} values to
+	 * @param statsOffset
+	 *            the index in stats of the first value
+	 */
+	static void calcStats(double[] coords, int offset, int length, boolean centered,
+			double[] stats, int statsOffset) {
+		double cx = 0, cy = 0, cz = 0;
+		if (!centered) {
+			for (int i = offset; i < offset + 3 * length; i += 3) {
+				cx += coords[i];
+				cy += coords[i + 1];
+				cz += coords[i + 2];
 			}
-			wsum = coords1.length;
+			double scale = 1.0 / length;
+			cx *= scale;
+			cy *= scale;
+			cz *= scale;
+		}
+		double g = 0;
+		for (int i = offset; i < offset + 3 * length; i += 3) {
+			double x = coords[i] - cx;
+			double y = coords[i + 1] - cy;
+			double z = coords[i + 2] - cz;
+			g += x * x + y * y + z * z;
 		}
+		stats[statsOffset] = cx;
+		stats[statsOffset + 1] = cy;
+		stats[statsOffset + 2] = cz;
+		stats[statsOffset + 3] = g;
+	}
 
-		e0 = (g1 + g2) * 0.5;
+	/**
+	 * Calculates the RMSD of the superposition of moved onto fixed from their
+	 * statistics, calculated with
+	 * {@link #calcStats(double[], int, int, boolean, double[], int)}. The
+	 * transformation can be obtained afterwards with
+	 * {@link #superposeAfterRmsd()}.
+	 */
+	double getRmsd(double[] fixed, int fixedOffset, double[] fixedStats, int fixedStatsOffset,
+			double[] moved, int movedOffset, double[] movedStats, int movedStatsOffset, int length) {
+		innerProduct(fixed, fixedOffset, fixedStats, fixedStatsOffset,
+				moved, movedOffset, movedStats, movedStatsOffset, length);
+		calcRmsd(wsum);
+		rmsdCalculated = true;
+		transformationCalculated = false;
+		return rmsd;
 	}
 
 	private int calcRmsd(double len) {
@@ -442,9 +574,9 @@ public final class SuperPositionQCP extends SuperPositionAbstract {
 		}
 
 		if (i == 50) {
-			logger.warn(String.format("More than %d iterations needed!", i));
+			logger.warn("More than {} iterations needed!", i);
 		} else {
-			logger.info(String.format("%d iterations needed!", i));
+			logger.info("{} iterations needed!", i);
 		}
 
 		/*
@@ -536,7 +668,8 @@ public final class SuperPositionQCP extends SuperPositionAbstract {
 		q3 /= normq;
 		q4 /= normq;
 
-		logger.debug("q: " + q1 + " " + q2 + " " + q3 + " " + q4);
+		if (logger.isDebugEnabled())
+			logger.debug("q: " + q1 + " " + q2 + " " + q3 + " " + q4);
 
 		double a2 = q1 * q1;
 		double x2 = q2 * q2;
@@ -583,6 +716,55 @@ public final class SuperPositionQCP extends SuperPositionAbstract {
 		return transformation;
 	}
 
+	/**
+	 * Calculates the RMSD of the superposition of two coordinate sets given
+	 * as flat arrays of consecutive x, y, z values. The points are not
+	 * weighted. No objects are allocated.
+	 *
+	 * @param fixed
+	 *            the coordinates of the fixed points
+	 * @param fixedOffset
+	 *            the index in fixed of the x value of the first point
+	 * @param moved
+	 *            the coordinates of the points to superpose onto fixed
+	 * @param movedOffset
+	 *            the index in moved of the x value of the first point
+	 * @param length
+	 *            the number of points of each set
+	 * @return the RMSD of the superposition
+	 * @since 6.0.4
+	 */
+	public double getRmsd(double[] fixed, int fixedOffset, double[] moved, int movedOffset, int length) {
+		calcStats(fixed, fixedOffset, length, centered, stats, 0);
+		calcStats(moved, movedOffset, length, centered, stats, STATS_SIZE);
+		return getRmsd(fixed, fixedOffset, stats, 0, moved, movedOffset, stats, STATS_SIZE, length);
+	}
+
+	/**
+	 * Superposes two coordinate sets given as flat arrays of consecutive x,
+	 * y, z values. The points are not weighted. To obtain the RMSD as well,
+	 * use {@link #getRmsd(double[], int, double[], int, int)} followed by
+	 * {@link #superposeAfterRmsd()}. The returned matrix is reused by the
+	 * next call.
+	 *
+	 * @param fixed
+	 *            the coordinates of the fixed points
+	 * @param fixedOffset
+	 *            the index in fixed of the x value of the first point
+	 * @param moved
+	 *            the coordinates of the points to superpose onto fixed
+	 * @param movedOffset
+	 *            the index in moved of the x value of the first point
+	 * @param length
+	 *            the number of points of each set
+	 * @return transformation matrix to superpose moved onto fixed
+	 * @since 6.0.4
+	 */
+	public Matrix4d superpose(double[] fixed, int fixedOffset, double[] moved, int movedOffset, int length) {
+		getRmsd(fixed, fixedOffset, moved, movedOffset, length);
+		return superposeAfterRmsd();
+	}
+
 	/**
 	 * @param fixed
 	 * @param moved
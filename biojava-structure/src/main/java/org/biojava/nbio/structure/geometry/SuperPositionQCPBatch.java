@@ -0,0 +1,286 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.structure.geometry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import javax.vecmath.Matrix4d;
+
+import org.biojava.nbio.core.util.ConcurrencyTools;
+
+/**
+ * Batch RMSD and superposition calculations with the {@link SuperPositionQCP}
+ * algorithm, for many coordinate sets with the same number of points, such as
+ * the conformers of an ensemble or the frames of a trajectory.
+ * <p>
+ * The coordinate sets are given as one flat array of consecutive x, y, z
+ * values: the coordinate set k with n points starts at index 3*n*k. The
+ * results are written to arrays provided by the caller, and no objects are
+ * allocated per superposition. The work is split into tasks that run on the
+ * {@link ExecutorService} set with {@link #setExecutorService(ExecutorService)},
+ * by default in the calling thread.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ *    SuperPositionQCPBatch batch = new SuperPositionQCPBatch(length);
+ *    double[] rmsds = new double[SuperPositionQCPBatch.getNumberOfPairs(numSets)];
+ *    batch.getAllPairsRmsds(sets, rmsds);
+ *    double rmsd = rmsds[SuperPositionQCPBatch.getPairIndex(i, j, numSets)];
+ * </pre>
+ *
+ * @since 6.0.4
+ */
+public class SuperPositionQCPBatch {
+
+	/**
+	 * The number of points, in units of superpositions of one point, that
+	 * are calculated in one task.
+	 */
+	private static final long POINTS_PER_TASK = 1 << 18;
+
+	private final int length;
+
+	private long pointsPerTask = POINTS_PER_TASK;
+
+	private ExecutorService executor;
+
+	/**
+	 * Creates a batch calculation for coordinate sets of the given number of
+	 * points.
+	 *
+	 * @param length
+	 *            the number of points of each coordinate set
+	 */
+	public SuperPositionQCPBatch(int length) {
+		if (length < 1)
+			throw new IllegalArgumentException("Coordinate sets need at least one point, got " + length);
+		this.length = length;
+	}
+
+	/**
+	 * Sets the executor used to run the calculations.
+	 *
+	 * @param executor
+	 *            the executor to run the calculations, or null to run them in
+	 *            the calling thread (the default)
+	 */
+	public void setExecutorService(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets the size of the tasks, in number of points of the superposed
+	 * coordinate sets.
+	 */
+	void setPointsPerTask(long pointsPerTask) {
+		this.pointsPerTask = pointsPerTask;
+	}
+
+	/**
+	 * @return the number of points of each coordinate set
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Calculates the RMSD of the superposition of each coordinate set onto the
+	 * reference.
+	 *
+	 * @param reference
+	 *            the fixed coordinate set, as 3*length x, y, z values
+	 * @param sets
+	 *            the coordinate sets to superpose onto the reference
+	 * @param rmsds
+	 *            the array to write the RMSD of each coordinate set to
+	 */
+	public void getRmsds(double[] reference, double[] sets, double[] rmsds) {
+		superpose(reference, sets, rmsds, null);
+	}
+
+	/**
+	 * Superposes each coordinate set onto the reference. The coordinate sets
+	 * are not modified.
+	 *
+	 * @param reference
+	 *            the fixed coordinate set, as 3*length x, y, z values
+	 * @param sets
+	 *            the coordinate sets to superpose onto the reference
+	 * @param rmsds
+	 *            the array to write the RMSD of each coordinate set to
+	 * @param transformations
+	 *            the array to write the transformation matrix superposing each
+	 *            coordinate set onto the reference to, as 16 values per
+	 *            coordinate set in the row-major order of {@link Matrix4d}.
+	 *            If null, only the RMSDs are calculated.
+	 */
+	public void superpose(double[] reference, double[] sets, double[] rmsds, double[] transformations) {
+		if (reference.length != 3 * length)
+			throw new IllegalArgumentException("Reference with " + reference.length
+					+ " coordinates, expected " + 3 * length);
+		int numSets = getNumberOfSets(sets);
+		if (rmsds.length < numSets)
+			throw new IllegalArgumentException("Array of " + rmsds.length + " RMSDs for " + numSets + " sets");
+		if (transformations != null && transformations.length < 16 * numSets)
+			throw new IllegalArgumentException("Array of " + transformations.length
+					+ " transformation values for " + numSets + " sets");
+
+		double[] referenceStats = new double[SuperPositionQCP.STATS_SIZE];
+		SuperPositionQCP.calcStats(reference, 0, length, false, referenceStats, 0);
+
+		int setsPerTask = (int) Math.max(1, pointsPerTask / length);
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int from = 0; from < numSets; from += setsPerTask) {
+			int start = from;
+			int end = Math.min(from + setsPerTask, numSets);
+			tasks.add(() -> {
+				SuperPositionQCP qcp = new SuperPositionQCP(false);
+				double[] stats = new double[SuperPositionQCP.STATS_SIZE];
+				for (int k = start; k < end; k++) {
+					SuperPositionQCP.calcStats(sets, 3 * length * k, length, false, stats, 0);
+					rmsds[k] = qcp.getRmsd(reference, 0, referenceStats, 0,
+							sets, 3 * length * k, stats, 0, length);
+					if (transformations != null)
+						copyMatrix(qcp.superposeAfterRmsd(), transformations, 16 * k);
+				}
+				return null;
+			});
+		}
+		ConcurrencyTools.invokeAll(tasks, executor);
+	}
+
+	/**
+	 * Calculates the RMSD of the superposition of all pairs of coordinate
+	 * sets. The RMSD of the sets i and j, with i &lt; j, is written at
+	 * {@link #getPairIndex(int, int, int)} in the rmsds array.
+	 *
+	 * @param sets
+	 *            the coordinate sets
+	 * @param rmsds
+	 *            the array to write the RMSDs of the pairs to, of at least
+	 *            {@link #getNumberOfPairs(int)} elements
+	 */
+	public void getAllPairsRmsds(double[] sets, double[] rmsds) {
+		int numSets = getNumberOfSets(sets);
+		long numPairs = getNumberOfPairs(numSets);
+		if (rmsds.length < numPairs)
+			throw new IllegalArgumentException("Array of " + rmsds.length + " RMSDs for " + numPairs + " pairs");
+
+		// the centroids and norms of the sets are only calculated once
+		double[] stats = new double[SuperPositionQCP.STATS_SIZE * numSets];
+		List<Callable<Void>> tasks = new ArrayList<>();
+		int setsPerTask = (int) Math.max(1, pointsPerTask / length);
+		for (int from = 0; from < numSets; from += setsPerTask) {
+			int start = from;
+			int end = Math.min(from + setsPerTask, numSets);
+			tasks.add(() -> {
+				for (int k = start; k < end; k++)
+					SuperPositionQCP.calcStats(sets, 3 * length * k, length, false,
+							stats, SuperPositionQCP.STATS_SIZE * k);
+				return null;
+			});
+		}
+		ConcurrencyTools.invokeAll(tasks, executor);
+
+		// tasks of consecutive pair indices, so that they have the same size
+		tasks.clear();
+		long pairsPerTask = Math.max(1, pointsPerTask / length);
+		for (long from = 0; from < numPairs; from += pairsPerTask) {
+			int start = (int) from;
+			int end = (int) Math.min(from + pairsPerTask, numPairs);
+			tasks.add(() -> {
+				SuperPositionQCP qcp = new SuperPositionQCP(false);
+				// the pair of the first index
+				int i = 0;
+				while (getPairIndex(i, numSets - 1, numSets) < start)
+					i++;
+				int j = start - getPairIndex(i, i + 1, numSets) + i + 1;
+				for (int p = start; p < end; p++) {
+					rmsds[p] = qcp.getRmsd(sets, 3 * length * i, stats, SuperPositionQCP.STATS_SIZE * i,
+							sets, 3 * length * j, stats, SuperPositionQCP.STATS_SIZE * j, length);
+					if (++j == numSets) {
+						i++;
+						j = i + 1;
+					}
+				}
+				return null;
+			});
+		}
+		ConcurrencyTools.invokeAll(tasks, executor);
+	}
+
+	/**
+	 * The number of pairs of coordinate sets, i.e. the size of the RMSD array
+	 * of {@link #getAllPairsRmsds(double[], double[])}.
+	 *
+	 * @param numSets
+	 *            the number of coordinate sets
+	 * @return numSets*(numSets-1)/2
+	 * @throws IllegalArgumentException
+	 *             if the pairs do not fit in an array
+	 */
+	public static int getNumberOfPairs(int numSets) {
+		long pairs = (long) numSets * (numSets - 1) / 2;
+		if (pairs > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Too many pairs of " + numSets + " coordinate sets");
+		return (int) pairs;
+	}
+
+	/**
+	 * The index of a pair of coordinate sets in the RMSD array of
+	 * {@link #getAllPairsRmsds(double[], double[])}.
+	 *
+	 * @param i
+	 *            the index of the first coordinate set
+	 * @param j
+	 *            the index of the second coordinate set, different from i
+	 * @param numSets
+	 *            the number of coordinate sets
+	 * @return the index of the pair
+	 */
+	public static int getPairIndex(int i, int j, int numSets) {
+		if (i > j)
+			return getPairIndex(j, i, numSets);
+		if (i == j)
+			throw new IllegalArgumentException("No pair index for the same coordinate set " + i);
+		return (int) ((long) i * (2L * numSets - i - 1) / 2 + (j - i - 1));
+	}
+
+	private int getNumberOfSets(double[] sets) {
+		if (sets.length % (3 * length) != 0)
+			throw new IllegalArgumentException("Coordinate sets of " + sets.length
+					+ " values are not a multiple of " + 3 * length);
+		return sets.length / (3 * length);
+	}
+
+	private static void copyMatrix(Matrix4d m, double[] values, int offset) {
+		for (int row = 0; row < 4; row++) {
+			for (int col = 0; col < 4; col++) {
+				values[offset + 4 * row + col] = m.getElement(row, col);
+			}
+		}
+	}
+}
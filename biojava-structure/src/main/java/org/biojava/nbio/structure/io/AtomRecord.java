@@ -0,0 +1,168 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io;
+
+import org.biojava.nbio.structure.Element;
+
+/**
+ * A single atom record (an ATOM/HETATM line of a PDB file or a row of the
+ * atom_site category of an mmCIF file) as read by {@link AtomRecordReader}.
+ * Unlike {@link org.biojava.nbio.structure.Atom Atom} it is not linked to any
+ * group, chain or structure.
+ *
+ * @since 6.0.4
+ */
+public class AtomRecord {
+
+	boolean hetAtom;
+	int serial;
+	String name;
+	char altLoc;
+	String resName;
+	String chainName;
+	String chainId;
+	int seqNum;
+	char insCode;
+	double x;
+	double y;
+	double z;
+	float occupancy;
+	float tempFactor;
+	Element element;
+	short charge;
+	int modelNumber;
+
+	AtomRecord() {
+	}
+
+	/**
+	 * @return true for HETATM records, false for ATOM records
+	 */
+	public boolean isHetAtom() {
+		return hetAtom;
+	}
+
+	/**
+	 * @return the atom serial number
+	 */
+	public int getPDBserial() {
+		return serial;
+	}
+
+	/**
+	 * @return the atom name, e.g. "CA"
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the alternate location indicator, or null if there is none
+	 */
+	public Character getAltLoc() {
+		return altLoc == 0 ? null : altLoc;
+	}
+
+	/**
+	 * @return the name of the residue or chemical component, e.g. "ALA"
+	 */
+	public String getResName() {
+		return resName;
+	}
+
+	/**
+	 * The author chain identifier, see {@link org.biojava.nbio.structure.Chain#getName() Chain.getName()}.
+	 * @return the chain name
+	 */
+	public String getChainName() {
+		return chainName;
+	}
+
+	/**
+	 * The internal chain identifier (label_asym_id), see {@link org.biojava.nbio.structure.Chain#getId() Chain.getId()}.
+	 * PDB files have no such identifier, for them this is the same as {@link #getChainName()}.
+	 * @return the chain id
+	 */
+	public String getChainId() {
+		return chainId;
+	}
+
+	/**
+	 * @return the author residue number, without insertion code
+	 */
+	public int getSeqNum() {
+		return seqNum;
+	}
+
+	/**
+	 * @return the insertion code, or null if there is none
+	 */
+	public Character getInsCode() {
+		return insCode == 0 ? null : insCode;
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public double getZ() {
+		return z;
+	}
+
+	public float getOccupancy() {
+		return occupancy;
+	}
+
+	public float getTempFactor() {
+		return tempFactor;
+	}
+
+	/**
+	 * @return the element, {@link Element#R} if it is not given or unknown
+	 */
+	public Element getElement() {
+		return element;
+	}
+
+	/**
+	 * @return the formal charge
+	 */
+	public short getCharge() {
+		return charge;
+	}
+
+	/**
+	 * @return the model number as given in the file, 1 if there are no models
+	 */
+	public int getModelNumber() {
+		return modelNumber;
+	}
+
+	@Override
+	public String toString() {
+		return (hetAtom ? "HETATM" : "ATOM") + " " + serial + " " + name + " " + resName + " " + chainName + " "
+				+ seqNum + (insCode == 0 ? "" : String.valueOf(insCode)) + " " + x + " " + y + " " + z;
+	}
+}
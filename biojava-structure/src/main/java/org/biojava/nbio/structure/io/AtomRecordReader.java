@@ -0,0 +1,517 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+import org.biojava.nbio.structure.Element;
+
+/**
+ * Reads the atom records of a PDB or mmCIF file one at a time, without building
+ * a {@link org.biojava.nbio.structure.Structure Structure}. Only the ATOM/HETATM
+ * lines or the atom_site category are read, everything else is skipped, and
+ * memory use does not depend on the size of the file. Useful for single passes
+ * over many files, e.g. to compute centroids or B-factor statistics.
+ * <p>
+ * Records are returned in file order, including all models and alternate
+ * locations. Unlike the full parsers no chemical component information is used:
+ * atoms without a (known) element symbol get {@link Element#R}.
+ * <p>
+ * Example:
+ * <pre>
+ * try (AtomRecordReader reader = AtomRecordReader.open(path)) {
+ *     double sum = reader.stream().mapToDouble(AtomRecord::getTempFactor).sum();
+ * }
+ * </pre>
+ * I/O errors while iterating are thrown as {@link UncheckedIOException}.
+ * BinaryCIF files cannot be read this way.
+ *
+ * @since 6.0.4
+ */
+public abstract class AtomRecordReader implements Iterator<AtomRecord>, Closeable {
+
+	private final BufferedReader reader;
+	private AtomRecord next;
+	private boolean finished;
+
+	private AtomRecordReader(InputStream inputStream) {
+		this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Opens a file, choosing the format by its name: mmCIF if the name contains ".cif",
+	 * PDB otherwise. Gzipped files (ending in ".gz") are decompressed on the fly.
+	 * @param path the file
+	 * @return a reader for the atom records of the file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static AtomRecordReader open(Path path) throws IOException {
+		String fileName = path.getFileName().toString().toLowerCase();
+		InputStream inputStream = Files.newInputStream(path);
+		if (fileName.endsWith(".gz"))
+			inputStream = new GZIPInputStream(inputStream);
+		return fileName.contains(".cif") ? fromCif(inputStream) : fromPdb(inputStream);
+	}
+
+	/**
+	 * @param inputStream an uncompressed PDB file, closed with the reader
+	 * @return a reader for the ATOM and HETATM records
+	 */
+	public static AtomRecordReader fromPdb(InputStream inputStream) {
+		return new PdbReader(inputStream);
+	}
+
+	/**
+	 * @param inputStream an uncompressed mmCIF file, closed with the reader
+	 * @return a reader for the rows of the atom_site category
+	 */
+	public static AtomRecordReader fromCif(InputStream inputStream) {
+		return new CifReader(inputStream);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null && !finished) {
+			try {
+				next = readNext();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			finished = next == null;
+		}
+		return next != null;
+	}
+
+	@Override
+	public AtomRecord next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		AtomRecord record = next;
+		next = null;
+		return record;
+	}
+
+	/**
+	 * @return the remaining records as a sequential stream
+	 */
+	public Stream<AtomRecord> stream() {
+		Spliterator<AtomRecord> spliterator = Spliterators.spliteratorUnknownSize(this,
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false);
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	/**
+	 * @return the next record, null at the end of the file
+	 */
+	abstract AtomRecord readNext() throws IOException;
+
+	private static Element parseElement(String symbol) {
+		if (symbol == null || symbol.isEmpty())
+			return Element.R;
+		try {
+			return Element.valueOfIgnoreCase(symbol);
+		} catch (IllegalArgumentException e) {
+			return Element.R;
+		}
+	}
+
+	/**
+	 * Reads ATOM and HETATM lines, see {@link PDBFileParser} for the column layout.
+	 */
+	private static class PdbReader extends AtomRecordReader {
+
+		private int modelNumber = 1;
+		private int modelCount = 0;
+
+		PdbReader(InputStream inputStream) {
+			super(inputStream);
+		}
+
+		@Override
+		AtomRecord readNext() throws IOException {
+			String line;
+			while ((line = super.reader.readLine()) != null) {
+				if (line.startsWith("ATOM  ") || line.startsWith("HETATM")) {
+					return parseAtom(line);
+				}
+				if (line.startsWith("MODEL ")) {
+					modelCount++;
+					String number = field(line, 6, 14);
+					modelNumber = number.isEmpty() ? modelCount : Integer.parseInt(number);
+				}
+			}
+			return null;
+		}
+
+		private AtomRecord parseAtom(String line) {
+			AtomRecord r = new AtomRecord();
+			r.hetAtom = line.charAt(0) == 'H';
+			r.serial = Integer.parseInt(field(line, 6, 11));
+			r.name = field(line, 12, 16);
+			r.altLoc = charAt(line, 16);
+			r.resName = field(line, 17, 20);
+			r.chainName = field(line, 21, 22);
+			r.chainId = r.chainName;
+			r.seqNum = Integer.parseInt(field(line, 22, 26));
+			r.insCode = charAt(line, 26);
+			r.x = Double.parseDouble(field(line, 30, 38));
+			r.y = Double.parseDouble(field(line, 38, 46));
+			r.z = Double.parseDouble(field(line, 46, 54));
+			// occupancy and B-factor are sometimes missing, same defaults as PDBFileParser
+			r.occupancy = parseFloat(field(line, 54, 60), 1.0f);
+			r.tempFactor = parseFloat(field(line, 60, 66), 0.0f);
+			r.element = parseElement(field(line, 76, 78));
+			String charge = field(line, 78, 80);
+			if (charge.length() == 2) {
+				short value = (short) Character.digit(charge.charAt(0), 10);
+				r.charge = charge.charAt(1) == '-' ? (short) -value : value;
+			}
+			r.modelNumber = modelNumber;
+			return r;
+		}
+
+		private static String field(String line, int start, int end) {
+			if (line.length() <= start)
+				return "";
+			return line.substring(start, Math.min(end, line.length())).trim();
+		}
+
+		private static char charAt(String line, int index) {
+			if (line.length() <= index || line.charAt(index) == ' ')
+				return 0;
+			return line.charAt(index);
+		}
+
+		private static float parseFloat(String value, float defaultValue) {
+			try {
+				return value.isEmpty() ? defaultValue : Float.parseFloat(value);
+			} catch (NumberFormatException e) {
+				return defaultValue;
+			}
+		}
+	}
+
+	/**
+	 * Reads the atom_site category of all data blocks, written as loop or as
+	 * single items. A minimal CIF tokenizer: handles quoted values, text fields
+	 * and comments.
+	 */
+	private static class CifReader extends AtomRecordReader {
+
+		private static final String ATOM_SITE = "_atom_site.";
+
+		// columns of atom_site that are read
+		private static final int GROUP_PDB = 0;
+		private static final int ID = 1;
+		private static final int TYPE_SYMBOL = 2;
+		private static final int LABEL_ATOM_ID = 3;
+		private static final int LABEL_ALT_ID = 4;
+		private static final int LABEL_COMP_ID = 5;
+		private static final int LABEL_ASYM_ID = 6;
+		private static final int LABEL_SEQ_ID = 7;
+		private static final int INS_CODE = 8;
+		private static final int CARTN_X = 9;
+		private static final int CARTN_Y = 10;
+		private static final int CARTN_Z = 11;
+		private static final int OCCUPANCY = 12;
+		private static final int B_ISO = 13;
+		private static final int FORMAL_CHARGE = 14;
+		private static final int AUTH_SEQ_ID = 15;
+		private static final int AUTH_ASYM_ID = 16;
+		private static final int MODEL_NUM = 17;
+		private static final int NR_FIELDS = 18;
+
+		private enum State { NONE, LOOP_HEADER, LOOP_DATA, ITEM }
+
+		private State state = State.NONE;
+		private boolean atomSiteLoop;
+		// for each loop column the field it is read into, -1 if not read
+		private int[] columns = new int[32];
+		private int nrColumns;
+		private int column;
+		private final String[] values = new String[NR_FIELDS];
+		private boolean pendingItem;
+		private String itemTag;
+
+		// tokenizer state
+		private String line;
+		private int pos;
+		private boolean quoted;
+
+		CifReader(InputStream inputStream) {
+			super(inputStream);
+		}
+
+		@Override
+		AtomRecord readNext() throws IOException {
+			String token;
+			while ((token = nextToken()) != null) {
+				if (!quoted && isReserved(token)) {
+					AtomRecord item = endItems();
+					state = token.equalsIgnoreCase("loop_") ? State.LOOP_HEADER : State.NONE;
+					nrColumns = 0;
+					atomSiteLoop = false;
+					if (item != null)
+						return item;
+					continue;
+				}
+
+				if (!quoted && token.startsWith("_")) {
+					if (state == State.LOOP_HEADER) {
+						addColumn(token);
+						continue;
+					}
+					// a single item, possibly ending a loop or other single items
+					AtomRecord item = itemTag == null || sameCategory(itemTag, token) ? null : endItems();
+					state = State.ITEM;
+					itemTag = token;
+					if (item != null)
+						return item;
+					continue;
+				}
+
+				// a value
+				switch (state) {
+				case LOOP_HEADER:
+					state = State.LOOP_DATA;
+					column = 0;
+					Arrays.fill(values, null);
+					// fall through
+				case LOOP_DATA:
+					if (atomSiteLoop) {
+						int field = columns[column];
+						if (field >= 0)
+							values[field] = token;
+					}
+					column++;
+					if (column == nrColumns) {
+						column = 0;
+						if (atomSiteLoop) {
+							AtomRecord r = toRecord();
+							Arrays.fill(values, null);
+							return r;
+						}
+					}
+					break;
+				case ITEM:
+					if (itemTag.regionMatches(true, 0, ATOM_SITE, 0, ATOM_SITE.length())) {
+						int field = getField(itemTag.substring(ATOM_SITE.length()));
+						if (field >= 0) {
+							if (!pendingItem)
+								Arrays.fill(values, null);
+							values[field] = token;
+							pendingItem = true;
+						}
+					}
+					state = State.NONE;
+					break;
+				default:
+					// a value without tag, malformed: ignore
+					break;
+				}
+			}
+			return endItems();
+		}
+
+		private void addColumn(String tag) {
+			if (nrColumns == 0)
+				atomSiteLoop = tag.regionMatches(true, 0, ATOM_SITE, 0, ATOM_SITE.length());
+			if (nrColumns == columns.length)
+				columns = Arrays.copyOf(columns, 2 * nrColumns);
+			columns[nrColumns++] = atomSiteLoop ? getField(tag.substring(ATOM_SITE.length())) : -1;
+		}
+
+		/**
+		 * @return the record of atom_site written as single items, if any
+		 */
+		private AtomRecord endItems() {
+			itemTag = null;
+			if (!pendingItem)
+				return null;
+			pendingItem = false;
+			return toRecord();
+		}
+
+		private static boolean sameCategory(String tag1, String tag2) {
+			int dot = tag1.indexOf('.');
+			return dot > 0 && tag1.regionMatches(true, 0, tag2, 0, dot + 1);
+		}
+
+		private static boolean isReserved(String token) {
+			return token.equalsIgnoreCase("loop_") || token.regionMatches(true, 0, "data_", 0, 5)
+					|| token.regionMatches(true, 0, "save_", 0, 5) || token.equalsIgnoreCase("global_")
+					|| token.equalsIgnoreCase("stop_");
+		}
+
+		private static int getField(String column) {
+			switch (column) {
+			case "group_PDB": return GROUP_PDB;
+			case "id": return ID;
+			case "type_symbol": return TYPE_SYMBOL;
+			case "label_atom_id": return LABEL_ATOM_ID;
+			case "label_alt_id": return LABEL_ALT_ID;
+			case "label_comp_id": return LABEL_COMP_ID;
+			case "label_asym_id": return LABEL_ASYM_ID;
+			case "label_seq_id": return LABEL_SEQ_ID;
+			case "pdbx_PDB_ins_code": return INS_CODE;
+			case "Cartn_x": return CARTN_X;
+			case "Cartn_y": return CARTN_Y;
+			case "Cartn_z": return CARTN_Z;
+			case "occupancy": return OCCUPANCY;
+			case "B_iso_or_equiv": return B_ISO;
+			case "pdbx_formal_charge": return FORMAL_CHARGE;
+			case "auth_seq_id": return AUTH_SEQ_ID;
+			case "auth_asym_id": return AUTH_ASYM_ID;
+			case "pdbx_PDB_model_num": return MODEL_NUM;
+			default: return -1;
+			}
+		}
+
+		/**
+		 * Converts the current values the same way as CifStructureConsumerImpl
+		 */
+		private AtomRecord toRecord() {
+			AtomRecord r = new AtomRecord();
+			r.hetAtom = !"ATOM".equals(values[GROUP_PDB]);
+			r.serial = parseInt(values[ID], 0);
+			r.name = value(values[LABEL_ATOM_ID]);
+			r.altLoc = firstChar(values[LABEL_ALT_ID]);
+			r.resName = value(values[LABEL_COMP_ID]);
+			r.chainId = value(values[LABEL_ASYM_ID]);
+			String authAsymId = value(values[AUTH_ASYM_ID]);
+			r.chainName = authAsymId == null ? r.chainId : authAsymId;
+			r.seqNum = parseInt(values[AUTH_SEQ_ID], parseInt(values[LABEL_SEQ_ID], 0));
+			r.insCode = firstChar(values[INS_CODE]);
+			r.x = parseDouble(values[CARTN_X]);
+			r.y = parseDouble(values[CARTN_Y]);
+			r.z = parseDouble(values[CARTN_Z]);
+			r.occupancy = (float) parseDouble(values[OCCUPANCY]);
+			r.tempFactor = (float) parseDouble(values[B_ISO]);
+			r.element = parseElement(value(values[TYPE_SYMBOL]));
+			r.charge = (short) parseInt(values[FORMAL_CHARGE], 0);
+			r.modelNumber = parseInt(values[MODEL_NUM], 1);
+			return r;
+		}
+
+		/**
+		 * @return null for missing ('?') and inapplicable ('.') values
+		 */
+		private static String value(String token) {
+			if (token == null || token.equals("?") || token.equals("."))
+				return null;
+			return token;
+		}
+
+		private static char firstChar(String token) {
+			String v = value(token);
+			return v == null || v.isEmpty() ? 0 : v.charAt(0);
+		}
+
+		private static int parseInt(String token, int defaultValue) {
+			String v = value(token);
+			return v == null ? defaultValue : Integer.parseInt(v);
+		}
+
+		private static double parseDouble(String token) {
+			String v = value(token);
+			return v == null ? 0 : Double.parseDouble(v);
+		}
+
+		/**
+		 * @return the next token, null at the end of the file. Sets {@link #quoted}
+		 * for quoted values and text fields, which are never tags or reserved words.
+		 */
+		private String nextToken() throws IOException {
+			while (true) {
+				if (line == null || pos >= line.length()) {
+					line = super.reader.readLine();
+					pos = 0;
+					if (line == null)
+						return null;
+					if (line.startsWith(";"))
+						return readTextField();
+				}
+
+				while (pos < line.length() && Character.isWhitespace(line.charAt(pos)))
+					pos++;
+				if (pos >= line.length())
+					continue;
+
+				char c = line.charAt(pos);
+				if (c == '#') {
+					pos = line.length();
+					continue;
+				}
+				if (c == '\'' || c == '"') {
+					// the closing quote must be followed by whitespace or the end of the line
+					int end = pos + 1;
+					while (end < line.length()
+							&& !(line.charAt(end) == c && (end + 1 == line.length() || Character.isWhitespace(line.charAt(end + 1)))))
+						end++;
+					String token = line.substring(pos + 1, end);
+					pos = end + 1;
+					quoted = true;
+					return token;
+				}
+
+				int end = pos;
+				while (end < line.length() && !Character.isWhitespace(line.charAt(end)))
+					end++;
+				String token = line.substring(pos, end);
+				pos = end;
+				quoted = false;
+				return token;
+			}
+		}
+
+		private String readTextField() throws IOException {
+			StringBuilder text = new StringBuilder(line.substring(1));
+			while ((line = super.reader.readLine()) != null && !line.startsWith(";")) {
+				text.append('\n').append(line);
+			}
+			// the rest of the closing line after ';'
+			pos = 1;
+			quoted = true;
+			return text.toString();
+		}
+	}
+}
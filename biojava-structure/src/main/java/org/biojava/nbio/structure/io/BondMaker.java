@@ -82,6 +82,9 @@ public class BondMaker {
 	private final Structure structure;
 	private final FileParsingParameters params;
 
+	// chains by asym id for each model, built on first use
+	private List<Map<String, Chain>> chainsByAsymId;
+
 	public BondMaker(Structure structure, FileParsingParameters params) {
 		this.structure = structure;
 		this.params = params;
@@ -513,7 +516,7 @@ public class BondMaker {
 		ResidueNumber resNum = new ResidueNumber(chainID, Integer.parseInt(resSeq), iCode.charAt(0));
 
 		for (int i=0; i<structure.nrModels(); i++){
-			Chain chain = structure.getChain(chainID,i);
+			Chain chain = getChain(chainID,i);
 			Group group = chain.getGroupByPDB(resNum);
 
 			Group g = group;
@@ -530,4 +533,22 @@ public class BondMaker {
 		}
 		return outMap;
 	}
+
+	/**
+	 * Same as {@link Structure#getChain(String, int)}, but with a hash lookup: struct_conn, LINK and SSBOND
+	 * records are resolved one by one, which is quadratic for structures with many chains.
+	 */
+	private Chain getChain(String asymId, int modelNr) {
+		if (chainsByAsymId == null) {
+			chainsByAsymId = new ArrayList<>();
+			for (int i = 0; i < structure.nrModels(); i++) {
+				Map<String, Chain> chains = new HashMap<>();
+				for (Chain c : structure.getChains(i)) {
+					chains.putIfAbsent(c.getId(), c);
+				}
+				chainsByAsymId.add(chains);
+			}
+		}
+		return chainsByAsymId.get(modelNr).get(asymId);
+	}
 }
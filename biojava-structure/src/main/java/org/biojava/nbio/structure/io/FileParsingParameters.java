@@ -25,6 +25,7 @@
 package org.biojava.nbio.structure.io;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 import org.biojava.nbio.structure.AminoAcid;
 
@@ -41,6 +42,10 @@ import org.biojava.nbio.structure.AminoAcid;
  * </li>
  * <li> {@link #setCreateAtomBonds(boolean)} - create atom bonds from parsed bonds in PDB/mmCIF files and chemical component files
  * </li>
+ * <li> {@link #setParsedCategories(String[])} - parse only the given mmCIF categories (plus atom_site), skipping all others
+ * </li>
+ * <li> {@link #setLazyPostProcessing(boolean)} - align SEQRES and create bonds only when they are first accessed
+ * </li>
  * </ul>
  *
  * @author Andreas Prlic
@@ -109,10 +114,40 @@ public class FileParsingParameters implements Serializable
 
 	String[] fullAtomNames;
 
+	/**
+	 * The mmCIF categories to parse, null if all categories are parsed
+	 */
+	private String[] parsedCategories;
+
+	/**
+	 * Should SEQRES alignment and bond creation be deferred until first use?
+	 */
+	private boolean lazyPostProcessing;
+
 	public FileParsingParameters(){
 		setDefault();
 	}
 
+	/**
+	 * Creates a copy of the given parameters.
+	 * @param other the parameters to copy
+	 * @since 6.0.4
+	 */
+	public FileParsingParameters(FileParsingParameters other) {
+		parseSecStruc = other.parseSecStruc;
+		alignSeqRes = other.alignSeqRes;
+		parseCAOnly = other.parseCAOnly;
+		headerOnly = other.headerOnly;
+		fullAtomNames = other.fullAtomNames == null ? null : other.fullAtomNames.clone();
+		parsedCategories = other.parsedCategories == null ? null : other.parsedCategories.clone();
+		maxAtoms = other.maxAtoms;
+		atomCaThreshold = other.atomCaThreshold;
+		parseBioAssembly = other.parseBioAssembly;
+		createAtomBonds = other.createAtomBonds;
+		createAtomCharges = other.createAtomCharges;
+		lazyPostProcessing = other.lazyPostProcessing;
+	}
+
 	public void setDefault(){
 
 		parseSecStruc = false;
@@ -124,6 +159,10 @@ public class FileParsingParameters implements Serializable
 
 		fullAtomNames = null;
 
+		parsedCategories = null;
+
+		lazyPostProcessing = false;
+
 		maxAtoms = MAX_ATOMS;
 
 		atomCaThreshold = ATOM_CA_THRESHOLD;
@@ -231,6 +270,48 @@ public class FileParsingParameters implements Serializable
 	}
 
 
+	/**
+	 * By default the mmCIF and BinaryCIF parsers read all categories of a file. This allows to restrict parsing to a
+	 * set of categories, e.g. {"struct", "cell", "symmetry"}. Other categories are skipped, i.e. their columns are
+	 * never decoded and no objects are built for them. The atom_site category is always parsed unless
+	 * {@link #isHeaderOnly()} is set. Has no effect on PDB files.
+	 * @return the parsed mmCIF category names, or null if all categories are parsed. default null
+	 * @since 6.0.4
+	 */
+	public String[] getParsedCategories() {
+		return parsedCategories;
+	}
+
+	/**
+	 * By default the mmCIF and BinaryCIF parsers read all categories of a file. This allows to restrict parsing to a
+	 * set of categories, e.g. {"struct", "cell", "symmetry"}. Other categories are skipped, i.e. their columns are
+	 * never decoded and no objects are built for them. The atom_site category is always parsed unless
+	 * {@link #isHeaderOnly()} is set. Has no effect on PDB files.
+	 * @param parsedCategories the mmCIF category names to parse, or null to parse all categories. default null
+	 * @since 6.0.4
+	 */
+	public void setParsedCategories(String[] parsedCategories) {
+		this.parsedCategories = parsedCategories;
+	}
+
+	/**
+	 * Flag if SEQRES alignment and bond creation are deferred until first use, see {@link org.biojava.nbio.structure.StructureImpl.PostProcessing}.
+	 * @return true if post-processing is deferred until first use. default false
+	 * @since 6.0.4
+	 */
+	public boolean isLazyPostProcessing() {
+		return lazyPostProcessing;
+	}
+
+	/**
+	 * Flag if SEQRES alignment and bond creation are deferred until first use, see {@link org.biojava.nbio.structure.StructureImpl.PostProcessing}.
+	 * @param lazyPostProcessing true to defer post-processing until first use. default false
+	 * @since 6.0.4
+	 */
+	public void setLazyPostProcessing(boolean lazyPostProcessing) {
+		this.lazyPostProcessing = lazyPostProcessing;
+	}
+
 	/**
 	 * The maximum numbers of atoms to load in a protein structure (prevents memory overflows)
 	 *
@@ -332,6 +413,46 @@ public class FileParsingParameters implements Serializable
 		this.createAtomCharges = createAtomCharges;
 	}
 
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (alignSeqRes ? 1231 : 1237);
+		result = prime * result + atomCaThreshold;
+		result = prime * result + (createAtomBonds ? 1231 : 1237);
+		result = prime * result + (createAtomCharges ? 1231 : 1237);
+		result = prime * result + Arrays.hashCode(fullAtomNames);
+		result = prime * result + (headerOnly ? 1231 : 1237);
+		result = prime * result + (lazyPostProcessing ? 1231 : 1237);
+		result = prime * result + maxAtoms;
+		result = prime * result + (parseBioAssembly ? 1231 : 1237);
+		result = prime * result + (parseCAOnly ? 1231 : 1237);
+		result = prime * result + (parseSecStruc ? 1231 : 1237);
+		result = prime * result + Arrays.hashCode(parsedCategories);
+		return result;
+	}
 
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		FileParsingParameters other = (FileParsingParameters) obj;
+		return alignSeqRes == other.alignSeqRes
+				&& atomCaThreshold == other.atomCaThreshold
+				&& createAtomBonds == other.createAtomBonds
+				&& createAtomCharges == other.createAtomCharges
+				&& Arrays.equals(fullAtomNames, other.fullAtomNames)
+				&& headerOnly == other.headerOnly
+				&& lazyPostProcessing == other.lazyPostProcessing
+				&& maxAtoms == other.maxAtoms
+				&& parseBioAssembly == other.parseBioAssembly
+				&& parseCAOnly == other.parseCAOnly
+				&& parseSecStruc == other.parseSecStruc
+				&& Arrays.equals(parsedCategories, other.parsedCategories);
+	}
 
 }
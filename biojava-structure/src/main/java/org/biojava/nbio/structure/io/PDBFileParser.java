@@ -146,7 +146,7 @@ public class PDBFileParser  {
 
 	// required for parsing:
 	private String pdbId; //the actual id of the entry
-	private Structure     structure;
+	private StructureImpl structure;
 	private List<List<Chain>> allModels; // a temp data structure to keep all models
 	private List<Chain>   currentModel; // contains the ATOM records for each model
 	private Chain         currentChain;
@@ -2725,7 +2725,17 @@ public class PDBFileParser  {
 		triggerEndFileChecks();
 
 		if (params.shouldCreateAtomBonds()) {
-			formBonds();
+			if (params.isLazyPostProcessing()) {
+				// the task must not reference the parser, which may be reused for another file,
+				// nor the parameters, which the caller may change
+				StructureImpl s = structure;
+				FileParsingParameters p = new FileParsingParameters(params);
+				List<LinkRecord> links = linkRecords;
+				List<SSBondImpl> disulfides = new ArrayList<>(ssbonds);
+				structure.deferPostProcessing(StructureImpl.PostProcessing.BONDS, () -> formBonds(s, p, links, disulfides));
+			} else {
+				formBonds(structure, params, linkRecords, ssbonds);
+			}
 		}
 
 		if ( params.shouldCreateAtomCharges()) {
@@ -2838,7 +2848,8 @@ public class PDBFileParser  {
 	 * Note: the current implementation only looks at the first model of each
 	 * structure. This may need to be fixed in the future.
 	 */
-	private void formBonds() {
+	private static void formBonds(Structure structure, FileParsingParameters params,
+			List<LinkRecord> linkRecords, List<SSBondImpl> ssbonds) {
 
 		BondMaker maker = new BondMaker(structure, params);
 
@@ -2909,7 +2920,13 @@ public class PDBFileParser  {
 		if ( params.isAlignSeqRes() && !params.isHeaderOnly() && !seqResChains.isEmpty()){
 			logger.debug("Parsing mode align_seqres, will parse SEQRES and align to ATOM sequence");
 			SeqRes2AtomAligner aligner = new SeqRes2AtomAligner();
-			aligner.align(structure,seqResChains);
+			if (params.isLazyPostProcessing()) {
+				StructureImpl s = structure;
+				List<Chain> chains = seqResChains;
+				structure.deferPostProcessing(StructureImpl.PostProcessing.SEQRES_ALIGNMENT, () -> aligner.align(s, chains));
+			} else {
+				aligner.align(structure,seqResChains);
+			}
 
 		} else {
 			logger.debug("Parsing mode unalign_seqres, will parse SEQRES but not align it to ATOM sequence");
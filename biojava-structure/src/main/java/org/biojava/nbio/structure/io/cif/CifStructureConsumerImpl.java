@@ -122,7 +122,7 @@ public class CifStructureConsumerImpl implements CifStructureConsumer {
             .appendPattern("yyyy-MM-dd")
             .toFormatter(Locale.US);
 
-    private Structure structure;
+    private StructureImpl structure;
     private Chain currentChain;
     private Group currentGroup;
     private List<List<Chain>> allModels;
@@ -1197,7 +1197,14 @@ public class CifStructureConsumerImpl implements CifStructureConsumer {
         // Otherwise, we store the empty SeqRes Groups unchanged in the right chains.
         if (params.isAlignSeqRes() && !params.isHeaderOnly()){
             logger.debug("Parsing mode align_seqres, will parse SEQRES and align to ATOM sequence");
-            alignSeqRes();
+            if (params.isLazyPostProcessing()) {
+                // the task must not reference this consumer, which holds on to the parsed categories
+                StructureImpl s = structure;
+                List<Chain> chains = seqResChains;
+                structure.deferPostProcessing(StructureImpl.PostProcessing.SEQRES_ALIGNMENT, () -> alignSeqRes(s, chains));
+            } else {
+                alignSeqRes(structure, seqResChains);
+            }
         } else {
             logger.debug("Parsing mode unalign_seqres, will parse SEQRES but not align it to ATOM sequence");
             SeqRes2AtomAligner.storeUnAlignedSeqRes(structure, seqResChains, params.isHeaderOnly());
@@ -1591,12 +1598,21 @@ public class CifStructureConsumerImpl implements CifStructureConsumer {
     }
 
     private void addBonds() {
-        BondMaker maker = new BondMaker(structure, params);
-        maker.makeBonds();
-        maker.formBondsFromStructConn(structConn);
+        if (params.isLazyPostProcessing()) {
+            // a copy, the caller may change the parameters before the bonds are made
+            BondMaker maker = new BondMaker(structure, new FileParsingParameters(params));
+            // struct_conn is read right away so that the category can be released,
+            // only the bonds derived from the chemical component definitions are deferred
+            maker.formBondsFromStructConn(structConn);
+            structure.deferPostProcessing(StructureImpl.PostProcessing.BONDS, maker::makeBonds);
+        } else {
+            BondMaker maker = new BondMaker(structure, params);
+            maker.makeBonds();
+            maker.formBondsFromStructConn(structConn);
+        }
     }
 
-    private void alignSeqRes() {
+    private static void alignSeqRes(Structure structure, List<Chain> seqResChains) {
         logger.debug("Parsing mode align_seqres, will align to ATOM to SEQRES sequence");
 
         // fix SEQRES residue numbering for all models
@@ -1649,7 +1665,7 @@ public class CifStructureConsumerImpl implements CifStructureConsumer {
         }
     }
 
-    private int getInternalNr(Group atomG) {
+    private static int getInternalNr(Group atomG) {
         if (atomG.getType().equals(GroupType.AMINOACID)) {
             AminoAcidImpl aa = (AminoAcidImpl) atomG;
             return (int) aa.getId();
@@ -4,6 +4,8 @@ import org.biojava.nbio.structure.Chain;
 import org.biojava.nbio.structure.Structure;
 import org.biojava.nbio.structure.io.FileParsingParameters;
 import org.rcsb.cif.CifIO;
+import org.rcsb.cif.model.Block;
+import org.rcsb.cif.model.Category;
 import org.rcsb.cif.model.CifFile;
 import org.rcsb.cif.schema.StandardSchemata;
 import org.rcsb.cif.schema.mm.MmCifBlock;
@@ -14,6 +16,11 @@ import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Convert BioJava structures to CifFiles and vice versa.
@@ -21,6 +28,8 @@ import java.nio.file.Path;
  * @since 6.0.0
  */
 public class CifStructureConverter {
+    private static final String ATOM_SITE = "atom_site";
+
     /**
      * Read data from a file and convert to Structure without any FileParsingParameters.
      * @param path the source of information - can be gzipped or binary or text data
@@ -108,6 +117,10 @@ public class CifStructureConverter {
 
         // feed individual categories to consumer
         MmCifBlock cifBlock = cifFile.as(StandardSchemata.MMCIF).getFirstBlock();
+        if (parameters.getParsedCategories() != null) {
+            // categories outside of the projection are presented as empty, consumer will skip them
+            cifBlock = new MmCifBlock(new ProjectedBlock(cifBlock, parameters.getParsedCategories()));
+        }
 
         consumer.consumeAuditAuthor(cifBlock.getAuditAuthor());
         consumer.consumeAtomSite(cifBlock.getAtomSite());
@@ -238,4 +251,49 @@ public class CifStructureConverter {
     public static CifFile toCifFile(Chain chain) {
         return new CifChainSupplierImpl().get(chain);
     }
+
+    /**
+     * View on a Block that only exposes the requested categories and atom_site. Other categories are returned as
+     * empty categories.
+     */
+    static class ProjectedBlock implements Block {
+        private final Block delegate;
+        private final Set<String> categoryNames;
+
+        ProjectedBlock(Block delegate, String[] categoryNames) {
+            this.delegate = delegate;
+            this.categoryNames = new HashSet<>();
+            this.categoryNames.add(ATOM_SITE);
+            for (String categoryName : categoryNames) {
+                this.categoryNames.add(categoryName.toLowerCase());
+            }
+        }
+
+        @Override
+        public String getBlockHeader() {
+            return delegate.getBlockHeader();
+        }
+
+        @Override
+        public Category getCategory(String name) {
+            return categoryNames.contains(name.toLowerCase()) ? delegate.getCategory(name) : new Category.EmptyCategory(name);
+        }
+
+        @Override
+        public Map<String, Category> getCategories() {
+            Map<String, Category> categories = new LinkedHashMap<>();
+            delegate.getCategories().forEach((name, category) -> {
+                if (categoryNames.contains(name.toLowerCase())) {
+                    categories.put(name, category);
+                }
+            });
+            return categories;
+        }
+
+        @Override
+        public List<Block> getSaveFrames() {
+            return delegate.getSaveFrames();
+        }
+    }
+
 }
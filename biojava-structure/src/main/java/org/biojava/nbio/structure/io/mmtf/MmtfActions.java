@@ -23,7 +23,9 @@ package org.biojava.nbio.structure.io.mmtf;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
 
 import org.biojava.nbio.structure.Structure;
 import org.rcsb.mmtf.decoder.GenericDecoder;
@@ -31,9 +33,15 @@ import org.rcsb.mmtf.decoder.StructureDataToAdapter;
 import org.rcsb.mmtf.decoder.ReaderUtils;
 import org.rcsb.mmtf.encoder.AdapterToStructureData;
 import org.rcsb.mmtf.encoder.WriterUtils;
+import org.rcsb.mmtf.serialization.MessagePackSerialization;
 
 /**
- * A class of functions for reading and writing Biojava structures using MMTF
+ * A class of functions for reading and writing Biojava structures using MMTF.
+ * <p>
+ * The methods taking an {@link ExecutorService} decode or encode the
+ * independent MMTF columns (coordinates, B-factors, group types, bonds...)
+ * concurrently, which speeds up the conversion of large assemblies. The
+ * Structure is then filled through {@link MmtfStructureReader} as usual.
  * @author Anthony Bradley
  *
  */
@@ -115,4 +123,61 @@ public class MmtfActions {
 		// Get the structue
 		return mmtfStructureReader.getStructure();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Get a Structure object from a mmtf file, decoding the columns concurrently.
+	 * @param filePath the mmtf file
+	 * @param executor the executor decoding the columns
+	 * @return a Structure object relating to the input byte array.
+	 * @throws IOException
+	 * @since 6.0.4
+	 */
+	public static Structure readFromFile(Path filePath, ExecutorService executor) throws IOException {
+		MmtfStructureReader mmtfStructureReader = new MmtfStructureReader();
+		new StructureDataToAdapter(MmtfParallelCodec.decode(ReaderUtils.getDataFromFile(filePath), executor), mmtfStructureReader);
+		return mmtfStructureReader.getStructure();
+	}
+
+	/**
+	 * Read a Biojava structure from an {@link InputStream}, decoding the columns concurrently.
+	 * @param inStream the {@link InputStream} to read from
+	 * @param executor the executor decoding the columns
+	 * @return the parsed {@link Structure}
+	 * @throws IOException
+	 * @since 6.0.4
+	 */
+	public static Structure readFromInputStream(InputStream inStream, ExecutorService executor) throws IOException {
+		MmtfStructureReader mmtfStructureReader = new MmtfStructureReader();
+		new StructureDataToAdapter(MmtfParallelCodec.decode(ReaderUtils.getDataFromInputStream(inStream), executor), mmtfStructureReader);
+		return mmtfStructureReader.getStructure();
+	}
+
+	/**
+	 * Write a Structure object to a file, encoding the columns concurrently.
+	 * @param structure the Structure to write
+	 * @param path the file to write
+	 * @param executor the executor encoding the columns
+	 * @throws IOException
+	 * @since 6.0.4
+	 */
+	public static void writeToFile(Structure structure, Path path, ExecutorService executor) throws IOException {
+		try (OutputStream outputStream = Files.newOutputStream(path)) {
+			writeToOutputStream(structure, outputStream, executor);
+		}
+	}
+
+	/**
+	 * Write a Structure object to an {@link OutputStream}, encoding the columns concurrently.
+	 * The written bytes are the same as those of {@link #writeToOutputStream(Structure, OutputStream)}.
+	 * @param structure the Structure to write
+	 * @param outputStream the {@link OutputStream} to write to
+	 * @param executor the executor encoding the columns
+	 * @throws IOException an error transferring the byte[]
+	 * @since 6.0.4
+	 */
+	public static void writeToOutputStream(Structure structure, OutputStream outputStream, ExecutorService executor) throws IOException {
+		AdapterToStructureData writerToEncoder = new AdapterToStructureData();
+		new MmtfStructureWriter(structure, writerToEncoder);
+		new MessagePackSerialization().serialize(MmtfParallelCodec.encode(writerToEncoder, executor), outputStream);
+	}
+}
@@ -0,0 +1,359 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io.mmtf;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.rcsb.mmtf.api.StructureDataInterface;
+import org.rcsb.mmtf.codec.CharCodecs;
+import org.rcsb.mmtf.codec.FloatCodecs;
+import org.rcsb.mmtf.codec.IntCodecs;
+import org.rcsb.mmtf.codec.StringCodecs;
+import org.rcsb.mmtf.dataholders.MmtfStructure;
+import org.rcsb.mmtf.decoder.GenericDecoder;
+import org.rcsb.mmtf.encoder.EncoderUtils;
+
+/**
+ * Decodes and encodes the binary columns of an {@link MmtfStructure}
+ * concurrently. The columns (coordinates, B-factors, occupancies, atom and
+ * group ids, group types, chains and inter-group bonds) are independent of
+ * each other, so each one is submitted to the executor as a separate task.
+ * The results are identical to those of {@link GenericDecoder} and
+ * {@link org.rcsb.mmtf.encoder.GenericEncoder}.
+ *
+ * @since 6.0.4
+ */
+class MmtfParallelCodec {
+
+	/** The divider used by GenericEncoder for the coordinate columns */
+	private static final int COORD_DIVIDER = 1000;
+	/** The divider used by GenericEncoder for the B-factor and occupancy columns */
+	private static final int BFACTOR_OCC_DIVIDER = 100;
+	/** The string length used by GenericEncoder for the chain columns */
+	private static final int CHAIN_ID_LENGTH = 4;
+
+	private static final byte[] EMPTY_FLOATS = EncoderUtils.encodeByteArr(FloatCodecs.INT_DELTA_RECURSIVE, new float[0], COORD_DIVIDER);
+	private static final byte[] EMPTY_INTS = EncoderUtils.encodeByteArr(IntCodecs.RUN_LENGTH_DELTA, new int[0], 0);
+	private static final byte[] EMPTY_CHARS = EncoderUtils.encodeByteArr(CharCodecs.RUN_LENGTH, new char[0], 0);
+	private static final byte[] EMPTY_STRINGS = EncoderUtils.encodeByteArr(StringCodecs.ENCOODE_CHAINS, new String[0], CHAIN_ID_LENGTH);
+
+	private MmtfParallelCodec() {
+	}
+
+	/**
+	 * Decode the columns of the given structure concurrently. The binary
+	 * columns of <code>mmtfStructure</code> are released once decoded.
+	 * @param mmtfStructure the deserialized, still encoded, structure
+	 * @param executor the executor running the column tasks
+	 * @return the decoded data, equivalent to a {@link GenericDecoder}
+	 * @throws IOException if a column can not be decoded or the
+	 * decoding is interrupted
+	 */
+	static StructureDataInterface decode(MmtfStructure mmtfStructure, ExecutorService executor) throws IOException {
+		Future<float[]> x = submitFloats(executor, mmtfStructure.getxCoordList());
+		Future<float[]> y = submitFloats(executor, mmtfStructure.getyCoordList());
+		Future<float[]> z = submitFloats(executor, mmtfStructure.getzCoordList());
+		Future<float[]> bFactors = submitFloats(executor, mmtfStructure.getbFactorList());
+		Future<float[]> occupancies = submitFloats(executor, mmtfStructure.getOccupancyList());
+		Future<int[]> atomIds = submitInts(executor, mmtfStructure.getAtomIdList());
+		Future<char[]> altLocIds = submitChars(executor, mmtfStructure.getAltLocList());
+		Future<char[]> insCodes = submitChars(executor, mmtfStructure.getInsCodeList());
+		Future<int[]> groupIds = submitInts(executor, mmtfStructure.getGroupIdList());
+		Future<int[]> sequenceIndices = submitInts(executor, mmtfStructure.getSequenceIndexList());
+		Future<int[]> groupTypeIndices = submitInts(executor, mmtfStructure.getGroupTypeList());
+		Future<String[]> chainNames = submitStrings(executor, mmtfStructure.getChainNameList());
+		Future<String[]> chainIds = submitStrings(executor, mmtfStructure.getChainIdList());
+		Future<int[]> bondIndices = submitInts(executor, mmtfStructure.getBondAtomList());
+		Future<int[]> bondOrders = submitInts(executor, mmtfStructure.getBondOrderList());
+		Future<int[]> secStruct = submitInts(executor, mmtfStructure.getSecStructList());
+
+		ParallelDecoder decoder = new ParallelDecoder(release(mmtfStructure));
+		decoder.x = get(x);
+		decoder.y = get(y);
+		decoder.z = get(z);
+		decoder.bFactors = get(bFactors);
+		decoder.occupancies = get(occupancies);
+		decoder.atomIds = get(atomIds);
+		decoder.altLocIds = get(altLocIds);
+		decoder.insCodes = get(insCodes);
+		decoder.groupIds = get(groupIds);
+		decoder.sequenceIndices = get(sequenceIndices);
+		decoder.groupTypeIndices = get(groupTypeIndices);
+		decoder.chainNames = get(chainNames);
+		decoder.chainIds = get(chainIds);
+		decoder.bondIndices = get(bondIndices);
+		decoder.bondOrders = get(bondOrders);
+		decoder.secStruct = get(secStruct);
+		// as in GenericDecoder: the inter-group bonds plus the bonds of every group instance
+		decoder.numBonds = decoder.bondOrders.length;
+		for (int groupType : decoder.groupTypeIndices) {
+			decoder.numBonds += decoder.getGroupBondOrders(groupType).length;
+		}
+		return decoder;
+	}
+
+	/**
+	 * Encode the columns of the given data concurrently, using the same
+	 * codecs and parameters as {@link org.rcsb.mmtf.encoder.GenericEncoder}.
+	 * @param data the data to encode
+	 * @param executor the executor running the column tasks
+	 * @return the encoded structure, ready to be serialized
+	 * @throws IOException if a column can not be encoded or the
+	 * encoding is interrupted
+	 */
+	static MmtfStructure encode(StructureDataInterface data, ExecutorService executor) throws IOException {
+		Future<byte[]> x = executor.submit(() -> EncoderUtils.encodeByteArr(FloatCodecs.INT_DELTA_RECURSIVE, data.getxCoords(), COORD_DIVIDER));
+		Future<byte[]> y = executor.submit(() -> EncoderUtils.encodeByteArr(FloatCodecs.INT_DELTA_RECURSIVE, data.getyCoords(), COORD_DIVIDER));
+		Future<byte[]> z = executor.submit(() -> EncoderUtils.encodeByteArr(FloatCodecs.INT_DELTA_RECURSIVE, data.getzCoords(), COORD_DIVIDER));
+		Future<byte[]> bFactors = executor.submit(() -> EncoderUtils.encodeByteArr(FloatCodecs.INT_DELTA_RECURSIVE, data.getbFactors(), BFACTOR_OCC_DIVIDER));
+		Future<byte[]> occupancies = executor.submit(() -> EncoderUtils.encodeByteArr(FloatCodecs.INT_RUNLENGTH, data.getOccupancies(), BFACTOR_OCC_DIVIDER));
+		Future<byte[]> atomIds = executor.submit(() -> EncoderUtils.encodeByteArr(IntCodecs.RUN_LENGTH_DELTA, data.getAtomIds(), 0));
+		Future<byte[]> altLocIds = executor.submit(() -> EncoderUtils.encodeByteArr(CharCodecs.RUN_LENGTH, data.getAltLocIds(), 0));
+		Future<byte[]> insCodes = executor.submit(() -> EncoderUtils.encodeByteArr(CharCodecs.RUN_LENGTH, data.getInsCodes(), 0));
+		Future<byte[]> groupIds = executor.submit(() -> EncoderUtils.encodeByteArr(IntCodecs.RUN_LENGTH_DELTA, data.getGroupIds(), 0));
+		Future<byte[]> sequenceIndices = executor.submit(() -> EncoderUtils.encodeByteArr(IntCodecs.RUN_LENGTH_DELTA, data.getGroupSequenceIndices(), 0));
+		Future<byte[]> chainNames = executor.submit(() -> EncoderUtils.encodeByteArr(StringCodecs.ENCOODE_CHAINS, data.getChainNames(), CHAIN_ID_LENGTH));
+		Future<byte[]> chainIds = executor.submit(() -> EncoderUtils.encodeByteArr(StringCodecs.ENCOODE_CHAINS, data.getChainIds(), CHAIN_ID_LENGTH));
+		Future<byte[]> bondIndices = executor.submit(() -> EncoderUtils.encodeByteArr(IntCodecs.CONVERT_4_BYTE, data.getInterGroupBondIndices(), 0));
+		Future<byte[]> groupTypeIndices = executor.submit(() -> EncoderUtils.encodeByteArr(IntCodecs.CONVERT_4_BYTE, data.getGroupTypeIndices(), 0));
+		Future<byte[]> secStruct = executor.submit(() -> EncoderUtils.encodeByteArr(IntCodecs.CONVERT_BYTE, data.getSecStructList(), 0));
+		Future<byte[]> bondOrders = executor.submit(() -> EncoderUtils.encodeByteArr(IntCodecs.CONVERT_BYTE, data.getInterGroupBondOrders(), 0));
+
+		// the group list is the most expensive of the remaining fields, build it while the columns are encoded
+		MmtfStructure mmtfStructure = new MmtfStructure();
+		mmtfStructure.setGroupList(EncoderUtils.generateGroupList(data));
+		mmtfStructure.setBioAssemblyList(EncoderUtils.generateBioassemblies(data));
+		mmtfStructure.setEntityList(EncoderUtils.generateEntityList(data));
+		mmtfStructure.setChainsPerModel(data.getChainsPerModel());
+		mmtfStructure.setGroupsPerChain(data.getGroupsPerChain());
+		mmtfStructure.setSpaceGroup(data.getSpaceGroup());
+		mmtfStructure.setUnitCell(data.getUnitCell());
+		mmtfStructure.setMmtfProducer(data.getMmtfProducer());
+		mmtfStructure.setStructureId(data.getStructureId());
+		mmtfStructure.setNumAtoms(data.getNumAtoms());
+		mmtfStructure.setNumBonds(data.getNumBonds());
+		mmtfStructure.setNumChains(data.getNumChains());
+		mmtfStructure.setNumGroups(data.getNumGroups());
+		mmtfStructure.setNumModels(data.getNumModels());
+		mmtfStructure.setrFree(data.getRfree());
+		mmtfStructure.setrWork(data.getRwork());
+		mmtfStructure.setResolution(data.getResolution());
+		mmtfStructure.setTitle(data.getTitle());
+		mmtfStructure.setExperimentalMethods(data.getExperimentalMethods());
+		mmtfStructure.setDepositionDate(data.getDepositionDate());
+		mmtfStructure.setReleaseDate(data.getReleaseDate());
+		mmtfStructure.setNcsOperatorList(data.getNcsOperatorList());
+
+		mmtfStructure.setxCoordList(get(x));
+		mmtfStructure.setyCoordList(get(y));
+		mmtfStructure.setzCoordList(get(z));
+		mmtfStructure.setbFactorList(get(bFactors));
+		mmtfStructure.setOccupancyList(get(occupancies));
+		mmtfStructure.setAtomIdList(get(atomIds));
+		mmtfStructure.setAltLocList(get(altLocIds));
+		mmtfStructure.setInsCodeList(get(insCodes));
+		mmtfStructure.setGroupIdList(get(groupIds));
+		mmtfStructure.setSequenceIndexList(get(sequenceIndices));
+		mmtfStructure.setChainNameList(get(chainNames));
+		mmtfStructure.setChainIdList(get(chainIds));
+		mmtfStructure.setBondAtomList(get(bondIndices));
+		mmtfStructure.setGroupTypeList(get(groupTypeIndices));
+		mmtfStructure.setSecStructList(get(secStruct));
+		mmtfStructure.setBondOrderList(get(bondOrders));
+		return mmtfStructure;
+	}
+
+	/**
+	 * Replace the binary columns by encoded empty arrays, so that the
+	 * {@link GenericDecoder} constructor only decodes the header fields.
+	 */
+	private static MmtfStructure release(MmtfStructure mmtfStructure) {
+		mmtfStructure.setxCoordList(EMPTY_FLOATS);
+		mmtfStructure.setyCoordList(EMPTY_FLOATS);
+		mmtfStructure.setzCoordList(EMPTY_FLOATS);
+		mmtfStructure.setbFactorList(EMPTY_FLOATS);
+		mmtfStructure.setOccupancyList(EMPTY_FLOATS);
+		mmtfStructure.setAtomIdList(EMPTY_INTS);
+		mmtfStructure.setAltLocList(EMPTY_CHARS);
+		mmtfStructure.setInsCodeList(EMPTY_CHARS);
+		mmtfStructure.setGroupIdList(EMPTY_INTS);
+		mmtfStructure.setSequenceIndexList(EMPTY_INTS);
+		mmtfStructure.setGroupTypeList(EMPTY_INTS);
+		mmtfStructure.setChainNameList(EMPTY_STRINGS);
+		mmtfStructure.setChainIdList(EMPTY_STRINGS);
+		mmtfStructure.setBondAtomList(EMPTY_INTS);
+		mmtfStructure.setBondOrderList(EMPTY_INTS);
+		mmtfStructure.setSecStructList(EMPTY_INTS);
+		return mmtfStructure;
+	}
+
+	private static Future<float[]> submitFloats(ExecutorService executor, byte[] column) {
+		return executor.submit(() -> FloatCodecs.decodeArr(column));
+	}
+
+	private static Future<int[]> submitInts(ExecutorService executor, byte[] column) {
+		return executor.submit(() -> IntCodecs.decodeArr(column));
+	}
+
+	private static Future<char[]> submitChars(ExecutorService executor, byte[] column) {
+		return executor.submit(() -> CharCodecs.decodeArr(column));
+	}
+
+	private static Future<String[]> submitStrings(ExecutorService executor, byte[] column) {
+		return executor.submit(() -> StringCodecs.decodeArr(column));
+	}
+
+	private static <T> T get(Future<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while processing MMTF columns");
+		} catch (ExecutionException e) {
+			throw new IOException("Error processing MMTF column", e.getCause());
+		}
+	}
+
+	/**
+	 * A {@link GenericDecoder} constructed without its binary columns, which
+	 * are filled in from the concurrently decoded arrays.
+	 */
+	private static class ParallelDecoder extends GenericDecoder {
+
+		private static final long serialVersionUID = 4183012874216307781L;
+
+		private float[] x;
+		private float[] y;
+		private float[] z;
+		private float[] bFactors;
+		private float[] occupancies;
+		private int[] atomIds;
+		private char[] altLocIds;
+		private char[] insCodes;
+		private int[] groupIds;
+		private int[] sequenceIndices;
+		private int[] groupTypeIndices;
+		private String[] chainNames;
+		private String[] chainIds;
+		private int[] bondIndices;
+		private int[] bondOrders;
+		private int[] secStruct;
+		private int numBonds;
+
+		ParallelDecoder(MmtfStructure header) {
+			super(header);
+		}
+
+		@Override
+		public float[] getxCoords() {
+			return x;
+		}
+
+		@Override
+		public float[] getyCoords() {
+			return y;
+		}
+
+		@Override
+		public float[] getzCoords() {
+			return z;
+		}
+
+		@Override
+		public float[] getbFactors() {
+			return bFactors;
+		}
+
+		@Override
+		public float[] getOccupancies() {
+			return occupancies;
+		}
+
+		@Override
+		public int[] getAtomIds() {
+			return atomIds;
+		}
+
+		@Override
+		public char[] getAltLocIds() {
+			return altLocIds;
+		}
+
+		@Override
+		public char[] getInsCodes() {
+			return insCodes;
+		}
+
+		@Override
+		public int[] getGroupIds() {
+			return groupIds;
+		}
+
+		@Override
+		public int[] getGroupSequenceIndices() {
+			return sequenceIndices;
+		}
+
+		@Override
+		public int[] getGroupTypeIndices() {
+			return groupTypeIndices;
+		}
+
+		@Override
+		public String[] getChainNames() {
+			return chainNames;
+		}
+
+		@Override
+		public String[] getChainIds() {
+			return chainIds;
+		}
+
+		@Override
+		public int[] getInterGroupBondIndices() {
+			return bondIndices;
+		}
+
+		@Override
+		public int[] getInterGroupBondOrders() {
+			return bondOrders;
+		}
+
+		@Override
+		public int[] getSecStructList() {
+			return secStruct;
+		}
+
+		@Override
+		public int getNumAtoms() {
+			return x.length;
+		}
+
+		@Override
+		public int getNumBonds() {
+			return numBonds;
+		}
+	}
+}
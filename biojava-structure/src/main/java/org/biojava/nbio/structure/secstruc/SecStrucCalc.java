@@ -20,22 +20,21 @@
  */
 package org.biojava.nbio.structure.secstruc;
 
+import org.biojava.nbio.core.util.ConcurrencyTools;
 import org.biojava.nbio.structure.*;
-import org.biojava.nbio.structure.contact.AtomContact;
-import org.biojava.nbio.structure.contact.AtomContactSet;
 import org.biojava.nbio.structure.contact.Grid;
-import org.biojava.nbio.structure.contact.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Calculate and assign the secondary structure (SS) to the
@@ -48,6 +47,12 @@ import java.util.Map;
  * <a href="http://www.cmbi.kun.nl/gv/dssp/dssp.pdf">dssp.pdf</a>.
  * Some parts are also taken from: T.E.Creighton, Proteins -
  * Structure and Molecular Properties, 2nd Edition, Freeman 1994.
+ * <p>
+ * The H-bond energies, angles and contacts are calculated over primitive
+ * arrays of backbone coordinates. Many frames of the same structure, e.g.
+ * an MD trajectory, can be calculated together with
+ * {@link #calculateFrames(Structure, List, ExecutorService)}, which reuses
+ * the residue definitions and the CA neighbor lists between frames.
  *
  * @author Andreas Prlic
  * @author Aleix Lafita
@@ -95,14 +100,38 @@ public class SecStrucCalc {
 	 */
 	public static final double Q = -27888.0;
 
+	/**
+	 * Extra distance added to {@link #CA_MIN_DIST} for the CA neighbor lists
+	 * that are reused between frames: a list is rebuilt once any CA moved
+	 * by more than half of it.
+	 */
+	private static final double CONTACT_SKIN = 2.0;
+
+	/** Number of frames calculated in a row by a single task */
+	private static final int FRAMES_PER_TASK = 16;
+
 	// Three lists
 	private SecStrucGroup[] groups;
 	private List<Ladder> ladders;
 	private List<BetaBridge> bridges;
 	private Atom[] atoms;
-	// Added by Anthony - to speed up intergroup calculations
-	private AtomContactSet contactSet;
-	private Map<ResidueNumber, Integer> indResMap;
+
+	// the SS states and the residue types of the residues being calculated
+	private SecStrucState[] states;
+	private boolean[] prolines;
+	// x,y,z of the backbone atoms of each residue, no H for the first residue
+	private double[] nCoords;
+	private double[] caCoords;
+	private double[] cCoords;
+	private double[] oCoords;
+	private double[] hCoords;
+	// the residue pairs i<j with CA atoms within CA_MIN_DIST, as i<<32|j, sorted
+	private long[] contacts;
+	private int numContacts;
+	// the CA pairs within CA_MIN_DIST+CONTACT_SKIN found at the CA coordinates contactsCa
+	private long[] contactCandidates;
+	private double[] contactsCa;
+
 	public SecStrucCalc(){
 		ladders = new ArrayList<Ladder>();
 		bridges = new ArrayList<BetaBridge>();
@@ -126,8 +155,6 @@ public class SecStrucCalc {
 			ladders = new ArrayList<Ladder>();
 			bridges = new ArrayList<BetaBridge>();
 			groups = initGroupArray(s, i);
-			// Initialise the contact set for this structure
-			initContactSet();
 			if (groups.length < 5) {
 				// not enough groups to do anything
 				throw new StructureException("Not enough backbone groups in the"
@@ -135,13 +162,26 @@ public class SecStrucCalc {
 						+ groups.length+" given, minimum 5)" );
 			}
 
+			initResidues(groups);
+			atoms = new Atom[groups.length];
+			for (int k=0 ; k < groups.length ; k++){
+				SecStrucGroup sg = groups[k];
+				atoms[k] = sg.getCA();
+				setCoords(nCoords, k, sg.getN());
+				setCoords(caCoords, k, sg.getCA());
+				setCoords(cCoords, k, sg.getC());
+				setCoords(oCoords, k, sg.getO());
+				states[k] = (SecStrucState) sg.getProperty(Group.SEC_STRUC);
+			}
+			// Initialise the contacts for this structure
+			contacts = findContacts(CA_MIN_DIST);
+			numContacts = contacts.length;
+
 			calculateHAtoms();
-			calculateHBonds();
-			calculateDihedralAngles();
-			calculateTurns();
-			buildHelices();
-			detectBends();
-			detectStrands();
+			for (int k=1 ; k < groups.length ; k++){
+				groups[k].setH(createH(k));
+			}
+			calculateSecStruc();
 
 			for (SecStrucGroup sg : groups){
 				SecStrucState ss = (SecStrucState)
@@ -155,27 +195,199 @@ public class SecStrucCalc {
 	}
 
 	/**
-	 * Function to generate the contact sets
+	 * Predicts the secondary structure of many frames of a Structure, e.g. from
+	 * an MD trajectory or the models of an NMR ensemble, all with the same
+	 * atoms. The residues and the positions of their backbone atoms in the
+	 * frames are determined once, and the CA neighbor lists are reused between
+	 * consecutive frames while the atoms don't move too much. Consecutive
+	 * frames are calculated together in a task, tasks can run in parallel.
+	 * <p>
+	 * The result for each frame is the same as that of {@link #calculate(Structure, boolean)}
+	 * on the structure with the coordinates of the frame. The SS states
+	 * refer to the groups of the topology, which are not modified.
+	 *
+	 * @param topology the Structure defining the atoms of the frames (first model)
+	 * @param frames the coordinates of each frame: x, y and z of each atom of
+	 * {@link StructureTools#getAllAtomArray(Structure)} of the topology, in that order
+	 * @param executor the executor to calculate the frames in parallel,
+	 * or null to calculate them in the calling thread
+	 * @return for each frame, the list of SS states of its residues
+	 * @throws StructureException if the topology has less than 5 residues
+	 * with backbone atoms
+	 * @since 6.0.4
+	 */
+	public List<List<SecStrucState>> calculateFrames(Structure topology,
+			List<double[]> frames, ExecutorService executor)
+			throws StructureException {
+
+		SecStrucGroup[] residues = initGroupArray(topology, 0);
+		if (residues.length < 5) {
+			throw new StructureException("Not enough backbone groups in the"
+					+ " Structure to calculate the secondary structure ("
+					+ residues.length+" given, minimum 5)" );
+		}
+
+		// the position in the frames of the N, CA, C and O atoms of each residue
+		Atom[] frameAtoms = StructureTools.getAllAtomArray(topology);
+		Map<Atom, Integer> atomIndices = new IdentityHashMap<>();
+		for (int i=0; i < frameAtoms.length; i++) {
+			atomIndices.put(frameAtoms[i], i);
+		}
+		int[] backbone = new int[4*residues.length];
+		for (int i=0; i < residues.length; i++) {
+			Group g = residues[i].getOriginal();
+			backbone[4*i]   = atomIndices.get(g.getAtom(StructureTools.N_ATOM_NAME));
+			backbone[4*i+1] = atomIndices.get(g.getAtom(StructureTools.CA_ATOM_NAME));
+			backbone[4*i+2] = atomIndices.get(g.getAtom(StructureTools.C_ATOM_NAME));
+			backbone[4*i+3] = atomIndices.get(g.getAtom(StructureTools.O_ATOM_NAME));
+		}
+		for (double[] frame : frames) {
+			if (frame.length != 3*frameAtoms.length)
+				throw new IllegalArgumentException("Frame with "+frame.length
+						+" coordinates, expected "+3*frameAtoms.length);
+		}
+
+		// in the calling thread, all frames are one task that reuses the neighbor lists throughout
+		int framesPerTask = executor == null ? Math.max(1, frames.size()) : FRAMES_PER_TASK;
+		List<Callable<List<List<SecStrucState>>>> tasks = new ArrayList<>();
+		for (int from=0; from < frames.size(); from += framesPerTask) {
+			List<double[]> taskFrames = frames.subList(from, Math.min(from + framesPerTask, frames.size()));
+			tasks.add(() -> {
+				List<List<SecStrucState>> taskResult = new ArrayList<>(taskFrames.size());
+				new SecStrucCalc().calculateFrames(residues, backbone, taskFrames, taskResult);
+				return taskResult;
+			});
+		}
+		List<List<SecStrucState>> result = new ArrayList<>(frames.size());
+		for (List<List<SecStrucState>> taskResult : ConcurrencyTools.invokeAll(tasks, executor)) {
+			result.addAll(taskResult);
+		}
+		return result;
+	}
+
+	/**
+	 * Calculates the given consecutive frames in this instance, adding the SS states of each to result.
+	 */
+	private void calculateFrames(SecStrucGroup[] residues, int[] backbone,
+			List<double[]> frames, List<List<SecStrucState>> result) {
+
+		initResidues(residues);
+		for (double[] frame : frames) {
+			ladders = new ArrayList<Ladder>();
+			bridges = new ArrayList<BetaBridge>();
+			for (int i=0; i < residues.length; i++) {
+				states[i] = new SecStrucState(residues[i].getOriginal(),
+						SecStrucInfo.BIOJAVA_ASSIGNMENT, SecStrucType.coil);
+				System.arraycopy(frame, 3*backbone[4*i],   nCoords,  3*i, 3);
+				System.arraycopy(frame, 3*backbone[4*i+1], caCoords, 3*i, 3);
+				System.arraycopy(frame, 3*backbone[4*i+2], cCoords,  3*i, 3);
+				System.arraycopy(frame, 3*backbone[4*i+3], oCoords,  3*i, 3);
+			}
+			updateContacts();
+			calculateHAtoms();
+			calculateSecStruc();
+			result.add(new ArrayList<>(Arrays.asList(states)));
+		}
+	}
+
+	/**
+	 * Runs all steps of the DSSP algorithm once the backbone coordinates, the contacts
+	 * and the H atoms of the residues are set.
+	 */
+	private void calculateSecStruc() {
+		calculateHBonds();
+		calculateDihedralAngles();
+		calculateTurns();
+		buildHelices();
+		detectBends();
+		detectStrands();
+	}
+
+	/**
+	 * Allocates the per-residue arrays for the given residues.
+	 */
+	private void initResidues(SecStrucGroup[] residues) {
+		int n = residues.length;
+		states = new SecStrucState[n];
+		prolines = new boolean[n];
+		for (int i=0; i < n; i++) {
+			prolines[i] = residues[i].getPDBName().equals("PRO");
+		}
+		nCoords = new double[3*n];
+		caCoords = new double[3*n];
+		cCoords = new double[3*n];
+		oCoords = new double[3*n];
+		hCoords = new double[3*n];
+		contactCandidates = null;
+		contactsCa = null;
+	}
+
+	private static void setCoords(double[] coords, int i, Atom atom) {
+		coords[3*i] = atom.getX();
+		coords[3*i+1] = atom.getY();
+		coords[3*i+2] = atom.getZ();
+	}
+
+	/**
+	 * Finds the residue pairs with CA atoms within the cutoff.
+	 * @return the pairs i<j as i<<32|j, sorted
+	 */
+	private long[] findContacts(double cutoff) {
+		int n = caCoords.length / 3;
+		Point3d[] points = new Point3d[n];
+		for (int i=0; i < n; i++) {
+			points[i] = new Point3d(caCoords[3*i], caCoords[3*i+1], caCoords[3*i+2]);
+		}
+		Grid grid = new Grid(cutoff);
+		grid.addCoords(points);
+		long[][] found = {new long[16*n]};
+		int[] count = {0};
+		grid.forEachContact((i, j, distance) -> {
+			if (count[0] == found[0].length)
+				found[0] = Arrays.copyOf(found[0], 2*count[0]);
+			found[0][count[0]++] = ((long) Math.min(i, j) << 32) | Math.max(i, j);
+		});
+		long[] pairs = Arrays.copyOf(found[0], count[0]);
+		Arrays.sort(pairs);
+		return pairs;
+	}
+
+	/**
+	 * Sets the contacts of the current frame from the neighbor list, which is
+	 * only recalculated when a CA atom moved by more than half of {@link #CONTACT_SKIN}.
 	 */
-	private void initContactSet() {
-
-		// Initialise an array of atoms
-		atoms = new Atom[groups.length];
-		// Remake this local var
-		indResMap = new HashMap<>();
-		for (int i=0 ; i < groups.length ; i++){
-			SecStrucGroup one = groups[i];
-			indResMap.put(one.getResidueNumber(), i);
-			atoms[i] = one.getCA();
+	private void updateContacts() {
+		if (contactCandidates == null || maxDisplacement(contactsCa, caCoords) >= CONTACT_SKIN / 2) {
+			contactCandidates = findContacts(CA_MIN_DIST + CONTACT_SKIN);
+			contactsCa = caCoords.clone();
+			contacts = new long[contactCandidates.length];
 		}
-		Grid grid = new Grid(CA_MIN_DIST);
-		if(atoms.length==0){
-			contactSet = new AtomContactSet(CA_MIN_DIST);
+		numContacts = 0;
+		for (long pair : contactCandidates) {
+			int i = (int) (pair >>> 32);
+			int j = (int) pair;
+			// same as the distance in the grid
+			if (distance(caCoords, i, caCoords, j) < CA_MIN_DIST)
+				contacts[numContacts++] = pair;
 		}
-		else{
-			grid.addAtoms(atoms);
-			contactSet = grid.getAtomContacts();
+	}
+
+	private static double maxDisplacement(double[] coords1, double[] coords2) {
+		double max = 0;
+		for (int i=0; i < coords1.length / 3; i++) {
+			max = Math.max(max, distance(coords1, i, coords2, i));
 		}
+		return max;
+	}
+
+	/**
+	 * The distance of atoms i of a and j of b, calculated as {@link Calc#getDistance(Atom, Atom)}.
+	 */
+	private static double distance(double[] a, int i, double[] b, int j) {
+		double x = a[3*i] - b[3*j];
+		double y = a[3*i+1] - b[3*j+1];
+		double z = a[3*i+2] - b[3*j+2];
+		return Math.sqrt(x * x + y * y + z * z);
 	}
 
 	/**
@@ -422,77 +634,18 @@ public class SecStrucCalc {
 	 * Optimised to use the contact set
 	 */
 	private void findBridges() {
-		// Get the interator of contacts
-		Iterator<AtomContact> myIter = contactSet.iterator();
-		List<Pair<Integer>> outList = new ArrayList<Pair<Integer>>();
-
-		// Now iterate through this
-		while(myIter.hasNext()){
-			// Get the next atom contact
-			AtomContact ac = myIter.next();
-			Group g1 = ac.getPair().getFirst().getGroup();
-			Group g2 = ac.getPair().getSecond().getGroup();
-			// Get the indices
-			int i = indResMap.get(g1.getResidueNumber());
-			int j = indResMap.get(g2.getResidueNumber());
-			// If i>j switch them over
-			if(i>j){
-				// Switch them over
-				int old = i;
-				i = j;
-				j = old;
-			}
+		// the contacts are sorted by first and then second residue
+		for (int k=0; k < numContacts; k++) {
+			int i = (int) (contacts[k] >>> 32);
+			int j = (int) contacts[k];
 			// Only these
 			if(j<i+3){
 				continue;
 			}
-			// If it's the first
-			if(i==0){
-				continue;
-			}
-			if(j==0){
-				continue;
-			}
-			// If it's the last
-			if(i==groups.length-1){
+			// If it's the first or the last
+			if(i==0 || j==states.length-1){
 				continue;
 			}
-			if(j==groups.length-1){
-				continue;
-			}
-
-			Pair<Integer> thisPair = new Pair<Integer>(i,j);
-			outList.add(thisPair);
-		}
-		//
-		Collections.sort(outList, new Comparator<Pair<Integer>>() {
-			@Override
-			public int compare(Pair<Integer> o1, Pair<Integer> o2) {
-				if(o1.getFirst()<o2.getFirst()){
-					return -1;
-				}
-				else if(o1.getFirst()>o2.getFirst()){
-					return +1;
-				}
-				else{
-					if(o1.getSecond()<o2.getSecond()){
-						return -1;
-					}
-					else if(o1.getSecond()>o2.getSecond()){
-						return 1;
-					}
-					else{
-						return 0;
-					}
-				}
-			}
-		});
-
-
-
-		for(Pair<Integer> p: outList){
-			int i = p.getFirst();
-			int j = p.getSecond();
 			BridgeType btype = null;
 			// Now do the bonding
 			if ((isBonded(i-1,j) && isBonded(j,i+1)) ||
@@ -507,41 +660,29 @@ public class SecStrucCalc {
 				registerBridge(i, j, btype);
 			}
 		}
-
-
 	}
 
 	private void detectBends() {
 
-		for (int i = 2 ; i < groups.length-2 ;i++){
+		for (int i = 2 ; i < states.length-2 ;i++){
 
 			//Check if all atoms form peptide bonds (backbone discontinuity)
 			boolean bonded = true;
 			for (int k=0; k<4; k++){
 				int index = i+k-2;
-				Atom C = groups[index].getC();
-				Atom N = groups[index+1].getN();
 				//Peptide bond C-N
-				if (Calc.getDistance(C, N) > MAX_PEPTIDE_BOND_LENGTH){
+				if (distance(cCoords, index, nCoords, index+1) > MAX_PEPTIDE_BOND_LENGTH){
 					bonded = false;
 					break;
 				}
 			}
 			if (!bonded) continue;
 
-			SecStrucGroup im2 = groups[i-2];
-			SecStrucGroup g = groups[i];
-			SecStrucGroup ip2 = groups[i+2];
-
-			Atom caim2 = im2.getCA();
-			Atom cag   = g.getCA();
-			Atom caip2 = ip2.getCA();
-
 			//Create vectors ( Ca i to Ca i-2 ) ; ( Ca i to CA i + 2 )
-			Atom caminus2 = Calc.subtract(caim2,cag);
-			Atom caplus2  = Calc.subtract(cag,caip2);
+			double[] caminus2 = subtract(caCoords, i-2, caCoords, i);
+			double[] caplus2  = subtract(caCoords, i, caCoords, i+2);
 
-			double angle = Calc.angle(caminus2, caplus2);
+			double angle = angle(caminus2, caplus2);
 
 			SecStrucState state = getSecStrucState(i);
 			state.setKappa((float) angle);
@@ -563,27 +704,17 @@ public class SecStrucCalc {
 		// N-CA-CB-CG1(ILE/VAL), N-CA-CB-SG(CYS)
 		// Omega: CA-C-N-CA
 
-		for (int i=0 ; i < groups.length-1 ;  i++){
+		for (int i=0 ; i < states.length-1 ;  i++){
 
-			SecStrucGroup a = groups[i];
-			SecStrucGroup b = groups[i+1];
+			int a = i;
+			int b = i+1;
 
-			Atom a_N   = a.getN();
-			Atom a_CA  = a.getCA();
-			Atom a_C  = a.getC();
+			double phi = torsionAngle(cCoords, a, nCoords, b, caCoords, b, cCoords, b);
+			double psi = torsionAngle(nCoords, a, caCoords, a, cCoords, a, nCoords, b);
+			double omega = torsionAngle(caCoords, a, cCoords, a, nCoords, b, caCoords, b);
 
-			Atom b_N  = b.getN();
-			Atom b_CA = b.getCA();
-			Atom b_C  = b.getC();
-
-			double phi = Calc.torsionAngle(a_C,b_N,b_CA,b_C);
-			double psi = Calc.torsionAngle(a_N,a_CA,a_C,b_N);
-			double omega = Calc.torsionAngle(a_CA,a_C,b_N,b_CA);
-
-			SecStrucState state1 = (SecStrucState)
-					a.getProperty(Group.SEC_STRUC);
-			SecStrucState state2 = (SecStrucState)
-					b.getProperty(Group.SEC_STRUC);
+			SecStrucState state1 = getSecStrucState(a);
+			SecStrucState state2 = getSecStrucState(b);
 
 			state2.setPhi(phi);
 			state1.setPsi(psi);
@@ -591,6 +722,52 @@ public class SecStrucCalc {
 		}
 	}
 
+	/**
+	 * The vector from atom j of b to atom i of a, as {@link Calc#subtract(Atom, Atom)}.
+	 */
+	private static double[] subtract(double[] a, int i, double[] b, int j) {
+		return new double[] {a[3*i] - b[3*j], a[3*i+1] - b[3*j+1], a[3*i+2] - b[3*j+2]};
+	}
+
+	private static double[] vectorProduct(double[] a, double[] b) {
+		return new double[] {
+				a[1] * b[2] - a[2] * b[1],
+				a[2] * b[0] - a[0] * b[2],
+				a[0] * b[1] - a[1] * b[0]};
+	}
+
+	/**
+	 * The angle in degrees between two vectors, as {@link Calc#angle(Atom, Atom)}.
+	 */
+	private static double angle(double[] a, double[] b) {
+		Vector3d va = new Vector3d(a);
+		Vector3d vb = new Vector3d(b);
+		return Math.toDegrees(va.angle(vb));
+	}
+
+	/**
+	 * The torsion angle of the atoms ia of a, ib of b, ic of c and id of d,
+	 * as {@link Calc#torsionAngle(Atom, Atom, Atom, Atom)}.
+	 */
+	private static double torsionAngle(double[] a, int ia, double[] b, int ib,
+			double[] c, int ic, double[] d, int id) {
+
+		double[] cb = subtract(c, ic, b, ib);
+
+		double[] abc = vectorProduct(subtract(a, ia, b, ib), cb);
+		double[] bcd = vectorProduct(subtract(b, ib, c, ic), subtract(d, id, c, ic));
+
+		double angl = angle(abc, bcd);
+
+		/* calc the sign: */
+		double[] vecprod = vectorProduct(abc, bcd);
+		double val = cb[0] * vecprod[0] + cb[1] * vecprod[1] + cb[2] * vecprod[2];
+		if (val < 0.0)
+			angl = -angl;
+
+		return angl;
+	}
+
 	@Override
 	public String toString() {
 		return printDSSP();
@@ -750,23 +927,31 @@ public class SecStrucCalc {
 	 * Calculate the coordinates of the H atoms. They are usually
 	 * missing in the PDB files as only few experimental methods allow
 	 * to resolve their location.
+	 * The H of residue i is placed at 1 &aring; from N, in the direction
+	 * of the C=O bond of residue i-1. The first residue has no H.
 	 */
-	private void calculateHAtoms() throws StructureException {
-
-		for ( int i = 0 ; i < groups.length-1  ; i++) {
+	private void calculateHAtoms() {
 
-			SecStrucGroup a  = groups[i];
-			SecStrucGroup b  = groups[i+1];
+		for ( int i = 1 ; i < states.length  ; i++) {
+			double x = cCoords[3*i-3] - oCoords[3*i-3];
+			double y = cCoords[3*i-2] - oCoords[3*i-2];
+			double z = cCoords[3*i-1] - oCoords[3*i-1];
+			double dist = distance(oCoords, i-1, cCoords, i-1);
 
-			if ( !b.hasAtom("H") ) {
-				//Atom H = calc_H(a.getC(), b.getN(), b.getCA());
-				Atom H = calcSimple_H(a.getC(), a.getO(), b.getN());
-				b.setH(H);
-			}
+			hCoords[3*i]   = nCoords[3*i]   + x / dist;
+			hCoords[3*i+1] = nCoords[3*i+1] + y / dist;
+			hCoords[3*i+2] = nCoords[3*i+2] + z / dist;
 		}
 	}
 
-
+	private Atom createH(int i) {
+		Atom h = new AtomImpl();
+		h.setX(hCoords[3*i]);
+		h.setY(hCoords[3*i+1]);
+		h.setZ(hCoords[3*i+2]);
+		h.setName("H");
+		return h;
+	}
 
 	/**
 	 * Calculate the HBonds between different groups.
@@ -777,16 +962,10 @@ public class SecStrucCalc {
 		/**
 		 * More efficient method for calculating C-Alpha pairs
 		 */
-		if (groups.length < 5) return;
-		Iterator<AtomContact> otu = contactSet.iterator();
-		while(otu.hasNext()){
-			AtomContact ac = otu.next();
-			Pair<Atom> pair = ac.getPair();
-			Group g1 = pair.getFirst().getGroup();
-			Group g2 = pair.getSecond().getGroup();
-			// Now I need to get the index of the Group in the list groups
-			int i = indResMap.get(g1.getResidueNumber());
-			int j = indResMap.get(g2.getResidueNumber());
+		if (states.length < 5) return;
+		for (int k=0; k < numContacts; k++) {
+			int i = (int) (contacts[k] >>> 32);
+			int j = (int) contacts[k];
 			// Now check this
 			checkAddHBond(i,j);
 			//"backwards" hbonds are not allowed
@@ -796,28 +975,17 @@ public class SecStrucCalc {
 
 	private void checkAddHBond(int i, int j){
 
-		SecStrucGroup one = groups[i];
-
-		if (one.getPDBName().equals("PRO")){
-			logger.debug("Ignore: PRO {}", one.getResidueNumber());
+		if (prolines[i]){
+			logger.debug("Ignore: PRO {}", states[i].getGroup().getResidueNumber());
 			return;
 		}
-		if (!one.hasAtom("H")) {
-			logger.debug("Residue {} has no H",one.getResidueNumber());
+		if (i == 0) {
+			logger.debug("Residue {} has no H",states[i].getGroup().getResidueNumber());
 			return;
 		}
 
-		SecStrucGroup two = groups[j];
-
-		double energy = 0;
-
-		try {
-			energy = calculateHBondEnergy(one,two);
-		} catch (Exception e){
-			logger.warn("Energy calculation failed", e);
-			return;
-		}
-		logger.debug("Energy between positions ({},{}): ",i,j,energy);
+		double energy = calculateHBondEnergy(i,j);
+		logger.debug("Energy between positions ({},{}): {}",i,j,energy);
 
 		trackHBondEnergy(i,j,energy);
 	}
@@ -833,24 +1001,15 @@ public class SecStrucCalc {
 	 * 2.5-3.2 &aring; as "moderate, mostly electrostatic",
 	 * 3.2-4.0 &aring; as "weak, electrostatic".
 	 * Energies are given as 40-14, 15-4, and <4 kcal/mol respectively.
+	 * @param one the index of the residue with the N-H
+	 * @param two the index of the residue with the C=O
 	 */
-	private static double calculateHBondEnergy(SecStrucGroup one,
-			SecStrucGroup two) {
+	private double calculateHBondEnergy(int one, int two) {
 
-		Atom N = one.getN();
-		Atom H = one.getH();
-
-		Atom O = two.getO();
-		Atom C = two.getC();
-
-		double dno = Calc.getDistance(O,N);
-		double dhc = Calc.getDistance(C,H);
-		double dho = Calc.getDistance(O,H);
-		double dnc = Calc.getDistance(C,N);
-
-		logger.debug(" cccc: {} {} {} {} O ({})..N ({}):{}  |  ho:{} - hc:{} + nc:{} - no:{}",
-				one.getResidueNumber(),one.getPDBName(),two.getResidueNumber(),two.getPDBName(),
-				O.getPDBserial(),N.getPDBserial(),dno,dho,dhc,dnc,dno);
+		double dno = distance(oCoords, two, nCoords, one);
+		double dhc = distance(cCoords, two, hCoords, one);
+		double dho = distance(oCoords, two, hCoords, one);
+		double dnc = distance(cCoords, two, nCoords, one);
 
 		//there seems to be a contact!
 		if ( (dno < MINDIST) || (dhc < MINDIST) ||
@@ -863,8 +1022,6 @@ public class SecStrucCalc {
 
 		double energy = e1 + e2;
 
-		logger.debug(" N ({}) O({}): {} : {} ",N.getPDBserial(),O.getPDBserial(),(float) dno,energy);
-
 		//Avoid too strong energy
 		if (energy > HBONDLOWENERGY) return energy;
 
@@ -877,8 +1034,8 @@ public class SecStrucCalc {
 	 */
 	private  void trackHBondEnergy(int i, int j, double energy) {
 
-		if (groups[i].getPDBName().equals("PRO")) {
-			logger.debug("Ignore: PRO {}",groups[i].getResidueNumber());
+		if (prolines[i]) {
+			logger.debug("Ignore: PRO {}",states[i].getGroup().getResidueNumber());
 			return;
 		}
 
@@ -940,10 +1097,10 @@ public class SecStrucCalc {
 	 */
 	private void calculateTurns(){
 
-		for (int i = 0 ; i< groups.length; i++){
+		for (int i = 0 ; i< states.length; i++){
 			for (int turn = 3; turn <= 5; turn++) {
 
-				if (i+turn >= groups.length) continue;
+				if (i+turn >= states.length) continue;
 
 				//Check for H bond from NH(i+n) to CO(i)
 				if (isBonded(i, i+turn)) {
@@ -1032,23 +1189,6 @@ public class SecStrucCalc {
 
 	}
 
-	private static Atom calcSimple_H(Atom c, Atom o, Atom n)  {
-
-		Atom h = Calc.subtract(c,o);
-		double dist = Calc.getDistance(o,c);
-		//System.out.println(dist);
-		double x = n.getX() + h.getX() / dist;
-		double y = n.getY() + h.getY() / dist;
-		double z = n.getZ() + h.getZ() / dist;
-
-		h.setX(x);
-		h.setY(y);
-		h.setZ(z);
-
-		h.setName("H");
-		return h;
-	}
-
 	private void buildHelices(){
 
 		//Alpha-helix (i+4), 3-10-helix (i+3), Pi-helix (i+5)
@@ -1064,7 +1204,7 @@ public class SecStrucCalc {
 		SecStrucType type = SecStrucType.turn;
 
 		for (int idx = 0; idx < 3; idx++) {
-			for (int i = 0; i < groups.length-1; i++) {
+			for (int i = 0; i < states.length-1; i++) {
 
 				SecStrucState state = getSecStrucState(i);
 				char[] turn = state.getTurn();
@@ -1103,7 +1243,7 @@ public class SecStrucCalc {
 		int idx = n - 3;
 		logger.debug("Set helix {} {} {}", type, n, idx);
 
-		for (int i = 1; i < groups.length-n; i++) {
+		for (int i = 1; i < states.length-n; i++) {
 
 			SecStrucState state = getSecStrucState(i);
 			SecStrucState previousState = getSecStrucState(i-1);
@@ -1141,9 +1281,7 @@ public class SecStrucCalc {
 	}
 
 	private SecStrucState getSecStrucState(int pos){
-		Group g = groups[pos];
-		SecStrucState state = (SecStrucState) g.getProperty(Group.SEC_STRUC);
-		return state;
+		return states[pos];
 	}
 
 }
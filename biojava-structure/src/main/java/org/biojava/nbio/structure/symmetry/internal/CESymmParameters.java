@@ -50,6 +50,8 @@ public class CESymmParameters extends CeParameters {
 	private double distanceCutoff;
 	private boolean gaps;
 	private int optimizationSteps;
+	private int optimizationTrajectories;
+	private boolean earlyStop;
 
 	public static enum OrderDetectorMethod {
 		SEQUENCE_FUNCTION, GRAPH_COMPONENT, ANGLE, USER_INPUT;
@@ -106,6 +108,8 @@ public class CESymmParameters extends CeParameters {
 		this.distanceCutoff = o.distanceCutoff;
 		this.gaps = o.gaps;
 		this.optimizationSteps = o.optimizationSteps;
+		this.optimizationTrajectories = o.optimizationTrajectories;
+		this.earlyStop = o.earlyStop;
 
 		this.winSize = o.winSize;
 		this.rmsdThr = o.rmsdThr;
@@ -120,6 +124,8 @@ public class CESymmParameters extends CeParameters {
 		this.oRmsdThr = o.oRmsdThr;
 		this.maxNrIterationsForOptimization = o.maxNrIterationsForOptimization;
 		this.seqWeight = o.seqWeight;
+		this.lowMemory = o.lowMemory;
+		this.minZScore = o.minZScore;
 	}
 
 	@Override
@@ -140,6 +146,8 @@ public class CESymmParameters extends CeParameters {
 		distanceCutoff = 7.0;
 		gaps = true;
 		optimizationSteps = 0;
+		optimizationTrajectories = 1;
+		earlyStop = false;
 	}
 
 	@Override
@@ -237,6 +245,17 @@ public class CESymmParameters extends CeParameters {
 		params.add("Optimization Steps: maximum number of optimization steps:"
 				+ " 0 means calculated automatically with the alignment length.");
 
+		// optimization trajectories
+		params.add("Optimization Trajectories: number of independent "
+				+ "optimizations run in parallel, with the random seeds "
+				+ "Random Seed, Random Seed + 1, etc. The alignment with the "
+				+ "highest score is kept.");
+
+		// early stop
+		params.add("Early Stop: stop all optimization trajectories once two "
+				+ "of them converged to the same score. The result can then "
+				+ "depend on the thread timing.");
+
 		return params;
 	}
 
@@ -258,6 +277,8 @@ public class CESymmParameters extends CeParameters {
 		params.add("DistanceCutoff");
 		params.add("Gaps");
 		params.add("OptimizationSteps");
+		params.add("OptimizationTrajectories");
+		params.add("EarlyStop");
 		return params;
 	}
 
@@ -279,6 +300,8 @@ public class CESymmParameters extends CeParameters {
 		params.add("Distance Cutoff");
 		params.add("Internal Gaps");
 		params.add("Optimization Steps");
+		params.add("Optimization Trajectories");
+		params.add("Early Stop");
 		return params;
 	}
 
@@ -301,6 +324,8 @@ public class CESymmParameters extends CeParameters {
 		params.add(Double.class);
 		params.add(Boolean.class);
 		params.add(Integer.class);
+		params.add(Integer.class);
+		params.add(Boolean.class);
 		return params;
 	}
 
@@ -433,6 +458,50 @@ public class CESymmParameters extends CeParameters {
 		this.optimizationSteps = optimizationSteps;
 	}
 
+	/**
+	 * The number of independent Monte Carlo trajectories of the
+	 * optimization, run in parallel. Trajectory i uses the random seed
+	 * {@link #getRndSeed()} + i.
+	 *
+	 * @return the number of trajectories (default 1)
+	 * @since 6.0.4
+	 */
+	public int getOptimizationTrajectories() {
+		return optimizationTrajectories;
+	}
+
+	/**
+	 * @param optimizationTrajectories
+	 *            the number of trajectories (default 1)
+	 * @see #getOptimizationTrajectories()
+	 * @since 6.0.4
+	 */
+	public void setOptimizationTrajectories(Integer optimizationTrajectories) {
+		this.optimizationTrajectories = optimizationTrajectories;
+	}
+
+	/**
+	 * Whether all optimization trajectories are stopped once two of them
+	 * converged to the same score, see
+	 * {@link org.biojava.nbio.structure.align.multiple.mc.MultipleMcTrajectories}.
+	 *
+	 * @return earlyStop (default false)
+	 * @since 6.0.4
+	 */
+	public boolean isEarlyStop() {
+		return earlyStop;
+	}
+
+	/**
+	 * @param earlyStop
+	 *            (default false)
+	 * @see #isEarlyStop()
+	 * @since 6.0.4
+	 */
+	public void setEarlyStop(Boolean earlyStop) {
+		this.earlyStop = earlyStop;
+	}
+
 	@Override
 	public String toString() {
 		return "CESymmParameters [maxSymmOrder=" + maxSymmOrder
@@ -445,7 +514,8 @@ public class CESymmParameters extends CeParameters {
 				+ refinedScoreThreshold + ", sseThreshold=" + sseThreshold
 				+ ", minCoreLength=" + minCoreLength + ", distanceCutoff="
 				+ distanceCutoff + ", gaps=" + gaps + ", optimizationSteps="
-				+ optimizationSteps + "]";
+				+ optimizationSteps + ", optimizationTrajectories="
+				+ optimizationTrajectories + ", earlyStop=" + earlyStop + "]";
 	}
 
 }
@@ -22,6 +22,8 @@ package org.biojava.nbio.structure.symmetry.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.vecmath.Matrix4d;
 
@@ -35,6 +37,7 @@ import org.biojava.nbio.structure.align.ce.CeCPMain;
 import org.biojava.nbio.structure.align.ce.MatrixListener;
 import org.biojava.nbio.structure.align.model.AFPChain;
 import org.biojava.nbio.structure.align.multiple.MultipleAlignment;
+import org.biojava.nbio.structure.align.multiple.mc.MultipleMcTrajectories;
 import org.biojava.nbio.structure.align.util.AFPChainScorer;
 import org.biojava.nbio.structure.jama.Matrix;
 import org.biojava.nbio.structure.secstruc.SecStrucCalc;
@@ -186,7 +189,13 @@ public class CeSymm {
 
 		Matrix origM = null;
 		AFPChain myAFP = new AFPChain(algorithmName);
-		CECalculator calculator = new CECalculator(params);
+		// the self-alignments modify the full distance matrices
+		CESymmParameters calcParams = params;
+		if (params.isLowMemory()) {
+			calcParams = params.clone();
+			calcParams.setLowMemory(false);
+		}
+		CECalculator calculator = new CECalculator(calcParams);
 		Matrix lastMatrix = null;
 
 		List<AFPChain> selfAlignments = new ArrayList<AFPChain>();
@@ -390,8 +399,7 @@ public class CeSymm {
 			// Optimize the global alignment freely once more (final step)
 			if (params.getOptimization() && result.getSymmLevels() > 1) {
 				try {
-					SymmOptimizer optimizer = new SymmOptimizer(result);
-					MultipleAlignment optimized = optimizer.optimize();
+					MultipleAlignment optimized = optimize(result);
 					// Set the optimized MultipleAlignment and the axes
 					result.setMultipleAlignment(optimized);
 				} catch (RefinerFailedException e) {
@@ -424,9 +432,7 @@ public class CeSymm {
 			// STEP 5: symmetry alignment optimization
 			if (result.getParams().getOptimization()) {
 				try {
-					MultipleAlignment msa = result.getMultipleAlignment();
-					SymmOptimizer optimizer = new SymmOptimizer(result);
-					msa = optimizer.optimize();
+					MultipleAlignment msa = optimize(result);
 					result.setMultipleAlignment(msa);
 				} catch (RefinerFailedException e) {
 					logger.debug("Optimization failed:" + e.getMessage());
@@ -436,4 +442,53 @@ public class CeSymm {
 		return result;
 	}
 
+	/**
+	 * Optimizes the multiple alignment of the repeats with a
+	 * {@link SymmOptimizer}, or with several independent trajectories in
+	 * parallel if {@link CESymmParameters#getOptimizationTrajectories()} is
+	 * larger than 1.
+	 *
+	 * @param result
+	 *            the refined CeSymmResult
+	 * @return the optimized MultipleAlignment
+	 * @throws StructureException
+	 * @throws RefinerFailedException
+	 *             if the alignment is not symmetric or too short.
+	 */
+	private static MultipleAlignment optimize(CeSymmResult result)
+			throws StructureException, RefinerFailedException {
+
+		CESymmParameters params = result.getParams();
+		if (params.getOptimizationTrajectories() <= 1)
+			return new SymmOptimizer(result).optimize();
+
+		AtomicBoolean stop = new AtomicBoolean(false);
+		List<SymmOptimizer> trajectories = new ArrayList<SymmOptimizer>();
+		for (int i = 0; i < params.getOptimizationTrajectories(); i++) {
+			SymmOptimizer optimizer = new SymmOptimizer(result, i);
+			optimizer.setStop(stop);
+			trajectories.add(optimizer);
+		}
+		MultipleAlignment optimized;
+		try {
+			optimized = MultipleMcTrajectories.optimize(trajectories, stop,
+					params.isEarlyStop(),
+					Runtime.getRuntime().availableProcessors());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StructureException("Optimization interrupted.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RefinerFailedException)
+				throw (RefinerFailedException) e.getCause();
+			if (e.getCause() instanceof StructureException)
+				throw (StructureException) e.getCause();
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new StructureException("Optimization failed.", e.getCause());
+		}
+		// The trajectories optimized copies of the axes
+		SymmetryTools.updateSymmetryTransformation(result.getAxes(), optimized);
+		return optimized;
+	}
+
 }
@@ -26,6 +26,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.biojava.nbio.structure.Atom;
 import org.biojava.nbio.structure.StructureException;
@@ -59,7 +61,7 @@ import org.slf4j.LoggerFactory;
  * @since 4.1.1
  *
  */
-public class SymmOptimizer {
+public class SymmOptimizer implements Callable<MultipleAlignment> {
 
 	private static final Logger logger = LoggerFactory
 			.getLogger(SymmOptimizer.class);
@@ -89,6 +91,7 @@ public class SymmOptimizer {
 	private List<List<Integer>> block; // residues aligned
 	private List<Integer> freePool; // residues not aligned
 	private double mcScore; // alignment score to optimize
+	private AtomicBoolean stop; // set to stop the optimization early
 
 	// Variables that store the history of the optimization - slower if on
 	private static final boolean history = false;
@@ -111,9 +114,30 @@ public class SymmOptimizer {
 	 * @throws StructureException
 	 */
 	public SymmOptimizer(CeSymmResult symmResult) {
+		this(symmResult, 0, symmResult.getAxes());
+	}
+
+	/**
+	 * Constructor of one of several independent trajectories. The random
+	 * number generator of the trajectory is seeded with the random seed of
+	 * the parameters plus the trajectory index. The trajectory optimizes a
+	 * copy of the symmetry axes, the axes of the result are not updated.
+	 *
+	 * @param symmResult
+	 *            CeSymmResult with all the information
+	 * @param trajectory
+	 *            the index of the trajectory
+	 * @since 6.0.4
+	 */
+	public SymmOptimizer(CeSymmResult symmResult, int trajectory) {
+		this(symmResult, trajectory, new SymmetryAxes(symmResult.getAxes()));
+	}
 
-		this.axes = symmResult.getAxes();
-		this.rnd = new Random(symmResult.getParams().getRndSeed());
+	private SymmOptimizer(CeSymmResult symmResult, int trajectory,
+			SymmetryAxes axes) {
+
+		this.axes = axes;
+		this.rnd = new Random(symmResult.getParams().getRndSeed() + trajectory);
 		this.Lmin = symmResult.getParams().getMinCoreLength();
 		this.dCutoff = symmResult.getParams().getDistanceCutoff();
 
@@ -136,6 +160,23 @@ public class SymmOptimizer {
 			maxIter = 100 * atoms.length;
 	}
 
+	@Override
+	public MultipleAlignment call() throws Exception {
+		return optimize();
+	}
+
+	/**
+	 * Set a flag that stops the optimization after the current step when
+	 * set. The best alignment of the trajectory so far is returned.
+	 *
+	 * @param stop
+	 *            the stop flag, or null to always run until convergence
+	 * @since 6.0.4
+	 */
+	public void setStop(AtomicBoolean stop) {
+		this.stop = stop;
+	}
+
 	private void initialize() throws StructureException, RefinerFailedException {
 
 		if (order == 1)
@@ -211,7 +252,8 @@ public class SymmOptimizer {
 		int stepsToConverge = Math.max(maxIter / 50, 1000);
 		long initialTime = System.nanoTime()/1000000;
 
-		while (i < maxIter && conv < stepsToConverge) {
+		while (i < maxIter && conv < stepsToConverge
+				&& (stop == null || !stop.get())) {
 
 			// Save the state of the system
 			List<List<Integer>> lastBlock = new ArrayList<List<Integer>>();
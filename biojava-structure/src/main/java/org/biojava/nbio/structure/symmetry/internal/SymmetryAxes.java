@@ -195,6 +195,21 @@ public class SymmetryAxes {
 		axes = new ArrayList<>();
 	}
 
+	/**
+	 * Copy constructor. The operators of the axes are copied, so that the
+	 * axes of the copy can be updated independently.
+	 *
+	 * @param o the axes to copy
+	 * @since 6.0.4
+	 */
+	public SymmetryAxes(SymmetryAxes o){
+		axes = new ArrayList<>(o.axes.size());
+		for (Axis a : o.axes) {
+			axes.add(new Axis(new Matrix4d(a.getOperator()), a.getOrder(),
+					a.getSymmType(), a.getLevel(), a.getFirstRepeat()));
+		}
+	}
+
 	/**
 	 * Adds a new axis of symmetry to the bottom level of the tree
 	 *
@@ -21,6 +21,7 @@
 package org.biojava.nbio.structure.xtal;
 
 
+import org.biojava.nbio.core.util.ConcurrencyTools;
 import org.biojava.nbio.structure.*;
 import org.biojava.nbio.structure.contact.AtomContactSet;
 import org.biojava.nbio.structure.contact.StructureInterface;
@@ -32,11 +33,18 @@ import javax.vecmath.Matrix4d;
 import javax.vecmath.Point3i;
 import javax.vecmath.Vector3d;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 
 /**
  * A class containing methods to find interfaces in a given crystallographic Structure by
  * reconstructing the crystal lattice through application of symmetry operators
+ * <p>
+ * The symmetry operators and neighboring cells are explored in a fixed order, discarding
+ * redundant operators and chain pairs whose bounding boxes don't overlap. The contacts of the
+ * remaining chain pairs are then calculated in parallel (see {@link #setExecutorService(ExecutorService)})
+ * and the interfaces are added to the result in the same order as a sequential calculation would.
  *
  * @author Jose Duarte
  *
@@ -95,6 +103,45 @@ public class CrystalBuilder {
 	private boolean searchBeyondAU;
 	private Matrix4d[] ops;
 
+	private ExecutorService executor;
+
+	/**
+	 * A pair of chains (i from the original AU, j from a symmetry mate) whose bounding boxes overlap.
+	 */
+	private static class ChainPairTrial {
+		private final int i;
+		private final int j;
+		// null for chains within the original AU
+		private final Matrix4d mJCryst;
+		private final CrystalTransform tt;
+		// only used for debug logging
+		private final OperatorLog log;
+		private final int logPos;
+
+		private ChainPairTrial(int i, int j, Matrix4d mJCryst, CrystalTransform tt, OperatorLog log) {
+			this.i = i;
+			this.j = j;
+			this.mJCryst = mJCryst;
+			this.tt = tt;
+			this.log = log;
+			this.logPos = log == null ? -1 : log.builder.length();
+		}
+	}
+
+	/**
+	 * The debug log line of one operator: a character per chain pair and the count of interfaces found.
+	 */
+	private static class OperatorLog {
+		private final StringBuilder builder;
+		private final int maxPairs;
+		private int contactsFound;
+
+		private OperatorLog(CrystalTransform tt, int maxPairs) {
+			this.builder = new StringBuilder(String.valueOf(tt)).append(" ");
+			this.maxPairs = maxPairs;
+		}
+	}
+
 	/**
 	 * Special constructor for NCS-aware CrystalBuilder.
 	 * The output list of interfaces will be pre-clustered by NCS-equivalence.
@@ -183,6 +230,16 @@ public class CrystalBuilder {
 		this.numCells = numCells;
 	}
 
+	/**
+	 * Set the executor used to calculate the contacts of the chain pairs in parallel.
+	 * The result does not depend on the executor. The executor is not shut down by this class.
+	 * @param executor the executor, or null to do all calculations in the calling thread (the default)
+	 * @since 6.0.4
+	 */
+	public void setExecutorService(ExecutorService executor) {
+		this.executor = executor;
+	}
+
 	private void initialiseVisited() {
 		visitedCrystalTransforms = new ArrayList<>();
 		if(this.hasNcsOps()) {
@@ -289,6 +346,8 @@ public class CrystalBuilder {
 		}
 
 		List<Chain> polyChains = structure.getPolyChains();
+		List<ChainPairTrial> trials = new ArrayList<>();
+		List<OperatorLog> operatorLogs = new ArrayList<>();
 
 		for (int a=-numCells;a<=numCells;a++) {
 			for (int b=-numCells;b<=numCells;b++) {
@@ -332,12 +391,26 @@ public class CrystalBuilder {
 							selfEquivalent = true;
 						}
 
-						StringBuilder builder = null;
-						if (verbose) builder = new StringBuilder(String.valueOf(tt)).append(" ");
+						OperatorLog log = null;
+						if (verbose) {
+							int maxPairs;
+							if (a==0 && b==0 && c==0 && n==0)
+								maxPairs = (numPolyChainsAu*(numPolyChainsAu-1))/2;
+							else if (selfEquivalent)
+								maxPairs = (numPolyChainsAu*(numPolyChainsAu+1))/2;
+							else
+								maxPairs = numPolyChainsAu*numPolyChainsAu;
+							log = new OperatorLog(tt, maxPairs);
+							operatorLogs.add(log);
+						}
 
-						// Now that we know that boxes overlap and operator is not redundant, we have to go to the details
-						int contactsFound = 0;
+						Matrix4d mJCryst = null;
+						if (n!=0 || a!=0 || b!=0 || c!=0) {
+							mJCryst = new Matrix4d(ops[n]);
+							translate(mJCryst, transOrth);
+						}
 
+						// Now that we know that boxes overlap and operator is not redundant, we have to go to the details
 						for (int j=0;j<numPolyChainsAu;j++) {
 
 							for (int i=0;i<numPolyChainsAu;i++) { // we only have to compare the original asymmetric unit to every full cell around
@@ -354,7 +427,7 @@ public class CrystalBuilder {
 								if (!bbGrid.getChainBoundingBox(0,i).overlaps(bbGridTrans.getChainBoundingBox(n,j),cutoff)) {
 									skippedChainsNoOverlap++;
 									if (verbose) {
-										builder.append(".");
+										log.builder.append(".");
 									}
 									continue;
 								}
@@ -362,47 +435,47 @@ public class CrystalBuilder {
 								trialCount++;
 
 								// finally we've gone through all short-cuts and the 2 chains seem to be close enough:
-								// we do the calculation of contacts
-								Chain chaini = polyChains.get(i);
-								Chain chainj = polyChains.get(j);
-
-								if (n!=0 || a!=0 || b!=0 || c!=0) {
-									Matrix4d mJCryst = new Matrix4d(ops[n]);
-									translate(mJCryst, transOrth);
-									chainj = (Chain)chainj.clone();
-									Calc.transform(chainj,mJCryst);
-								}
-
-								StructureInterface interf = calcContacts(chaini, chainj, cutoff, tt, builder);
-								if (interf == null) {
-									continue;
-								}
-
-								contactsFound++;
-								if(this.hasNcsOps()) {
-									StructureInterface interfNcsRef = findNcsRef(interf);
-									set.addNcsEquivalent(interf,interfNcsRef);
-								} else {
-									set.add(interf);
+								// the calculation of contacts is done below for all such pairs together
+								trials.add(new ChainPairTrial(i, j, mJCryst, tt, log));
+								if (verbose) {
+									log.builder.append(" ");
 								}
 							}
 						}
-
-						if( verbose ) {
-							if (a==0 && b==0 && c==0 && n==0)
-								builder.append(" "+contactsFound+"("+(numPolyChainsAu*(numPolyChainsAu-1))/2+")");
-							else if (selfEquivalent)
-								builder.append(" "+contactsFound+"("+(numPolyChainsAu*(numPolyChainsAu+1))/2+")");
-							else
-								builder.append(" "+contactsFound+"("+numPolyChainsAu*numPolyChainsAu+")");
-
-							logger.debug(builder.toString());
-						}
 					}
 				}
 			}
 		}
 
+		List<StructureInterface> interfaces = calcContacts(polyChains, trials, cutoff);
+
+		// the interfaces are added in the order of the trials, as in a sequential calculation,
+		// which is needed for the NCS reference interfaces and the order of the output list
+		for (int k=0;k<trials.size();k++) {
+			ChainPairTrial trial = trials.get(k);
+			StructureInterface interf = interfaces.get(k);
+			if (verbose) {
+				trial.log.builder.setCharAt(trial.logPos, interf == null ? 'o' : 'x');
+			}
+			if (interf == null) {
+				continue;
+			}
+
+			if (verbose) {
+				trial.log.contactsFound++;
+			}
+			if(this.hasNcsOps()) {
+				StructureInterface interfNcsRef = findNcsRef(interf);
+				set.addNcsEquivalent(interf,interfNcsRef);
+			} else {
+				set.add(interf);
+			}
+		}
+
+		for (OperatorLog log : operatorLogs) {
+			logger.debug(log.builder.append(" "+log.contactsFound+"("+log.maxPairs+")").toString());
+		}
+
 		end = System.currentTimeMillis();
 		logger.debug("\n"+trialCount+" chain-chain clash trials done. Time "+(end-start)/1000+"s");
 		logger.debug("  skipped (not overlapping AUs)       : "+skippedAUsNoOverlap);
@@ -496,13 +569,32 @@ public class CrystalBuilder {
 		return matchInterface;
 	}
 
-	private StructureInterface calcContacts(Chain chaini, Chain chainj, double cutoff, CrystalTransform tt, StringBuilder builder) {
+	/**
+	 * Calculates the interfaces of all chain pairs trials, on the executor if there is one.
+	 * @return the interfaces in the order of the trials, null for those pairs not in contact
+	 */
+	private List<StructureInterface> calcContacts(List<Chain> polyChains, List<ChainPairTrial> trials, double cutoff) {
+		List<Callable<StructureInterface>> tasks = new ArrayList<>(trials.size());
+		for (ChainPairTrial trial : trials) {
+			tasks.add(() -> {
+				Chain chaini = polyChains.get(trial.i);
+				Chain chainj = polyChains.get(trial.j);
+				if (trial.mJCryst != null) {
+					chainj = (Chain)chainj.clone();
+					Calc.transform(chainj,trial.mJCryst);
+				}
+				return calcContacts(chaini, chainj, cutoff, trial.tt);
+			});
+		}
+
+		return ConcurrencyTools.invokeAll(tasks, executor);
+	}
+
+	private StructureInterface calcContacts(Chain chaini, Chain chainj, double cutoff, CrystalTransform tt) {
 		// note that we don't consider hydrogens when calculating contacts
 		AtomContactSet graph = StructureTools.getAtomsInContact(chaini, chainj, cutoff, INCLUDE_HETATOMS);
 
 		if (graph.size()>0) {
-			if (builder != null) builder.append("x");
-
 			CrystalTransform transf = new CrystalTransform(this.crystallographicInfo.getSpaceGroup());
 			StructureInterface interf = new StructureInterface(
 					StructureTools.getAllAtomArray(chaini), StructureTools.getAllAtomArray(chainj),
@@ -513,7 +605,6 @@ public class CrystalBuilder {
 			return interf;
 
 		} else {
-			if (builder != null) builder.append("o");
 			return null;
 		}
 	}
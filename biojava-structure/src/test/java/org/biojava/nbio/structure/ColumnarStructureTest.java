@@ -0,0 +1,204 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import javax.vecmath.Matrix4d;
+import javax.vecmath.Vector3d;
+
+import org.biojava.nbio.structure.chem.ChemCompGroupFactory;
+import org.biojava.nbio.structure.chem.ChemCompProvider;
+import org.biojava.nbio.structure.chem.ReducedChemCompProvider;
+import org.biojava.nbio.structure.io.FileParsingParameters;
+import org.biojava.nbio.structure.io.cif.CifStructureConverter;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ColumnarStructureTest {
+
+	private static Structure structure;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		try (InputStream in = new GZIPInputStream(ColumnarStructureTest.class.getResourceAsStream("/4hhb.cif.gz"))) {
+			structure = CifStructureConverter.fromInputStream(in);
+		}
+	}
+
+	@Test
+	public void testSameContent() {
+		ColumnarStructure columnar = new ColumnarStructure(structure);
+
+		Atom[] expected = StructureTools.getAllAtomArray(structure);
+		Atom[] actual = StructureTools.getAllAtomArray(columnar);
+		assertEquals(expected.length, actual.length);
+		assertEquals(expected.length, columnar.getAtomCount());
+		assertEquals(structure.getPolyChains().size(), columnar.getPolyChains().size());
+		assertEquals(structure.getEntityInfos().size(), columnar.getEntityInfos().size());
+		assertEquals(structure.getPdbId(), columnar.getPdbId());
+
+		double[] coords = columnar.getCoordinateArray();
+		for (int i = 0; i < expected.length; i++) {
+			Atom a = expected[i];
+			Atom b = actual[i];
+			assertEquals(a.getName(), b.getName());
+			assertEquals(a.getElement(), b.getElement());
+			assertEquals(a.getPDBserial(), b.getPDBserial());
+			assertEquals(a.getOccupancy(), b.getOccupancy(), 0);
+			assertEquals(a.getTempFactor(), b.getTempFactor(), 0);
+			assertEquals(a.getAltLoc(), b.getAltLoc());
+			assertEquals(a.getCharge(), b.getCharge());
+			assertEquals(a.getX(), b.getX(), 0);
+			assertEquals(a.getZ(), coords[3 * i + 2], 0);
+			assertEquals(a.getGroup().getResidueNumber(), b.getGroup().getResidueNumber());
+			assertEquals(b, b.getGroup().getAtom(b.getName()));
+			assertEquals(a.getBonds() == null ? 0 : a.getBonds().size(), b.getBonds() == null ? 0 : b.getBonds().size());
+		}
+
+		// names are shared between atoms
+		Group first = columnar.getPolyChains().get(0).getAtomGroup(0);
+		Group second = columnar.getPolyChains().get(0).getAtomGroup(1);
+		assertSame(first.getAtom("CA").getName(), second.getAtom("CA").getName());
+
+		// source is untouched
+		assertTrue(expected[0] instanceof AtomImpl);
+	}
+
+	@Test
+	public void testIndices() {
+		ColumnarStructure columnar = new ColumnarStructure(structure);
+		Atom[] atoms = StructureTools.getAllAtomArray(columnar);
+		Atom last = atoms[atoms.length - 1];
+		int atomIndex = columnar.getAtomCount() - 1;
+
+		assertEquals(last, columnar.getAtom(atomIndex));
+		int groupIndex = columnar.getGroupIndex(atomIndex);
+		assertSame(last.getGroup(), columnar.getIndexedGroup(groupIndex));
+		int chainIndex = columnar.getChainIndex(groupIndex);
+		assertSame(last.getGroup().getChain(), columnar.getIndexedChain(chainIndex));
+		assertEquals(0, columnar.getModelIndex(chainIndex));
+		assertEquals(structure.getChains().size(), columnar.getChainCount());
+	}
+
+	@Test
+	public void testAltLocs() {
+		Structure altLocStructure = structure.clone();
+		Group group = altLocStructure.getPolyChains().get(0).getAtomGroup(0);
+		Group altLoc = (Group) group.clone();
+		group.addAltLoc(altLoc);
+
+		ColumnarStructure columnar = new ColumnarStructure(altLocStructure);
+		assertEquals(StructureTools.getNrAtoms(structure) + altLoc.size(), columnar.getAtomCount());
+		int groupCount = StructureTools.getNrGroups(structure) + 1;
+		assertEquals(groupCount, columnar.getGroupCount());
+
+		// sharing atoms between a group and its alternate location moves them, without registering groups twice
+		Group columnarGroup = columnar.getPolyChains().get(0).getAtomGroup(0);
+		Group columnarAltLoc = columnarGroup.getAltLocs().get(0);
+		List<Atom> shared = new ArrayList<>(columnarGroup.getAtoms());
+		columnarAltLoc.setAtoms(shared);
+		columnarGroup.setAtoms(shared);
+		columnarAltLoc.setAtoms(shared);
+		assertEquals(groupCount, columnar.getGroupCount());
+		assertSame(columnarAltLoc, columnarGroup.getAtom(0).getGroup());
+		assertEquals(columnarGroup.getAtom(1), columnarAltLoc.getAtom(1));
+
+		// changing the atoms of a group keeps the columnar ones
+		Group other = columnar.getPolyChains().get(0).getAtomGroup(1);
+		Atom added = new AtomImpl();
+		added.setName("X");
+		other.addAtom(added);
+		assertSame(added, other.getAtom("X"));
+		assertEquals(other.getAtoms().get(0), other.getAtom(0));
+	}
+
+	@Test
+	public void testBonds() throws IOException {
+		ChemCompProvider provider = ChemCompGroupFactory.getChemCompProvider();
+		Structure bonded;
+		try (InputStream in = new GZIPInputStream(ColumnarStructureTest.class.getResourceAsStream("/4hhb.cif.gz"))) {
+			ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
+			FileParsingParameters params = new FileParsingParameters();
+			params.setCreateAtomBonds(true);
+			bonded = CifStructureConverter.fromInputStream(in, params);
+		} finally {
+			ChemCompGroupFactory.setChemCompProvider(provider);
+		}
+
+		ColumnarStructure columnar = new ColumnarStructure(bonded);
+		int nBonds = 0;
+		for (Atom atom : StructureTools.getAllAtomArray(columnar)) {
+			if (atom.getBonds() == null)
+				continue;
+			for (Bond bond : atom.getBonds()) {
+				Atom other = bond.getOther(atom);
+				assertFalse(atom.equals(other));
+				assertEquals(atom, bond.getOther(other));
+				assertTrue(other.hasBond(atom));
+				nBonds++;
+			}
+		}
+		assertTrue(nBonds > 0);
+
+		// bonds added later between atoms of the structure work the same way
+		Group group = columnar.getPolyChains().get(0).getAtomGroup(0);
+		Group next = columnar.getPolyChains().get(0).getAtomGroup(1);
+		Bond added = new BondImpl(group.getAtom("C"), next.getAtom("CA"), 1);
+		Bond stored = group.getAtom("C").getBonds().get(group.getAtom("C").getBonds().size() - 1);
+		assertEquals(next.getAtom("CA"), stored.getOther(group.getAtom("C")));
+		assertEquals(added.getBondOrder(), stored.getBondOrder());
+	}
+
+	@Test
+	public void testModifyAndClone() {
+		ColumnarStructure columnar = new ColumnarStructure(structure);
+		Atom atom = columnar.getAtom(0);
+		double x = atom.getX();
+
+		Matrix4d translation = new Matrix4d();
+		translation.setIdentity();
+		translation.setTranslation(new Vector3d(1, 2, 3));
+		Calc.transform(columnar, translation);
+		assertEquals(x + 1, atom.getX(), 1e-9);
+		assertEquals(x + 1, columnar.getCoordinateArray()[0], 1e-9);
+
+		ColumnarStructure copy = columnar.clone();
+		assertNotSame(columnar.getCoordinateArray(), copy.getCoordinateArray());
+		assertEquals(x + 1, copy.getAtom(0).getX(), 1e-9);
+		copy.getAtom(0).setX(0);
+		assertEquals(x + 1, atom.getX(), 1e-9);
+
+		Atom detached = (Atom) atom.clone();
+		assertTrue(detached instanceof AtomImpl);
+		assertEquals(atom.getName(), detached.getName());
+	}
+}
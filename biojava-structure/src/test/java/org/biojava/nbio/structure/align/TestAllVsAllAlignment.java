@@ -0,0 +1,230 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.align.ce.CeMain;
+import org.biojava.nbio.structure.align.model.AFPChain;
+import org.biojava.nbio.structure.chem.ChemCompGroupFactory;
+import org.biojava.nbio.structure.chem.ChemCompProvider;
+import org.biojava.nbio.structure.chem.ReducedChemCompProvider;
+import org.biojava.nbio.structure.io.PDBFileReader;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestAllVsAllAlignment {
+
+	private static ChemCompProvider provider;
+	private static List<String> names;
+	private static List<Atom[]> atoms;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		provider = ChemCompGroupFactory.getChemCompProvider();
+		ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
+
+		names = new ArrayList<>();
+		atoms = new ArrayList<>();
+		String[][] chains = {{"2gox", "A"}, {"2gox", "B"}, {"2gox", "D"}, {"3cfy", "A"}};
+		PDBFileReader reader = new PDBFileReader();
+		for (String[] chain : chains) {
+			Structure s = reader.getStructure(TestAllVsAllAlignment.class.getResourceAsStream("/" + chain[0] + ".pdb"));
+			names.add(chain[0] + "." + chain[1]);
+			atoms.add(StructureTools.getRepresentativeAtomArray(s.getPolyChainByPDB(chain[1])));
+		}
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		ChemCompGroupFactory.setChemCompProvider(provider);
+	}
+
+	/**
+	 * Align all pairs, then resume after removing pairs from the checkpoint.
+	 */
+	@Test
+	public void testAlignAndResume() throws IOException, StructureException {
+		Path checkpoint = folder.getRoot().toPath().resolve("done.txt");
+		Path results = folder.getRoot().toPath().resolve("results.tsv");
+
+		AllVsAllAlignment allVsAll = new AllVsAllAlignment(CeMain.algorithmName);
+		allVsAll.setPool(new ForkJoinPool(3));
+		allVsAll.setCheckpoint(checkpoint);
+		try (AlignmentResultSink sink = new TsvAlignmentResultSink(results)) {
+			assertEquals(6, allVsAll.align(names, atoms, sink));
+		}
+		List<String> lines = Files.readAllLines(results, StandardCharsets.UTF_8);
+		assertEquals(TsvAlignmentResultSink.HEADER, lines.get(0));
+		assertEquals(7, lines.size());
+
+		// the same results as single alignments
+		Map<String, String[]> rows = new HashMap<>();
+		for (String line : lines.subList(1, lines.size())) {
+			String[] row = line.split("\t");
+			rows.put(row[0] + " " + row[1], row);
+		}
+		for (int i = 0; i < names.size(); i++) {
+			for (int j = i + 1; j < names.size(); j++) {
+				AFPChain afpChain = new CeMain().align(StructureTools.cloneAtomArray(atoms.get(i)),
+						StructureTools.cloneAtomArray(atoms.get(j)));
+				String[] row = rows.get(names.get(i) + " " + names.get(j));
+				assertEquals(CeMain.algorithmName, row[2]);
+				assertEquals(atoms.get(i).length, Integer.parseInt(row[3]));
+				assertEquals(atoms.get(j).length, Integer.parseInt(row[4]));
+				assertEquals(afpChain.getOptLength(), Integer.parseInt(row[5]));
+				assertEquals(afpChain.getTotalRmsdOpt(), Double.parseDouble(row[6]), 0.01);
+				assertTrue(Double.parseDouble(row[7]) > 0);
+			}
+		}
+
+		// resume with two pairs done
+		List<String> done = Files.readAllLines(checkpoint, StandardCharsets.UTF_8);
+		assertEquals(6, done.size());
+		Files.write(checkpoint, done.subList(0, 2), StandardCharsets.UTF_8);
+		try (AlignmentResultSink sink = new TsvAlignmentResultSink(results)) {
+			assertEquals(4, allVsAll.align(names, atoms, sink));
+		}
+		assertEquals(11, Files.readAllLines(results, StandardCharsets.UTF_8).size());
+		assertEquals(6, Files.readAllLines(checkpoint, StandardCharsets.UTF_8).size());
+
+		// nothing left to do
+		try (AlignmentResultSink sink = new TsvAlignmentResultSink(results)) {
+			assertEquals(0, allVsAll.align(names, atoms, sink));
+		}
+	}
+
+	@Test
+	public void testBinarySink() throws IOException, StructureException {
+		AllVsAllAlignment allVsAll = new AllVsAllAlignment(CeMain.algorithmName);
+		allVsAll.setPool(new ForkJoinPool(2));
+		List<AFPChain> written = new ArrayList<>();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (AlignmentResultSink sink = new BinaryAlignmentResultSink(out) {
+			@Override
+			public void write(AFPChain afpChain) throws IOException {
+				written.add(afpChain);
+				super.write(afpChain);
+			}
+		}) {
+			assertEquals(6, allVsAll.align(names, atoms, sink));
+		}
+
+		List<AFPChain> read = new ArrayList<>();
+		BinaryAlignmentResultSink.read(new ByteArrayInputStream(out.toByteArray()), read::add);
+		assertEquals(written.size(), read.size());
+		for (int i = 0; i < read.size(); i++) {
+			AFPChain expected = written.get(i);
+			AFPChain actual = read.get(i);
+			assertEquals(expected.getName1(), actual.getName1());
+			assertEquals(expected.getName2(), actual.getName2());
+			assertEquals(expected.getAlgorithmName(), actual.getAlgorithmName());
+			assertEquals(expected.getCa1Length(), actual.getCa1Length());
+			assertEquals(expected.getCa2Length(), actual.getCa2Length());
+			assertEquals(expected.getOptLength(), actual.getOptLength());
+			assertEquals(expected.getTotalRmsdOpt(), actual.getTotalRmsdOpt(), 1e-5);
+			assertEquals(expected.getTMScore(), actual.getTMScore(), 1e-5);
+			assertEquals(expected.getProbability(), actual.getProbability(), 1e-5);
+			assertEquals(expected.getCalculationTime(), actual.getCalculationTime());
+		}
+	}
+
+	/**
+	 * Resume writing to a file that ends in a partly written record.
+	 */
+	@Test
+	public void testBinarySinkResumeAfterPartialRecord() throws IOException, StructureException {
+		AllVsAllAlignment allVsAll = new AllVsAllAlignment(CeMain.algorithmName);
+		List<AFPChain> written = new ArrayList<>();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (AlignmentResultSink sink = new BinaryAlignmentResultSink(out)) {
+			assertEquals(1, allVsAll.align(names.subList(0, 2), atoms.subList(0, 2), sink));
+		}
+		BinaryAlignmentResultSink.read(new ByteArrayInputStream(out.toByteArray()), written::add);
+		byte[] bytes = out.toByteArray();
+
+		Path results = folder.getRoot().toPath().resolve("results.bin");
+		// the whole first record, and the second one cut off within its names and within its scores
+		for (int cut : new int[] {10, bytes.length - 20}) {
+			Files.write(results, bytes);
+			Files.write(results, Arrays.copyOfRange(bytes, 4, cut), StandardOpenOption.APPEND);
+			try (AlignmentResultSink sink = new BinaryAlignmentResultSink(results)) {
+				sink.write(written.get(0));
+			}
+			List<AFPChain> read = new ArrayList<>();
+			try (InputStream in = Files.newInputStream(results)) {
+				BinaryAlignmentResultSink.read(in, read::add);
+			}
+			assertEquals(2, read.size());
+			for (AFPChain afpChain : read) {
+				assertEquals(written.get(0).getName1(), afpChain.getName1());
+				assertEquals(written.get(0).getName2(), afpChain.getName2());
+				assertEquals(written.get(0).getCalculationTime(), afpChain.getCalculationTime());
+			}
+			assertEquals(2 * bytes.length - 4, Files.size(results));
+		}
+
+		// a header cut off
+		Files.write(results, Arrays.copyOf(bytes, 2));
+		try (AlignmentResultSink sink = new BinaryAlignmentResultSink(results)) {
+			sink.write(written.get(0));
+		}
+		assertEquals(bytes.length, Files.size(results));
+	}
+
+	@Test
+	public void testNoPairs() throws IOException, StructureException {
+		AllVsAllAlignment allVsAll = new AllVsAllAlignment(CeMain.algorithmName);
+		allVsAll.setPool(new ForkJoinPool(2));
+		Path results = folder.getRoot().toPath().resolve("empty.tsv");
+		try (AlignmentResultSink sink = new TsvAlignmentResultSink(results)) {
+			assertEquals(0, allVsAll.align(new ArrayList<>(), new ArrayList<>(), sink));
+			assertEquals(0, allVsAll.align(names.subList(0, 1), atoms.subList(0, 1), sink));
+		}
+		assertEquals(1, Files.readAllLines(results, StandardCharsets.UTF_8).size());
+	}
+}
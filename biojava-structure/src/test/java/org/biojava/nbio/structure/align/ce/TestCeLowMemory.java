@@ -0,0 +1,101 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.ce;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.align.model.AFPChain;
+import org.biojava.nbio.structure.chem.ChemCompGroupFactory;
+import org.biojava.nbio.structure.chem.ChemCompProvider;
+import org.biojava.nbio.structure.chem.ReducedChemCompProvider;
+import org.biojava.nbio.structure.io.PDBFileReader;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestCeLowMemory {
+
+	private static ChemCompProvider provider;
+	private static Atom[] ca1;
+	private static Atom[] ca2;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		provider = ChemCompGroupFactory.getChemCompProvider();
+		ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
+
+		PDBFileReader reader = new PDBFileReader();
+		Structure s1 = reader.getStructure(TestCeLowMemory.class.getResourceAsStream("/2gox.pdb"));
+		Structure s2 = reader.getStructure(TestCeLowMemory.class.getResourceAsStream("/3cfy.pdb"));
+		ca1 = StructureTools.getRepresentativeAtomArray(s1.getPolyChainByPDB("A"));
+		ca2 = StructureTools.getRepresentativeAtomArray(s2.getPolyChainByPDB("A"));
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		ChemCompGroupFactory.setChemCompProvider(provider);
+	}
+
+	/**
+	 * The tiled float distances give (nearly) the same alignment as the
+	 * default mode.
+	 */
+	@Test
+	public void testLowMemory() throws StructureException {
+		CeMain ce = new CeMain();
+		AFPChain expected = ce.align(StructureTools.cloneAtomArray(ca1), StructureTools.cloneAtomArray(ca2));
+
+		CeParameters params = new CeParameters();
+		params.setLowMemory(true);
+		AFPChain actual = ce.align(StructureTools.cloneAtomArray(ca1), StructureTools.cloneAtomArray(ca2), params);
+
+		assertEquals(expected.getOptLength(), actual.getOptLength(), 2);
+		assertEquals(expected.getTotalRmsdOpt(), actual.getTotalRmsdOpt(), 0.1);
+		assertEquals(expected.getProbability(), actual.getProbability(), 0.1);
+		assertNull(actual.getDistanceMatrix());
+	}
+
+	/**
+	 * The same Z-score and an unoptimized alignment below the minimum
+	 * Z-score.
+	 */
+	@Test
+	public void testMinZScore() throws StructureException {
+		CeMain ce = new CeMain();
+		AFPChain expected = ce.align(StructureTools.cloneAtomArray(ca1), StructureTools.cloneAtomArray(ca2));
+
+		CeParameters params = new CeParameters();
+		params.setMinZScore(expected.getProbability() + 1);
+		AFPChain pruned = ce.align(StructureTools.cloneAtomArray(ca1), StructureTools.cloneAtomArray(ca2), params);
+
+		assertEquals(expected.getProbability(), pruned.getProbability(), 1e-6);
+		assertTrue(pruned.getOptLength() > 0);
+		assertTrue(pruned.getCalculationTime() >= 0);
+	}
+}
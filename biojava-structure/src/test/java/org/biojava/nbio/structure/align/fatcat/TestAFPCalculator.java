@@ -0,0 +1,124 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.fatcat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Calc;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.align.fatcat.calc.AFPCalculator;
+import org.biojava.nbio.structure.align.fatcat.calc.FatCatParameters;
+import org.biojava.nbio.structure.align.model.AFP;
+import org.biojava.nbio.structure.align.model.AFPChain;
+import org.biojava.nbio.structure.chem.ChemCompGroupFactory;
+import org.biojava.nbio.structure.chem.ChemCompProvider;
+import org.biojava.nbio.structure.chem.ReducedChemCompProvider;
+import org.biojava.nbio.structure.geometry.SuperPositions;
+import org.biojava.nbio.structure.io.PDBFileReader;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestAFPCalculator {
+
+	private static ChemCompProvider provider;
+	private static Atom[] ca1;
+	private static Atom[] ca2;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		provider = ChemCompGroupFactory.getChemCompProvider();
+		ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
+
+		PDBFileReader reader = new PDBFileReader();
+		Structure s1 = reader.getStructure(TestAFPCalculator.class.getResourceAsStream("/2gox.pdb"));
+		Structure s2 = reader.getStructure(TestAFPCalculator.class.getResourceAsStream("/3cfy.pdb"));
+		ca1 = StructureTools.getRepresentativeAtomArray(s1.getPolyChainByPDB("A"));
+		ca2 = StructureTools.getRepresentativeAtomArray(s2.getPolyChainByPDB("A"));
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		ChemCompGroupFactory.setChemCompProvider(provider);
+	}
+
+	/**
+	 * The same AFPs in the same order on one and on many threads.
+	 */
+	@Test
+	public void testParallelExtraction() throws StructureException {
+		FatCatParameters params = new FatCatParameters();
+
+		AFPChain expected = new AFPChain(FatCat.algorithmName);
+		AFPCalculator.extractAFPChains(params, expected, ca1, ca2, null);
+		AFPChain actual = new AFPChain(FatCat.algorithmName);
+		AFPCalculator.extractAFPChains(params, actual, ca1, ca2, new ForkJoinPool(3));
+
+		List<AFP> expectedAfps = expected.getAfpSet();
+		List<AFP> actualAfps = actual.getAfpSet();
+		assertTrue(expectedAfps.size() > 0);
+		assertEquals(expectedAfps.size(), actualAfps.size());
+		for (int i = 0; i < expectedAfps.size(); i++) {
+			AFP e = expectedAfps.get(i);
+			AFP a = actualAfps.get(i);
+			assertEquals(e.getP1(), a.getP1());
+			assertEquals(e.getP2(), a.getP2());
+			assertEquals(e.getRmsd(), a.getRmsd(), 0);
+			assertEquals(e.getScore(), a.getScore(), 0);
+		}
+
+		// the RMSDs of the fragment superpositions
+		for (AFP afp : expectedAfps.subList(0, Math.min(50, expectedAfps.size()))) {
+			Atom[] frag1 = new Atom[afp.getFragLen()];
+			Atom[] frag2 = new Atom[afp.getFragLen()];
+			System.arraycopy(ca1, afp.getP1(), frag1, 0, afp.getFragLen());
+			System.arraycopy(ca2, afp.getP2(), frag2, 0, afp.getFragLen());
+			double rmsd = SuperPositions.getRmsd(Calc.atomsToPoints(frag1), Calc.atomsToPoints(frag2));
+			assertEquals(rmsd, afp.getRmsd(), 1e-6);
+		}
+	}
+
+	/**
+	 * The same flexible alignment on one and on many threads.
+	 */
+	@Test
+	public void testParallelAlignment() throws StructureException {
+		// by default in the calling thread
+		FatCatFlexible fatCat = new FatCatFlexible();
+		AFPChain expected = fatCat.align(StructureTools.cloneAtomArray(ca1), StructureTools.cloneAtomArray(ca2));
+
+		fatCat.setExecutorService(new ForkJoinPool(3));
+		AFPChain actual = fatCat.align(StructureTools.cloneAtomArray(ca1), StructureTools.cloneAtomArray(ca2));
+
+		assertEquals(expected.getOptLength(), actual.getOptLength());
+		assertEquals(expected.getBlockNum(), actual.getBlockNum());
+		assertEquals(expected.getTotalRmsdOpt(), actual.getTotalRmsdOpt(), 0);
+		assertEquals(expected.getAlignScore(), actual.getAlignScore(), 0);
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureIdentifier;
+import org.biojava.nbio.structure.align.client.StructureName;
+import org.biojava.nbio.structure.align.util.BatchStructureLoader.Stage;
+import org.biojava.nbio.structure.io.CifFileReader;
+import org.biojava.nbio.structure.io.LocalPDBDirectory.FetchBehavior;
+import org.biojava.nbio.structure.io.StructureFiletype;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchStructureLoaderTest {
+
+	private Path pdbDir;
+	private AtomCache cache;
+
+	@Before
+	public void setUp() throws IOException {
+		pdbDir = Files.createTempDirectory("batchloader");
+		Path divided = pdbDir.resolve(String.join("/", CifFileReader.CIF_SPLIT_DIR)).resolve("hh");
+		Files.createDirectories(divided);
+		try (InputStream in = getClass().getResourceAsStream("/4hhb.cif.gz")) {
+			Files.copy(in, divided.resolve("4hhb.cif.gz"));
+		}
+
+		cache = new AtomCache(pdbDir.toString());
+		cache.setFiletype(StructureFiletype.CIF);
+		cache.setFetchBehavior(FetchBehavior.LOCAL_ONLY);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.walk(pdbDir)) {
+			for (Path p : files.sorted((a, b) -> b.compareTo(a)).collect(Collectors.toList())) {
+				Files.delete(p);
+			}
+		}
+	}
+
+	@Test
+	public void testLoadInOrderAndSkipFailures() {
+		List<StructureIdentifier> ids = Arrays.asList(
+				new StructureName("4HHB.A"),
+				new StructureName("1ZZZ"), // not available locally
+				new StructureName("4HHB"),
+				new StructureName("4HHB.B"));
+
+		try (BatchStructureLoader loader = new BatchStructureLoader(cache, 1, 2, 1, 2)) {
+			List<Structure> structures = loader.stream(ids).collect(Collectors.toList());
+
+			assertEquals(3, structures.size());
+			assertEquals(ids.get(0), structures.get(0).getStructureIdentifier());
+			assertEquals(ids.get(2), structures.get(1).getStructureIdentifier());
+			assertEquals(ids.get(3), structures.get(2).getStructureIdentifier());
+			assertEquals(1, structures.get(0).getPolyChains().size());
+			assertEquals(4, structures.get(1).getPolyChains().size());
+
+			assertEquals(1, loader.getFailed());
+			assertEquals(3, loader.getCompleted(Stage.FETCH));
+			assertEquals(3, loader.getCompleted(Stage.PARSE));
+			assertEquals(3, loader.getCompleted(Stage.REDUCE));
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.biojava.nbio.structure.PdbId;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureImpl;
+import org.biojava.nbio.structure.io.CifFileReader;
+import org.biojava.nbio.structure.io.FileParsingParameters;
+import org.biojava.nbio.structure.io.LocalPDBDirectory.FetchBehavior;
+import org.biojava.nbio.structure.io.StructureFiletype;
+import org.junit.Test;
+
+public class StructureCacheTest {
+
+	@Test
+	public void testAtomCacheReturnsCopies() throws Exception {
+		Path pdbDir = Files.createTempDirectory("structurecache");
+		try {
+			Path divided = pdbDir.resolve(String.join("/", CifFileReader.CIF_SPLIT_DIR)).resolve("hh");
+			Files.createDirectories(divided);
+			try (InputStream in = getClass().getResourceAsStream("/4hhb.cif.gz")) {
+				Files.copy(in, divided.resolve("4hhb.cif.gz"));
+			}
+
+			AtomCache cache = new AtomCache(pdbDir.toString());
+			cache.setFiletype(StructureFiletype.CIF);
+			cache.setFetchBehavior(FetchBehavior.LOCAL_ONLY);
+			assertNull(cache.getStructureCache());
+			cache.setStructureCacheSize(100_000_000L);
+
+			Structure s1 = cache.getStructure("4HHB.A");
+			Structure s2 = cache.getStructure("4HHB.B");
+			Structure full1 = cache.getStructureForPdbId("4HHB");
+			Structure full2 = cache.getStructureForPdbId("4HHB");
+
+			StructureCache structureCache = cache.getStructureCache();
+			assertEquals(1, structureCache.getMissCount());
+			assertEquals(3, structureCache.getHitCount());
+			assertEquals(1, structureCache.size());
+
+			assertEquals(1, s1.getPolyChains().size());
+			assertEquals(1, s2.getPolyChains().size());
+			assertNotSame(full1, full2);
+			assertNotSame(full1.getPolyChains().get(0), full2.getPolyChains().get(0));
+
+			// changing parsing parameters must not return structures parsed with the old ones
+			FileParsingParameters params = new FileParsingParameters();
+			params.setAlignSeqRes(false);
+			cache.setFileParsingParams(params);
+			cache.getStructureForPdbId("4HHB");
+			assertEquals(2, structureCache.getMissCount());
+			assertEquals(2, structureCache.size());
+		} finally {
+			try (Stream<Path> files = Files.walk(pdbDir)) {
+				for (Path p : files.sorted((a, b) -> b.compareTo(a)).collect(Collectors.toList())) {
+					Files.delete(p);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testEviction() throws IOException {
+		long size = StructureCache.estimateBytes(new StructureImpl());
+		StructureCache cache = new StructureCache(2 * size);
+		FileParsingParameters params = new FileParsingParameters();
+
+		for (String id : new String[] { "1ABC", "2ABC", "1ABC", "3ABC" }) {
+			cache.get(new PdbId(id), StructureFiletype.CIF, params, StructureImpl::new);
+		}
+		assertEquals(3, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+		// 2ABC was least recently used
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(2, cache.size());
+		assertEquals(2 * size, cache.getEstimatedBytes());
+
+		cache.get(new PdbId("1ABC"), StructureFiletype.CIF, params, StructureImpl::new);
+		assertEquals(2, cache.getHitCount());
+		cache.get(new PdbId("2ABC"), StructureFiletype.CIF, params, StructureImpl::new);
+		assertEquals(4, cache.getMissCount());
+	}
+
+	@Test
+	public void testSingleFlight() throws Exception {
+		StructureCache cache = new StructureCache(1_000_000L);
+		FileParsingParameters params = new FileParsingParameters();
+		AtomicInteger loads = new AtomicInteger();
+		StructureCache.StructureLoader slowLoader = () -> {
+			loads.incrementAndGet();
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new StructureImpl();
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Structure>> futures = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				futures.add(executor.submit(() -> cache.get(new PdbId("1ABC"), StructureFiletype.CIF, params, slowLoader)));
+			}
+			for (Future<Structure> f : futures) {
+				f.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(3, cache.getHitCount());
+	}
+
+	@Test
+	public void testFailedLoadIsNotCached() {
+		StructureCache cache = new StructureCache(1_000_000L);
+		try {
+			cache.get(new PdbId("1ABC"), StructureFiletype.CIF, null, () -> {
+				throw new IOException("not found");
+			});
+			fail("Expected IOException");
+		} catch (IOException e) {
+			assertEquals("not found", e.getMessage());
+		}
+		assertEquals(0, cache.size());
+	}
+}
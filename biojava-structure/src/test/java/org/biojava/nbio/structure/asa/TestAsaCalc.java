@@ -32,12 +32,17 @@ import static org.junit.Assert.*;
 
 import org.biojava.nbio.structure.chem.ChemCompGroupFactory;
 import org.biojava.nbio.structure.chem.DownloadChemCompProvider;
+import org.biojava.nbio.structure.io.cif.CifStructureConverter;
 import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Testing of Accessible Surface Area calculations
@@ -286,4 +291,40 @@ public class TestAsaCalc {
 		assertEquals(0, asas.length);
 
 	}
+
+	@Test
+	public void testIsolatedAtom() {
+		Atom[] atoms = {getAtom(0, 0, 0), getAtom(20, 0, 0)};
+		double[] asas = new AsaCalculator(atoms, AsaCalculator.DEFAULT_PROBE_SIZE, 1000, 1).calculateAsas();
+		double radius = AsaCalculator.TETRAHEDRAL_CARBON_VDW + AsaCalculator.DEFAULT_PROBE_SIZE;
+		assertEquals(4 * Math.PI * radius * radius, asas[0], 0.000001);
+		assertEquals(asas[0], asas[1], 0);
+	}
+
+	@Test
+	public void testChunkedSameAsSingleThread() throws IOException {
+		Atom[] atoms;
+		try (InputStream in = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.cif.gz"))) {
+			atoms = StructureTools.getAllNonHAtomArray(CifStructureConverter.fromInputStream(in), false);
+		}
+
+		AsaCalculator asaCalc = new AsaCalculator(atoms, AsaCalculator.DEFAULT_PROBE_SIZE, 100, 1);
+		double[] expected = asaCalc.calculateAsas();
+
+		asaCalc.setUseSpatialHashingForNeighbors(false);
+		assertArrayEquals(expected, asaCalc.calculateAsas(), 0);
+
+		assertArrayEquals(expected, new AsaCalculator(atoms, AsaCalculator.DEFAULT_PROBE_SIZE, 100, 3).calculateAsas(), 0);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			asaCalc = new AsaCalculator(atoms, AsaCalculator.DEFAULT_PROBE_SIZE, 100, 1);
+			asaCalc.setExecutorService(executor);
+			assertArrayEquals(expected, asaCalc.calculateAsas(), 0);
+			// the shared executor is still usable
+			assertArrayEquals(expected, asaCalc.calculateAsas(), 0);
+		} finally {
+			executor.shutdown();
+		}
+	}
 }
@@ -0,0 +1,155 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.chem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.biojava.nbio.structure.io.cif.ChemCompConverter;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestMemoryMappedChemCompProvider {
+
+	private static final String[] IDS = {"ALA", "ARG", "A", "DA", "HOH", "ACY", "2EP", "MSE"};
+
+	@ClassRule
+	public static TemporaryFolder folder = new TemporaryFolder();
+
+	private static ChemicalComponentDictionary dictionary;
+	private static MemoryMappedChemCompProvider provider;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		dictionary = new ChemicalComponentDictionary();
+		for (String id : IDS) {
+			try (InputStream in = TestMemoryMappedChemCompProvider.class.getResourceAsStream("/chemcomp/" + id + ".cif.gz")) {
+				for (ChemComp cc : ChemCompConverter.fromInputStream(in).getChemComps()) {
+					dictionary.addChemComp(cc);
+				}
+			}
+		}
+		Path index = folder.getRoot().toPath().resolve("components.bjcc");
+		MemoryMappedChemCompProvider.writeIndex(dictionary, index);
+		provider = new MemoryMappedChemCompProvider(folder.getRoot().toPath().resolve("missing.cif"), index);
+	}
+
+	@Test
+	public void testSameAsDictionary() {
+		assertEquals(IDS.length, provider.size());
+		for (String id : IDS) {
+			ChemComp expected = dictionary.getChemComp(id);
+			ChemComp actual = provider.getChemComp(id.toLowerCase());
+			assertNotSame(expected, actual);
+			assertEquals(expected.toString(), actual.toString());
+			assertEquals(expected.isStandard(), actual.isStandard());
+			assertEquals(expected.getFormulaWeight(), actual.getFormulaWeight(), 0);
+			assertEquals(expected.getPdbxSynonyms(), actual.getPdbxSynonyms());
+			assertEquals(expected.getDescriptors(), actual.getDescriptors());
+
+			assertEquals(expected.getAtoms().size(), actual.getAtoms().size());
+			for (int i = 0; i < expected.getAtoms().size(); i++) {
+				ChemCompAtom a = expected.getAtoms().get(i);
+				ChemCompAtom b = actual.getAtoms().get(i);
+				assertEquals(a.getAtomId(), b.getAtomId());
+				assertEquals(a.getTypeSymbol(), b.getTypeSymbol());
+				assertEquals(a.getCharge(), b.getCharge());
+				assertEquals(a.getPdbxLeavingAtomFlag(), b.getPdbxLeavingAtomFlag());
+				assertEquals(a.getModelCartnX(), b.getModelCartnX(), 0);
+				assertEquals(a.getPdbxModelCartnZIdeal(), b.getPdbxModelCartnZIdeal(), 0);
+				assertEquals(a.getPdbxOrdinal(), b.getPdbxOrdinal());
+			}
+
+			assertEquals(expected.getBonds().size(), actual.getBonds().size());
+			for (int i = 0; i < expected.getBonds().size(); i++) {
+				ChemCompBond a = expected.getBonds().get(i);
+				ChemCompBond b = actual.getBonds().get(i);
+				assertEquals(a.getAtomId1(), b.getAtomId1());
+				assertEquals(a.getAtomId2(), b.getAtomId2());
+				assertEquals(a.getNumericalBondOrder(), b.getNumericalBondOrder());
+				assertEquals(a.getPdbxAromaticFlag(), b.getPdbxAromaticFlag());
+			}
+		}
+	}
+
+	@Test
+	public void testMissing() {
+		ChemComp cc = provider.getChemComp("XYZ");
+		assertEquals("XYZ", cc.getId());
+		assertTrue(cc.isEmpty());
+	}
+
+	@Test
+	public void testConcurrentLookups() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				results.add(executor.submit(() -> {
+					int atoms = 0;
+					for (int i = 0; i < 200; i++) {
+						atoms += provider.getChemComp(IDS[i % IDS.length]).getAtoms().size();
+					}
+					return atoms;
+				}));
+			}
+			int expected = results.get(0).get();
+			for (Future<Integer> result : results) {
+				assertEquals(expected, result.get().intValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testIndexRewrittenWhenOutdated() throws Exception {
+		Path dir = folder.newFolder().toPath();
+		Path dictionaryFile = dir.resolve("ALA.cif.gz");
+		try (InputStream in = getClass().getResourceAsStream("/chemcomp/ALA.cif.gz")) {
+			Files.copy(in, dictionaryFile);
+		}
+		Path index = dir.resolve("components.bjcc");
+		assertEquals(1, new MemoryMappedChemCompProvider(dictionaryFile, index).size());
+		assertTrue(Files.exists(index));
+
+		MemoryMappedChemCompProvider.writeIndex(dictionary, index);
+		Files.setLastModifiedTime(index, Files.getLastModifiedTime(dictionaryFile));
+		assertEquals(IDS.length, new MemoryMappedChemCompProvider(dictionaryFile, index).size());
+
+		Files.setLastModifiedTime(dictionaryFile, java.nio.file.attribute.FileTime.fromMillis(
+				Files.getLastModifiedTime(index).toMillis() + 1000));
+		assertEquals(1, new MemoryMappedChemCompProvider(dictionaryFile, index).size());
+	}
+}
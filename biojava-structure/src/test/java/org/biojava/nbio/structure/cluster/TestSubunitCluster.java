@@ -185,6 +185,56 @@ public class TestSubunitCluster {
 
 	}
 
+	/**
+	 * Test
+	 * {@link SubunitCluster#mergeSequence(SubunitCluster, SubunitClustererParameters, SubunitAlignmentCache)}
+	 *
+	 * @throws CompoundNotFoundException
+	 */
+	@Test
+	public void testMergeSequenceCache() throws CompoundNotFoundException {
+
+		Atom[] reprAtoms = mockAtomArray(100, "ALA", -1, null);
+		Atom[] reprAtoms2 = mockAtomArray(9, "GLY", 91, "ALA");
+
+		SubunitClustererParameters clustererParameters = new SubunitClustererParameters();
+		clustererParameters.setSequenceIdentityThreshold(0.9);
+		clustererParameters.setSequenceCoverageThreshold(0.9);
+		SubunitAlignmentCache cache = new SubunitAlignmentCache();
+
+		// The same merge with and without the cache
+		SubunitCluster sc1 = new SubunitCluster(new Subunit(reprAtoms,
+				"subunit 1", null, null));
+		SubunitCluster sc2 = new SubunitCluster(new Subunit(reprAtoms2,
+				"subunit 2", null, null));
+		assertTrue(sc1.mergeSequence(sc2, clustererParameters));
+
+		SubunitCluster sc3 = new SubunitCluster(new Subunit(reprAtoms,
+				"subunit 3", null, null));
+		SubunitCluster sc4 = new SubunitCluster(new Subunit(reprAtoms2,
+				"subunit 4", null, null));
+		assertTrue(sc3.mergeSequence(sc4, clustererParameters, cache));
+
+		assertEquals(1, cache.size());
+		assertEquals(sc1.size(), sc3.size());
+		assertEquals(sc1.length(), sc3.length());
+		for (int i = 0; i < sc1.size(); i++)
+			assertArrayEquals(sc1.getAlignedAtomsSubunit(i),
+					sc3.getAlignedAtomsSubunit(i));
+
+		// A second merge of the same sequences is served from the cache
+		SubunitCluster sc5 = new SubunitCluster(new Subunit(reprAtoms,
+				"subunit 5", null, null));
+		SubunitCluster sc6 = new SubunitCluster(new Subunit(reprAtoms2,
+				"subunit 6", null, null));
+		assertTrue(sc5.mergeSequence(sc6, clustererParameters, cache));
+		assertEquals(1, cache.size());
+		assertEquals(sc1.length(), sc5.length());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+
 	/**
 	 * Test
 	 * {@link SubunitCluster#mergeStructure(SubunitCluster, SubunitClustererParameters)}
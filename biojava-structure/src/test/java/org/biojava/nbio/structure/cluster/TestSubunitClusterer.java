@@ -0,0 +1,85 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.cluster;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.io.PDBFileParser;
+import org.biojava.nbio.structure.symmetry.core.Stoichiometry;
+import org.junit.Test;
+
+/**
+ * Test that {@link SubunitClusterer#cluster(List, SubunitClustererParameters,
+ * SubunitAlignmentCache, java.util.concurrent.ExecutorService)} finds the
+ * same clusters on an executor as in the calling thread.
+ */
+public class TestSubunitClusterer {
+
+	@Test
+	public void testClusterWithExecutor() throws IOException {
+		Structure s;
+		try (InputStream in = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.pdb.gz"))) {
+			s = new PDBFileParser().parsePDBFile(in);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (SubunitClustererMethod method : SubunitClustererMethod.values()) {
+				SubunitClustererParameters params = new SubunitClustererParameters();
+				params.setClustererMethod(method);
+				List<Subunit> subunits = SubunitExtractor.extractSubunits(s,
+						params.getAbsoluteMinimumSequenceLength(),
+						params.getMinimumSequenceLengthFraction(),
+						params.getMinimumSequenceLength());
+				assertEquals(4, subunits.size());
+
+				Stoichiometry serial = SubunitClusterer.cluster(subunits, params);
+				Stoichiometry parallel = SubunitClusterer.cluster(subunits, params,
+						new SubunitAlignmentCache(), executor);
+
+				assertEquals(method.toString(), serial.toString(), parallel.toString());
+				assertEquals(method.toString(), getNames(serial), getNames(parallel));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static List<List<String>> getNames(Stoichiometry stoichiometry) {
+		List<List<String>> names = new ArrayList<>();
+		for (SubunitCluster cluster : stoichiometry.getClusters()) {
+			List<String> clusterNames = new ArrayList<>();
+			for (Subunit subunit : cluster.getSubunits())
+				clusterNames.add(subunit.getName());
+			names.add(clusterNames);
+		}
+		return names;
+	}
+}
@@ -29,6 +29,11 @@ import org.junit.Test;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point3d;
 
 
 import static org.junit.Assert.*;
@@ -274,6 +279,83 @@ public class TestContactCalc {
 		}
 	}
 
+	@Test
+	public void testGridVsDistMatrixRandomPoints() {
+		double cutoff = 4.5;
+		Point3d[] points = randomPoints(2000, 30, 1);
+
+		Grid grid = new Grid(cutoff);
+		grid.addCoords(points);
+		List<Contact> contacts = grid.getIndicesContacts();
+
+		int expected = 0;
+		boolean[][] inContact = new boolean[points.length][points.length];
+		for (Contact contact : contacts) {
+			assertTrue(contact.getJ() > contact.getI());
+			assertFalse(inContact[contact.getI()][contact.getJ()]);
+			inContact[contact.getI()][contact.getJ()] = true;
+			assertEquals(points[contact.getI()].distance(points[contact.getJ()]), contact.getDistance(), 0);
+		}
+		for (int i = 0; i < points.length; i++) {
+			for (int j = i + 1; j < points.length; j++) {
+				boolean close = points[i].distance(points[j]) < cutoff;
+				assertEquals(close, inContact[i][j]);
+				if (close) expected++;
+			}
+		}
+		assertEquals(expected, contacts.size());
+
+		// the consumer sees the same contacts in the same order
+		List<Contact> consumed = new ArrayList<>();
+		grid.forEachContact((i, j, distance) -> consumed.add(new Contact(i, j, distance)));
+		assertEquals(contacts.size(), consumed.size());
+		for (int k = 0; k < contacts.size(); k++) {
+			assertEquals(contacts.get(k).getI(), consumed.get(k).getI());
+			assertEquals(contacts.get(k).getJ(), consumed.get(k).getJ());
+		}
+	}
+
+	@Test
+	public void testGridTwoSetsRandomPoints() {
+		double cutoff = 6;
+		Point3d[] iPoints = randomPoints(800, 25, 2);
+		Point3d[] jPoints = randomPoints(700, 25, 3);
+		for (Point3d p : jPoints) p.x += 20;
+
+		Grid grid = new Grid(cutoff);
+		grid.addCoords(iPoints, jPoints);
+		List<Contact> contacts = grid.getIndicesContacts();
+
+		boolean[][] inContact = new boolean[iPoints.length][jPoints.length];
+		for (Contact contact : contacts) {
+			inContact[contact.getI()][contact.getJ()] = true;
+		}
+		int expected = 0;
+		for (int i = 0; i < iPoints.length; i++) {
+			for (int j = 0; j < jPoints.length; j++) {
+				boolean close = iPoints[i].distance(jPoints[j]) < cutoff;
+				assertEquals(close, inContact[i][j]);
+				if (close) expected++;
+			}
+		}
+		assertEquals(expected, contacts.size());
+
+		Point3d far = new Point3d(-100, -100, -100);
+		assertFalse(grid.hasAnyContact(new Point3d[] {far}));
+		Point3d near = new Point3d(jPoints[0]);
+		near.y += cutoff / 2;
+		assertTrue(grid.hasAnyContact(new Point3d[] {far, near}));
+	}
+
+	private static Point3d[] randomPoints(int n, double size, long seed) {
+		Random random = new Random(seed);
+		Point3d[] points = new Point3d[n];
+		for (int i = 0; i < n; i++) {
+			points[i] = new Point3d(random.nextDouble() * size, random.nextDouble() * size, random.nextDouble() * size);
+		}
+		return points;
+	}
+
 	private double[][] calcDistanceMatrix(Atom[] atoms) {
 
 		double[][] distMatrix = new double[atoms.length][atoms.length];
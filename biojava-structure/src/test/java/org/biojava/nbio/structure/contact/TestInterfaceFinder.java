@@ -50,6 +50,22 @@ public class TestInterfaceFinder {
         assertEquals(3, unique.size());
     }
 
+    @Test
+    public void testGetAllInterfacesSequential() {
+        Structure s = mockStructure(false);
+        StructureInterfaceList expected = new InterfaceFinder(s).getAllInterfaces();
+
+        InterfaceFinder finder = new InterfaceFinder(s);
+        finder.setExecutorService(null);
+        StructureInterfaceList list = finder.getAllInterfaces();
+
+        assertEquals(expected.size(), list.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getList().get(i).getMoleculeIds(), list.getList().get(i).getMoleculeIds());
+            assertEquals(expected.getList().get(i).getContacts().size(), list.getList().get(i).getContacts().size());
+        }
+    }
+
     /**
      * Check that interfaces can be calculated if one polymer chain has no atoms at all
      */
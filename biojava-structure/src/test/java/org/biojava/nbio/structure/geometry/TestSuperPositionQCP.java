@@ -30,7 +30,10 @@ import javax.vecmath.Matrix4d;
 import javax.vecmath.Point3d;
 import javax.vecmath.Vector3d;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -184,4 +187,154 @@ public class TestSuperPositionQCP {
 		assertEquals(-1.0, m.m00 + m.m11 + m.m22, 0.001);
 		assertEquals(0.0, CalcPoint.rmsd(original, transformed), 0.001);
 	}
+
+	/**
+	 * Test that the flat array methods give the same results as the Point3d
+	 * methods.
+	 */
+	@Test
+	public void testFlatArrays() {
+		Random rnd = new Random(1);
+		Point3d[] fixed = randomPoints(rnd, 100);
+		Point3d[] moved = noisyCopy(rnd, fixed);
+		double[] flatFixed = flatten(fixed, 2);
+		double[] flatMoved = flatten(moved, 0);
+
+		for (boolean centered : new boolean[] { false, true }) {
+			SuperPositionQCP qcp = new SuperPositionQCP(centered);
+			double rmsd = qcp.getRmsd(fixed, moved);
+			Matrix4d transform = new Matrix4d(qcp.superpose(fixed, moved));
+
+			assertEquals(rmsd, qcp.getRmsd(flatFixed, 6, flatMoved, 0, moved.length), 0);
+			assertEquals(transform, qcp.superposeAfterRmsd());
+			assertEquals(transform, qcp.superpose(flatFixed, 6, flatMoved, 0, moved.length));
+		}
+	}
+
+	/**
+	 * Test the batch superpositions against the single superpositions, with
+	 * and without an executor.
+	 */
+	@Test
+	public void testBatch() {
+		Random rnd = new Random(2);
+		int length = 50;
+		int numSets = 60;
+		Point3d[] reference = randomPoints(rnd, length);
+		Point3d[][] conformers = new Point3d[numSets][];
+		double[] sets = new double[numSets * length * 3];
+		for (int k = 0; k < numSets; k++) {
+			conformers[k] = noisyCopy(rnd, reference);
+			System.arraycopy(flatten(conformers[k], 0), 0, sets, k * length * 3, length * 3);
+		}
+
+		SuperPositionQCP qcp = new SuperPositionQCP(false);
+		double[] expectedRmsds = new double[numSets];
+		double[] expectedTransforms = new double[16 * numSets];
+		double[] expectedPairs = new double[SuperPositionQCPBatch.getNumberOfPairs(numSets)];
+		for (int k = 0; k < numSets; k++) {
+			expectedRmsds[k] = qcp.getRmsd(reference, conformers[k]);
+			Matrix4d m = qcp.superpose(reference, conformers[k]);
+			for (int e = 0; e < 16; e++)
+				expectedTransforms[16 * k + e] = m.getElement(e / 4, e % 4);
+			for (int j = k + 1; j < numSets; j++)
+				expectedPairs[SuperPositionQCPBatch.getPairIndex(k, j, numSets)] = qcp.getRmsd(conformers[k], conformers[j]);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			for (ExecutorService ex : new ExecutorService[] { null, executor }) {
+				SuperPositionQCPBatch batch = new SuperPositionQCPBatch(length);
+				batch.setExecutorService(ex);
+				// small tasks, to test the splitting of the sets and pairs
+				batch.setPointsPerTask(7 * length);
+
+				double[] rmsds = new double[numSets];
+				double[] transforms = new double[16 * numSets];
+				batch.superpose(flatten(reference, 0), sets, rmsds, transforms);
+				assertArrayEquals(expectedRmsds, rmsds, 0);
+				assertArrayEquals(expectedTransforms, transforms, 0);
+
+				double[] pairs = new double[expectedPairs.length];
+				batch.getAllPairsRmsds(sets, pairs);
+				assertArrayEquals(expectedPairs, pairs, 0);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(0, SuperPositionQCPBatch.getPairIndex(1, 0, numSets));
+		assertEquals(numSets - 1, SuperPositionQCPBatch.getPairIndex(1, 2, numSets));
+		assertEquals(expectedPairs.length - 1, SuperPositionQCPBatch.getPairIndex(numSets - 2, numSets - 1, numSets));
+	}
+
+	/**
+	 * Compare the time of the all-pairs RMSDs of an ensemble with
+	 * {@link SuperPositionQCPBatch} and with single superpositions.
+	 */
+	@Test
+	public void testBatchPerformance() {
+		Random rnd = new Random(3);
+		int length = 200;
+		int numSets = 300;
+		Point3d[] reference = randomPoints(rnd, length);
+		Point3d[][] conformers = new Point3d[numSets][];
+		double[] sets = new double[numSets * length * 3];
+		for (int k = 0; k < numSets; k++) {
+			conformers[k] = noisyCopy(rnd, reference);
+			System.arraycopy(flatten(conformers[k], 0), 0, sets, k * length * 3, length * 3);
+		}
+
+		double[] pairs = new double[SuperPositionQCPBatch.getNumberOfPairs(numSets)];
+		long start = System.nanoTime();
+		SuperPositionQCP qcp = new SuperPositionQCP(false);
+		for (int i = 0; i < numSets; i++)
+			for (int j = i + 1; j < numSets; j++)
+				pairs[SuperPositionQCPBatch.getPairIndex(i, j, numSets)] = qcp.getRmsd(conformers[i], conformers[j]);
+		long singleTime = (System.nanoTime() - start) / 1000;
+
+		double[] batchPairs = new double[pairs.length];
+		start = System.nanoTime();
+		new SuperPositionQCPBatch(length).getAllPairsRmsds(sets, batchPairs);
+		long batchTime = (System.nanoTime() - start) / 1000;
+
+		LOGGER.info(String.format("All-pairs RMSD of %d sets of %d points: single %d us, batch %d us",
+				numSets, length, singleTime, batchTime));
+		assertArrayEquals(pairs, batchPairs, 0);
+	}
+
+	private static Point3d[] randomPoints(Random rnd, int length) {
+		Point3d[] points = new Point3d[length];
+		for (int p = 0; p < length; p++)
+			points[p] = new Point3d(rnd.nextDouble() * 40, rnd.nextDouble() * 40, rnd.nextDouble() * 40);
+		return points;
+	}
+
+	/**
+	 * A randomly rotated and translated copy of the points with some noise.
+	 */
+	private static Point3d[] noisyCopy(Random rnd, Point3d[] points) {
+		Point3d[] copy = new Point3d[points.length];
+		for (int p = 0; p < points.length; p++)
+			copy[p] = new Point3d(points[p].x + rnd.nextGaussian(), points[p].y + rnd.nextGaussian(),
+					points[p].z + rnd.nextGaussian());
+		Matrix4d transform = new Matrix4d();
+		transform.set(new AxisAngle4d(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble() * 6));
+		transform.setTranslation(new Vector3d(rnd.nextDouble() * 10, rnd.nextDouble() * 10, rnd.nextDouble() * 10));
+		CalcPoint.transform(transform, copy);
+		return copy;
+	}
+
+	/**
+	 * The coordinates of the points as a flat array, after padding points at
+	 * the origin.
+	 */
+	private static double[] flatten(Point3d[] points, int padding) {
+		double[] coords = new double[3 * (padding + points.length)];
+		for (int p = 0; p < points.length; p++) {
+			coords[3 * (padding + p)] = points[p].x;
+			coords[3 * (padding + p) + 1] = points[p].y;
+			coords[3 * (padding + p) + 2] = points[p].z;
+		}
+		return coords;
+	}
 }
@@ -0,0 +1,160 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Element;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.io.cif.CifStructureConverter;
+import org.junit.Test;
+
+public class AtomRecordReaderTest {
+
+	@Test
+	public void testCifMatchesParser() throws IOException {
+		Structure s;
+		try (InputStream in = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.cif.gz"))) {
+			s = CifStructureConverter.fromInputStream(in);
+		}
+		List<AtomRecord> records;
+		try (AtomRecordReader reader = AtomRecordReader.fromCif(new GZIPInputStream(getClass().getResourceAsStream("/4hhb.cif.gz")))) {
+			records = reader.stream().collect(Collectors.toList());
+		}
+		assertSameAtoms(StructureTools.getAllAtomArray(s), records);
+		assertEquals("A", records.get(0).getChainId());
+	}
+
+	@Test
+	public void testPdbMatchesParser() throws IOException {
+		Structure s;
+		try (InputStream in = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.pdb.gz"))) {
+			s = new PDBFileParser().parsePDBFile(in);
+		}
+		List<AtomRecord> records;
+		try (AtomRecordReader reader = AtomRecordReader.fromPdb(new GZIPInputStream(getClass().getResourceAsStream("/4hhb.pdb.gz")))) {
+			records = reader.stream().collect(Collectors.toList());
+		}
+		assertSameAtoms(StructureTools.getAllAtomArray(s), records);
+	}
+
+	@Test
+	public void testCifSyntax() throws IOException {
+		String cif = "data_TEST\n"
+				+ "_entry.id TEST\n"
+				+ "loop_\n"
+				+ "_atom_site.group_PDB\n"
+				+ "_atom_site.id\n"
+				+ "_atom_site.type_symbol\n"
+				+ "_atom_site.label_atom_id\n"
+				+ "_atom_site.label_alt_id\n"
+				+ "_atom_site.label_comp_id\n"
+				+ "_atom_site.label_asym_id\n"
+				+ "_atom_site.auth_seq_id\n"
+				+ "_atom_site.Cartn_x\n"
+				+ "_atom_site.Cartn_y\n"
+				+ "_atom_site.Cartn_z\n"
+				+ "_atom_site.occupancy\n"
+				+ "_atom_site.B_iso_or_equiv\n"
+				+ "_atom_site.pdbx_formal_charge\n"
+				+ "# a comment\n"
+				+ "ATOM 1 C \"C1'\" A DG B 5 1.0 2.0 3.0 0.5 10.0 ?\n"
+				+ "HETATM 2 O 'O5 x' . HOH C 6\n"
+				+ "-1.5 -2.5 -3.5 1.0 20.0 -1\n"
+				+ "#\n"
+				+ "_struct.title\n"
+				+ ";A text field\n"
+				+ "loop_\n"
+				+ ";\n"
+				+ "data_SINGLE\n"
+				+ "_atom_site.group_PDB HETATM\n"
+				+ "_atom_site.id 7\n"
+				+ "_atom_site.type_symbol ZN\n"
+				+ "_atom_site.label_atom_id ZN\n"
+				+ "_atom_site.Cartn_x 4.0\n"
+				+ "_atom_site.Cartn_y 5.0\n"
+				+ "_atom_site.Cartn_z 6.0\n"
+				+ "#\n"
+				+ "_atom_type.symbol ZN\n";
+
+		List<AtomRecord> records;
+		try (AtomRecordReader reader = AtomRecordReader.fromCif(new ByteArrayInputStream(cif.getBytes(StandardCharsets.US_ASCII)))) {
+			records = reader.stream().collect(Collectors.toList());
+		}
+		assertEquals(3, records.size());
+
+		AtomRecord r = records.get(0);
+		assertFalse(r.isHetAtom());
+		assertEquals("C1'", r.getName());
+		assertEquals(Character.valueOf('A'), r.getAltLoc());
+		assertEquals("B", r.getChainName());
+		assertEquals(5, r.getSeqNum());
+		assertEquals(3.0, r.getZ(), 0);
+		assertEquals(0, r.getCharge());
+		assertEquals(1, r.getModelNumber());
+
+		r = records.get(1);
+		assertTrue(r.isHetAtom());
+		assertEquals("O5 x", r.getName());
+		assertNull(r.getAltLoc());
+		assertEquals(-1.5, r.getX(), 0);
+		assertEquals(20.0f, r.getTempFactor(), 0);
+		assertEquals(-1, r.getCharge());
+		assertEquals(Element.O, r.getElement());
+
+		r = records.get(2);
+		assertEquals(7, r.getPDBserial());
+		assertEquals(Element.Zn, r.getElement());
+		assertEquals(6.0, r.getZ(), 0);
+	}
+
+	private static void assertSameAtoms(Atom[] atoms, List<AtomRecord> records) {
+		assertEquals(atoms.length, records.size());
+		for (int i = 0; i < atoms.length; i++) {
+			Atom a = atoms[i];
+			AtomRecord r = records.get(i);
+			assertEquals(a.getPDBserial(), r.getPDBserial());
+			assertEquals(a.getName(), r.getName());
+			assertEquals(a.getGroup().getPDBName(), r.getResName());
+			assertEquals(a.getGroup().getResidueNumber().getSeqNum().intValue(), r.getSeqNum());
+			assertEquals(a.getGroup().getChain().getName(), r.getChainName());
+			assertEquals(a.getElement(), r.getElement());
+			assertEquals(a.getX(), r.getX(), 1e-6);
+			assertEquals(a.getY(), r.getY(), 1e-6);
+			assertEquals(a.getZ(), r.getZ(), 1e-6);
+			assertEquals(a.getOccupancy(), r.getOccupancy(), 1e-6);
+			assertEquals(a.getTempFactor(), r.getTempFactor(), 1e-6);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Bond;
+import org.biojava.nbio.structure.Structure;
+import org.junit.Test;
+
+public class BondMakerTest {
+
+	/**
+	 * The SSBOND records of 2GOX bond two cysteines within chain A and two within chain C.
+	 */
+	@Test
+	public void testDisulfideBonds() throws IOException {
+		FileParsingParameters params = new FileParsingParameters();
+		params.setCreateAtomBonds(true);
+		PDBFileParser parser = new PDBFileParser();
+		parser.setFileParsingParameters(params);
+		Structure structure;
+		try (InputStream in = getClass().getResourceAsStream("/2gox.pdb")) {
+			structure = parser.parsePDBFile(in);
+		}
+
+		List<Bond> ssBonds = structure.getSSBonds();
+		assertEquals(2, ssBonds.size());
+		for (Bond bond : ssBonds) {
+			Atom a = bond.getAtomA();
+			Atom b = bond.getAtomB();
+			assertEquals("SG", a.getName());
+			assertEquals("SG", b.getName());
+			assertEquals("CYS", a.getGroup().getPDBName());
+			assertEquals(1101, a.getGroup().getResidueNumber().getSeqNum().intValue());
+			assertEquals(1158, b.getGroup().getResidueNumber().getSeqNum().intValue());
+			assertSame(a.getGroup().getChain(), b.getGroup().getChain());
+			assertTrue(a.hasBond(b));
+		}
+		assertNotEquals(ssBonds.get(0).getAtomA().getGroup().getChain().getName(),
+				ssBonds.get(1).getAtomA().getGroup().getChain().getName());
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Chain;
+import org.biojava.nbio.structure.Group;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.io.cif.CifStructureConverter;
+import org.junit.Test;
+
+public class LazyPostProcessingTest {
+
+	@Test
+	public void testCifSameAsEager() throws IOException {
+		Structure eager = parseCif(false);
+		Structure lazy = parseCif(true);
+		assertSameSeqRes(eager, lazy);
+		assertSameBonds(eager, lazy);
+	}
+
+	@Test
+	public void testPdbSameAsEager() throws IOException {
+		Structure eager = parsePdb(false);
+		Structure lazy = parsePdb(true);
+		assertSameSeqRes(eager, lazy);
+		assertSameBonds(eager, lazy);
+		assertEquals(eager.getSSBonds().size(), lazy.getSSBonds().size());
+	}
+
+	@Test
+	public void testClone() throws IOException {
+		Structure eager = parseCif(false);
+		Structure lazy = parseCif(true).clone();
+		assertSameSeqRes(eager, lazy);
+		assertSameBonds(eager, lazy);
+	}
+
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		Structure lazy = parseCif(true);
+		Atom[] atoms = StructureTools.getAllAtomArray(lazy);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				results.add(executor.submit(() -> {
+					int bonds = 0;
+					for (Atom a : atoms) {
+						if (a.getBonds() != null)
+							bonds += a.getBonds().size();
+					}
+					return bonds + lazy.getChains().get(0).getSeqResGroups().size();
+				}));
+			}
+			int expected = results.get(0).get();
+			assertTrue(expected > 0);
+			for (Future<Integer> result : results) {
+				assertEquals(expected, result.get().intValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private Structure parseCif(boolean lazy) throws IOException {
+		try (InputStream in = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.cif.gz"))) {
+			return CifStructureConverter.fromInputStream(in, params(lazy));
+		}
+	}
+
+	private Structure parsePdb(boolean lazy) throws IOException {
+		PDBFileParser parser = new PDBFileParser();
+		parser.setFileParsingParameters(params(lazy));
+		try (InputStream in = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.pdb.gz"))) {
+			return parser.parsePDBFile(in);
+		}
+	}
+
+	private static FileParsingParameters params(boolean lazy) {
+		FileParsingParameters params = new FileParsingParameters();
+		params.setCreateAtomBonds(true);
+		params.setLazyPostProcessing(lazy);
+		return params;
+	}
+
+	private static void assertSameSeqRes(Structure eager, Structure lazy) {
+		assertEquals(eager.getChains().size(), lazy.getChains().size());
+		for (int i = 0; i < eager.getChains().size(); i++) {
+			Chain expected = eager.getChains().get(i);
+			Chain actual = lazy.getChains().get(i);
+			assertEquals(expected.getSeqResLength(), actual.getSeqResLength());
+			assertEquals(expected.getSeqResSequence(), actual.getSeqResSequence());
+			for (int j = 0; j < expected.getSeqResLength(); j++) {
+				Group g = actual.getSeqResGroup(j);
+				assertEquals(expected.getSeqResGroup(j).getResidueNumber(), g.getResidueNumber());
+				if (g.getResidueNumber() != null)
+					// aligned SEQRES groups are the ATOM groups
+					assertTrue(actual.getAtomGroups().contains(g));
+			}
+		}
+	}
+
+	private static void assertSameBonds(Structure eager, Structure lazy) {
+		Atom[] expected = StructureTools.getAllAtomArray(eager);
+		Atom[] actual = StructureTools.getAllAtomArray(lazy);
+		assertEquals(expected.length, actual.length);
+		int total = 0;
+		for (int i = 0; i < expected.length; i++) {
+			int n = expected[i].getBonds() == null ? 0 : expected[i].getBonds().size();
+			assertEquals(n, actual[i].getBonds() == null ? 0 : actual[i].getBonds().size());
+			total += n;
+		}
+		assertTrue(total > 0);
+	}
+}
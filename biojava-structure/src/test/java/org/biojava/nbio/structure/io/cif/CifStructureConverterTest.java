@@ -0,0 +1,76 @@
+package org.biojava.nbio.structure.io.cif;
+
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.io.FileParsingParameters;
+import org.junit.Test;
+import org.rcsb.cif.CifIO;
+import org.rcsb.cif.model.Block;
+import org.rcsb.cif.model.Category;
+import org.rcsb.cif.schema.mm.MmCifBlock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CifStructureConverterTest {
+    /**
+     * Only the projected categories (plus atom_site) must be parsed.
+     */
+    @Test
+    public void testParsedCategories() throws IOException {
+        FileParsingParameters parameters = new FileParsingParameters();
+        parameters.setParsedCategories(new String[] { "struct" });
+
+        Structure full;
+        Structure projected;
+        try (InputStream inputStream = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.cif.gz"))) {
+            full = CifStructureConverter.fromInputStream(inputStream);
+        }
+        try (InputStream inputStream = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.cif.gz"))) {
+            projected = CifStructureConverter.fromInputStream(inputStream, parameters);
+        }
+
+        assertStructureEquals(full, projected);
+        assertEquals(full.getPDBHeader().getTitle(), projected.getPDBHeader().getTitle());
+        assertNotNull(full.getPDBHeader().getExperimentalTechniques());
+        assertNull(projected.getPDBHeader().getExperimentalTechniques());
+        assertNull(projected.getCrystallographicInfo().getCrystalCell());
+    }
+
+    /**
+     * A projected block must present skipped categories as empty, not as null.
+     */
+    @Test
+    public void testProjectedBlockSkippedCategory() throws IOException {
+        Block block;
+        try (InputStream inputStream = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.cif.gz"))) {
+            block = CifIO.readFromInputStream(inputStream).getBlocks().get(0);
+        }
+        assertTrue(block.getCategory("exptl").isDefined());
+
+        Block projected = new CifStructureConverter.ProjectedBlock(block, new String[] { "struct" });
+        Category skipped = projected.getCategory("exptl");
+        assertNotNull(skipped);
+        assertFalse(skipped.isDefined());
+        assertEquals(0, skipped.getRowCount());
+        assertEquals("exptl", skipped.getCategoryName());
+        assertFalse(projected.getCategories().containsKey("exptl"));
+
+        assertTrue(projected.getCategory("struct").isDefined());
+        assertTrue(projected.getCategory("atom_site").isDefined());
+        assertFalse(new MmCifBlock(projected).getExptl().isDefined());
+    }
+
+    private static void assertStructureEquals(Structure expected, Structure actual) {
+        assertEquals(expected.getPolyChains().size(), actual.getPolyChains().size());
+        assertEquals(StructureTools.getNrAtoms(expected), StructureTools.getNrAtoms(actual));
+        assertEquals(StructureTools.getNrGroups(expected), StructureTools.getNrGroups(actual));
+    }
+}
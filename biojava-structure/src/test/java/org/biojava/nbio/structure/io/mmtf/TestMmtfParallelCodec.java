@@ -0,0 +1,123 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io.mmtf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Chain;
+import org.biojava.nbio.structure.Group;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.chem.ChemCompGroupFactory;
+import org.biojava.nbio.structure.chem.ChemCompProvider;
+import org.biojava.nbio.structure.chem.ReducedChemCompProvider;
+import org.biojava.nbio.structure.io.FileParsingParameters;
+import org.biojava.nbio.structure.io.cif.CifStructureConverter;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestMmtfParallelCodec {
+
+	private static ExecutorService executor;
+	private static ChemCompProvider provider;
+	private static Structure structure;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		executor = Executors.newFixedThreadPool(4);
+		// only use the bundled chemical components, so that the test runs offline
+		provider = ChemCompGroupFactory.getChemCompProvider();
+		ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
+		FileParsingParameters params = new FileParsingParameters();
+		params.setCreateAtomBonds(true);
+		try (InputStream in = new GZIPInputStream(TestMmtfParallelCodec.class.getResourceAsStream("/4hhb.cif.gz"))) {
+			structure = CifStructureConverter.fromInputStream(in, params);
+		}
+		// the MMTF writer needs the type of every component, set it for the ones not bundled (HEM)
+		for (Chain chain : structure.getChains()) {
+			for (Group group : chain.getAtomGroups()) {
+				if (group.getChemComp().getType() == null)
+					group.getChemComp().setType("NON-POLYMER");
+			}
+		}
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		executor.shutdown();
+		ChemCompGroupFactory.setChemCompProvider(provider);
+	}
+
+	@Test
+	public void testEncodeSameAsSequential() throws IOException {
+		assertArrayEquals(write(false), write(true));
+	}
+
+	@Test
+	public void testDecodeSameAsSequential() throws IOException {
+		byte[] bytes = write(false);
+		Structure expected = MmtfActions.readFromInputStream(new ByteArrayInputStream(bytes));
+		Structure actual = MmtfActions.readFromInputStream(new ByteArrayInputStream(bytes), executor);
+
+		assertEquals(expected.getPDBHeader().getTitle(), actual.getPDBHeader().getTitle());
+		assertEquals(expected.getChains().size(), actual.getChains().size());
+		for (int i = 0; i < expected.getChains().size(); i++) {
+			assertEquals(expected.getChains().get(i).getId(), actual.getChains().get(i).getId());
+			assertEquals(expected.getChains().get(i).getSeqResSequence(), actual.getChains().get(i).getSeqResSequence());
+		}
+
+		Atom[] expectedAtoms = StructureTools.getAllAtomArray(expected);
+		Atom[] actualAtoms = StructureTools.getAllAtomArray(actual);
+		assertEquals(expectedAtoms.length, actualAtoms.length);
+		for (int i = 0; i < expectedAtoms.length; i++) {
+			Atom a = expectedAtoms[i];
+			Atom b = actualAtoms[i];
+			assertEquals(a.getPDBserial(), b.getPDBserial());
+			assertEquals(a.getName(), b.getName());
+			assertArrayEquals(a.getCoordsAsPoint3d().toString(), a.getCoords(), b.getCoords(), 0);
+			assertEquals(a.getTempFactor(), b.getTempFactor(), 0);
+			assertEquals(a.getOccupancy(), b.getOccupancy(), 0);
+			assertEquals(a.getAltLoc(), b.getAltLoc());
+			assertEquals(a.getGroup().getResidueNumber(), b.getGroup().getResidueNumber());
+			assertEquals(a.getBonds() == null ? 0 : a.getBonds().size(), b.getBonds() == null ? 0 : b.getBonds().size());
+		}
+	}
+
+	private static byte[] write(boolean parallel) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		if (parallel)
+			MmtfActions.writeToOutputStream(structure, out, executor);
+		else
+			MmtfActions.writeToOutputStream(structure, out);
+		return out.toByteArray();
+	}
+}
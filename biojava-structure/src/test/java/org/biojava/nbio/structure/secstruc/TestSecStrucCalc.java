@@ -21,13 +21,24 @@
 package org.biojava.nbio.structure.secstruc;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.GZIPInputStream;
 
+import org.biojava.nbio.structure.Atom;
 import org.biojava.nbio.structure.Structure;
 import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.StructureTools;
 import org.biojava.nbio.structure.align.util.AtomCache;
+import org.biojava.nbio.structure.chem.ChemCompGroupFactory;
+import org.biojava.nbio.structure.chem.ChemCompProvider;
+import org.biojava.nbio.structure.chem.ReducedChemCompProvider;
+import org.biojava.nbio.structure.io.cif.CifStructureConverter;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -118,4 +129,85 @@ public class TestSecStrucCalc {
 					biojava.get(i), dssp.get(i));
 		}
 	}
+
+	/**
+	 * Test that the frames API gives the same assignment as calculating
+	 * each frame as a Structure, for frames with moving atoms.
+	 */
+	@Test
+	public void testFramesSameAsStructures() throws StructureException, IOException {
+		ChemCompProvider provider = ChemCompGroupFactory.getChemCompProvider();
+		ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
+		Structure structure;
+		try (InputStream in = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.cif.gz"))) {
+			structure = CifStructureConverter.fromInputStream(in);
+		} finally {
+			ChemCompGroupFactory.setChemCompProvider(provider);
+		}
+
+		// the original DSSP assignment for the topology itself
+		List<SecStrucState> dssp = DSSPParser.parseInputStream(new GZIPInputStream(
+				this.getClass().getResourceAsStream("/org/biojava/nbio/structure/secstruc/4hhb.dssp.gz")), structure, false);
+
+		// a random walk of the atoms: the neighbor lists are reused for some frames, then rebuilt
+		Atom[] atoms = StructureTools.getAllAtomArray(structure);
+		double[] coords = new double[3 * atoms.length];
+		for (int i = 0; i < atoms.length; i++) {
+			coords[3 * i] = atoms[i].getX();
+			coords[3 * i + 1] = atoms[i].getY();
+			coords[3 * i + 2] = atoms[i].getZ();
+		}
+		Random random = new Random(42);
+		List<double[]> frames = new ArrayList<>();
+		for (int f = 0; f < 40; f++) {
+			frames.add(coords.clone());
+			for (int i = 0; i < coords.length; i++) {
+				coords[i] += (random.nextDouble() - 0.5) * 0.1;
+			}
+		}
+
+		SecStrucCalc sec = new SecStrucCalc();
+		List<List<SecStrucState>> sequential = sec.calculateFrames(structure, frames, null);
+		List<List<SecStrucState>> parallel;
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			parallel = sec.calculateFrames(structure, frames, executor);
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(frames.size(), sequential.size());
+		assertEquals(frames.size(), parallel.size());
+
+		for (int i = 0; i < dssp.size(); i++) {
+			assertEquals("SS assignment position " + (i + 1) + " does not match",
+					dssp.get(i), sequential.get(0).get(i));
+		}
+
+		for (int f = 0; f < frames.size(); f++) {
+			double[] frame = frames.get(f);
+			for (int i = 0; i < atoms.length; i++) {
+				atoms[i].setX(frame[3 * i]);
+				atoms[i].setY(frame[3 * i + 1]);
+				atoms[i].setZ(frame[3 * i + 2]);
+			}
+			List<SecStrucState> expected = new SecStrucCalc().calculate(structure, false);
+			assertEquals(expected.size(), sequential.get(f).size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertSameState(expected.get(i), sequential.get(f).get(i));
+				assertSameState(expected.get(i), parallel.get(f).get(i));
+			}
+		}
+	}
+
+	private static void assertSameState(SecStrucState expected, SecStrucState actual) {
+		assertEquals(expected.getType(), actual.getType());
+		assertEquals(expected.getPhi(), actual.getPhi(), 0);
+		assertEquals(expected.getPsi(), actual.getPsi(), 0);
+		assertEquals(expected.getKappa(), actual.getKappa(), 0);
+		assertEquals(expected.getAccept1().getPartner(), actual.getAccept1().getPartner());
+		assertEquals(expected.getAccept1().getEnergy(), actual.getAccept1().getEnergy(), 0);
+		assertEquals(expected.getDonor1().getPartner(), actual.getDonor1().getPartner());
+		assertEquals(expected.getDonor2().getEnergy(), actual.getDonor2().getEnergy(), 0);
+		assertArrayEquals(expected.getTurn(), actual.getTurn());
+	}
 }
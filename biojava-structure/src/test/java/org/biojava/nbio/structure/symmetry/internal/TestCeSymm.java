@@ -28,6 +28,7 @@ import org.biojava.nbio.structure.Atom;
 import org.biojava.nbio.structure.Structure;
 import org.biojava.nbio.structure.StructureException;
 import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.align.multiple.util.MultipleAlignmentScorer;
 import org.biojava.nbio.structure.symmetry.internal.CeSymm;
 import org.junit.Test;
 
@@ -58,4 +59,32 @@ public class TestCeSymm {
 			assertEquals(result.getNumRepeats(), orders[i]);
 		}
 	}
+
+	/**
+	 * Several optimization trajectories find the same symmetry, and are
+	 * reproducible without early stopping.
+	 */
+	@Test
+	public void testOptimizationTrajectories() throws IOException, StructureException {
+
+		Structure s = StructureTools.getStructure("1hiv.A");
+		Atom[] atoms = StructureTools.getRepresentativeAtomArray(s);
+
+		CESymmParameters params = new CESymmParameters();
+		params.setRndSeed(0);
+		params.setOptimizationTrajectories(3);
+
+		CeSymmResult result = CeSymm.analyze(atoms, params);
+		assertTrue(result.isSignificant());
+		assertEquals(2, result.getNumRepeats());
+
+		CeSymmResult repeated = CeSymm.analyze(atoms, params);
+		assertEquals(result.getMultipleAlignment().getScore(MultipleAlignmentScorer.MC_SCORE),
+				repeated.getMultipleAlignment().getScore(MultipleAlignmentScorer.MC_SCORE), 1e-6);
+
+		params.setEarlyStop(true);
+		CeSymmResult stopped = CeSymm.analyze(atoms, params);
+		assertTrue(stopped.isSignificant());
+		assertEquals(2, stopped.getNumRepeats());
+	}
 }
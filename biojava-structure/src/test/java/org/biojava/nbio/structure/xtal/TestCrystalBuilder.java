@@ -0,0 +1,89 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.xtal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.chem.ChemCompGroupFactory;
+import org.biojava.nbio.structure.chem.ChemCompProvider;
+import org.biojava.nbio.structure.chem.ReducedChemCompProvider;
+import org.biojava.nbio.structure.contact.StructureInterface;
+import org.biojava.nbio.structure.contact.StructureInterfaceList;
+import org.biojava.nbio.structure.io.PDBFileReader;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestCrystalBuilder {
+
+	private static ChemCompProvider provider;
+	private static Structure structure;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		// only use the bundled chemical components, so that the test runs offline
+		provider = ChemCompGroupFactory.getChemCompProvider();
+		ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
+		structure = new PDBFileReader().getStructure("src/test/resources/2gox.pdb");
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		ChemCompGroupFactory.setChemCompProvider(provider);
+	}
+
+	@Test
+	public void testParallelSameAsSequential() {
+		CrystalBuilder sequential = new CrystalBuilder(structure);
+		sequential.setExecutorService(null);
+		StructureInterfaceList expected = sequential.getUniqueInterfaces();
+
+		// 2gox (P 41, 4 chains in the AU) has interfaces within the AU and to symmetry mates
+		assertEquals(9, expected.size());
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (int run = 0; run < 3; run++) {
+				CrystalBuilder parallel = new CrystalBuilder(structure);
+				parallel.setExecutorService(executor);
+				assertSameInterfaces(expected, parallel.getUniqueInterfaces());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static void assertSameInterfaces(StructureInterfaceList expected, StructureInterfaceList actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			StructureInterface e = expected.getList().get(i);
+			StructureInterface a = actual.getList().get(i);
+			assertEquals(e.getMoleculeIds(), a.getMoleculeIds());
+			assertEquals(e.getTransforms().getSecond().toString(), a.getTransforms().getSecond().toString());
+			assertEquals(e.getContacts().size(), a.getContacts().size());
+		}
+	}
+}